@@ -0,0 +1,28 @@
+package com.postage.postagecomparator.api;
+
+import com.postage.postagecomparator.provider.CarrierMetrics;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics/carriers")
+public class CarrierMetricsController {
+
+    private final CarrierMetrics carrierMetrics;
+
+    public CarrierMetricsController(CarrierMetrics carrierMetrics) {
+        this.carrierMetrics = carrierMetrics;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, CarrierMetrics.CarrierStats>> carriers() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(carrierMetrics.snapshot());
+    }
+}
@@ -0,0 +1,81 @@
+package com.postage.postagecomparator.api;
+
+import com.postage.postagecomparator.model.ImportResult;
+import com.postage.postagecomparator.service.CatalogTransferFormat;
+import com.postage.postagecomparator.service.CatalogTransferService;
+import com.postage.postagecomparator.service.ItemService;
+import com.postage.postagecomparator.service.PackagingService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+
+/**
+ * Bulk import and export of the item and packaging catalogs as NDJSON or CSV.
+ *
+ * Imports upsert by name and are persisted with a single write; exports stream the current
+ * catalog. The export format is chosen with {@code ?format=ndjson|csv} (default NDJSON).
+ */
+@RestController
+@RequestMapping("/api")
+public class CatalogTransferController {
+
+    private final ItemService itemService;
+    private final PackagingService packagingService;
+    private final CatalogTransferService transferService;
+
+    public CatalogTransferController(ItemService itemService,
+                                     PackagingService packagingService,
+                                     CatalogTransferService transferService) {
+        this.itemService = itemService;
+        this.packagingService = packagingService;
+        this.transferService = transferService;
+    }
+
+    @PostMapping(value = "/items:import",
+            consumes = {CatalogTransferFormat.NDJSON_VALUE, CatalogTransferFormat.CSV_VALUE})
+    public ImportResult importItems(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                    InputStream body) {
+        var format = CatalogTransferFormat.fromMediaType(contentType);
+        return itemService.importAll(transferService.readItems(body, format));
+    }
+
+    @GetMapping("/items:export")
+    public ResponseEntity<StreamingResponseBody> exportItems(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        var transferFormat = CatalogTransferFormat.fromName(format);
+        var items = itemService.findAll();
+        return attachment("items", transferFormat,
+                out -> transferService.writeItems(out, transferFormat, items));
+    }
+
+    @PostMapping(value = "/packaging:import",
+            consumes = {CatalogTransferFormat.NDJSON_VALUE, CatalogTransferFormat.CSV_VALUE})
+    public ImportResult importPackagings(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                         InputStream body) {
+        var format = CatalogTransferFormat.fromMediaType(contentType);
+        return packagingService.importAll(transferService.readPackagings(body, format));
+    }
+
+    @GetMapping("/packaging:export")
+    public ResponseEntity<StreamingResponseBody> exportPackagings(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        var transferFormat = CatalogTransferFormat.fromName(format);
+        var packagings = packagingService.findAll();
+        return attachment("packagings", transferFormat,
+                out -> transferService.writePackagings(out, transferFormat, packagings));
+    }
+
+    private ResponseEntity<StreamingResponseBody> attachment(String name,
+                                                             CatalogTransferFormat format,
+                                                             StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + format.fileExtension() + "\"")
+                .body(body);
+    }
+}
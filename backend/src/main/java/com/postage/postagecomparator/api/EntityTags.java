@@ -0,0 +1,42 @@
+package com.postage.postagecomparator.api;
+
+import com.postage.postagecomparator.exception.BadRequestException;
+import com.postage.postagecomparator.exception.PreconditionFailedException;
+import com.postage.postagecomparator.model.CatalogEntry;
+
+/**
+ * Entity tags for single catalog entries: the quoted entry version, e.g. {@code "3"}.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(CatalogEntry entry) {
+        return "\"" + entry.version() + "\"";
+    }
+
+    /**
+     * @param ifMatch the {@code If-Match} header, may be null
+     * @return the version the client expects to replace, or null when the update is unconditional
+     * (no header or {@code *})
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        var tag = ifMatch.trim();
+        if (tag.contains(",")) {
+            throw new BadRequestException("If-Match must contain a single entity tag");
+        }
+        // Weak tags never match under the strong comparison If-Match requires
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match " + tag + " does not match the current version");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match " + tag + " does not match the current version");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.postage.postagecomparator.api;
 
 import com.postage.postagecomparator.exception.BadRequestException;
 import com.postage.postagecomparator.exception.NotFoundException;
+import com.postage.postagecomparator.exception.PreconditionFailedException;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -133,4 +134,17 @@ public class GlobalExceptionHandler {
         
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, Object>> handlePreconditionFailed(PreconditionFailedException ex) {
+        var errorDetails = new HashMap<String, Object>();
+        errorDetails.put("code", "PRECONDITION_FAILED");
+        errorDetails.put("message", ex.getMessage() != null ? ex.getMessage() : "Precondition failed");
+        errorDetails.put("timestamp", Instant.now().toString());
+
+        var errorResponse = new HashMap<String, Object>();
+        errorResponse.put("error", errorDetails);
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
 }
@@ -1,10 +1,16 @@
 package com.postage.postagecomparator.api;
 
 import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.ItemPage;
+import com.postage.postagecomparator.model.ItemPatch;
+import com.postage.postagecomparator.model.ItemPatchResult;
 import com.postage.postagecomparator.service.ItemService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,28 +24,74 @@ public class ItemController {
         this.itemService = itemService;
     }
 
+    /**
+     * Catalog reads carry the catalog version as a strong ETag; when {@code If-None-Match} still
+     * matches, {@link WebRequest#checkNotModified} answers 304 before anything is loaded or
+     * serialized.
+     */
     @GetMapping
-    public List<Item> list() {
-        return itemService.findAll();
+    public ResponseEntity<List<Item>> list(WebRequest request) {
+        if (request.checkNotModified(itemService.version())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(itemService.findAll());
+    }
+
+    /**
+     * Paged listing; selected when the request carries a {@code limit} so that the plain
+     * {@code GET /api/items} keeps returning the full array.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<ItemPage> page(@RequestParam int limit,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "name") String sort,
+                                         @RequestParam(required = false) String prefix,
+                                         @RequestParam(required = false) String q,
+                                         WebRequest request) {
+        if (request.checkNotModified(itemService.version())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(itemService.findPage(prefix, q, sort, cursor, limit));
     }
 
     @PostMapping
     public ResponseEntity<Item> create(@RequestBody @Valid Item item) {
         Item created = itemService.create(item);
-        return ResponseEntity.status(201).body(created);
+        return ResponseEntity.status(201).eTag(EntityTags.of(created)).body(created);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Item> get(@PathVariable String id) {
-        return itemService.findById(id)
-                .map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Item> get(@PathVariable String id, WebRequest request) {
+        var item = itemService.findById(id);
+        if (item.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Single entries are tagged with their own version, which is also what If-Match expects
+        if (request.checkNotModified(EntityTags.of(item.get()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(item.get());
     }
 
+    /**
+     * With {@code If-Match: "<version>"} the update only applies if the stored version still
+     * matches; otherwise the response is 412 and nothing changes.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Item> update(@PathVariable String id, @RequestBody @Valid Item item) {
-        Item updated = itemService.update(id, item);
-        return ResponseEntity.ok(updated);
+    public ResponseEntity<Item> update(@PathVariable String id,
+                                       @RequestBody @Valid Item item,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Item updated = itemService.update(id, item, EntityTags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(updated)).body(updated);
+    }
+
+    /**
+     * Bulk updates and deletes, applied all together or not at all with a single write.
+     */
+    @PatchMapping
+    public ResponseEntity<ItemPatchResult> patch(@RequestBody List<ItemPatch> patches) {
+        return ResponseEntity.ok(itemService.patch(patches));
     }
 
     @DeleteMapping("/{id}")
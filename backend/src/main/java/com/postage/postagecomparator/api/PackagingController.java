@@ -3,8 +3,11 @@ package com.postage.postagecomparator.api;
 import com.postage.postagecomparator.model.Packaging;
 import com.postage.postagecomparator.service.PackagingService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,28 +21,46 @@ public class PackagingController {
         this.packagingService = packagingService;
     }
 
+    /**
+     * Reads are conditional on the packaging catalog version; see {@link ItemController#list}.
+     */
     @GetMapping
-    public List<Packaging> list() {
-        return packagingService.findAll();
+    public ResponseEntity<List<Packaging>> list(WebRequest request) {
+        if (request.checkNotModified(packagingService.version())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(packagingService.findAll());
     }
 
     @PostMapping
     public ResponseEntity<Packaging> create(@RequestBody @Valid Packaging packaging) {
         Packaging created = packagingService.create(packaging);
-        return ResponseEntity.status(201).body(created);
+        return ResponseEntity.status(201).eTag(EntityTags.of(created)).body(created);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Packaging> get(@PathVariable String id) {
-        return packagingService.findById(id)
-                .map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Packaging> get(@PathVariable String id, WebRequest request) {
+        var packaging = packagingService.findById(id);
+        if (packaging.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Single entries are tagged with their own version, which is also what If-Match expects
+        if (request.checkNotModified(EntityTags.of(packaging.get()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(packaging.get());
     }
 
+    /**
+     * With {@code If-Match: "<version>"} the update only applies if the stored version still
+     * matches; otherwise the response is 412 and nothing changes.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Packaging> update(@PathVariable String id, @RequestBody @Valid Packaging packaging) {
-        Packaging updated = packagingService.update(id, packaging);
-        return ResponseEntity.ok(updated);
+    public ResponseEntity<Packaging> update(@PathVariable String id,
+                                            @RequestBody @Valid Packaging packaging,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Packaging updated = packagingService.update(id, packaging, EntityTags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(updated)).body(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,36 @@
+package com.postage.postagecomparator.api;
+
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Readiness probe for load balancers: 200 once startup, including the storage warm-up, has
+ * finished, 503 before then.
+ */
+@RestController
+@RequestMapping("/api/ready")
+public class ReadinessController {
+
+    private final ApplicationAvailability availability;
+
+    public ReadinessController(ApplicationAvailability availability) {
+        this.availability = availability;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, String>> ready() {
+        var state = availability.getReadinessState();
+        var status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+                .cacheControl(CacheControl.noStore())
+                .body(Map.of("status", state.name()));
+    }
+}
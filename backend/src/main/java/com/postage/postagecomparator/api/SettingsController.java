@@ -4,12 +4,17 @@ import com.postage.postagecomparator.model.OriginSettings;
 import com.postage.postagecomparator.model.ThemePreferenceRequest;
 import com.postage.postagecomparator.service.SettingsService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/settings")
@@ -21,13 +26,19 @@ public class SettingsController {
         this.settingsService = settingsService;
     }
 
+    /**
+     * Conditional on the settings version; see {@link ItemController#list}.
+     */
     @GetMapping("/origin")
-    public ResponseEntity<OriginSettings> getOrigin() {
+    public ResponseEntity<OriginSettings> getOrigin(WebRequest request) {
+        if (request.checkNotModified(settingsService.getOriginSettingsVersion())) {
+            return null;
+        }
         OriginSettings origin = settingsService.getOriginSettings();
         if (origin == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(origin);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(origin);
     }
 
     @PutMapping("/origin")
@@ -36,6 +47,11 @@ public class SettingsController {
         return ResponseEntity.ok(updated);
     }
 
+    @PostMapping("/credentials/reload")
+    public ResponseEntity<Map<String, Boolean>> reloadCredentials() {
+        return ResponseEntity.ok(settingsService.reloadCarrierCredentials());
+    }
+
     @PutMapping("/theme")
     public ResponseEntity<OriginSettings> updateTheme(@RequestBody @Valid ThemePreferenceRequest request) {
         OriginSettings updated = settingsService.updateThemePreference(request.themePreference());
@@ -0,0 +1,114 @@
+package com.postage.postagecomparator.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.storage.TenantContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Selects the tenant for a request from a {@code /t/<tenant>} path prefix (stripped before
+ * dispatch, so {@code /t/acme/api/items} is served by the {@code /api/items} handler) or from the
+ * tenant header. Requests with neither use the default data directory.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    private static final Pattern PATH_PREFIX = Pattern.compile("/t/([^/]+)(/.*)");
+
+    private final String header;
+    private final ObjectMapper objectMapper;
+
+    public TenantFilter(String header, ObjectMapper objectMapper) {
+        this.header = header;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        var target = request;
+        String tenant = null;
+        var matcher = PATH_PREFIX.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+        if (matcher.matches()) {
+            tenant = matcher.group(1);
+            target = new PrefixStrippedRequest(request, matcher.group(2));
+        }
+        var headerTenant = request.getHeader(header);
+        if (headerTenant != null && !headerTenant.isBlank()) {
+            if (tenant != null && !tenant.equals(headerTenant)) {
+                reject(response, "Tenant in path (" + tenant + ") and " + header + " header (" + headerTenant
+                        + ") differ");
+                return;
+            }
+            tenant = headerTenant;
+        }
+        if (tenant == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!TenantContext.isValid(tenant)) {
+            reject(response, "Tenant id must be 1-63 lower-case letters, digits, '-' or '_'");
+            return;
+        }
+        try (var scope = TenantContext.enter(tenant)) {
+            filterChain.doFilter(target, response);
+        }
+    }
+
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", Map.of(
+                "code", "BAD_REQUEST",
+                "message", message,
+                "timestamp", Instant.now().toString())));
+    }
+
+    /**
+     * The request as if it had been made without the tenant prefix.
+     */
+    private static final class PrefixStrippedRequest extends HttpServletRequestWrapper {
+
+        private final String path;
+
+        private PrefixStrippedRequest(HttpServletRequest request, String path) {
+            super(request);
+            this.path = path;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return getContextPath() + path;
+        }
+
+        @Override
+        public StringBuffer getRequestURL() {
+            var url = new StringBuffer(getScheme()).append("://").append(getServerName());
+            if (getServerPort() > 0) {
+                url.append(':').append(getServerPort());
+            }
+            return url.append(getRequestURI());
+        }
+
+        @Override
+        public String getServletPath() {
+            return path;
+        }
+
+        @Override
+        public String getPathInfo() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.postage.postagecomparator.config;
+
+import com.postage.postagecomparator.provider.CarrierMetrics;
+import com.postage.postagecomparator.provider.CarrierTimeoutException;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.handler.ssl.SslHandshakeTimeoutException;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Builds the HTTP connector behind each carrier's {@code WebClient}, each with its own named
+ * connection pool sized by {@link ProviderConfig.Pool}, so a slow or busy carrier can only exhaust
+ * its own connections. Pool gauges are published to {@link CarrierMetrics}.
+ *
+ * The connect, TLS handshake and response limits of {@link ProviderConfig.Timeouts} are enforced
+ * by Netty on the connection; the total limit is a deadline on the whole exchange, body included.
+ * A call exceeding any of them fails with a {@link CarrierTimeoutException}. Within the total
+ * limit, transient failures are retried by a {@link CarrierRetryFilter}, and every attempt is
+ * held to the provider's rate limit by a {@link CarrierRateLimitFilter}.
+ */
+@Component
+public class CarrierHttpConnectors implements DisposableBean {
+
+    /**
+     * Request attribute holding the {@link System#nanoTime()} by which the call must end.
+     */
+    static final String DEADLINE = CarrierHttpConnectors.class.getName() + ".DEADLINE";
+
+    private final ProviderConfig providerConfig;
+    private final CarrierMetrics carrierMetrics;
+    private final List<ConnectionProvider> pools = new CopyOnWriteArrayList<>();
+
+    public CarrierHttpConnectors(ProviderConfig providerConfig, CarrierMetrics carrierMetrics) {
+        this.providerConfig = providerConfig;
+        this.carrierMetrics = carrierMetrics;
+    }
+
+    /**
+     * Applies the provider's connector, call deadline, retries and rate limit to a {@code WebClient}
+     * builder.
+     *
+     * @param provider provider name, as in {@code providers.providers.<name>}
+     */
+    public Consumer<WebClient.Builder> customizer(String provider) {
+        var timeouts = providerConfig.getTimeouts(provider);
+        // Retries run inside the deadline, which counts the call's outcome once, whatever its attempts
+        return builder -> builder
+                .clientConnector(connector(provider))
+                .filter(deadline(provider, timeouts))
+                .filter(new CarrierRetryFilter(provider, providerConfig.getRetry(provider), timeouts.total(),
+                        carrierMetrics))
+                .filter(new CarrierRateLimitFilter(provider, providerConfig.getRateLimit(provider), carrierMetrics));
+    }
+
+    /**
+     * @param provider provider name, as in {@code providers.providers.<name>}
+     */
+    public ClientHttpConnector connector(String provider) {
+        var settings = providerConfig.getPool(provider);
+        var timeouts = providerConfig.getTimeouts(provider);
+        var pool = ConnectionProvider.builder(provider)
+                .maxConnections(settings.maxConnections())
+                .pendingAcquireMaxCount(settings.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(settings.pendingAcquireTimeout())
+                .maxIdleTime(settings.maxIdleTime())
+                .maxLifeTime(settings.maxLifeTime())
+                .evictInBackground(settings.evictionInterval())
+                .metrics(true, carrierMetrics::poolRegistrar)
+                .build();
+        pools.add(pool);
+        // The TLS settings only apply to https URLs
+        var client = HttpClient.create(pool)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(timeouts.connect().toMillis()))
+                .secure(spec -> spec.sslContext(Http11SslContextSpec.forClient())
+                        .handshakeTimeout(timeouts.tlsHandshake()))
+                .responseTimeout(timeouts.response());
+        return new ReactorClientHttpConnector(client);
+    }
+
+    /**
+     * Fails calls still running after {@code timeouts.total()}, maps every timeout to a
+     * {@link CarrierTimeoutException} and counts each call's outcome once it ends.
+     */
+    private ExchangeFilterFunction deadline(String provider, ProviderConfig.Timeouts timeouts) {
+        return (request, next) -> {
+            long deadline = System.nanoTime() + timeouts.total().toNanos();
+            Mono<Long> expiry = Mono.defer(() ->
+                    Mono.delay(Duration.ofNanos(Math.max(0, deadline - System.nanoTime()))));
+            // WebClient subscribes to the body again to release it, so only the first end counts
+            var counted = new AtomicBoolean();
+            return next.exchange(ClientRequest.from(request).attribute(DEADLINE, deadline).build())
+                    .timeout(expiry)
+                    .onErrorMap(error -> toTimeout(provider, error))
+                    .doOnError(error -> recordFailure(provider, error, counted))
+                    .map(response -> response.mutate()
+                            .body(body -> body
+                                    .timeout(expiry, chunk -> expiry)
+                                    .onErrorMap(error -> toTimeout(provider, error))
+                                    .doOnError(error -> recordFailure(provider, error, counted))
+                                    .doOnComplete(() -> {
+                                        if (!counted.compareAndSet(false, true)) {
+                                            return;
+                                        }
+                                        if (response.statusCode().is2xxSuccessful()) {
+                                            carrierMetrics.recordSuccess(provider);
+                                        } else {
+                                            carrierMetrics.recordFailure(provider);
+                                        }
+                                    }))
+                            .build());
+        };
+    }
+
+    private void recordFailure(String provider, Throwable error, AtomicBoolean counted) {
+        if (!counted.compareAndSet(false, true)) {
+            return;
+        }
+        if (error instanceof CarrierTimeoutException timeout) {
+            carrierMetrics.recordTimeout(provider, timeout.getPhase());
+        } else {
+            carrierMetrics.recordFailure(provider);
+        }
+    }
+
+    /**
+     * {@code error} as a {@link CarrierTimeoutException} if it, or one of its causes, is a timeout.
+     */
+    private Throwable toTimeout(String provider, Throwable error) {
+        var timeouts = providerConfig.getTimeouts(provider);
+        for (var cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CarrierTimeoutException) {
+                return error;
+            }
+            // Reactor Netty shades reactor-pool, so match the pool's exception by name
+            if (cause.getClass().getSimpleName().equals("PoolAcquireTimeoutException")) {
+                return new CarrierTimeoutException(provider, CarrierTimeoutException.Phase.POOL_ACQUIRE,
+                        providerConfig.getPool(provider).pendingAcquireTimeout(), error);
+            }
+            if (cause instanceof ConnectTimeoutException) {
+                return new CarrierTimeoutException(provider, CarrierTimeoutException.Phase.CONNECT,
+                        timeouts.connect(), error);
+            }
+            if (cause instanceof SslHandshakeTimeoutException) {
+                return new CarrierTimeoutException(provider, CarrierTimeoutException.Phase.TLS_HANDSHAKE,
+                        timeouts.tlsHandshake(), error);
+            }
+            if (cause instanceof ReadTimeoutException) {
+                return new CarrierTimeoutException(provider, CarrierTimeoutException.Phase.RESPONSE,
+                        timeouts.response(), error);
+            }
+            if (cause instanceof TimeoutException) {
+                return new CarrierTimeoutException(provider, CarrierTimeoutException.Phase.TOTAL,
+                        timeouts.total(), error);
+            }
+        }
+        return error;
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(ConnectionProvider::dispose);
+    }
+}
@@ -0,0 +1,148 @@
+package com.postage.postagecomparator.config;
+
+import com.postage.postagecomparator.provider.CarrierMetrics;
+import com.postage.postagecomparator.provider.CarrierRateLimitedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Holds each attempt at a provider's calls to {@link ProviderConfig.RateLimit}, and pauses them
+ * for the {@code Retry-After} of a 429.
+ *
+ * An attempt that would wait longer than {@code maxWait}, or past the deadline that
+ * {@link CarrierHttpConnectors} sets for the call, is not sent; it fails at once with a
+ * {@link CarrierRateLimitedException} so the quote can fall back to rules within its budget.
+ */
+final class CarrierRateLimitFilter implements ExchangeFilterFunction {
+
+    // Pause after a 429 that does not say how long to wait
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final String provider;
+    private final ProviderConfig.RateLimit rateLimit;
+    private final CarrierMetrics carrierMetrics;
+    private final Bucket bucket;
+
+    CarrierRateLimitFilter(String provider, ProviderConfig.RateLimit rateLimit, CarrierMetrics carrierMetrics) {
+        this.provider = provider;
+        this.rateLimit = rateLimit;
+        this.carrierMetrics = carrierMetrics;
+        this.bucket = new Bucket(rateLimit, System.nanoTime());
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            long maxWait = rateLimit.maxWait().toNanos();
+            var deadline = request.attribute(CarrierHttpConnectors.DEADLINE);
+            if (deadline.isPresent()) {
+                maxWait = Math.min(maxWait, (Long) deadline.get() - now);
+            }
+            long wait = bucket.reserve(now, maxWait);
+            if (wait < 0) {
+                carrierMetrics.recordRateLimited(provider);
+                return Mono.error(new CarrierRateLimitedException(provider, Duration.ofNanos(-wait)));
+            }
+            Mono<ClientResponse> exchange = next.exchange(request).doOnNext(this::onResponse);
+            if (wait == 0) {
+                return exchange;
+            }
+            carrierMetrics.recordRateLimitWait(provider);
+            return Mono.delay(Duration.ofNanos(wait)).then(exchange);
+        });
+    }
+
+    private void onResponse(ClientResponse response) {
+        if (response.statusCode().value() == 429) {
+            String retryAfter = response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+            bucket.pause(System.nanoTime(), retryAfter(retryAfter, Instant.now()));
+        }
+    }
+
+    /**
+     * @param value {@code Retry-After} in seconds or as an HTTP date, or null
+     */
+    static Duration retryAfter(String value, Instant now) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            // Not seconds, so an HTTP date
+        }
+        try {
+            var until = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return until.isAfter(now) ? Duration.between(now, until) : Duration.ZERO;
+        } catch (DateTimeParseException e) {
+            return DEFAULT_RETRY_AFTER;
+        }
+    }
+
+    /**
+     * Token bucket that hands out tokens ahead of time: a caller that reserves one while the bucket
+     * is empty waits until it would have refilled. Without a rate, only pauses hold calls back.
+     */
+    private static final class Bucket {
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+        private long pausedUntil;
+
+        Bucket(ProviderConfig.RateLimit rateLimit, long now) {
+            this.tokensPerNano = rateLimit.requestsPerSecond() / 1e9;
+            this.capacity = rateLimit.burst();
+            this.tokens = capacity;
+            this.refilledAt = now;
+            this.pausedUntil = now;
+        }
+
+        /**
+         * @return how long the caller must wait before sending, or, negated, how long it would
+         *         have had to wait when that is more than {@code maxWait}
+         */
+        synchronized long reserve(long now, long maxWait) {
+            refill(now);
+            long wait = Math.max(0, pausedUntil - now);
+            if (tokensPerNano > 0 && tokens < 1) {
+                long tokenAt = Math.max(now, refilledAt) + (long) Math.ceil((1 - tokens) / tokensPerNano);
+                wait = Math.max(wait, tokenAt - now);
+            }
+            if (wait > maxWait) {
+                return -Math.max(1, wait);
+            }
+            if (tokensPerNano > 0) {
+                tokens -= 1;
+            }
+            return wait;
+        }
+
+        synchronized void pause(long now, Duration retryAfter) {
+            refill(now);
+            pausedUntil = Math.max(pausedUntil, now + retryAfter.toNanos());
+            // Calls resume at the sustained rate rather than in a burst
+            tokens = Math.min(tokens, 0);
+            refilledAt = Math.max(refilledAt, pausedUntil);
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.postage.postagecomparator.config;
+
+import com.postage.postagecomparator.provider.CarrierMetrics;
+import io.netty.channel.ConnectTimeoutException;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries a provider's calls that failed transiently, as set by {@link ProviderConfig.Retry}.
+ *
+ * A call that could not connect, or was answered with a 429, was not processed, so it is always
+ * retried; the {@link CarrierRateLimitFilter} then holds the retry to the 429's
+ * {@code Retry-After}. Calls that may have reached the carrier, ending in a reset connection or a
+ * 502, 503 or 504, are only retried when sending them twice is harmless: {@code GET} and the other
+ * idempotent methods, and requests marked with the {@link #IDEMPOTENT} attribute, such as the
+ * {@code POST}s that only ask for rates.
+ */
+public final class CarrierRetryFilter implements ExchangeFilterFunction {
+
+    /**
+     * Request attribute marking a non-idempotent method as safe to send again.
+     */
+    public static final String IDEMPOTENT = CarrierRetryFilter.class.getName() + ".IDEMPOTENT";
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(
+            HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.TRACE);
+    private static final Set<Integer> RETRY_STATUSES = Set.of(502, 503, 504);
+
+    private final String provider;
+    private final ProviderConfig.Retry retry;
+    private final Duration total;
+    private final CarrierMetrics carrierMetrics;
+    private final Budget budget;
+
+    CarrierRetryFilter(String provider, ProviderConfig.Retry retry, Duration total, CarrierMetrics carrierMetrics) {
+        this.provider = provider;
+        this.retry = retry;
+        this.total = total;
+        this.carrierMetrics = carrierMetrics;
+        this.budget = new Budget(retry.budgetRatio(), retry.budgetCapacity());
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        boolean idempotent = IDEMPOTENT_METHODS.contains(request.method())
+                || Boolean.TRUE.equals(request.attribute(IDEMPOTENT).orElse(null));
+        return Mono.defer(() -> {
+            budget.deposit();
+            long deadline = request.attribute(CarrierHttpConnectors.DEADLINE)
+                    .map(Long.class::cast)
+                    .orElseGet(() -> System.nanoTime() + total.toNanos());
+            return attempt(request, next, idempotent, deadline, 1);
+        });
+    }
+
+    private Mono<ClientResponse> attempt(ClientRequest request, ExchangeFunction next, boolean idempotent,
+                                         long deadline, int attempt) {
+        return next.exchange(request)
+                .map(Outcome::response)
+                .onErrorResume(error -> Mono.just(Outcome.error(error)))
+                .flatMap(outcome -> {
+                    Duration backoff = isTransient(outcome, idempotent) ? backoff(attempt, deadline) : null;
+                    if (backoff == null) {
+                        return outcome.error() != null ? Mono.error(outcome.error()) : Mono.just(outcome.response());
+                    }
+                    carrierMetrics.recordRetry(provider);
+                    Mono<Void> release = outcome.response() != null ? outcome.response().releaseBody() : Mono.empty();
+                    return release
+                            .then(Mono.delay(backoff))
+                            .then(Mono.defer(() -> attempt(request, next, idempotent, deadline, attempt + 1)));
+                });
+    }
+
+    private static boolean isTransient(Outcome outcome, boolean idempotent) {
+        if (outcome.response() != null) {
+            int status = outcome.response().statusCode().value();
+            return status == 429 || idempotent && RETRY_STATUSES.contains(status);
+        }
+        for (var cause = outcome.error(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException) {
+                return true;
+            }
+            // A reset or prematurely closed connection; timeouts are not IOExceptions
+            if (cause instanceof IOException) {
+                return idempotent;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return how long to wait before the next attempt, or null when no retry is left, the budget
+     *         is spent, or the wait would run past the call's deadline
+     */
+    private Duration backoff(int attempt, long deadline) {
+        if (attempt >= retry.maxAttempts()) {
+            return null;
+        }
+        long ceiling = Math.min(retry.maxBackoff().toNanos(),
+                retry.initialBackoff().toNanos() << Math.min(attempt - 1, 30));
+        long backoff = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (System.nanoTime() + backoff >= deadline) {
+            return null;
+        }
+        if (!budget.withdraw()) {
+            carrierMetrics.recordRetryDenied(provider);
+            return null;
+        }
+        return Duration.ofNanos(backoff);
+    }
+
+    private record Outcome(ClientResponse response, Throwable error) {
+
+        static Outcome response(ClientResponse response) {
+            return new Outcome(response, null);
+        }
+
+        static Outcome error(Throwable error) {
+            return new Outcome(null, error);
+        }
+    }
+
+    /**
+     * Token bucket of retries: each call adds {@code ratio} tokens, up to {@code capacity}, and
+     * each retry takes one. It starts full.
+     */
+    private static final class Budget {
+
+        private final double ratio;
+        private final double capacity;
+        private double tokens;
+
+        Budget(double ratio, int capacity) {
+            this.ratio = ratio;
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        synchronized void deposit() {
+            tokens = Math.min(capacity, tokens + ratio);
+        }
+
+        synchronized boolean withdraw() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
@@ -14,6 +14,8 @@ import org.springframework.web.reactive.function.client.WebClient;
  * Authentication headers (API keys) and any per-request headers should be added
  * by the calling services, or this config can be extended later to apply them
  * globally.
+ *
+ * Each client has its own connection pool and timeouts (see {@link CarrierHttpConnectors}).
  */
 @Configuration
 public class CarrierWebClientConfig {
@@ -24,9 +26,10 @@ public class CarrierWebClientConfig {
      */
     @Bean
     @Qualifier("ausPostWebClient")
-    public WebClient ausPostWebClient(WebClient.Builder builder) {
+    public WebClient ausPostWebClient(WebClient.Builder builder, CarrierHttpConnectors connectors) {
         return builder
                 .baseUrl("https://digitalapi.auspost.com.au")
+                .apply(connectors.customizer("auspost"))
                 .build();
     }
 
@@ -37,13 +40,14 @@ public class CarrierWebClientConfig {
      */
     @Bean
     @Qualifier("shipStationWebClient")
-    public WebClient shipStationWebClient(WebClient.Builder builder) {
+    public WebClient shipStationWebClient(WebClient.Builder builder, CarrierHttpConnectors connectors) {
         var appMode = System.getenv("APP_MODE");
         String url = (appMode != null && appMode.equalsIgnoreCase("sandbox"))
                 ? "https://docs.shipstation.com/_mock/openapi"
                 : "https://api.shipstation.com";
         return builder
                 .baseUrl(url)
+                .apply(connectors.customizer("shipstation"))
                 .build();
     }
 
@@ -74,13 +78,14 @@ public class CarrierWebClientConfig {
     
     @Bean
     @Qualifier("shippitWebClient")
-    public WebClient shippitWebClient(WebClient.Builder builder) {
+    public WebClient shippitWebClient(WebClient.Builder builder, CarrierHttpConnectors connectors) {
         var appMode = System.getenv("APP_MODE");
         String url = (appMode != null && appMode.equalsIgnoreCase("staging"))
                 ? "https://app.staging.shippit.com/api/3"
                 : "https://app.shippit.com/api/3";
         return builder
                 .baseUrl(url)
+                .apply(connectors.customizer("shippit"))
                 .build();
     }
 
@@ -90,13 +95,14 @@ public class CarrierWebClientConfig {
      */
     @Bean
     @Qualifier("aramexWebClient")
-    public WebClient aramexWebClient(WebClient.Builder builder) {
+    public WebClient aramexWebClient(WebClient.Builder builder, CarrierHttpConnectors connectors) {
         String baseUrl = System.getenv("ARAMEX_BASE_URL");
         if (baseUrl == null || baseUrl.isBlank()) {
             baseUrl = "http://ws.aramex.net/shippingapi/ratecalculator/service_1_0.svc";
         }
         return builder
                 .baseUrl(baseUrl)
+                .apply(connectors.customizer("aramex"))
                 .build();
     }
 
@@ -106,13 +112,14 @@ public class CarrierWebClientConfig {
      */
     @Bean
     @Qualifier("afterShipWebClient")
-    public WebClient afterShipWebClient(WebClient.Builder builder) {
+    public WebClient afterShipWebClient(WebClient.Builder builder, CarrierHttpConnectors connectors) {
         String baseUrl = System.getenv("AFTERSHIP_BASE_URL");
         if (baseUrl == null || baseUrl.isBlank()) {
             baseUrl = "https://api.aftership.com/shipping/2024-01";
         }
         return builder
                 .baseUrl(baseUrl)
+                .apply(connectors.customizer("aftership"))
                 .build();
     }
     
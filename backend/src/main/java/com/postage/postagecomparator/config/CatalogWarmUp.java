@@ -0,0 +1,117 @@
+package com.postage.postagecomparator.config;
+
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.Packaging;
+import com.postage.postagecomparator.storage.CatalogQuery;
+import com.postage.postagecomparator.storage.CatalogStore;
+import com.postage.postagecomparator.storage.DataDirectory;
+import com.postage.postagecomparator.storage.SettingsStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the default data directory's settings, items and packagings in parallel at startup, so
+ * the first requests after a deploy don't pay for parsing the data files and building their
+ * indexes.
+ *
+ * Spring Boot reports the application ready (see {@code GET /api/ready}) only once every
+ * {@link ApplicationRunner} has returned, and this one returns once all three collections are
+ * loaded. A collection that fails to load is logged and left to be loaded on first use, as it
+ * would be without the warm-up. Disabled by {@code storage.warm-up=false}.
+ */
+@Component
+public class CatalogWarmUp implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogWarmUp.class);
+
+    private static final int COLLECTIONS = 3;
+    private static final CatalogQuery FIRST_BY_NAME = new CatalogQuery(null, null, false, null, 1);
+
+    private final CatalogStore<Item> itemStore;
+    private final CatalogStore<Packaging> packagingStore;
+    private final SettingsStore settingsStore;
+    private final StorageConfig storageConfig;
+    private final DataDirectory dataDirectory;
+
+    public CatalogWarmUp(CatalogStore<Item> itemStore,
+                         CatalogStore<Packaging> packagingStore,
+                         SettingsStore settingsStore,
+                         StorageConfig storageConfig,
+                         DataDirectory dataDirectory) {
+        this.itemStore = itemStore;
+        this.packagingStore = packagingStore;
+        this.settingsStore = settingsStore;
+        this.storageConfig = storageConfig;
+        this.dataDirectory = dataDirectory;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!storageConfig.isWarmUp()) {
+            log.info("Storage warm-up disabled; collections load on first use.");
+            return;
+        }
+        var started = System.nanoTime();
+        var timings = warmUp();
+        var elapsed = Duration.ofNanos(System.nanoTime() - started);
+        log.info("Warmed up {} of {} collections ({} storage in {}) in {} ms", timings.size(), COLLECTIONS,
+                storageConfig.getBackend(), dataDirectory.base(), elapsed.toMillis());
+    }
+
+    /**
+     * Loads every collection, one thread each.
+     *
+     * @return load time per collection that loaded, in completion order
+     */
+    Map<String, Duration> warmUp() {
+        var timings = new LinkedHashMap<String, Duration>();
+        try (var executor = Executors.newFixedThreadPool(COLLECTIONS)) {
+            var loads = new CompletableFuture<?>[]{
+                    // A one-entry query also builds the name index
+                    load("items", () -> {
+                        itemStore.version();
+                        itemStore.query(FIRST_BY_NAME);
+                    }, executor, timings),
+                    load("packagings", () -> {
+                        packagingStore.version();
+                        packagingStore.query(FIRST_BY_NAME);
+                    }, executor, timings),
+                    load("settings", () -> {
+                        settingsStore.version();
+                        settingsStore.load();
+                    }, executor, timings)
+            };
+            CompletableFuture.allOf(loads).join();
+        }
+        return timings;
+    }
+
+    private static CompletableFuture<Void> load(String collection, Runnable load,
+                                                Executor executor,
+                                                Map<String, Duration> timings) {
+        return CompletableFuture.runAsync(() -> {
+            var started = System.nanoTime();
+            try {
+                load.run();
+            } catch (RuntimeException e) {
+                log.warn("Warm-up of {} failed; loading them on first use instead", collection, e);
+                return;
+            }
+            var elapsed = Duration.ofNanos(System.nanoTime() - started);
+            log.info("Warm-loaded {} in {} ms", collection, elapsed.toMillis());
+            synchronized (timings) {
+                timings.put(collection, elapsed);
+            }
+        }, executor);
+    }
+}
@@ -0,0 +1,85 @@
+package com.postage.postagecomparator.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.Packaging;
+import com.postage.postagecomparator.storage.CatalogStore;
+import com.postage.postagecomparator.storage.DataDirectory;
+import com.postage.postagecomparator.storage.H2CatalogStore;
+import com.postage.postagecomparator.storage.H2Database;
+import com.postage.postagecomparator.storage.H2SettingsStore;
+import com.postage.postagecomparator.storage.JsonCatalogStore;
+import com.postage.postagecomparator.storage.JsonSettingsStore;
+import com.postage.postagecomparator.storage.MappedItemStore;
+import com.postage.postagecomparator.storage.SettingsStore;
+import com.postage.postagecomparator.storage.ShardedCatalogStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the storage backend selected by {@code storage.backend} (JSON files by default, an
+ * embedded H2 database, or a memory-mapped binary item file) into the item, packaging and
+ * settings services.
+ */
+@Configuration
+@EnableConfigurationProperties(StorageConfig.class)
+public class PersistenceConfig {
+
+    /**
+     * Resolved once here rather than on every storage access.
+     */
+    @Bean
+    public DataDirectory dataDirectory() {
+        return DataDirectory.fromEnvironment();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "storage", name = "backend", havingValue = "h2")
+    public H2Database h2Database(StorageConfig storageConfig, DataDirectory dataDirectory) {
+        return new H2Database(dataDirectory::resolve, storageConfig.getH2().maxConnections(),
+                storageConfig.getH2().maxOpenDatabases());
+    }
+
+    @Bean
+    public CatalogStore<Item> itemStore(StorageConfig storageConfig,
+                                        ObjectMapper objectMapper,
+                                        DataDirectory dataDirectory,
+                                        ObjectProvider<H2Database> h2Database) {
+        return switch (storageConfig.getBackend()) {
+            case JSON -> storageConfig.getShards().items() > 1
+                    ? ShardedCatalogStore.items(objectMapper, storageConfig, dataDirectory::resolve)
+                    : JsonCatalogStore.items(objectMapper, storageConfig, dataDirectory::resolve);
+            case H2 -> H2CatalogStore.items(h2Database.getObject());
+            case BINARY -> new MappedItemStore(objectMapper, storageConfig, dataDirectory::resolve);
+        };
+    }
+
+    @Bean
+    public CatalogStore<Packaging> packagingStore(StorageConfig storageConfig,
+                                                  ObjectMapper objectMapper,
+                                                  DataDirectory dataDirectory,
+                                                  ObjectProvider<H2Database> h2Database) {
+        return switch (storageConfig.getBackend()) {
+            case JSON, BINARY -> storageConfig.getShards().packagings() > 1
+                    ? ShardedCatalogStore.packagings(objectMapper, storageConfig, dataDirectory::resolve)
+                    : JsonCatalogStore.packagings(objectMapper, storageConfig, dataDirectory::resolve);
+            case H2 -> H2CatalogStore.packagings(h2Database.getObject());
+        };
+    }
+
+    @Bean
+    public SettingsStore settingsStore(StorageConfig storageConfig,
+                                       ObjectMapper objectMapper,
+                                       DataDirectory dataDirectory,
+                                       ObjectProvider<H2Database> h2Database) {
+        return switch (storageConfig.getBackend()) {
+            case JSON, BINARY -> new JsonSettingsStore(objectMapper, dataDirectory::resolve,
+                    storageConfig.getDurability().settings(), storageConfig.getTenants(),
+                    storageConfig.getEncoding());
+            case H2 -> new H2SettingsStore(h2Database.getObject());
+        };
+    }
+}
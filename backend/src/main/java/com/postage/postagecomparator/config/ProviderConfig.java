@@ -1,7 +1,9 @@
 package com.postage.postagecomparator.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 
@@ -14,6 +16,22 @@ import java.util.Optional;
  *     enabled: true
  *     apiKey: ${AUSPOST_API_KEY}
  *     apiId: ${AUSPOST_API_ID}
+ *     pool:
+ *       maxConnections: 50
+ *       pendingAcquireTimeout: 5s
+ *     timeouts:
+ *       connect: 2s
+ *       total: 10s
+ *     cache:
+ *       ttl: 10m
+ *       weightIncrementGrams: 250
+ *       rejectionTtl: 5m
+ *     retry:
+ *       maxAttempts: 3
+ *       budgetRatio: 0.1
+ *     rateLimit:
+ *       requestsPerSecond: 10
+ *       burst: 20
  */
 @ConfigurationProperties(prefix = "providers")
 public class ProviderConfig {
@@ -35,5 +53,203 @@ public class ProviderConfig {
         this.providers = providers == null ? Map.of() : Map.copyOf(providers);
     }
 
-    public record ProviderSettings(String apiKey, String apiId, boolean enabled) {}
+    /**
+     * @return the connection pool settings for the provider, defaults when it has none
+     */
+    public Pool getPool(String name) {
+        return getProvider(name).map(ProviderSettings::pool).orElse(Pool.DEFAULT);
+    }
+
+    /**
+     * @return the timeouts for calls to the provider, defaults when it has none
+     */
+    public Timeouts getTimeouts(String name) {
+        return getProvider(name).map(ProviderSettings::timeouts).orElse(Timeouts.DEFAULT);
+    }
+
+    /**
+     * @return the rate cache settings for the provider, defaults when it has none
+     */
+    public Cache getCache(String name) {
+        return getProvider(name).map(ProviderSettings::cache).orElse(Cache.DEFAULT);
+    }
+
+    /**
+     * @return the retry policy for calls to the provider, defaults when it has none
+     */
+    public Retry getRetry(String name) {
+        return getProvider(name).map(ProviderSettings::retry).orElse(Retry.DEFAULT);
+    }
+
+    /**
+     * @return the request rate limit for the provider, defaults when it has none
+     */
+    public RateLimit getRateLimit(String name) {
+        return getProvider(name).map(ProviderSettings::rateLimit).orElse(RateLimit.DEFAULT);
+    }
+
+    public record ProviderSettings(String apiKey, String apiId, boolean enabled, Pool pool, Timeouts timeouts,
+                                   Cache cache, Retry retry, RateLimit rateLimit) {
+
+        @ConstructorBinding
+        public ProviderSettings {
+            pool = pool == null ? Pool.DEFAULT : pool;
+            timeouts = timeouts == null ? Timeouts.DEFAULT : timeouts;
+            cache = cache == null ? Cache.DEFAULT : cache;
+            retry = retry == null ? Retry.DEFAULT : retry;
+            rateLimit = rateLimit == null ? RateLimit.DEFAULT : rateLimit;
+        }
+
+        public ProviderSettings(String apiKey, String apiId, boolean enabled) {
+            this(apiKey, apiId, enabled, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * The provider's own HTTP connection pool. Pooled connections stay open between quotes, so
+     * most calls skip the TCP and TLS handshakes; idle connections are closed before carriers'
+     * load balancers drop them.
+     *
+     * @param maxConnections         connections open at once
+     * @param pendingAcquireMaxCount calls allowed to wait for a connection when all are in use
+     * @param pendingAcquireTimeout  how long a call waits for a connection before failing
+     * @param maxIdleTime            idle time after which a connection is closed
+     * @param maxLifeTime            age after which a connection is closed once released
+     * @param evictionInterval       how often idle and expired connections are closed in the
+     *                               background
+     */
+    public record Pool(int maxConnections,
+                       int pendingAcquireMaxCount,
+                       Duration pendingAcquireTimeout,
+                       Duration maxIdleTime,
+                       Duration maxLifeTime,
+                       Duration evictionInterval) {
+
+        public static final Pool DEFAULT = new Pool(0, 0, null, null, null, null);
+
+        public Pool {
+            maxConnections = maxConnections <= 0 ? 50 : maxConnections;
+            pendingAcquireMaxCount = pendingAcquireMaxCount <= 0 ? 2 * maxConnections : pendingAcquireMaxCount;
+            pendingAcquireTimeout = pendingAcquireTimeout == null ? Duration.ofSeconds(5) : pendingAcquireTimeout;
+            maxIdleTime = maxIdleTime == null ? Duration.ofSeconds(30) : maxIdleTime;
+            maxLifeTime = maxLifeTime == null ? Duration.ofMinutes(5) : maxLifeTime;
+            evictionInterval = evictionInterval == null ? Duration.ofSeconds(30) : evictionInterval;
+        }
+    }
+
+    /**
+     * Limits on each call to the provider. A call that exceeds any of them fails with a
+     * {@code CarrierTimeoutException} and the quote falls back to rules.
+     *
+     * @param connect      establishing the TCP connection
+     * @param tlsHandshake completing the TLS handshake on a new connection
+     * @param response     silence while waiting for the response, from sending the request
+     * @param total        the whole call, including waiting for a pooled connection and reading the
+     *                     body
+     */
+    public record Timeouts(Duration connect, Duration tlsHandshake, Duration response, Duration total) {
+
+        public static final Timeouts DEFAULT = new Timeouts(null, null, null, null);
+
+        public Timeouts {
+            connect = connect == null ? Duration.ofSeconds(2) : connect;
+            tlsHandshake = tlsHandshake == null ? Duration.ofSeconds(3) : tlsHandshake;
+            response = response == null ? Duration.ofSeconds(5) : response;
+            total = total == null ? Duration.ofSeconds(10) : total;
+        }
+    }
+
+    /**
+     * The provider's cache of carrier rates. Requests are canonicalized before they are sent: the
+     * dimensions are sorted and, while the cache is on, the weight is rounded up to
+     * {@code weightIncrementGrams}, so every cart in the same billing bracket makes the same request
+     * and shares one cache entry.
+     *
+     * @param ttl                  how long a rate is reused; {@code 0s} turns the cache off
+     * @param maxSize              rates kept, least recently used dropped first
+     * @param weightIncrementGrams the carrier's billing increment, {@code 1} (no rounding) unless
+     *                             set; keep it a divisor of the carrier's weight brackets so
+     *                             rounding never crosses one
+     * @param rejectionTtl         how long a request the carrier rejected (a 4xx other than 408, 425
+     *                             or 429, an unserviceable lane, or no rates) is not sent again;
+     *                             {@code 0s} turns this off
+     */
+    public record Cache(Duration ttl, int maxSize, int weightIncrementGrams, Duration rejectionTtl) {
+
+        public static final Cache DEFAULT = new Cache(null, 0, 0, null);
+
+        public Cache {
+            ttl = ttl == null || ttl.isNegative() ? Duration.ofMinutes(10) : ttl;
+            maxSize = maxSize <= 0 ? 10_000 : maxSize;
+            weightIncrementGrams = weightIncrementGrams <= 0 ? 1 : weightIncrementGrams;
+            rejectionTtl = rejectionTtl == null || rejectionTtl.isNegative() ? Duration.ofMinutes(5) : rejectionTtl;
+        }
+
+        public boolean enabled() {
+            return !ttl.isZero();
+        }
+
+        public boolean remembersRejections() {
+            return !rejectionTtl.isZero();
+        }
+    }
+
+    /**
+     * Retries of calls that failed transiently: a connection that could not be opened or was reset,
+     * or a 429, 502, 503 or 504 response. Backoff grows exponentially, with full jitter, and a retry
+     * is only made while the call's total timeout leaves time for it; a retried 429 also waits out
+     * the {@link RateLimit} pause its {@code Retry-After} set. Each call adds
+     * {@code budgetRatio} to the provider's retry budget and each retry spends one, so retries
+     * stay a fraction of calls however long a carrier is down.
+     *
+     * @param maxAttempts    attempts per call, the first included; {@code 1} turns retries off
+     * @param initialBackoff the most the first retry waits; each later retry may wait twice as long
+     * @param maxBackoff     the most any retry waits
+     * @param budgetRatio    retries allowed per call, on average
+     * @param budgetCapacity retries that can be saved up while calls succeed, for a burst of failures
+     */
+    public record Retry(int maxAttempts,
+                        Duration initialBackoff,
+                        Duration maxBackoff,
+                        double budgetRatio,
+                        int budgetCapacity) {
+
+        public static final Retry DEFAULT = new Retry(0, null, null, 0, 0);
+
+        public Retry {
+            maxAttempts = maxAttempts <= 0 ? 3 : maxAttempts;
+            initialBackoff = initialBackoff == null ? Duration.ofMillis(100) : initialBackoff;
+            maxBackoff = maxBackoff == null ? Duration.ofSeconds(1) : maxBackoff;
+            budgetRatio = budgetRatio <= 0 ? 0.1 : budgetRatio;
+            budgetCapacity = budgetCapacity <= 0 ? 10 : budgetCapacity;
+        }
+    }
+
+    /**
+     * The provider's request quota, enforced with a token bucket before each attempt. A call waits
+     * for a token when it can get one within {@code maxWait} and before its total timeout, and
+     * otherwise fails at once with a {@code CarrierRateLimitedException}, so the quote falls back to
+     * rules. A 429 response pauses the provider's calls for its {@code Retry-After}, one second
+     * when it has none, and empties the bucket.
+     *
+     * @param requestsPerSecond sustained requests allowed; {@code 0} leaves calls unlimited, apart
+     *                          from pauses after a 429
+     * @param burst             requests allowed at once after a quiet period; defaults to one
+     *                          second's worth
+     * @param maxWait           the most a call waits for a token or a pause to end
+     */
+    public record RateLimit(double requestsPerSecond, int burst, Duration maxWait) {
+
+        public static final RateLimit DEFAULT = new RateLimit(0, 0, null);
+
+        public RateLimit {
+            requestsPerSecond = Math.max(0, requestsPerSecond);
+            burst = burst <= 0 ? (int) Math.max(1, Math.ceil(requestsPerSecond)) : burst;
+            maxWait = maxWait == null ? Duration.ofSeconds(1) : maxWait;
+        }
+
+        public boolean limited() {
+            return requestsPerSecond > 0;
+        }
+    }
 }
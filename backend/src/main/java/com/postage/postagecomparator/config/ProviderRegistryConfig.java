@@ -12,7 +12,7 @@ import java.util.List;
  * Wires provider SPI configuration and registry into Spring.
  */
 @Configuration
-@EnableConfigurationProperties(ProviderConfig.class)
+@EnableConfigurationProperties({ProviderConfig.class, QuoteConfig.class})
 public class ProviderRegistryConfig {
 
     /**
@@ -0,0 +1,92 @@
+package com.postage.postagecomparator.config;
+
+import com.postage.postagecomparator.model.OriginSettings;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Quote configuration: the warehouses parcels can ship from and how one is chosen per carrier.
+ *
+ * Example (application.properties):
+ * quotes.origin-selection=CHEAPEST
+ * quotes.live-origins=2
+ * quotes.origins[0].name=sydney
+ * quotes.origins[0].postcode=2000
+ * quotes.origins[0].suburb=Sydney
+ * quotes.origins[0].state=NSW
+ * quotes.origins[0].country=AU
+ */
+@ConfigurationProperties(prefix = "quotes")
+public class QuoteConfig {
+
+    /**
+     * How the origin of each carrier's quotes is chosen.
+     */
+    private OriginSelection originSelection = OriginSelection.SETTINGS;
+
+    /**
+     * Candidate origins for {@link OriginSelection#CHEAPEST} and {@link OriginSelection#FASTEST}.
+     */
+    private List<Origin> origins = List.of();
+
+    /**
+     * Number of best-ranked origins each carrier's live API is asked to quote from.
+     */
+    private int liveOrigins = 2;
+
+    public OriginSelection getOriginSelection() {
+        return originSelection;
+    }
+
+    public void setOriginSelection(OriginSelection originSelection) {
+        this.originSelection = originSelection == null ? OriginSelection.SETTINGS : originSelection;
+    }
+
+    public List<Origin> getOrigins() {
+        return origins;
+    }
+
+    public void setOrigins(List<Origin> origins) {
+        this.origins = origins == null ? List.of() : List.copyOf(origins);
+    }
+
+    public int getLiveOrigins() {
+        return liveOrigins;
+    }
+
+    public void setLiveOrigins(int liveOrigins) {
+        this.liveOrigins = liveOrigins <= 0 ? 2 : liveOrigins;
+    }
+
+    public enum OriginSelection {
+        /**
+         * Quote from the origin in the settings ({@code PUT /api/settings/origin}) only.
+         */
+        SETTINGS,
+        /**
+         * Quote each carrier from the configured origin giving its lowest total cost.
+         */
+        CHEAPEST,
+        /**
+         * Quote each carrier from the configured origin giving its earliest delivery.
+         */
+        FASTEST
+    }
+
+    /**
+     * A warehouse parcels can ship from.
+     *
+     * @param name identifies the origin in quotes (e.g. {@code sydney})
+     */
+    public record Origin(String name, String postcode, String suburb, String state, String country) {
+
+        public Origin {
+            country = country == null || country.isBlank() ? "AU" : country;
+        }
+
+        public OriginSettings toSettings() {
+            return new OriginSettings(postcode, suburb, state, country, null, null);
+        }
+    }
+}
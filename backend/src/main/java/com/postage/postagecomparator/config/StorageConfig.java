@@ -0,0 +1,253 @@
+package com.postage.postagecomparator.config;
+
+import com.postage.postagecomparator.util.FileWriteUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Storage configuration for the data files under {@code POSTAGE_DATA_DIR}.
+ *
+ * Example (application.properties):
+ * storage.backend=json
+ * storage.encoding=PRETTY
+ * storage.h2.max-connections=10
+ * storage.h2.max-open-databases=16
+ * storage.shards.items=1
+ * storage.shards.packagings=1
+ * storage.group-commit.max-delay=2ms
+ * storage.group-commit.max-batch-size=256
+ * storage.durability.items=FSYNC_FILE
+ * storage.durability.settings=FSYNC_FILE_AND_DIRECTORY
+ * storage.tenants.header=X-Tenant-Id
+ * storage.tenants.max-cached=256
+ * storage.tenants.max-cached-size=256MB
+ * storage.warm-up=true
+ */
+@ConfigurationProperties(prefix = "storage")
+public class StorageConfig {
+
+    /**
+     * Where items, packagings and settings are persisted.
+     */
+    private Backend backend = Backend.JSON;
+
+    /**
+     * How the JSON data files are written.
+     */
+    private Encoding encoding = Encoding.PRETTY;
+
+    /**
+     * Settings for the embedded H2 backend.
+     */
+    private H2 h2 = H2.DEFAULT;
+
+    /**
+     * Number of JSON files each catalog is spread over.
+     */
+    private Shards shards = Shards.DEFAULT;
+
+    /**
+     * Batching of concurrent catalog mutations into a single file rewrite.
+     */
+    private GroupCommit groupCommit = GroupCommit.DEFAULT;
+
+    /**
+     * fsync policy per data file.
+     */
+    private Durability durability = Durability.DEFAULT;
+
+    /**
+     * Tenant resolution and the bounds of the per-tenant in-memory caches.
+     */
+    private Tenants tenants = Tenants.DEFAULT;
+
+    /**
+     * Load the default data directory's collections before the application reports ready.
+     */
+    private boolean warmUp = true;
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(Backend backend) {
+        this.backend = backend == null ? Backend.JSON : backend;
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(Encoding encoding) {
+        this.encoding = encoding == null ? Encoding.PRETTY : encoding;
+    }
+
+    public H2 getH2() {
+        return h2;
+    }
+
+    public void setH2(H2 h2) {
+        this.h2 = h2 == null ? H2.DEFAULT : h2;
+    }
+
+    public Shards getShards() {
+        return shards;
+    }
+
+    public void setShards(Shards shards) {
+        this.shards = shards == null ? Shards.DEFAULT : shards;
+    }
+
+    public GroupCommit getGroupCommit() {
+        return groupCommit;
+    }
+
+    public void setGroupCommit(GroupCommit groupCommit) {
+        this.groupCommit = groupCommit == null ? GroupCommit.DEFAULT : groupCommit;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public void setDurability(Durability durability) {
+        this.durability = durability == null ? Durability.DEFAULT : durability;
+    }
+
+    public Tenants getTenants() {
+        return tenants;
+    }
+
+    public void setTenants(Tenants tenants) {
+        this.tenants = tenants == null ? Tenants.DEFAULT : tenants;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public enum Backend {
+        /**
+         * One JSON file per collection ({@code items.json}, {@code packagings.json}, {@code settings.json}).
+         */
+        JSON,
+        /**
+         * Embedded H2 database file ({@code postage.mv.db}) with indexed tables.
+         */
+        H2,
+        /**
+         * Items in a memory-mapped binary file ({@code items.bin}) read in place; packagings and
+         * settings as JSON files.
+         */
+        BINARY
+    }
+
+    /**
+     * Format of the JSON data files. Files in any of these formats are read regardless of the
+     * setting, so switching converts each file on its next write.
+     */
+    public enum Encoding {
+        /**
+         * Indented JSON, for reading and editing by hand.
+         */
+        PRETTY,
+        /**
+         * JSON without whitespace.
+         */
+        COMPACT,
+        /**
+         * Compact JSON compressed with gzip (the file names stay {@code *.json}).
+         */
+        GZIP
+    }
+
+    /**
+     * @param maxConnections   connection pool size for each embedded database
+     * @param maxOpenDatabases database files kept open at once (one per tenant); the least
+     *                         recently used is closed when another has to be opened
+     */
+    public record H2(int maxConnections, int maxOpenDatabases) {
+
+        public static final H2 DEFAULT = new H2(10, 16);
+
+        public H2 {
+            maxConnections = maxConnections <= 0 ? 10 : maxConnections;
+            maxOpenDatabases = maxOpenDatabases <= 0 ? 16 : maxOpenDatabases;
+        }
+    }
+
+    /**
+     * Shard counts for the JSON backend. With more than one shard, entries are spread over that
+     * many files by a hash of their id, so a write rewrites only one of them; 1 keeps the single
+     * {@code items.json} / {@code packagings.json} file.
+     *
+     * @param items      files the item catalog is spread over
+     * @param packagings files the packaging catalog is spread over
+     */
+    public record Shards(int items, int packagings) {
+
+        public static final Shards DEFAULT = new Shards(1, 1);
+
+        public Shards {
+            items = items <= 0 ? 1 : items;
+            packagings = packagings <= 0 ? 1 : packagings;
+        }
+    }
+
+    /**
+     * @param maxDelay     how long the first writer waits for others to join its batch
+     * @param maxBatchSize maximum number of mutations folded into one file rewrite
+     */
+    public record GroupCommit(Duration maxDelay, int maxBatchSize) {
+
+        public static final GroupCommit DEFAULT = new GroupCommit(Duration.ofMillis(2), 256);
+
+        public GroupCommit {
+            maxDelay = maxDelay == null ? Duration.ofMillis(2) : maxDelay;
+            maxBatchSize = maxBatchSize <= 0 ? 256 : maxBatchSize;
+        }
+    }
+
+    /**
+     * Durability policy for each data file. Settings are small and rarely written, so they default
+     * to full durability; the catalog files default to syncing file contents only.
+     */
+    public record Durability(FileWriteUtils.Durability items,
+                             FileWriteUtils.Durability packagings,
+                             FileWriteUtils.Durability settings) {
+
+        public static final Durability DEFAULT = new Durability(null, null, null);
+
+        public Durability {
+            items = items == null ? FileWriteUtils.Durability.FSYNC_FILE : items;
+            packagings = packagings == null ? FileWriteUtils.Durability.FSYNC_FILE : packagings;
+            settings = settings == null ? FileWriteUtils.Durability.FSYNC_FILE_AND_DIRECTORY : settings;
+        }
+    }
+
+    /**
+     * Requests pick a tenant with the {@code header} or a {@code /t/<tenant>} path prefix. Each
+     * collection (items, packagings, settings) caches at most {@code maxCached} tenants and at
+     * most {@code maxCachedSize} of data files, unloading the least recently used tenants first.
+     *
+     * @param header        request header carrying the tenant id
+     * @param maxCached     tenants cached per collection
+     * @param maxCachedSize JSON size of the files cached per collection, uncompressed for gzip files
+     */
+    public record Tenants(String header, int maxCached, DataSize maxCachedSize) {
+
+        public static final Tenants DEFAULT = new Tenants(null, 0, null);
+
+        public Tenants {
+            header = header == null || header.isBlank() ? "X-Tenant-Id" : header;
+            maxCached = maxCached <= 0 ? 256 : maxCached;
+            maxCachedSize = maxCachedSize == null ? DataSize.ofMegabytes(256) : maxCachedSize;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.postage.postagecomparator.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.api.TenantFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers the {@link TenantFilter} ahead of every other filter, so the tenant is known before
+ * any handler touches storage.
+ */
+@Configuration
+public class TenantConfig {
+
+    @Bean
+    public FilterRegistrationBean<TenantFilter> tenantFilter(StorageConfig storageConfig, ObjectMapper objectMapper) {
+        var registration = new FilterRegistrationBean<>(
+                new TenantFilter(storageConfig.getTenants().header(), objectMapper));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
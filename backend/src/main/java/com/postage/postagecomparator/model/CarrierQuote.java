@@ -35,6 +35,21 @@ public record CarrierQuote(
         @NotNull
         boolean ruleFallbackUsed,
 
-        String rawCarrierRef
+        String rawCarrierRef,
+
+        // Configured origin the quote ships from; null when quoting from the settings origin
+        String origin
 ) {
+
+    public CarrierQuote(String carrier, String serviceName, Integer deliveryEtaDaysMin, Integer deliveryEtaDaysMax,
+                        double packagingCostAud, double deliveryCostAud, Double surchargesAud, double totalCostAud,
+                        String pricingSource, boolean ruleFallbackUsed, String rawCarrierRef) {
+        this(carrier, serviceName, deliveryEtaDaysMin, deliveryEtaDaysMax, packagingCostAud, deliveryCostAud,
+                surchargesAud, totalCostAud, pricingSource, ruleFallbackUsed, rawCarrierRef, null);
+    }
+
+    public CarrierQuote withOrigin(String origin) {
+        return new CarrierQuote(carrier, serviceName, deliveryEtaDaysMin, deliveryEtaDaysMax, packagingCostAud,
+                deliveryCostAud, surchargesAud, totalCostAud, pricingSource, ruleFallbackUsed, rawCarrierRef, origin);
+    }
 }
@@ -0,0 +1,18 @@
+package com.postage.postagecomparator.model;
+
+/**
+ * A named catalog record (item or packaging) identified by a generated id. Names are unique
+ * within their catalog.
+ */
+public interface CatalogEntry {
+
+    String id();
+
+    String name();
+
+    /**
+     * Revision of the stored entry: 1 when created and incremented by every update. Conditional
+     * updates compare it to the version the client last read.
+     */
+    long version();
+}
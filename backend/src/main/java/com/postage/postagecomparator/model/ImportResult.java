@@ -0,0 +1,17 @@
+package com.postage.postagecomparator.model;
+
+/**
+ * Outcome of a bulk catalog import.
+ *
+ * @param received number of records in the upload
+ * @param created  records stored as new entries
+ * @param updated  records that replaced an existing entry with the same name
+ */
+public record ImportResult(
+        int received,
+
+        int created,
+
+        int updated
+) {
+}
@@ -12,6 +12,15 @@ public record Item(
         String description,
 
         @Positive
-        int unitWeightGrams
-) {
+        int unitWeightGrams,
+
+        long version
+) implements CatalogEntry {
+
+    /**
+     * An item that has not been stored yet (version 0).
+     */
+    public Item(String id, String name, String description, int unitWeightGrams) {
+        this(id, name, description, unitWeightGrams, 0);
+    }
 }
@@ -0,0 +1,16 @@
+package com.postage.postagecomparator.model;
+
+import java.util.List;
+
+/**
+ * One page of a name-ordered item listing.
+ *
+ * @param items      items on this page, in the requested order
+ * @param nextCursor opaque cursor for the following page, or null when this is the last page
+ */
+public record ItemPage(
+        List<Item> items,
+
+        String nextCursor
+) {
+}
@@ -0,0 +1,29 @@
+package com.postage.postagecomparator.model;
+
+/**
+ * One operation of a bulk item patch.
+ *
+ * @param op              {@code update} or {@code delete}
+ * @param id              id of the item to change
+ * @param name            new name (update; null keeps the current one)
+ * @param description     new description (update; null keeps the current one)
+ * @param unitWeightGrams new unit weight (update; null keeps the current one)
+ * @param version         only apply while the item is still at this version (null skips the check)
+ */
+public record ItemPatch(
+        String op,
+
+        String id,
+
+        String name,
+
+        String description,
+
+        Integer unitWeightGrams,
+
+        Long version
+) {
+
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+}
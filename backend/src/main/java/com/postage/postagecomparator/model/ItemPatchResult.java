@@ -0,0 +1,16 @@
+package com.postage.postagecomparator.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk item patch.
+ *
+ * @param updated items as stored after the patch, in request order
+ * @param deleted ids of the deleted items, in request order
+ */
+public record ItemPatchResult(
+        List<Item> updated,
+
+        List<String> deleted
+) {
+}
@@ -23,6 +23,16 @@ public record Packaging(
         int internalVolumeCubicCm,
 
         @Positive
-        double packagingCostAud
-) {
+        double packagingCostAud,
+
+        long version
+) implements CatalogEntry {
+
+    /**
+     * A packaging that has not been stored yet (version 0).
+     */
+    public Packaging(String id, String name, String description, int lengthCm, int heightCm, int widthCm,
+                     int internalVolumeCubicCm, double packagingCostAud) {
+        this(id, name, description, lengthCm, heightCm, widthCm, internalVolumeCubicCm, packagingCostAud, 0);
+    }
 }
@@ -2,6 +2,7 @@ package com.postage.postagecomparator.provider;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.CarrierRetryFilter;
 import com.postage.postagecomparator.config.ProviderConfig;
 import com.postage.postagecomparator.model.CarrierQuote;
 import com.postage.postagecomparator.model.Item;
@@ -10,10 +11,12 @@ import com.postage.postagecomparator.model.Packaging;
 import com.postage.postagecomparator.model.QuoteResult;
 import com.postage.postagecomparator.model.ShipmentRequest;
 import com.postage.postagecomparator.model.ShipmentItemSelection;
+import com.postage.postagecomparator.provider.response.AfterShipResponse;
 import com.postage.postagecomparator.service.QuoteRequestHelper;
 import com.postage.postagecomparator.service.SettingsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -44,15 +47,27 @@ public class AfterShipProvider implements CarrierProvider {
     private final SettingsService settingsService;
     private final QuoteRequestHelper requestHelper;
     private final ObjectMapper objectMapper;
+    private final RateCache rateCache;
 
-    public AfterShipProvider(@Qualifier("afterShipWebClient") WebClient afterShipWebClient,
+    public AfterShipProvider(WebClient afterShipWebClient,
                              SettingsService settingsService,
                              QuoteRequestHelper requestHelper,
                              ObjectMapper objectMapper) {
+        this(afterShipWebClient, settingsService, requestHelper, objectMapper,
+                new RateCache(new ProviderConfig(), new CarrierMetrics()));
+    }
+
+    @Autowired
+    public AfterShipProvider(@Qualifier("afterShipWebClient") WebClient afterShipWebClient,
+                             SettingsService settingsService,
+                             QuoteRequestHelper requestHelper,
+                             ObjectMapper objectMapper,
+                             RateCache rateCache) {
         this.afterShipWebClient = afterShipWebClient;
         this.settingsService = settingsService;
         this.requestHelper = requestHelper;
         this.objectMapper = objectMapper;
+        this.rateCache = rateCache;
     }
 
     @Override
@@ -92,7 +107,28 @@ public class AfterShipProvider implements CarrierProvider {
         int totalPieces = Math.max(1, request.items().stream()
                 .mapToInt(ShipmentItemSelection::quantity)
                 .sum());
+        CarrierParcel carrierParcel = rateCache.parcel(getName(), packaging, totalWeightGrams);
+        // Rates can differ by ship date, so a cached rate only lasts the day
+        LocalDate shipDate = LocalDate.now();
+
+        var key = new RateKey(apiKey,
+                origin.suburb(), origin.state(), origin.postcode(), origin.country(),
+                destination.suburb(), destination.state(), destination.postcode(), destination.country(),
+                carrierParcel, totalPieces, shipDate);
+        return rateCache.get(getName(), key,
+                        () -> fetch(apiKey, origin, destination, carrierParcel, totalPieces, shipDate))
+                .map(response -> parseAfterShipResponse(response, packaging));
+    }
 
+    /**
+     * Calls the AfterShip API. Rejected when it has no rates for the shipment.
+     */
+    private RateCache.Fetched<AfterShipResponse> fetch(String apiKey,
+                                              OriginSettings origin,
+                                              QuoteResult.Destination destination,
+                                              CarrierParcel carrierParcel,
+                                              int totalPieces,
+                                              LocalDate shipDate) {
         // AfterShip expects a shipment object containing ship_from, ship_to, and parcels.
         // TODO: confirm address and parcel schema details against AfterShip's model docs.
         Map<String, Object> shipFrom = Map.of(
@@ -110,15 +146,15 @@ public class AfterShipProvider implements CarrierProvider {
         );
 
         Map<String, Object> weight = Map.of(
-                "value", Math.max(0.001, totalWeightGrams / 1000.0),
+                "value", carrierParcel.weightKg(),
                 "unit", "kg"
         );
 
         Map<String, Object> dimensions = Map.of(
                 "unit", "cm",
-                "length", packaging.lengthCm(),
-                "width", packaging.widthCm(),
-                "height", packaging.heightCm()
+                "length", carrierParcel.lengthCm(),
+                "width", carrierParcel.widthCm(),
+                "height", carrierParcel.heightCm()
         );
 
         Map<String, Object> parcel = Map.of(
@@ -128,7 +164,7 @@ public class AfterShipProvider implements CarrierProvider {
         );
 
         Map<String, Object> requestBody = Map.of(
-                "ship_date", LocalDate.now().toString(),
+                "ship_date", shipDate.toString(),
                 "shipment", Map.of(
                         "ship_from", shipFrom,
                         "ship_to", shipTo,
@@ -140,12 +176,13 @@ public class AfterShipProvider implements CarrierProvider {
             String requestBodyJson = toJson(requestBody);
             log.info("Attempting AfterShip API call (POST /rates). Request: {}", requestBodyJson);
 
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = afterShipWebClient
+            AfterShipResponse response = afterShipWebClient
                     .post()
                     .uri("/rates")
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON)
+                    // Only asks for rates, so safe to send again
+                    .attribute(CarrierRetryFilter.IDEMPOTENT, true)
                     .header("as-api-key", apiKey)
                     .bodyValue(requestBody)
                     .retrieve()
@@ -156,8 +193,8 @@ public class AfterShipProvider implements CarrierProvider {
                                         clientResponse.statusCode(),
                                         body,
                                         summarizeStackTrace(new RuntimeException("AfterShip API client error")));
-                                return Mono.error(new RuntimeException(
-                                        "AfterShip API client error: " + clientResponse.statusCode()));
+                                return Mono.error(new CarrierClientErrorException(
+                                        getName(), clientResponse.statusCode()));
                             }))
                     .onStatus(
                             status -> status.is5xxServerError(),
@@ -169,55 +206,58 @@ public class AfterShipProvider implements CarrierProvider {
                                 return Mono.error(new RuntimeException(
                                         "AfterShip API server error: " + clientResponse.statusCode()));
                             }))
-                    .bodyToMono(Map.class)
+                    .bodyToMono(AfterShipResponse.class)
                     .block();
 
             if (response == null) {
                 log.warn("AfterShip API returned null response.");
-                return Optional.empty();
+                return RateCache.Fetched.failed();
             }
-
-            List<CarrierQuote> quotes = parseAfterShipResponse(response, packaging);
-            return Optional.ofNullable(quotes);
+            if (response.allRates() == null || response.allRates().isEmpty()) {
+                log.warn("AfterShip API returned no rates. Response: {}", response);
+                return RateCache.Fetched.unserviceable();
+            }
+            return RateCache.Fetched.of(response);
+        } catch (CarrierTimeoutException e) {
+            log.warn("AfterShip API timed out: {}", e.getMessage());
+            return RateCache.Fetched.failed();
+        } catch (CarrierClientErrorException e) {
+            // Logged with the response by the status handler
+            return RateCache.Fetched.failed(e);
         } catch (WebClientResponseException e) {
             log.error("AfterShip API returned error response (status: {}). Response: {}. Stack: {}",
                     e.getStatusCode(),
                     e.getResponseBodyAsString(),
                     summarizeStackTrace(e));
-            return Optional.empty();
+            return RateCache.Fetched.failed(e);
         } catch (WebClientException e) {
             log.error("AfterShip API network/client error. Error: {}. Stack: {}",
                     e.getMessage(),
                     summarizeStackTrace(e));
-            return Optional.empty();
+            return RateCache.Fetched.failed();
         } catch (Exception e) {
             log.error("AfterShip API call failed with unexpected error. Error: {}. Stack: {}",
                     e.getMessage(),
                     summarizeStackTrace(e));
-            return Optional.empty();
+            return RateCache.Fetched.failed();
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private List<CarrierQuote> parseAfterShipResponse(Map<String, Object> response, Packaging packaging) {
+    private List<CarrierQuote> parseAfterShipResponse(AfterShipResponse response, Packaging packaging) {
         try {
-            Object dataObj = response.get("data");
-            Map<String, Object> data = dataObj instanceof Map<?, ?> map ? (Map<String, Object>) map : null;
-
-            Object ratesObj = data != null ? data.get("rates") : response.get("rates");
-            if (!(ratesObj instanceof List<?> list) || list.isEmpty()) {
+            List<AfterShipResponse.Rate> rates = response.allRates();
+            if (rates == null || rates.isEmpty()) {
                 log.warn("AfterShip response missing rates array. Full response: {}", response);
                 return List.of();
             }
 
             List<CarrierQuote> quotes = new ArrayList<>();
-            for (Object entry : list) {
-                if (!(entry instanceof Map<?, ?> rateRaw)) {
+            for (AfterShipResponse.Rate rate : rates) {
+                if (rate == null) {
                     continue;
                 }
-                Map<String, Object> rate = (Map<String, Object>) rateRaw;
 
-                Money totalCharge = parseMoney(rate, "total_charge", "shipping_amount", "total_amount", "amount");
+                AfterShipResponse.Charge totalCharge = rate.charge();
                 if (totalCharge == null || totalCharge.amount() <= 0) {
                     continue;
                 }
@@ -225,7 +265,7 @@ public class AfterShipProvider implements CarrierProvider {
                     continue;
                 }
 
-                String serviceName = firstString(rate, "service_type", "service_name", "service_level", "courier_name");
+                String serviceName = rate.service();
                 Integer etaMin = null;
                 Integer etaMax = null;
 
@@ -253,56 +293,6 @@ public class AfterShipProvider implements CarrierProvider {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private Money parseMoney(Map<String, Object> rate,
-                             String... keys) {
-        for (String key : keys) {
-            Object value = rate.get(key);
-            if (value instanceof Map<?, ?> moneyRaw) {
-                String currency = firstString((Map<String, Object>) moneyRaw, "currency", "currency_code");
-                Double amount = parseDouble(moneyRaw.get("amount"));
-                if (amount != null) {
-                    return new Money(currency, amount);
-                }
-            }
-            Double amount = parseDouble(value);
-            if (amount != null) {
-                return new Money(null, amount);
-            }
-        }
-        return null;
-    }
-
-    private String firstString(Map<String, Object> map, String... keys) {
-        for (String key : keys) {
-            Object value = map.get(key);
-            if (value != null) {
-                String str = value.toString();
-                if (!str.isBlank()) {
-                    return str;
-                }
-            }
-        }
-        return null;
-    }
-
-    private Double parseDouble(Object value) {
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof Number number) {
-            return number.doubleValue();
-        }
-        if (value instanceof String str) {
-            try {
-                return Double.parseDouble(str);
-            } catch (NumberFormatException e) {
-                return null;
-            }
-        }
-        return null;
-    }
-
     private String nullToEmpty(String value) {
         return value == null ? "" : value;
     }
@@ -323,5 +313,12 @@ public class AfterShipProvider implements CarrierProvider {
         }
     }
 
-    private record Money(String currency, double amount) {}
+    /**
+     * Everything the AfterShip request depends on.
+     */
+    private record RateKey(String apiKey,
+                           String fromCity, String fromState, String fromPostcode, String fromCountry,
+                           String toCity, String toState, String toPostcode, String toCountry,
+                           CarrierParcel parcel, int totalPieces, LocalDate shipDate) {
+    }
 }
@@ -1,5 +1,6 @@
 package com.postage.postagecomparator.provider;
 
+import com.postage.postagecomparator.config.CarrierRetryFilter;
 import com.postage.postagecomparator.config.ProviderConfig;
 import com.postage.postagecomparator.model.CarrierQuote;
 import com.postage.postagecomparator.model.Item;
@@ -7,29 +8,26 @@ import com.postage.postagecomparator.model.OriginSettings;
 import com.postage.postagecomparator.model.Packaging;
 import com.postage.postagecomparator.model.QuoteResult;
 import com.postage.postagecomparator.model.ShipmentRequest;
+import com.postage.postagecomparator.provider.response.AramexRateResponse;
 import com.postage.postagecomparator.service.QuoteRequestHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Mono;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
-import java.io.StringReader;
 import java.util.List;
 import java.util.Optional;
 
-import org.xml.sax.InputSource;
-
 /**
  * Aramex connector implementation using the RateCalculator SOAP service.
- * Uses credentials and account info from environment variables.
+ * Uses credentials and account info from environment variables, read by {@link CarrierCredentials}.
  *
  * Required env vars:
  * - ARAMEX_USERNAME
@@ -51,11 +49,25 @@ public class AramexProvider implements CarrierProvider {
 
     private final WebClient aramexWebClient;
     private final QuoteRequestHelper requestHelper;
+    private final RateCache rateCache;
+    private final CarrierCredentials credentials;
+    private final AramexRequestEncoder requestEncoder = new AramexRequestEncoder();
 
-    public AramexProvider(@Qualifier("aramexWebClient") WebClient aramexWebClient,
+    public AramexProvider(WebClient aramexWebClient,
                           QuoteRequestHelper requestHelper) {
+        this(aramexWebClient, requestHelper, new RateCache(new ProviderConfig(), new CarrierMetrics()),
+                new CarrierCredentials());
+    }
+
+    @Autowired
+    public AramexProvider(@Qualifier("aramexWebClient") WebClient aramexWebClient,
+                          QuoteRequestHelper requestHelper,
+                          RateCache rateCache,
+                          CarrierCredentials credentials) {
         this.aramexWebClient = aramexWebClient;
         this.requestHelper = requestHelper;
+        this.rateCache = rateCache;
+        this.credentials = credentials;
     }
 
     @Override
@@ -75,14 +87,8 @@ public class AramexProvider implements CarrierProvider {
                                         OriginSettings origin,
                                         Packaging packaging,
                                         List<Item> items) {
-        String username = env("ARAMEX_USERNAME");
-        String password = env("ARAMEX_PASSWORD");
-        String accountNumber = env("ARAMEX_ACCOUNT_NUMBER");
-        String accountPin = env("ARAMEX_ACCOUNT_PIN");
-        String accountEntity = env("ARAMEX_ACCOUNT_ENTITY");
-        String accountCountry = envOrDefault("ARAMEX_ACCOUNT_COUNTRY", "AU");
-
-        if (isBlank(username, password)) {
+        var account = credentials.getAramexAccount();
+        if (account == null) {
             log.info("Aramex credentials not configured; skipping API call.");
             return Optional.empty();
         }
@@ -90,60 +96,67 @@ public class AramexProvider implements CarrierProvider {
         QuoteResult.Destination destination = requestHelper.buildDestination(request);
         int totalWeightGrams = requestHelper.calculateTotalWeight(request.items());
         int totalPieces = Math.max(1, request.items().stream().mapToInt(selection -> selection.quantity()).sum());
-        double weightKg = totalWeightGrams / 1000.0;
-
-        String productGroup = envOrDefault("ARAMEX_PRODUCT_GROUP", "EXP");
-        String productType = envOrDefault("ARAMEX_PRODUCT_TYPE", "PPX");
-        String paymentType = envOrDefault("ARAMEX_PAYMENT_TYPE", "P");
-        String version = envOrDefault("ARAMEX_VERSION", "v1.0");
-
-        String requestXml = buildRateRequestXml(
-                username,
-                password,
-                version,
-                accountNumber,
-                accountPin,
-                accountEntity,
-                accountCountry,
-                origin,
-                destination,
-                packaging,
-                weightKg,
-                totalPieces,
-                productGroup,
-                productType,
-                paymentType
+        CarrierParcel parcel = rateCache.parcel(getName(), packaging, totalWeightGrams);
+
+        var shipment = new AramexRequestEncoder.Shipment(
+                nullToEmpty(origin.suburb()),
+                nullToEmpty(origin.country()),
+                nullToEmpty(destination.suburb()),
+                nullToEmpty(destination.country()),
+                parcel.weightKg(),
+                totalPieces
         );
 
+        // The account and shipment are the whole request, so together they key the rate
+        return rateCache.get(getName(), new RateKey(account, shipment), () -> fetch(account, shipment))
+                .flatMap(response -> parseRateResponse(response, packaging));
+    }
+
+    /**
+     * Calls the Aramex API. Rejected when the response reports errors, such as an unknown city.
+     */
+    private RateCache.Fetched<AramexRateResponse> fetch(AramexRequestEncoder.Account account,
+                                               AramexRequestEncoder.Shipment shipment) {
         try {
             String responseXml = aramexWebClient
                     .post()
                     .contentType(MediaType.TEXT_XML)
                     .accept(MediaType.TEXT_XML)
+                    // Only asks for rates, so safe to send again
+                    .attribute(CarrierRetryFilter.IDEMPOTENT, true)
                     .header("SOAPAction", "http://ws.aramex.net/ShippingAPI/v1/Service_1_0/CalculateRate")
-                    .bodyValue(requestXml)
+                    .body(BodyInserters.fromDataBuffers(
+                            Mono.fromSupplier(() -> requestEncoder.encode(account, shipment))))
                     .retrieve()
                     .bodyToMono(String.class)
                     .block();
 
             if (responseXml == null || responseXml.isBlank()) {
                 log.warn("Aramex API returned empty response");
-                return Optional.empty();
+                return RateCache.Fetched.failed();
             }
 
-            return parseRateResponse(responseXml, packaging);
+            AramexRateResponse response = AramexRateResponse.parse(responseXml);
+            if (response.hasErrors()) {
+                log.warn("Aramex rate response has errors: {}", response.message());
+                return RateCache.Fetched.unserviceable();
+            }
+            return RateCache.Fetched.of(response);
+        } catch (CarrierTimeoutException e) {
+            log.warn("Aramex API timed out: {}", e.getMessage());
+            return RateCache.Fetched.failed();
         } catch (WebClientResponseException e) {
             log.error("Aramex API call failed (status: {}). Response: {}. Stack: {}",
                     e.getStatusCode(),
                     e.getResponseBodyAsString(),
                     summarizeStackTrace(e));
-            return Optional.empty();
+            return RateCache.Fetched.failed(e);
         } catch (WebClientException e) {
             log.error("Aramex API network/client error: {}. Stack: {}", e.getMessage(), summarizeStackTrace(e));
-            return Optional.empty();
+            return RateCache.Fetched.failed();
         } catch (Exception e) {
             log.error("Aramex API call failed: {}. Stack: {}", e.getMessage(), summarizeStackTrace(e));
-            return Optional.empty();
+            return RateCache.Fetched.failed();
         }
     }
 
@@ -155,26 +168,10 @@ public class AramexProvider implements CarrierProvider {
         return Optional.empty();
     }
 
-    private Optional<CarrierQuote> parseRateResponse(String responseXml, Packaging packaging) {
+    private Optional<CarrierQuote> parseRateResponse(AramexRateResponse response, Packaging packaging) {
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            var builder = factory.newDocumentBuilder();
-            var doc = builder.parse(new InputSource(new StringReader(responseXml)));
-
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            String hasErrors = (String) xpath.evaluate("//*[local-name()='HasErrors']/text()", doc, XPathConstants.STRING);
-            if ("true".equalsIgnoreCase(hasErrors)) {
-                String message = (String) xpath.evaluate("//*[local-name()='Notifications']//*[local-name()='Message']/text()",
-                        doc, XPathConstants.STRING);
-                log.warn("Aramex rate response has errors: {}", message);
-                return Optional.empty();
-            }
-
-            String currency = (String) xpath.evaluate("//*[local-name()='TotalAmount']/*[local-name()='CurrencyCode']/text()",
-                    doc, XPathConstants.STRING);
-            String value = (String) xpath.evaluate("//*[local-name()='TotalAmount']/*[local-name()='Value']/text()",
-                    doc, XPathConstants.STRING);
+            String currency = response.currencyCode();
+            String value = response.totalAmount();
 
             Double totalCost = parseDouble(value);
             if (totalCost == null) {
@@ -209,122 +206,10 @@ public class AramexProvider implements CarrierProvider {
         }
     }
 
-    private String buildRateRequestXml(String username,
-                                       String password,
-                                       String version,
-                                       String accountNumber,
-                                       String accountPin,
-                                       String accountEntity,
-                                       String accountCountry,
-                                       OriginSettings origin,
-                                       QuoteResult.Destination destination,
-                                       Packaging packaging,
-                                       double weightKg,
-                                       int pieces,
-                                       String productGroup,
-                                       String productType,
-                                       String paymentType) {
-        return """
-                <soapenv:Envelope xmlns:soapenv="http://schemas.xmlsoap.org/soap/envelope/"
-                                  xmlns:typ="http://ws.aramex.net/ShippingAPI/v1/">
-                  <soapenv:Header/>
-                  <soapenv:Body>
-                    <typ:RateCalculatorRequest>
-                      <typ:ClientInfo>
-                        <typ:AccountCountryCode>%s</typ:AccountCountryCode>
-                        <typ:AccountEntity>%s</typ:AccountEntity>
-                        <typ:AccountNumber>%s</typ:AccountNumber>
-                        <typ:AccountPin>%s</typ:AccountPin>
-                        <typ:UserName>%s</typ:UserName>
-                        <typ:Password>%s</typ:Password>
-                        <typ:Version>%s</typ:Version>
-                      </typ:ClientInfo>
-                      <typ:Transaction>
-                        <typ:Reference1>001</typ:Reference1>
-                      </typ:Transaction>
-                      <typ:OriginAddress>
-                        <typ:City>%s</typ:City>
-                        <typ:CountryCode>%s</typ:CountryCode>
-                      </typ:OriginAddress>
-                      <typ:DestinationAddress>
-                        <typ:City>%s</typ:City>
-                        <typ:CountryCode>%s</typ:CountryCode>
-                      </typ:DestinationAddress>
-                      <typ:ShipmentDetails>
-                        <typ:PaymentType>%s</typ:PaymentType>
-                        <typ:ProductGroup>%s</typ:ProductGroup>
-                        <typ:ProductType>%s</typ:ProductType>
-                        <typ:ActualWeight>
-                          <typ:Value>%.3f</typ:Value>
-                          <typ:Unit>KG</typ:Unit>
-                        </typ:ActualWeight>
-                        <typ:ChargeableWeight>
-                          <typ:Value>%.3f</typ:Value>
-                          <typ:Unit>KG</typ:Unit>
-                        </typ:ChargeableWeight>
-                        <typ:NumberOfPieces>%d</typ:NumberOfPieces>
-                      </typ:ShipmentDetails>
-                    </typ:RateCalculatorRequest>
-                  </soapenv:Body>
-                </soapenv:Envelope>
-                """.formatted(
-                escapeXml(accountCountry),
-                escapeXml(accountEntity),
-                escapeXml(accountNumber),
-                escapeXml(accountPin),
-                escapeXml(username),
-                escapeXml(password),
-                escapeXml(version),
-                escapeXml(nullToEmpty(origin.suburb())),
-                escapeXml(nullToEmpty(origin.country())),
-                escapeXml(nullToEmpty(destination.suburb())),
-                escapeXml(nullToEmpty(destination.country())),
-                escapeXml(paymentType),
-                escapeXml(productGroup),
-                escapeXml(productType),
-                weightKg,
-                weightKg,
-                pieces
-        );
-    }
-
-    private String env(String key) {
-        String property = System.getProperty(key);
-        if (property != null) {
-            return property;
-        }
-        return System.getenv(key);
-    }
-
-    private String envOrDefault(String key, String fallback) {
-        String value = env(key);
-        return value == null || value.isBlank() ? fallback : value;
-    }
-
-    private boolean isBlank(String... values) {
-        for (String value : values) {
-            if (value == null || value.isBlank()) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private String nullToEmpty(String value) {
         return value == null ? "" : value;
     }
 
-    private String escapeXml(String value) {
-        if (value == null) {
-            return "";
-        }
-        return value.replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&apos;");
-    }
-
     private Double parseDouble(String value) {
         if (value == null || value.isBlank()) {
             return null;
@@ -345,4 +230,7 @@ public class AramexProvider implements CarrierProvider {
         }
         return builder.toString();
     }
+
+    private record RateKey(AramexRequestEncoder.Account account, AramexRequestEncoder.Shipment shipment) {
+    }
 }
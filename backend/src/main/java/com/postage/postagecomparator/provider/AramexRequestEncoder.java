@@ -0,0 +1,275 @@
+package com.postage.postagecomparator.provider;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Encodes Aramex {@code CalculateRate} SOAP requests.
+ *
+ * The envelope and every field that only depends on the {@link Account} are rendered once into
+ * byte segments, and rendered again only when the account changes. Each request then writes its
+ * {@link Shipment} fields between those segments, escaping them as they are written, straight into
+ * a buffer from Netty's pooled allocator. The HTTP client releases the buffer once it is sent.
+ */
+final class AramexRequestEncoder {
+
+    private static final String TEMPLATE = """
+            <soapenv:Envelope xmlns:soapenv="http://schemas.xmlsoap.org/soap/envelope/"
+                              xmlns:typ="http://ws.aramex.net/ShippingAPI/v1/">
+              <soapenv:Header/>
+              <soapenv:Body>
+                <typ:RateCalculatorRequest>
+                  <typ:ClientInfo>
+                    <typ:AccountCountryCode>{ACCOUNT_COUNTRY}</typ:AccountCountryCode>
+                    <typ:AccountEntity>{ACCOUNT_ENTITY}</typ:AccountEntity>
+                    <typ:AccountNumber>{ACCOUNT_NUMBER}</typ:AccountNumber>
+                    <typ:AccountPin>{ACCOUNT_PIN}</typ:AccountPin>
+                    <typ:UserName>{USERNAME}</typ:UserName>
+                    <typ:Password>{PASSWORD}</typ:Password>
+                    <typ:Version>{VERSION}</typ:Version>
+                  </typ:ClientInfo>
+                  <typ:Transaction>
+                    <typ:Reference1>001</typ:Reference1>
+                  </typ:Transaction>
+                  <typ:OriginAddress>
+                    <typ:City>{ORIGIN_CITY}</typ:City>
+                    <typ:CountryCode>{ORIGIN_COUNTRY}</typ:CountryCode>
+                  </typ:OriginAddress>
+                  <typ:DestinationAddress>
+                    <typ:City>{DESTINATION_CITY}</typ:City>
+                    <typ:CountryCode>{DESTINATION_COUNTRY}</typ:CountryCode>
+                  </typ:DestinationAddress>
+                  <typ:ShipmentDetails>
+                    <typ:PaymentType>{PAYMENT_TYPE}</typ:PaymentType>
+                    <typ:ProductGroup>{PRODUCT_GROUP}</typ:ProductGroup>
+                    <typ:ProductType>{PRODUCT_TYPE}</typ:ProductType>
+                    <typ:ActualWeight>
+                      <typ:Value>{WEIGHT}</typ:Value>
+                      <typ:Unit>KG</typ:Unit>
+                    </typ:ActualWeight>
+                    <typ:ChargeableWeight>
+                      <typ:Value>{WEIGHT}</typ:Value>
+                      <typ:Unit>KG</typ:Unit>
+                    </typ:ChargeableWeight>
+                    <typ:NumberOfPieces>{PIECES}</typ:NumberOfPieces>
+                  </typ:ShipmentDetails>
+                </typ:RateCalculatorRequest>
+              </soapenv:Body>
+            </soapenv:Envelope>
+            """;
+
+    private static final Pattern FIELD = Pattern.compile("\\{([A-Z_]+)}");
+
+    private static final byte[] AMP = "&amp;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LT = "&lt;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GT = "&gt;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUOT = "&quot;".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] APOS = "&apos;".getBytes(StandardCharsets.US_ASCII);
+
+    // Room for the shipment fields on top of the rendered segments
+    private static final int SHIPMENT_CAPACITY = 256;
+
+    private final DataBufferFactory bufferFactory;
+    private volatile Rendered rendered;
+
+    AramexRequestEncoder() {
+        this(new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT));
+    }
+
+    AramexRequestEncoder(DataBufferFactory bufferFactory) {
+        this.bufferFactory = bufferFactory;
+    }
+
+    /**
+     * @return the request, in a buffer the caller must send or release
+     */
+    DataBuffer encode(Account account, Shipment shipment) {
+        Rendered current = rendered;
+        if (current == null || !current.account().equals(account)) {
+            current = render(account);
+            rendered = current;
+        }
+        DataBuffer buffer = bufferFactory.allocateBuffer(current.length() + SHIPMENT_CAPACITY);
+        try {
+            for (int i = 0; i < current.fields().length; i++) {
+                buffer.write(current.segments()[i]);
+                writeField(buffer, current.fields()[i], shipment);
+            }
+            buffer.write(current.segments()[current.fields().length]);
+            return buffer;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+    private static Rendered render(Account account) {
+        List<byte[]> segments = new ArrayList<>();
+        List<ShipmentField> fields = new ArrayList<>();
+        StringBuilder segment = new StringBuilder();
+        Matcher matcher = FIELD.matcher(TEMPLATE);
+        int last = 0;
+        while (matcher.find()) {
+            segment.append(TEMPLATE, last, matcher.start());
+            last = matcher.end();
+            String name = matcher.group(1);
+            ShipmentField field = ShipmentField.named(name);
+            if (field != null) {
+                segments.add(segment.toString().getBytes(StandardCharsets.UTF_8));
+                fields.add(field);
+                segment.setLength(0);
+            } else {
+                segment.append(escape(account.field(name)));
+            }
+        }
+        segment.append(TEMPLATE, last, TEMPLATE.length());
+        segments.add(segment.toString().getBytes(StandardCharsets.UTF_8));
+        int length = segments.stream().mapToInt(bytes -> bytes.length).sum();
+        return new Rendered(account, segments.toArray(byte[][]::new), fields.toArray(ShipmentField[]::new), length);
+    }
+
+    private static void writeField(DataBuffer buffer, ShipmentField field, Shipment shipment) {
+        switch (field) {
+            case ORIGIN_CITY -> writeEscaped(buffer, shipment.originCity());
+            case ORIGIN_COUNTRY -> writeEscaped(buffer, shipment.originCountry());
+            case DESTINATION_CITY -> writeEscaped(buffer, shipment.destinationCity());
+            case DESTINATION_COUNTRY -> writeEscaped(buffer, shipment.destinationCountry());
+            case WEIGHT -> writeThousandths(buffer, Math.round(shipment.weightKg() * 1000));
+            case PIECES -> writeAscii(buffer, Integer.toString(shipment.pieces()));
+        }
+    }
+
+    /**
+     * Writes {@code value} as UTF-8, escaping XML's special characters in the same pass.
+     */
+    private static void writeEscaped(DataBuffer buffer, String value) {
+        if (value == null) {
+            return;
+        }
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> buffer.write(AMP);
+                case '<' -> buffer.write(LT);
+                case '>' -> buffer.write(GT);
+                case '"' -> buffer.write(QUOT);
+                case '\'' -> buffer.write(APOS);
+                default -> {
+                    if (c < 0x80) {
+                        buffer.write((byte) c);
+                    } else {
+                        // Hand the whole non-ASCII run to the encoder so surrogate pairs stay together
+                        int end = i + 1;
+                        while (end < length && value.charAt(end) >= 0x80) {
+                            end++;
+                        }
+                        buffer.write(CharBuffer.wrap(value, i, end), StandardCharsets.UTF_8);
+                        i = end;
+                        continue;
+                    }
+                }
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Writes {@code thousandths / 1000} with three decimals, whatever the default locale.
+     */
+    private static void writeThousandths(DataBuffer buffer, long thousandths) {
+        if (thousandths < 0) {
+            buffer.write((byte) '-');
+            thousandths = -thousandths;
+        }
+        writeAscii(buffer, Long.toString(thousandths / 1000));
+        buffer.write((byte) '.');
+        long fraction = thousandths % 1000;
+        buffer.write((byte) ('0' + fraction / 100));
+        buffer.write((byte) ('0' + fraction / 10 % 10));
+        buffer.write((byte) ('0' + fraction % 10));
+    }
+
+    private static void writeAscii(DataBuffer buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            buffer.write((byte) value.charAt(i));
+        }
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&apos;");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Account and product settings, fixed for every request of an account.
+     */
+    record Account(String username, String password, String version, String accountNumber, String accountPin,
+                   String accountEntity, String accountCountry, String productGroup, String productType,
+                   String paymentType) {
+
+        private String field(String name) {
+            return switch (name) {
+                case "USERNAME" -> username;
+                case "PASSWORD" -> password;
+                case "VERSION" -> version;
+                case "ACCOUNT_NUMBER" -> accountNumber;
+                case "ACCOUNT_PIN" -> accountPin;
+                case "ACCOUNT_ENTITY" -> accountEntity;
+                case "ACCOUNT_COUNTRY" -> accountCountry;
+                case "PRODUCT_GROUP" -> productGroup;
+                case "PRODUCT_TYPE" -> productType;
+                case "PAYMENT_TYPE" -> paymentType;
+                default -> throw new IllegalStateException("Unknown Aramex request field: " + name);
+            };
+        }
+    }
+
+    /**
+     * The fields that change with every request.
+     */
+    record Shipment(String originCity, String originCountry, String destinationCity, String destinationCountry,
+                    double weightKg, int pieces) {
+    }
+
+    private enum ShipmentField {
+        ORIGIN_CITY, ORIGIN_COUNTRY, DESTINATION_CITY, DESTINATION_COUNTRY, WEIGHT, PIECES;
+
+        static ShipmentField named(String name) {
+            for (ShipmentField field : values()) {
+                if (field.name().equals(name)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Rendered(Account account, byte[][] segments, ShipmentField[] fields, int length) {
+    }
+}
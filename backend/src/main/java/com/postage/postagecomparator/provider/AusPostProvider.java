@@ -7,6 +7,7 @@ import com.postage.postagecomparator.model.OriginSettings;
 import com.postage.postagecomparator.model.Packaging;
 import com.postage.postagecomparator.model.QuoteResult;
 import com.postage.postagecomparator.model.ShipmentRequest;
+import com.postage.postagecomparator.provider.response.AusPostResponse;
 import com.postage.postagecomparator.service.QuoteRequestHelper;
 import com.postage.postagecomparator.service.SettingsService;
 
@@ -14,12 +15,12 @@ import reactor.core.publisher.Mono;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 @Component
@@ -30,11 +31,19 @@ public class AusPostProvider implements CarrierProvider {
     private final SettingsService settingsService;
     private static final Logger log = LoggerFactory.getLogger(AusPostProvider.class);
     private final QuoteRequestHelper requestHelper;
+    private final RateCache rateCache;
 
-    public AusPostProvider(@Qualifier("ausPostWebClient") WebClient ausPostWebClient, SettingsService settingsService, QuoteRequestHelper requestHelper) {
+    public AusPostProvider(WebClient ausPostWebClient, SettingsService settingsService, QuoteRequestHelper requestHelper) {
+        this(ausPostWebClient, settingsService, requestHelper, new RateCache(new ProviderConfig(), new CarrierMetrics()));
+    }
+
+    @Autowired
+    public AusPostProvider(@Qualifier("ausPostWebClient") WebClient ausPostWebClient, SettingsService settingsService,
+                           QuoteRequestHelper requestHelper, RateCache rateCache) {
         this.ausPostWebClient = ausPostWebClient;
         this.settingsService = settingsService;
         this.requestHelper = requestHelper;
+        this.rateCache = rateCache;
     }
 
     @Override
@@ -72,27 +81,53 @@ public class AusPostProvider implements CarrierProvider {
         QuoteResult.Destination destination = requestHelper.buildDestination(request);
         int totalWeightGrams = requestHelper.calculateTotalWeight(request.items());
         boolean isExpress = request.isExpress();
+        CarrierParcel parcel = rateCache.parcel(getName(), packaging, totalWeightGrams);
+        String serviceCode = isExpress ? "AUS_PARCEL_EXPRESS" : "AUS_PARCEL_REGULAR";
+
+        var key = new RateKey(apiKey, origin.postcode(), destination.postcode(), parcel, serviceCode);
+        Optional<AusPostResponse> response = rateCache.get(getName(), key,
+                () -> fetch(apiKey, origin, destination, parcel, serviceCode));
+        if (response.isEmpty()) {
+            return Optional.empty();
+        }
 
+        // Map the response's postage_result (cost, service, delivery time) to a CarrierQuote
+        log.debug("AusPost API call succeeded, parsing response");
+        CarrierQuote quote = parseAusPostResponse(response.get(), packaging, isExpress);
+        if (quote != null) {
+            log.info("AusPost API quote successfully retrieved: ${}", quote.totalCostAud());
+        } else {
+            log.warn("AusPost API response parsed to null, falling back to rules");
+        }
+        return Optional.ofNullable(quote);
+    }
+
+    /**
+     * Calls the AusPost API.
+     */
+    private RateCache.Fetched<AusPostResponse> fetch(String apiKey,
+            OriginSettings origin,
+            QuoteResult.Destination destination,
+            CarrierParcel parcel,
+            String serviceCode) {
         String uriAusPostCalculate = "/postage/parcel/domestic/calculate.json";
-        String serviceCode = isExpress ? "AUS_PARCEL_EXPRESS" : "AUS_PARCEL_REGULAR";
 
         log.info("Attempting AusPost API call: from {} {} to {} {}, weight: {}g, service: {}",
                 origin.postcode(), origin.suburb(),
                 destination.postcode(), destination.suburb(),
-                totalWeightGrams, serviceCode);
+                parcel.weightGrams(), serviceCode);
 
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = ausPostWebClient
+            AusPostResponse response = ausPostWebClient
                     .get()
                     .uri(uriBuilder -> uriBuilder
                             .path(uriAusPostCalculate)
                             .queryParam("from_postcode", origin.postcode())
                             .queryParam("to_postcode", destination.postcode())
-                            .queryParam("length", String.valueOf(packaging.lengthCm()))
-                            .queryParam("width", String.valueOf(packaging.widthCm()))
-                            .queryParam("height", String.valueOf(packaging.heightCm()))
-                            .queryParam("weight", String.valueOf(totalWeightGrams / 1000.0))
+                            .queryParam("length", String.valueOf(parcel.lengthCm()))
+                            .queryParam("width", String.valueOf(parcel.widthCm()))
+                            .queryParam("height", String.valueOf(parcel.heightCm()))
+                            .queryParam("weight", String.valueOf(parcel.weightKg()))
                             .queryParam("service_code", serviceCode)
                             .build())
                     .header("AUTH-KEY", apiKey)
@@ -106,8 +141,8 @@ public class AusPostProvider implements CarrierProvider {
                                         origin.postcode(), origin.suburb(),
                                         destination.postcode(), destination.suburb(),
                                         serviceCode);
-                                return Mono.error(new RuntimeException(
-                                        "AusPost API client error: " + clientResponse.statusCode()));
+                                return Mono.error(new CarrierClientErrorException(
+                                        getName(), clientResponse.statusCode()));
                             })
                     .onStatus(
                             status -> status.is5xxServerError(),
@@ -121,7 +156,7 @@ public class AusPostProvider implements CarrierProvider {
                                 return Mono.error(new RuntimeException(
                                         "AusPost API server error: " + clientResponse.statusCode()));
                             })
-                    .bodyToMono(Map.class)
+                    .bodyToMono(AusPostResponse.class)
                     .block();
 
             if (response == null) {
@@ -129,20 +164,15 @@ public class AusPostProvider implements CarrierProvider {
                         origin.postcode(), origin.suburb(),
                         destination.postcode(), destination.suburb(),
                         serviceCode);
-                return Optional.empty();
+                return RateCache.Fetched.failed();
             }
-
-            // Parse response and map to CarrierQuote
-            // AusPost API response structure: typically has "postage_result" with cost,
-            // service, etc.
-            log.debug("AusPost API call succeeded, parsing response");
-            CarrierQuote quote = parseAusPostResponse(response, packaging, isExpress);
-            if (quote != null) {
-                log.info("AusPost API quote successfully retrieved: ${}", quote.totalCostAud());
-            } else {
-                log.warn("AusPost API response parsed to null, falling back to rules");
-            }
-            return Optional.ofNullable(quote);
+            return RateCache.Fetched.of(response);
+        } catch (CarrierTimeoutException e) {
+            log.warn("AusPost API timed out, falling back to rules: {}", e.getMessage());
+            return RateCache.Fetched.failed();
+        } catch (CarrierClientErrorException e) {
+            // Logged with the request by the status handler
+            return RateCache.Fetched.failed(e);
         } catch (org.springframework.web.reactive.function.client.WebClientResponseException e) {
             log.error(
                     "AusPost API returned error response (status: {}). Request: from {} {} to {} {}. Service: {}. Error: {}",
@@ -151,14 +181,14 @@ public class AusPostProvider implements CarrierProvider {
                     destination.postcode(), destination.suburb(),
                     serviceCode,
                     e.getMessage(), e);
-            return Optional.empty();
+            return RateCache.Fetched.failed(e);
         } catch (org.springframework.web.reactive.function.client.WebClientException e) {
             log.error("AusPost API network/client error. Request: from {} {} to {} {}. Service: {}. Error: {}",
                     origin.postcode(), origin.suburb(),
                     destination.postcode(), destination.suburb(),
                     serviceCode,
                     e.getMessage(), e);
-            return Optional.empty();
+            return RateCache.Fetched.failed();
         } catch (RuntimeException e) {
             log.error(
                     "AusPost API call failed with runtime error. Request: from {} {} to {} {}. Service: {}. Error: {}",
@@ -166,7 +196,7 @@ public class AusPostProvider implements CarrierProvider {
                     destination.postcode(), destination.suburb(),
                     serviceCode,
                     e.getMessage(), e);
-            return Optional.empty();
+            return RateCache.Fetched.failed();
         } catch (Exception e) {
             log.error(
                     "AusPost API call failed with unexpected error. Request: from {} {} to {} {}. Service: {}. Error: {}",
@@ -174,23 +204,21 @@ public class AusPostProvider implements CarrierProvider {
                     destination.postcode(), destination.suburb(),
                     serviceCode,
                     e.getMessage(), e);
-            return Optional.empty(); // Return null to allow fallback to rules
+            return RateCache.Fetched.failed(); // Allow fallback to rules
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private CarrierQuote parseAusPostResponse(Map<String, Object> response, Packaging packaging, boolean isExpress) {
+    private CarrierQuote parseAusPostResponse(AusPostResponse response, Packaging packaging, boolean isExpress) {
         try {
             log.debug("Parsing AusPost API response: {}", response);
-            Map<String, Object> postageResult = (Map<String, Object>) response.get("postage_result");
+            AusPostResponse.PostageResult postageResult = response.postageResult();
             if (postageResult == null) {
                 log.error("AusPost response missing postage_result. Full response: {}", response);
                 return null;
             }
 
             // Extract cost from "total_cost" (string format like "15.05")
-            Object costObj = postageResult.get("total_cost");
-            Double totalCost = costObj != null ? parseDouble(costObj) : null;
+            Double totalCost = parseDouble(postageResult.totalCost());
 
             if (totalCost == null) {
                 log.error("AusPost response missing total_cost. postage_result: {}", postageResult);
@@ -198,14 +226,14 @@ public class AusPostProvider implements CarrierProvider {
             }
 
             // Extract service name
-            String serviceName = extractString(postageResult, "service");
+            String serviceName = postageResult.service();
             if (serviceName == null) {
                 serviceName = isExpress ? "Express Post" : "Parcel Post";
             }
 
             // Extract delivery time from string format like "Delivered in 4 business days"
             // Try to parse the number(s) from the string
-            String deliveryTimeStr = extractString(postageResult, "delivery_time");
+            String deliveryTimeStr = postageResult.deliveryTime();
             Integer etaMin = null;
             Integer etaMax = null;
             if (deliveryTimeStr != null) {
@@ -237,9 +265,6 @@ public class AusPostProvider implements CarrierProvider {
                     false, // ruleFallbackUsed
                     null // rawCarrierRef - could extract from response if available
             );
-        } catch (ClassCastException e) {
-            log.error("Failed to parse AusPost response: type casting error", e);
-            return null;
         } catch (NullPointerException e) {
             log.error("Failed to parse AusPost response: null pointer exception", e);
             return null;
@@ -312,8 +337,10 @@ public class AusPostProvider implements CarrierProvider {
         return null;
     }
 
-    private String extractString(Map<String, Object> map, String key) {
-        Object value = map.get(key);
-        return value != null ? value.toString() : null;
+    /**
+     * Everything the AusPost request depends on.
+     */
+    private record RateKey(String apiKey, String fromPostcode, String toPostcode, CarrierParcel parcel,
+                           String serviceCode) {
     }
 }
@@ -0,0 +1,47 @@
+package com.postage.postagecomparator.provider;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.WebClientException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * A carrier answered a call with a 4xx status. Unless the status only means "try again later",
+ * sending the same request again gets the same answer, so the {@link RateCache} remembers it.
+ */
+public class CarrierClientErrorException extends WebClientException {
+
+    private final String provider;
+    private final HttpStatusCode status;
+
+    public CarrierClientErrorException(String provider, HttpStatusCode status) {
+        super(provider + " API client error: " + status);
+        this.provider = provider;
+        this.status = status;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public HttpStatusCode getStatus() {
+        return status;
+    }
+
+    /**
+     * @return whether {@code error} is a 4xx answer that the same request would get again
+     */
+    public static boolean isRejection(Throwable error) {
+        HttpStatusCode status = null;
+        if (error instanceof CarrierClientErrorException clientError) {
+            status = clientError.getStatus();
+        } else if (error instanceof WebClientResponseException responseError) {
+            status = responseError.getStatusCode();
+        }
+        return status != null && status.is4xxClientError() && !isTransient(status.value());
+    }
+
+    // Request Timeout, Too Early and Too Many Requests ask to retry
+    private static boolean isTransient(int status) {
+        return status == 408 || status == 425 || status == 429;
+    }
+}
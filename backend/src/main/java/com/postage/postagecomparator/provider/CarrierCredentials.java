@@ -0,0 +1,139 @@
+package com.postage.postagecomparator.provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Carrier credentials, read from system properties or else environment variables once at startup
+ * and again on {@link #reload()}, so quotes do not look them up on every call.
+ *
+ * A snapshot is immutable and replaced as a whole, so a quote sees either the old or the new
+ * credentials, never a mix.
+ */
+@Component
+public class CarrierCredentials {
+
+    private static final Logger log = LoggerFactory.getLogger(CarrierCredentials.class);
+
+    private final UnaryOperator<String> lookup;
+    private volatile Snapshot snapshot;
+
+    public CarrierCredentials() {
+        this(CarrierCredentials::propertyOrEnv);
+    }
+
+    CarrierCredentials(UnaryOperator<String> lookup) {
+        this.lookup = lookup;
+        this.snapshot = resolve();
+    }
+
+    /**
+     * Reads the credentials again, for keys rotated without a restart.
+     *
+     * @return whether each carrier now has credentials
+     */
+    public Map<String, Boolean> reload() {
+        snapshot = resolve();
+        log.info("Carrier credentials reloaded: {}", configured());
+        return configured();
+    }
+
+    /**
+     * @return whether each carrier has credentials, keyed by provider name
+     */
+    public Map<String, Boolean> configured() {
+        var current = snapshot;
+        var configured = new LinkedHashMap<String, Boolean>();
+        configured.put("auspost", current.ausPostApiKey() != null);
+        configured.put("shippit", current.shippitApiKey() != null);
+        configured.put("shipstation", current.shipStationApiKey() != null);
+        configured.put("aftership", current.afterShipApiKey() != null);
+        configured.put("aramex", current.aramexAccount() != null);
+        return configured;
+    }
+
+    public String getAusPostApiKey() {
+        return snapshot.ausPostApiKey();
+    }
+
+    public String getShippitApiKey() {
+        return snapshot.shippitApiKey();
+    }
+
+    public String getShipStationApiKey() {
+        return snapshot.shipStationApiKey();
+    }
+
+    public String getAfterShipApiKey() {
+        return snapshot.afterShipApiKey();
+    }
+
+    /**
+     * @return the Aramex account, or null when its username or password is not set
+     */
+    AramexRequestEncoder.Account getAramexAccount() {
+        return snapshot.aramexAccount();
+    }
+
+    private Snapshot resolve() {
+        return new Snapshot(
+                value("AUSPOST_API_KEY"),
+                value("SHIPPIT_API_KEY"),
+                value("SHIPSTATION_API_KEY"),
+                value("AFTERSHIP_API_KEY"),
+                aramexAccount());
+    }
+
+    private AramexRequestEncoder.Account aramexAccount() {
+        String username = value("ARAMEX_USERNAME");
+        String password = value("ARAMEX_PASSWORD");
+        if (username == null || password == null) {
+            if (username != null || password != null) {
+                log.warn("Aramex needs both ARAMEX_USERNAME and ARAMEX_PASSWORD; Aramex quotes are disabled");
+            }
+            return null;
+        }
+        return new AramexRequestEncoder.Account(
+                username,
+                password,
+                valueOrDefault("ARAMEX_VERSION", "v1.0"),
+                value("ARAMEX_ACCOUNT_NUMBER"),
+                value("ARAMEX_ACCOUNT_PIN"),
+                value("ARAMEX_ACCOUNT_ENTITY"),
+                valueOrDefault("ARAMEX_ACCOUNT_COUNTRY", "AU"),
+                valueOrDefault("ARAMEX_PRODUCT_GROUP", "EXP"),
+                valueOrDefault("ARAMEX_PRODUCT_TYPE", "PPX"),
+                valueOrDefault("ARAMEX_PAYMENT_TYPE", "P"));
+    }
+
+    // Blank values count as unset
+    private String value(String key) {
+        String value = lookup.apply(key);
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private String valueOrDefault(String key, String fallback) {
+        String value = value(key);
+        return value == null ? fallback : value;
+    }
+
+    private static String propertyOrEnv(String key) {
+        var property = System.getProperty(key);
+        if (property != null && !property.isBlank()) {
+            return property;
+        }
+        return System.getenv(key);
+    }
+
+    private record Snapshot(String ausPostApiKey,
+                            String shippitApiKey,
+                            String shipStationApiKey,
+                            String afterShipApiKey,
+                            AramexRequestEncoder.Account aramexAccount) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.postage.postagecomparator.provider;
+
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process metrics for the carrier integrations, keyed by provider name and read through
+ * {@code GET /api/metrics/carriers}.
+ *
+ * Connection pool gauges are read live from Reactor Netty: each provider's pool registers itself
+ * through {@link #poolRegistrar()}, once per remote address it connects to. Call outcomes are
+ * counted as each call ends.
+ */
+@Component
+public class CarrierMetrics {
+
+    private final Map<String, Map<String, ConnectionPoolMetrics>> pools = new ConcurrentHashMap<>();
+    private final Map<String, CallCounters> calls = new ConcurrentHashMap<>();
+
+    public void recordSuccess(String provider) {
+        counters(provider).succeeded.increment();
+    }
+
+    public void recordFailure(String provider) {
+        counters(provider).failed.increment();
+    }
+
+    public void recordTimeout(String provider, CarrierTimeoutException.Phase phase) {
+        counters(provider).timeouts.get(phase).increment();
+    }
+
+    public void recordCacheHit(String provider) {
+        counters(provider).cacheHits.increment();
+    }
+
+    public void recordCachedRejection(String provider) {
+        counters(provider).cachedRejections.increment();
+    }
+
+    public void recordRetry(String provider) {
+        counters(provider).retries.increment();
+    }
+
+    public void recordRetryDenied(String provider) {
+        counters(provider).retriesDenied.increment();
+    }
+
+    public void recordRateLimitWait(String provider) {
+        counters(provider).rateLimitWaits.increment();
+    }
+
+    public void recordRateLimited(String provider) {
+        counters(provider).rateLimited.increment();
+    }
+
+    /**
+     * Registrar to pass to {@code ConnectionProvider.Builder#metrics(boolean, Supplier)}. Pools are
+     * recorded under their name, which must be the provider name.
+     */
+    public ConnectionProvider.MeterRegistrar poolRegistrar() {
+        return new ConnectionProvider.MeterRegistrar() {
+            @Override
+            public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                                        ConnectionPoolMetrics metrics) {
+                pools.computeIfAbsent(poolName, name -> new ConcurrentHashMap<>()).put(id, metrics);
+            }
+
+            @Override
+            public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+                pools.computeIfPresent(poolName, (name, byId) -> {
+                    byId.remove(id);
+                    return byId.isEmpty() ? null : byId;
+                });
+            }
+        };
+    }
+
+    /**
+     * @return the current metrics of every provider that has made a call, by provider name
+     */
+    public Map<String, CarrierStats> snapshot() {
+        var snapshot = new TreeMap<String, CarrierStats>();
+        var carriers = new TreeSet<>(pools.keySet());
+        carriers.addAll(calls.keySet());
+        for (var carrier : carriers) {
+            var byId = pools.getOrDefault(carrier, Map.of());
+            var counters = calls.get(carrier);
+            snapshot.put(carrier, new CarrierStats(PoolStats.of(List.copyOf(byId.values())),
+                    counters != null ? counters.stats() : CallStats.NONE));
+        }
+        return snapshot;
+    }
+
+    private CallCounters counters(String provider) {
+        return calls.computeIfAbsent(provider, name -> new CallCounters());
+    }
+
+    public record CarrierStats(PoolStats pool, CallStats calls) {
+    }
+
+    /**
+     * @param succeeded calls answered with a 2xx response
+     * @param failed    calls that failed for any other reason than a timeout
+     * @param timeouts  calls that timed out, by the phase they timed out in
+     * @param cacheHits        quotes answered from the {@link RateCache} without a call
+     * @param cachedRejections calls skipped because the {@link RateCache} remembers the carrier
+     *                         rejecting the same request
+     * @param retries          attempts made again after a transient failure
+     * @param retriesDenied    retries not made because the provider's retry budget was spent
+     * @param rateLimitWaits   attempts that waited for the provider's rate limit before being sent
+     * @param rateLimited      attempts not sent because the rate limit would have made them wait too
+     *                         long
+     */
+    public record CallStats(long succeeded, long failed, Map<CarrierTimeoutException.Phase, Long> timeouts,
+                            long cacheHits, long cachedRejections, long retries, long retriesDenied,
+                            long rateLimitWaits, long rateLimited) {
+
+        static final CallStats NONE = new CallStats(0, 0, Map.of(), 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Connection pool gauges, summed over the remote addresses the provider connects to.
+     *
+     * @param active         connections in use by a call
+     * @param idle           open connections waiting to be reused
+     * @param pending        calls waiting for a connection
+     * @param maxConnections connections the pool may open per remote address
+     */
+    public record PoolStats(int active, int idle, int pending, int maxConnections) {
+
+        static PoolStats of(List<ConnectionPoolMetrics> pools) {
+            int active = 0;
+            int idle = 0;
+            int pending = 0;
+            int maxConnections = 0;
+            for (var pool : pools) {
+                active += pool.acquiredSize();
+                idle += pool.idleSize();
+                pending += pool.pendingAcquireSize();
+                maxConnections = Math.max(maxConnections, pool.maxAllocatedSize());
+            }
+            return new PoolStats(active, idle, pending, maxConnections);
+        }
+    }
+
+    private static final class CallCounters {
+
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cachedRejections = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder retriesDenied = new LongAdder();
+        private final LongAdder rateLimitWaits = new LongAdder();
+        private final LongAdder rateLimited = new LongAdder();
+        private final Map<CarrierTimeoutException.Phase, LongAdder> timeouts =
+                new EnumMap<>(CarrierTimeoutException.Phase.class);
+
+        CallCounters() {
+            for (var phase : CarrierTimeoutException.Phase.values()) {
+                timeouts.put(phase, new LongAdder());
+            }
+        }
+
+        CallStats stats() {
+            var timedOut = new EnumMap<CarrierTimeoutException.Phase, Long>(CarrierTimeoutException.Phase.class);
+            timeouts.forEach((phase, count) -> {
+                if (count.sum() > 0) {
+                    timedOut.put(phase, count.sum());
+                }
+            });
+            return new CallStats(succeeded.sum(), failed.sum(), timedOut, cacheHits.sum(), cachedRejections.sum(),
+                    retries.sum(), retriesDenied.sum(), rateLimitWaits.sum(), rateLimited.sum());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.postage.postagecomparator.provider;
+
+import com.postage.postagecomparator.model.Packaging;
+
+import java.util.Arrays;
+
+/**
+ * The parcel as sent to a carrier: dimensions sorted longest first and the weight rounded up to
+ * the carrier's billing increment. Carriers price the same for either, and carts that only differ
+ * below the increment or in box orientation make the same request, and so share a cached rate.
+ *
+ * @param weightGrams at least one billing increment
+ */
+public record CarrierParcel(int lengthCm, int widthCm, int heightCm, int weightGrams) {
+
+    public static CarrierParcel of(Packaging packaging, int weightGrams, int weightIncrementGrams) {
+        int[] dimensions = {packaging.lengthCm(), packaging.widthCm(), packaging.heightCm()};
+        Arrays.sort(dimensions);
+        int increments = Math.max(1, Math.ceilDiv(Math.max(0, weightGrams), weightIncrementGrams));
+        return new CarrierParcel(dimensions[2], dimensions[1], dimensions[0],
+                Math.multiplyExact(increments, weightIncrementGrams));
+    }
+
+    public double weightKg() {
+        return weightGrams / 1000.0;
+    }
+}
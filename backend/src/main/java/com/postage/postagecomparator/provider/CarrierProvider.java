@@ -23,6 +23,14 @@ public interface CarrierProvider {
      */
     boolean isEnabled(ProviderConfig config);
 
+    /**
+     * Whether quotes depend on the origin passed in. Providers that quote from a fixed pickup
+     * address are called once per quote, not once per origin, and their quotes carry no origin.
+     */
+    default boolean usesOrigin() {
+        return true;
+    }
+
     /**
      * Attempt to quote using provider APIs.
      * Returns Optional.empty() on failure to allow rules-based fallback.
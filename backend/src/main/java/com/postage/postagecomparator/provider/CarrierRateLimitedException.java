@@ -0,0 +1,30 @@
+package com.postage.postagecomparator.provider;
+
+import org.springframework.web.reactive.function.client.WebClientException;
+
+import java.time.Duration;
+
+/**
+ * A carrier call was not sent because the provider's rate limit, or a carrier's 429, would have
+ * kept it waiting longer than the call can afford. Providers treat it like any other failed call
+ * and return no quote, so rules are used instead.
+ */
+public class CarrierRateLimitedException extends WebClientException {
+
+    private final String provider;
+    private final Duration wait;
+
+    public CarrierRateLimitedException(String provider, Duration wait) {
+        super(provider + " call rate limited; next slot in " + wait);
+        this.provider = provider;
+        this.wait = wait;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public Duration getWait() {
+        return wait;
+    }
+}
@@ -0,0 +1,43 @@
+package com.postage.postagecomparator.provider;
+
+import org.springframework.web.reactive.function.client.WebClientException;
+
+import java.time.Duration;
+
+/**
+ * A carrier call exceeded one of its configured timeouts. Providers treat it like any other
+ * failed call and return no quote, so rules are used instead, but log and count it separately.
+ */
+public class CarrierTimeoutException extends WebClientException {
+
+    private final String provider;
+    private final Phase phase;
+
+    public CarrierTimeoutException(String provider, Phase phase, Duration limit, Throwable cause) {
+        super(provider + " call timed out during " + phase.description + " (limit " + limit + ")", cause);
+        this.provider = provider;
+        this.phase = phase;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public enum Phase {
+        POOL_ACQUIRE("wait for a pooled connection"),
+        CONNECT("connect"),
+        TLS_HANDSHAKE("TLS handshake"),
+        RESPONSE("response"),
+        TOTAL("call");
+
+        private final String description;
+
+        Phase(String description) {
+            this.description = description;
+        }
+    }
+}
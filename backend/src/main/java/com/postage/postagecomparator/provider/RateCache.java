@@ -0,0 +1,146 @@
+package com.postage.postagecomparator.provider;
+
+import com.postage.postagecomparator.config.ProviderConfig;
+import com.postage.postagecomparator.model.Packaging;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Each provider's cache of carrier rates, sized and expired by {@link ProviderConfig.Cache}.
+ *
+ * Providers key rates on exactly what they send the carrier, built from a {@link CarrierParcel},
+ * plus the account they send it with, so a cached rate is the one the carrier would return.
+ * Requests the carrier rejected are remembered too, for {@code rejectionTtl}, and not sent again;
+ * a call that failed for any other reason is retried on the next quote.
+ */
+@Component
+public class RateCache {
+
+    // Stored in place of a rate for a rejected request
+    private static final Object REJECTED = new Object();
+
+    private final ProviderConfig providerConfig;
+    private final CarrierMetrics carrierMetrics;
+    private final Map<String, Rates> rates = new ConcurrentHashMap<>();
+
+    public RateCache(ProviderConfig providerConfig, CarrierMetrics carrierMetrics) {
+        this.providerConfig = providerConfig;
+        this.carrierMetrics = carrierMetrics;
+    }
+
+    /**
+     * @return the parcel to send the provider, canonicalized with its billing increment
+     */
+    public CarrierParcel parcel(String provider, Packaging packaging, int weightGrams) {
+        var settings = providerConfig.getCache(provider);
+        // Rounding only pays off when the rate is reused, so the real weight is sent otherwise
+        int increment = settings.enabled() ? settings.weightIncrementGrams() : 1;
+        return CarrierParcel.of(packaging, weightGrams, increment);
+    }
+
+    /**
+     * @param key    the provider's request; must implement {@code equals} and {@code hashCode}
+     * @param loader calls the carrier; a rate must be immutable, as it is shared
+     * @return the cached rate for {@code key}, or the loader's rate; empty when the carrier
+     *         rejected the request, now or within {@code rejectionTtl}, or the call failed
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Optional<V> get(String provider, Object key, Supplier<Fetched<V>> loader) {
+        var settings = providerConfig.getCache(provider);
+        if (!settings.enabled() && !settings.remembersRejections()) {
+            return Optional.ofNullable(loader.get().rate());
+        }
+        var cache = rates.computeIfAbsent(provider, name -> new Rates(settings.maxSize()));
+        var cached = cache.get(key);
+        if (cached == REJECTED) {
+            carrierMetrics.recordCachedRejection(provider);
+            return Optional.empty();
+        }
+        if (cached != null) {
+            carrierMetrics.recordCacheHit(provider);
+            return Optional.of((V) cached);
+        }
+        var fetched = loader.get();
+        if (fetched.rate() != null && settings.enabled()) {
+            cache.put(key, fetched.rate(), settings.ttl());
+        } else if (fetched.rejected() && settings.remembersRejections()) {
+            cache.put(key, REJECTED, settings.rejectionTtl());
+        }
+        return Optional.ofNullable(fetched.rate());
+    }
+
+    /**
+     * What a provider's call to its carrier came back with.
+     *
+     * @param rate     the carrier's rate, or null when there is none
+     * @param rejected the carrier rejected the request, and would again
+     */
+    public record Fetched<V>(V rate, boolean rejected) {
+
+        public static <V> Fetched<V> of(V rate) {
+            return new Fetched<>(Objects.requireNonNull(rate), false);
+        }
+
+        /**
+         * The carrier cannot serve the request: an unserviceable lane, or no rates for it.
+         */
+        public static <V> Fetched<V> unserviceable() {
+            return new Fetched<>(null, true);
+        }
+
+        /**
+         * @return rejected when {@code error} is a {@link CarrierClientErrorException#isRejection
+         *         rejection}, otherwise a failure that is not remembered
+         */
+        public static <V> Fetched<V> failed(Throwable error) {
+            return new Fetched<>(null, CarrierClientErrorException.isRejection(error));
+        }
+
+        public static <V> Fetched<V> failed() {
+            return new Fetched<>(null, false);
+        }
+    }
+
+    /**
+     * Least recently used rates, dropped once expired or beyond the maximum size.
+     */
+    private static final class Rates {
+
+        private final Map<Object, Entry> entries;
+
+        Rates(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized Object get(Object key) {
+            var entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt() > 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+
+        synchronized void put(Object key, Object value, Duration ttl) {
+            entries.put(key, new Entry(value, System.nanoTime() + ttl.toNanos()));
+        }
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.postage.postagecomparator.provider;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.CarrierRetryFilter;
 import com.postage.postagecomparator.config.ProviderConfig;
 import com.postage.postagecomparator.model.CarrierQuote;
 import com.postage.postagecomparator.model.Item;
@@ -8,10 +9,12 @@ import com.postage.postagecomparator.model.OriginSettings;
 import com.postage.postagecomparator.model.Packaging;
 import com.postage.postagecomparator.model.QuoteResult;
 import com.postage.postagecomparator.model.ShipmentRequest;
+import com.postage.postagecomparator.provider.response.ShipStationRate;
 import com.postage.postagecomparator.service.QuoteRequestHelper;
 import com.postage.postagecomparator.service.SettingsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -41,13 +44,24 @@ public class ShipStationProvider implements CarrierProvider {
     private final WebClient shipStationWebClient;
     private final SettingsService settingsService;
     private final QuoteRequestHelper requestHelper;
+    private final RateCache rateCache;
 
-    public ShipStationProvider(@Qualifier("shipStationWebClient") WebClient shipStationWebClient,
+    public ShipStationProvider(WebClient shipStationWebClient,
             SettingsService settingsService,
             QuoteRequestHelper requestHelper) {
+        this(shipStationWebClient, settingsService, requestHelper,
+                new RateCache(new ProviderConfig(), new CarrierMetrics()));
+    }
+
+    @Autowired
+    public ShipStationProvider(@Qualifier("shipStationWebClient") WebClient shipStationWebClient,
+            SettingsService settingsService,
+            QuoteRequestHelper requestHelper,
+            RateCache rateCache) {
         this.shipStationWebClient = shipStationWebClient;
         this.settingsService = settingsService;
         this.requestHelper = requestHelper;
+        this.rateCache = rateCache;
     }
 
     @Override
@@ -85,19 +99,35 @@ public class ShipStationProvider implements CarrierProvider {
 
         QuoteResult.Destination destination = requestHelper.buildDestination(request);
         int totalWeightGrams = requestHelper.calculateTotalWeight(request.items());
+        CarrierParcel parcel = rateCache.parcel(getName(), packaging, totalWeightGrams);
 
         String fromCity = sanitizeCity(origin.suburb(), origin.postcode());
         String toCity = sanitizeCity(destination.suburb(), destination.postcode());
-        double weightGrams = Math.max(1.0, totalWeightGrams);
 
+        var key = new RateKey(apiKey, origin.country(), origin.postcode(), fromCity, origin.state(),
+                destination.country(), destination.postcode(), toCity, destination.state(), parcel);
+        return rateCache.get(getName(), key,
+                        () -> fetch(apiKey, origin, destination, fromCity, toCity, parcel))
+                .map(rates -> parseRatesResponse(rates, packaging));
+    }
+
+    /**
+     * Calls the ShipStation API. Rejected when the carriers have no valid rate for the lane.
+     */
+    private RateCache.Fetched<List<ShipStationRate>> fetch(String apiKey,
+            OriginSettings origin,
+            QuoteResult.Destination destination,
+            String fromCity,
+            String toCity,
+            CarrierParcel parcel) {
         Map<String, Object> weight = new java.util.HashMap<>();
-        weight.put("value", weightGrams);
+        weight.put("value", (double) parcel.weightGrams());
         weight.put("unit", "gram");
 
         Map<String, Object> dimensions = new java.util.HashMap<>();
-        dimensions.put("length", packaging.lengthCm());
-        dimensions.put("width", packaging.widthCm());
-        dimensions.put("height", packaging.heightCm());
+        dimensions.put("length", parcel.lengthCm());
+        dimensions.put("width", parcel.widthCm());
+        dimensions.put("height", parcel.heightCm());
         dimensions.put("unit", "centimeter");
 
         Map<String, Object> requestBody = new java.util.HashMap<>();
@@ -117,22 +147,32 @@ public class ShipStationProvider implements CarrierProvider {
 
         try {
 
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> response = shipStationWebClient
+            // Rates are decoded one by one as the array streams in
+            List<ShipStationRate> response = shipStationWebClient
                     .post()
                     .uri(uri)
+                    // Only asks for rates, so safe to send again
+                    .attribute(CarrierRetryFilter.IDEMPOTENT, true)
                     .header("api-key", apiKey)
                     .bodyValue(requestBody)
                     .retrieve()
-                    .bodyToMono(List.class)
+                    .bodyToFlux(ShipStationRate.class)
+                    .collectList()
                     .block();
 
             if (response == null) {
                 log.warn("ShipStation API returned null response for rate estimate");
-                return Optional.of(List.of());
+                return RateCache.Fetched.failed();
             }
-
-            return Optional.of(parseRatesResponse(response, packaging));
+            if (response.stream().allMatch(rate -> "invalid".equalsIgnoreCase(rate.validationStatus()))) {
+                log.warn("ShipStation API returned no valid rates for {} {} to {} {}",
+                        origin.postcode(), fromCity, destination.postcode(), toCity);
+                return RateCache.Fetched.unserviceable();
+            }
+            return RateCache.Fetched.of(List.copyOf(response));
+        } catch (CarrierTimeoutException e) {
+            log.warn("ShipStation API timed out: {}", e.getMessage());
+            return RateCache.Fetched.failed();
         } catch (org.springframework.web.reactive.function.client.WebClientResponseException e) {
             log.error("ShipStation API call failed (status: {}).\n Request: {}.\n Response: {}.\n Stack: {}",
                     e.getStatusCode(),
@@ -143,44 +183,35 @@ public class ShipStationProvider implements CarrierProvider {
             log.info("ShipStation request headers: {}", Map.of(
                     "api-key", maskApiKey(apiKey)));
             log.info("ShipStation request body: {}", requestBody);
-            return Optional.empty();
+            return RateCache.Fetched.failed(e);
         } catch (org.springframework.web.reactive.function.client.WebClientException e) {
             log.error("ShipStation API network/client error: {}. Stack: {}", e.getMessage(), summarizeStackTrace(e));
-            return Optional.empty();
+            return RateCache.Fetched.failed();
         } catch (Exception e) {
             log.error("ShipStation API call failed: {}. Stack: {}", e.getMessage(), summarizeStackTrace(e));
-            return Optional.empty();
+            return RateCache.Fetched.failed();
         }
     }
 
-    private List<CarrierQuote> parseRatesResponse(List<Map<String, Object>> response,
+    private List<CarrierQuote> parseRatesResponse(List<ShipStationRate> response,
             Packaging packaging) {
         return response.stream()
                 .map(rate -> {
-                    Object shippingAmountObj = rate.get("shipping_amount");
-                    String validationStatus = extractString(rate, "validation_status");
-                    if ("invalid".equalsIgnoreCase(validationStatus)) {
+                    if ("invalid".equalsIgnoreCase(rate.validationStatus())) {
                         return null;
                     }
-                    String currency = null;
-                    Object amountObj = null;
-                    if (shippingAmountObj instanceof Map<?, ?> shippingAmountRaw) {
-                        Object currencyObj = shippingAmountRaw.get("currency");
-                        if (currencyObj != null) {
-                            currency = currencyObj.toString();
-                        }
-                        amountObj = shippingAmountRaw.get("amount");
-                    }
+                    ShipStationRate.Amount shippingAmount = rate.shippingAmount();
+                    String currency = shippingAmount != null ? shippingAmount.currency() : null;
                     if (currency != null && !currency.equalsIgnoreCase("aud")) {
                         return null;
                     }
-                    Double amount = parseDouble(amountObj);
+                    Double amount = shippingAmount != null ? shippingAmount.amount() : null;
                     if (amount == null || amount <= 0) {
                         return null;
                     }
 
-                    String serviceName = extractString(rate, "service_code");
-                    Integer deliveryDays = parseInteger(rate.get("delivery_days"));
+                    String serviceName = rate.serviceCode();
+                    Integer deliveryDays = rate.deliveryDays();
 
                     double packagingCost = packaging.packagingCostAud();
                     double deliveryCost = amount - packagingCost;
@@ -202,45 +233,6 @@ public class ShipStationProvider implements CarrierProvider {
                 .toList();
     }
 
-    private Double parseDouble(Object value) {
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof Number number) {
-            return number.doubleValue();
-        }
-        if (value instanceof String str) {
-            try {
-                return Double.parseDouble(str);
-            } catch (NumberFormatException e) {
-                return null;
-            }
-        }
-        return null;
-    }
-
-    private Integer parseInteger(Object value) {
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof Number number) {
-            return number.intValue();
-        }
-        if (value instanceof String str) {
-            try {
-                return Integer.parseInt(str);
-            } catch (NumberFormatException e) {
-                return null;
-            }
-        }
-        return null;
-    }
-
-    private String extractString(Map<String, Object> map, String key) {
-        Object value = map.get(key);
-        return value != null ? value.toString() : null;
-    }
-
     private String sanitizeCity(String city, String fallback) {
         if (city != null && !city.isBlank()) {
             return city;
@@ -273,4 +265,13 @@ public class ShipStationProvider implements CarrierProvider {
         int visible = Math.min(4, apiKey.length());
         return apiKey.substring(0, visible) + "***";
     }
+
+    /**
+     * Everything the ShipStation request depends on.
+     */
+    private record RateKey(String apiKey,
+            String fromCountry, String fromPostcode, String fromCity, String fromState,
+            String toCountry, String toPostcode, String toCity, String toState,
+            CarrierParcel parcel) {
+    }
 }
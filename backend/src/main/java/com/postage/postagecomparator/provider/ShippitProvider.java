@@ -1,5 +1,6 @@
 package com.postage.postagecomparator.provider;
 
+import com.postage.postagecomparator.config.CarrierRetryFilter;
 import com.postage.postagecomparator.config.ProviderConfig;
 import com.postage.postagecomparator.model.CarrierQuote;
 import com.postage.postagecomparator.model.Item;
@@ -8,6 +9,7 @@ import com.postage.postagecomparator.model.Packaging;
 import com.postage.postagecomparator.model.QuoteResult;
 import com.postage.postagecomparator.model.ShipmentItemSelection;
 import com.postage.postagecomparator.model.ShipmentRequest;
+import com.postage.postagecomparator.provider.response.ShippitResponse;
 import com.postage.postagecomparator.service.QuoteRequestHelper;
 import com.postage.postagecomparator.service.SettingsService;
 
@@ -15,6 +17,7 @@ import reactor.core.publisher.Mono;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -33,11 +36,19 @@ public class ShippitProvider implements CarrierProvider {
     private final SettingsService settingsService;
     private static final Logger log = LoggerFactory.getLogger(ShippitProvider.class);
     private final QuoteRequestHelper requestHelper;
+    private final RateCache rateCache;
 
-    public ShippitProvider(@Qualifier("shippitWebClient") WebClient shippitWebClient, SettingsService settingsService, QuoteRequestHelper requestHelper) {
+    public ShippitProvider(WebClient shippitWebClient, SettingsService settingsService, QuoteRequestHelper requestHelper) {
+        this(shippitWebClient, settingsService, requestHelper, new RateCache(new ProviderConfig(), new CarrierMetrics()));
+    }
+
+    @Autowired
+    public ShippitProvider(@Qualifier("shippitWebClient") WebClient shippitWebClient, SettingsService settingsService,
+                           QuoteRequestHelper requestHelper, RateCache rateCache) {
         this.shippitWebClient = shippitWebClient;
         this.settingsService = settingsService;
         this.requestHelper = requestHelper;
+        this.rateCache = rateCache;
     }
 
     @Override
@@ -52,6 +63,12 @@ public class ShippitProvider implements CarrierProvider {
                 .orElse(false);
     }
 
+    // Shippit quotes from the account's pickup address; the origin is only logged
+    @Override
+    public boolean usesOrigin() {
+        return false;
+    }
+
     @Override
     public Optional<CarrierQuote> quote(ShipmentRequest request,
             OriginSettings origin,
@@ -80,8 +97,36 @@ public class ShippitProvider implements CarrierProvider {
         int totalQuantity = request.items().stream()
                 .mapToInt(ShipmentItemSelection::quantity)
                 .sum();
-        double weightKg = totalWeightGrams / 1000.0;
+        CarrierParcel parcel = rateCache.parcel(getName(), packaging, totalWeightGrams);
+
+        var key = new RateKey(apiKey, destination.postcode(), destination.state(), destination.suburb(),
+                destination.country(), totalQuantity, parcel, isExpress);
+        Optional<ShippitResponse> response = rateCache.get(getName(), key,
+                () -> fetch(apiKey, origin, destination, totalQuantity, parcel, isExpress));
+        if (response.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Map each successful entry's quotes to CarrierQuotes
+        log.debug("Shippit API call succeeded, parsing response");
+        List<CarrierQuote> quotes = parseShippitResponse(response.get(), packaging, isExpress);
+        if (quotes != null) {
+            log.info("Shippit API quotes successfully retrieved: ${}", quotes.stream().map(CarrierQuote::totalCostAud).reduce(0.0, Double::sum));
+        } else {
+            log.warn("Shippit API response parsed to null, falling back to rules");
+        }
+        return Optional.ofNullable(quotes);
+    }
 
+    /**
+     * Calls the Shippit API. Rejected when no courier can serve the destination.
+     */
+    private RateCache.Fetched<ShippitResponse> fetch(String apiKey,
+            OriginSettings origin,
+            QuoteResult.Destination destination,
+            int totalQuantity,
+            CarrierParcel parcel,
+            boolean isExpress) {
         String uriShippitQuote = "/quotes";
 
         Map<String, Object> requestBody = Map.of(
@@ -92,10 +137,10 @@ public class ShippitProvider implements CarrierProvider {
                         "dropoff_country_code", destination.country(),
                         "parcel_attributes", List.of(Map.of(
                                 "qty", totalQuantity,
-                                "weight", weightKg,
-                                "length", packaging.lengthCm() / 100.0,
-                                "width", packaging.widthCm() / 100.0,
-                                "depth", packaging.heightCm() / 100.0
+                                "weight", parcel.weightKg(),
+                                "length", parcel.lengthCm() / 100.0,
+                                "width", parcel.widthCm() / 100.0,
+                                "depth", parcel.heightCm() / 100.0
                         )),
                         "service_levels", isExpress ? List.of("express") : List.of("standard"),
                         "return_all_quotes", true
@@ -105,15 +150,16 @@ public class ShippitProvider implements CarrierProvider {
         log.info("Attempting Shippit API call: from {} {} to {} {}, weight: {}g, service: {}",
                 origin.postcode(), origin.suburb(),
                 destination.postcode(), destination.suburb(),
-                totalWeightGrams, isExpress ? "express" : "standard");
+                parcel.weightGrams(), isExpress ? "express" : "standard");
 
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = shippitWebClient
+            ShippitResponse response = shippitWebClient
                     .post()
                     .uri(uriBuilder -> uriBuilder
                             .path(uriShippitQuote)
                             .build())
+                    // Only asks for rates, so safe to send again
+                    .attribute(CarrierRetryFilter.IDEMPOTENT, true)
                     .header("Authorization", apiKey)
                     .contentType(MediaType.APPLICATION_JSON)
                     .accept(MediaType.APPLICATION_JSON)
@@ -131,8 +177,8 @@ public class ShippitProvider implements CarrierProvider {
                                                 destination.postcode(), destination.suburb(),
                                                 isExpress ? "express" : "standard",
                                                 body);
-                                        return Mono.error(new RuntimeException(
-                                                "Shippit API client error: " + clientResponse.statusCode()));
+                                        return Mono.error(new CarrierClientErrorException(
+                                                getName(), clientResponse.statusCode()));
                                     }))
                     .onStatus(
                             status -> status.is5xxServerError(),
@@ -146,7 +192,7 @@ public class ShippitProvider implements CarrierProvider {
                                 return Mono.error(new RuntimeException(
                                         "Shippit API server error: " + clientResponse.statusCode()));
                             })
-                    .bodyToMono(Map.class)
+                    .bodyToMono(ShippitResponse.class)
                     .block();
 
             if (response == null) {
@@ -154,20 +200,21 @@ public class ShippitProvider implements CarrierProvider {
                         origin.postcode(), origin.suburb(),
                         destination.postcode(), destination.suburb(),
                         isExpress ? "express" : "standard");
-                return Optional.empty();
+                return RateCache.Fetched.failed();
             }
-
-            // Parse response and map to CarrierQuote
-            // Shippit API response structure: typically has "postage_result" with cost,
-            // service, etc.
-            log.debug("Shippit API call succeeded, parsing response");
-            List<CarrierQuote> quotes = parseShippitResponse(response, packaging, isExpress);
-            if (quotes != null) {
-                log.info("Shippit API quotes successfully retrieved: ${}", quotes.stream().map(CarrierQuote::totalCostAud).reduce(0.0, Double::sum));
-            } else {
-                log.warn("Shippit API response parsed to null, falling back to rules");
+            if (response.response() != null && !response.response().isEmpty()
+                    && response.response().stream().noneMatch(entry -> entry != null && entry.success())) {
+                log.warn("Shippit API cannot serve {} {} ({})", destination.postcode(), destination.suburb(),
+                        isExpress ? "express" : "standard");
+                return RateCache.Fetched.unserviceable();
             }
-            return Optional.ofNullable(quotes);
+            return RateCache.Fetched.of(response);
+        } catch (CarrierTimeoutException e) {
+            log.warn("Shippit API timed out: {}", e.getMessage());
+            return RateCache.Fetched.failed();
+        } catch (CarrierClientErrorException e) {
+            // Logged with the request and response by the status handler
+            return RateCache.Fetched.failed(e);
         } catch (org.springframework.web.reactive.function.client.WebClientResponseException e) {
             log.error(
                     "Shippit API returned error response (status: {}). Request: from {} {} to {} {}. Service: {}. Response: {}. Stack: {}",
@@ -177,7 +224,7 @@ public class ShippitProvider implements CarrierProvider {
                     isExpress ? "express" : "standard",
                     e.getResponseBodyAsString(),
                     summarizeStackTrace(e));
-            return Optional.empty();
+            return RateCache.Fetched.failed(e);
         } catch (org.springframework.web.reactive.function.client.WebClientException e) {
             log.error("Shippit API network/client error. Request: from {} {} to {} {}. Service: {}. Error: {}. Stack: {}",
                     origin.postcode(), origin.suburb(),
@@ -185,7 +232,7 @@ public class ShippitProvider implements CarrierProvider {
                     isExpress ? "express" : "standard",
                     e.getMessage(),
                     summarizeStackTrace(e));
-            return Optional.empty();
+            return RateCache.Fetched.failed();
         } catch (RuntimeException e) {
             log.error(
                     "Shippit API call failed with runtime error. Request: from {} {} to {} {}. Service: {}. Error: {}. Stack: {}",
@@ -194,7 +241,7 @@ public class ShippitProvider implements CarrierProvider {
                     isExpress ? "express" : "standard",
                     e.getMessage(),
                     summarizeStackTrace(e));
-            return Optional.empty();
+            return RateCache.Fetched.failed();
         } catch (Exception e) {
             log.error(
                     "Shippit API call failed with unexpected error. Request: from {} {} to {} {}. Service: {}. Error: {}. Stack: {}",
@@ -203,16 +250,14 @@ public class ShippitProvider implements CarrierProvider {
                     isExpress ? "express" : "standard",
                     e.getMessage(),
                     summarizeStackTrace(e));
-            return Optional.empty(); // Return null to allow fallback to rules
+            return RateCache.Fetched.failed(); // Allow fallback to rules
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private List<CarrierQuote> parseShippitResponse(Map<String, Object> response, Packaging packaging, boolean isExpress) {
+    private List<CarrierQuote> parseShippitResponse(ShippitResponse response, Packaging packaging, boolean isExpress) {
         try {
             log.debug("Parsing Shippit API response: {}", response);
-            Object responseObj = response.get("response");
-            if (!(responseObj instanceof List<?> responseList)) {
+            if (response.response() == null) {
                 log.error("Shippit response missing response array. Full response: {}", response);
                 return List.of();
             }
@@ -220,44 +265,37 @@ public class ShippitProvider implements CarrierProvider {
             List<CarrierQuote> carrierQuotes = new ArrayList<>();
             String desiredService = isExpress ? "express" : "standard";
 
-            for (Object entryObj : responseList) {
-                if (!(entryObj instanceof Map<?, ?> entryMapRaw)) {
-                    continue;
-                }
-                Map<String, Object> entry = (Map<String, Object>) entryMapRaw;
-                Object successObj = entry.get("success");
-                if (!(successObj instanceof Boolean success) || !success) {
+            for (ShippitResponse.Entry entry : response.response()) {
+                if (entry == null || !entry.success()) {
                     continue;
                 }
 
-                String serviceLevel = extractString(entry, "service_level");
+                String serviceLevel = entry.serviceLevel();
                 if (serviceLevel != null && !serviceLevel.equalsIgnoreCase(desiredService)) {
                     continue;
                 }
 
-                String courierType = extractString(entry, "courier_type");
-                Object quotesObj = entry.get("quotes");
-                if (!(quotesObj instanceof List<?> quotesList) || quotesList.isEmpty()) {
+                String courierType = entry.courierType();
+                if (entry.quotes() == null || entry.quotes().isEmpty()) {
                     continue;
                 }
 
-                for (Object quoteObj : quotesList) {
-                    if (!(quoteObj instanceof Map<?, ?> quoteMapRaw)) {
+                for (ShippitResponse.Quote quote : entry.quotes()) {
+                    if (quote == null) {
                         continue;
                     }
-                    Map<String, Object> quoteMap = (Map<String, Object>) quoteMapRaw;
-                    Double totalCost = parseDouble(quoteMap.get("price"));
+                    Double totalCost = quote.price();
                     if (totalCost == null || totalCost <= 0) {
                         continue;
                     }
 
-                    String quoteCourier = extractString(quoteMap, "courier_type");
+                    String quoteCourier = quote.courierType();
                     String serviceName = quoteCourier != null ? quoteCourier
                             : (courierType != null ? courierType : desiredService);
 
-                    String transitTime = extractString(quoteMap, "estimated_transit_time");
+                    String transitTime = quote.estimatedTransitTime();
                     if (transitTime == null) {
-                        transitTime = extractString(quoteMap, "estimated_delivery_time");
+                        transitTime = quote.estimatedDeliveryTime();
                     }
 
                     Integer etaMin = null;
@@ -294,9 +332,6 @@ public class ShippitProvider implements CarrierProvider {
             }
 
             return carrierQuotes;
-        } catch (ClassCastException e) {
-            log.error("Failed to parse Shippit response: type casting error", e);
-            return List.of();
         } catch (NullPointerException e) {
             log.error("Failed to parse Shippit response: null pointer exception", e);
             return List.of();
@@ -352,28 +387,6 @@ public class ShippitProvider implements CarrierProvider {
         return null;
     }
 
-    private Double parseDouble(Object value) {
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof Number number) {
-            return number.doubleValue();
-        }
-        if (value instanceof String str) {
-            try {
-                return Double.parseDouble(str);
-            } catch (NumberFormatException e) {
-                return null;
-            }
-        }
-        return null;
-    }
-
-    private String extractString(Map<String, Object> map, String key) {
-        Object value = map.get(key);
-        return value != null ? value.toString() : null;
-    }
-
     private String summarizeStackTrace(Throwable error) {
         StackTraceElement[] stack = error.getStackTrace();
         int limit = Math.min(stack.length, 10);
@@ -383,4 +396,11 @@ public class ShippitProvider implements CarrierProvider {
         }
         return builder.toString();
     }
+
+    /**
+     * Everything the Shippit request depends on.
+     */
+    private record RateKey(String apiKey, String postcode, String state, String suburb, String country,
+                           int totalQuantity, CarrierParcel parcel, boolean isExpress) {
+    }
 }
@@ -0,0 +1,117 @@
+package com.postage.postagecomparator.provider.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Response of AfterShip's {@code POST /rates}, reduced to the fields quotes use. The rates are
+ * under {@code data}, or at the top level in older responses.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AfterShipResponse(Data data, List<Rate> rates) {
+
+    /**
+     * @return the rates wherever the response put them, or null if it has none
+     */
+    public List<Rate> allRates() {
+        return data != null ? data.rates() : rates;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Data(List<Rate> rates) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public record Rate(Charge totalCharge, Charge shippingAmount, Charge totalAmount, Charge amount,
+                       String serviceType, String serviceName, String serviceLevel, String courierName) {
+
+        /**
+         * @return the first charge the rate has, in order of preference
+         */
+        public Charge charge() {
+            return Stream.of(totalCharge, shippingAmount, totalAmount, amount)
+                    .filter(charge -> charge != null)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        /**
+         * @return the first non-blank service description, in order of preference
+         */
+        public String service() {
+            return Stream.of(serviceType, serviceName, serviceLevel, courierName)
+                    .filter(name -> name != null && !name.isBlank())
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    /**
+     * A charge, sent either as {@code {"amount": 12.5, "currency": "AUD"}} or as a bare amount.
+     *
+     * @param currency null when the charge was a bare amount
+     */
+    @JsonDeserialize(using = Charge.Deserializer.class)
+    public record Charge(String currency, double amount) {
+
+        static final class Deserializer extends StdDeserializer<Charge> {
+
+            Deserializer() {
+                super(Charge.class);
+            }
+
+            /**
+             * Reads the charge straight off the parser; a charge without a numeric amount reads as null.
+             */
+            @Override
+            public Charge deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                if (!parser.hasToken(JsonToken.START_OBJECT)) {
+                    Double amount = amount(parser);
+                    return amount != null ? new Charge(null, amount) : null;
+                }
+                String currency = null;
+                Double amount = null;
+                for (var field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+                    parser.nextToken();
+                    switch (field) {
+                        case "currency", "currency_code" -> {
+                            var value = parser.getValueAsString();
+                            if (currency == null && value != null && !value.isBlank()) {
+                                currency = value;
+                            }
+                        }
+                        case "amount" -> amount = amount(parser);
+                        default -> parser.skipChildren();
+                    }
+                }
+                return amount != null ? new Charge(currency, amount) : null;
+            }
+
+            private static Double amount(JsonParser parser) throws IOException {
+                if (parser.currentToken().isNumeric()) {
+                    return parser.getDoubleValue();
+                }
+                if (parser.hasToken(JsonToken.VALUE_STRING)) {
+                    try {
+                        return Double.parseDouble(parser.getText());
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+                parser.skipChildren();
+                return null;
+            }
+        }
+    }
+}
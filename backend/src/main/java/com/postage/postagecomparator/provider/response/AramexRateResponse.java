@@ -0,0 +1,94 @@
+package com.postage.postagecomparator.provider.response;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+
+/**
+ * Response of Aramex's {@code CalculateRate} SOAP operation, reduced to the fields quotes use.
+ * Elements are matched by local name, whatever their namespace.
+ *
+ * @param hasErrors    {@code HasErrors} is {@code true}
+ * @param message      first {@code Message} under {@code Notifications}, or null
+ * @param currencyCode {@code TotalAmount/CurrencyCode}, or null
+ * @param totalAmount  {@code TotalAmount/Value} as sent, or null
+ */
+public record AramexRateResponse(boolean hasErrors, String message, String currencyCode, String totalAmount) {
+
+    // Configured once; creating readers from a configured factory is thread-safe
+    private static final XMLInputFactory INPUT_FACTORY = inputFactory();
+
+    /**
+     * Reads the response in one streaming pass, stopping as soon as the fields are known: after
+     * {@code TotalAmount} for a successful response, or after the first message for a failed one.
+     */
+    public static AramexRateResponse parse(String xml) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+        try {
+            Boolean hasErrors = null;
+            String message = null;
+            String currencyCode = null;
+            String totalAmount = null;
+            boolean totalAmountRead = false;
+            int depth = 0;
+            int notificationsDepth = -1;
+            int totalAmountDepth = -1;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = reader.getLocalName();
+                    if (name.equals("HasErrors") && hasErrors == null) {
+                        hasErrors = "true".equalsIgnoreCase(reader.getElementText().trim());
+                        depth--;
+                    } else if (name.equals("Notifications") && notificationsDepth < 0) {
+                        notificationsDepth = depth;
+                    } else if (name.equals("Message") && notificationsDepth >= 0 && message == null) {
+                        message = reader.getElementText();
+                        depth--;
+                    } else if (name.equals("TotalAmount") && !totalAmountRead && totalAmountDepth < 0) {
+                        totalAmountDepth = depth;
+                    } else if (totalAmountDepth >= 0 && depth == totalAmountDepth + 1
+                            && (name.equals("CurrencyCode") || name.equals("Value"))) {
+                        String text = reader.getElementText();
+                        depth--;
+                        if (name.equals("CurrencyCode")) {
+                            currencyCode = text;
+                        } else {
+                            totalAmount = text;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == notificationsDepth) {
+                        notificationsDepth = -1;
+                    }
+                    if (depth == totalAmountDepth) {
+                        totalAmountDepth = -1;
+                        totalAmountRead = true;
+                    }
+                    depth--;
+                } else {
+                    continue;
+                }
+                if (hasErrors != null && (hasErrors ? message != null : totalAmountRead)) {
+                    break;
+                }
+            }
+            return new AramexRateResponse(Boolean.TRUE.equals(hasErrors), message, currencyCode, totalAmount);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static XMLInputFactory inputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
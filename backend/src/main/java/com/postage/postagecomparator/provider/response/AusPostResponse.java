@@ -0,0 +1,22 @@
+package com.postage.postagecomparator.provider.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Response of AusPost's {@code /postage/parcel/domestic/calculate.json}, reduced to the fields quotes use.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record AusPostResponse(PostageResult postageResult) {
+
+    /**
+     * @param totalCost    e.g. {@code "15.05"}; AusPost sends it as a string
+     * @param deliveryTime e.g. {@code "Delivered in 2-3 business days"}
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public record PostageResult(String totalCost, String service, String deliveryTime) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.postage.postagecomparator.provider.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * One element of ShipStation's {@code POST /v2/rates/estimate} response array, reduced to the
+ * fields quotes use.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record ShipStationRate(String validationStatus, Amount shippingAmount, String serviceCode,
+                              Integer deliveryDays) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Amount(String currency, Double amount) {
+    }
+}
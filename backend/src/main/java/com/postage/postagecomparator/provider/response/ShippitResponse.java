@@ -0,0 +1,28 @@
+package com.postage.postagecomparator.provider.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.util.List;
+
+/**
+ * Response of Shippit's {@code POST /quotes}, reduced to the fields quotes use.
+ *
+ * @param response one entry per courier and service level asked for
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record ShippitResponse(List<Entry> response) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public record Entry(boolean success, String serviceLevel, String courierType, List<Quote> quotes) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public record Quote(Double price, String courierType, String estimatedTransitTime,
+                        String estimatedDeliveryTime) {
+    }
+}
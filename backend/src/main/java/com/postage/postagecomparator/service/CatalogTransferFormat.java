@@ -0,0 +1,64 @@
+package com.postage.postagecomparator.service;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Wire formats supported by catalog import and export.
+ */
+public enum CatalogTransferFormat {
+
+    /**
+     * One JSON object per line.
+     */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+
+    /**
+     * Comma-separated values with a header row naming the fields.
+     */
+    CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    CatalogTransferFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the content type is not a supported format
+     */
+    public static CatalogTransferFormat fromMediaType(MediaType contentType) {
+        for (var format : values()) {
+            if (format.mediaType.isCompatibleWith(contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import content type " + contentType);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the name is not a supported format
+     */
+    public static CatalogTransferFormat fromName(String name) {
+        for (var format : values()) {
+            if (format.fileExtension.equals(name == null ? null : name.toLowerCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Format must be ndjson or csv");
+    }
+}
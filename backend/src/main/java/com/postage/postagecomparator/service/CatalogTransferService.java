@@ -0,0 +1,28 @@
+package com.postage.postagecomparator.service;
+
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.Packaging;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Reads and writes catalog entries in the bulk transfer formats.
+ */
+public interface CatalogTransferService {
+
+    /**
+     * @throws com.postage.postagecomparator.exception.BadRequestException if the input is malformed
+     */
+    List<Item> readItems(InputStream in, CatalogTransferFormat format);
+
+    void writeItems(OutputStream out, CatalogTransferFormat format, List<Item> items);
+
+    /**
+     * @throws com.postage.postagecomparator.exception.BadRequestException if the input is malformed
+     */
+    List<Packaging> readPackagings(InputStream in, CatalogTransferFormat format);
+
+    void writePackagings(OutputStream out, CatalogTransferFormat format, List<Packaging> packagings);
+}
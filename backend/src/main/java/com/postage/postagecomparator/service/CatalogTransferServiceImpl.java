@@ -0,0 +1,120 @@
+package com.postage.postagecomparator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.postage.postagecomparator.exception.BadRequestException;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.Packaging;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams catalog entries with Jackson: NDJSON and CSV records are parsed one at a time from the
+ * request body and written one at a time to the response, without buffering the whole payload
+ * as text.
+ */
+@Service
+public class CatalogTransferServiceImpl implements CatalogTransferService {
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private static final CsvSchema ITEM_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("name")
+            .addColumn("description")
+            .addNumberColumn("unitWeightGrams")
+            .addNumberColumn("version")
+            .build()
+            .withHeader();
+
+    private static final CsvSchema PACKAGING_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("name")
+            .addColumn("description")
+            .addNumberColumn("lengthCm")
+            .addNumberColumn("heightCm")
+            .addNumberColumn("widthCm")
+            .addNumberColumn("internalVolumeCubicCm")
+            .addNumberColumn("packagingCostAud")
+            .addNumberColumn("version")
+            .build()
+            .withHeader();
+
+    private final ObjectReader ndjsonItemReader;
+    private final ObjectReader ndjsonPackagingReader;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectReader csvItemReader;
+    private final ObjectReader csvPackagingReader;
+    private final ObjectWriter csvItemWriter;
+    private final ObjectWriter csvPackagingWriter;
+
+    public CatalogTransferServiceImpl(ObjectMapper objectMapper) {
+        this.ndjsonItemReader = objectMapper.readerFor(Item.class);
+        this.ndjsonPackagingReader = objectMapper.readerFor(Packaging.class);
+        this.ndjsonWriter = objectMapper.writer().withRootValueSeparator("\n");
+        // Header-driven so uploads may omit optional columns (such as id) or reorder them
+        this.csvItemReader = CSV_MAPPER.readerFor(Item.class).with(CsvSchema.emptySchema().withHeader());
+        this.csvPackagingReader = CSV_MAPPER.readerFor(Packaging.class).with(CsvSchema.emptySchema().withHeader());
+        this.csvItemWriter = CSV_MAPPER.writerFor(Item.class).with(ITEM_SCHEMA);
+        this.csvPackagingWriter = CSV_MAPPER.writerFor(Packaging.class).with(PACKAGING_SCHEMA);
+    }
+
+    @Override
+    public List<Item> readItems(InputStream in, CatalogTransferFormat format) {
+        return read(in, format, format == CatalogTransferFormat.CSV ? csvItemReader : ndjsonItemReader);
+    }
+
+    @Override
+    public void writeItems(OutputStream out, CatalogTransferFormat format, List<Item> items) {
+        write(out, format == CatalogTransferFormat.CSV ? csvItemWriter : ndjsonWriter, items);
+    }
+
+    @Override
+    public List<Packaging> readPackagings(InputStream in, CatalogTransferFormat format) {
+        return read(in, format, format == CatalogTransferFormat.CSV ? csvPackagingReader : ndjsonPackagingReader);
+    }
+
+    @Override
+    public void writePackagings(OutputStream out, CatalogTransferFormat format, List<Packaging> packagings) {
+        write(out, format == CatalogTransferFormat.CSV ? csvPackagingWriter : ndjsonWriter, packagings);
+    }
+
+    private <T> List<T> read(InputStream in, CatalogTransferFormat format, ObjectReader reader) {
+        var records = new ArrayList<T>();
+        try (var iterator = reader.<T>readValues(in)) {
+            while (iterator.hasNextValue()) {
+                records.add(iterator.nextValue());
+            }
+            return records;
+        } catch (JsonProcessingException e) {
+            var location = e.getLocation();
+            var line = location != null ? " at line " + location.getLineNr() : "";
+            throw new BadRequestException("Malformed " + format + " input" + line + ": " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + format + " input", e);
+        }
+    }
+
+    private <T> void write(OutputStream out, ObjectWriter writer, List<T> records) {
+        try (var sequence = writer.writeValues(out)) {
+            for (var record : records) {
+                sequence.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write export", e);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.postage.postagecomparator.service;
 
+import com.postage.postagecomparator.model.ImportResult;
 import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.ItemPage;
+import com.postage.postagecomparator.model.ItemPatch;
+import com.postage.postagecomparator.model.ItemPatchResult;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,9 +15,43 @@ public interface ItemService {
 
     Optional<Item> findById(String id);
 
+    /**
+     * @return a token that changes whenever any item changes, used as the ETag of catalog reads
+     */
+    String version();
+
+    /**
+     * Returns up to {@code limit} items ordered by name ({@code sort} is {@code name} or
+     * {@code -name}), optionally filtered by a case-insensitive name prefix and/or substring.
+     * Pass the previous page's {@code nextCursor} to continue the listing.
+     */
+    ItemPage findPage(String prefix, String query, String sort, String cursor, int limit);
+
     Item create(Item item);
 
     Item update(String id, Item item);
 
+    /**
+     * Like {@link #update(String, Item)}, but only applies while the stored item still has
+     * {@code expectedVersion} (compare-and-set); null skips the check.
+     *
+     * @throws com.postage.postagecomparator.exception.PreconditionFailedException if the item has
+     *                                                                             changed since
+     */
+    Item update(String id, Item item, Long expectedVersion);
+
     void delete(String id);
+
+    /**
+     * Validates every operation, then applies all updates and deletes in a single write. Nothing
+     * changes if any operation is invalid, names an unknown item, fails its version check, or
+     * would leave two items with the same name.
+     */
+    ItemPatchResult patch(List<ItemPatch> patches);
+
+    /**
+     * Validates every item and upserts them by name in a single write. Items whose name already
+     * exists keep their id; all others get a new id. Nothing is stored if any item is invalid.
+     */
+    ImportResult importAll(List<Item> items);
 }
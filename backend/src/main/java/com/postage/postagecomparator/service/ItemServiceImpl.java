@@ -1,43 +1,55 @@
 package com.postage.postagecomparator.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
 import com.postage.postagecomparator.exception.BadRequestException;
 import com.postage.postagecomparator.exception.NotFoundException;
+import com.postage.postagecomparator.exception.PreconditionFailedException;
+import com.postage.postagecomparator.model.ImportResult;
 import com.postage.postagecomparator.model.Item;
-import com.postage.postagecomparator.util.FileWriteUtils;
-import java.nio.file.Path;
+import com.postage.postagecomparator.model.ItemPage;
+import com.postage.postagecomparator.model.ItemPatch;
+import com.postage.postagecomparator.model.ItemPatchResult;
+import com.postage.postagecomparator.storage.CatalogQuery;
+import com.postage.postagecomparator.storage.CatalogStore;
+import com.postage.postagecomparator.storage.DataDirectory;
+import com.postage.postagecomparator.storage.DuplicateNameException;
+import com.postage.postagecomparator.storage.JsonCatalogStore;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.nio.file.Files;
-
 @Service
 public class ItemServiceImpl implements ItemService {
 
-    private static final Logger log = LoggerFactory.getLogger(ItemServiceImpl.class);
-
-    private static final String DEFAULT_DIR_NAME = ".postage-comparator";
-    private static final String ITEMS_FILE_NAME = "items.json";
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MIN_QUERY_LENGTH = 3;
+    static final int MAX_PATCH_OPERATIONS = 1000;
 
-    private final ObjectMapper objectMapper;
-    private final Object lock = new Object();
+    private final CatalogStore<Item> itemStore;
 
     public ItemServiceImpl(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this(JsonCatalogStore.items(objectMapper, new StorageConfig(), DataDirectory.fromEnvironment()::resolve));
+    }
+
+    @Autowired
+    public ItemServiceImpl(CatalogStore<Item> itemStore) {
+        this.itemStore = itemStore;
     }
 
     @Override
     public List<Item> findAll() {
-        return listAllItems();
+        return itemStore.findAll();
     }
 
     @Override
@@ -45,35 +57,57 @@ public class ItemServiceImpl implements ItemService {
         if (id == null || id.isBlank()) {
             throw new IllegalArgumentException("Id must not be null or blank");
         }
-        var items = listAllItems();
-        return items.stream()
-                .filter(item -> item.id().equals(id))
-                .findFirst();
+        return itemStore.findById(id);
     }
 
     @Override
-    public Item create(Item item) {
-        if (item == null) {
-            throw new BadRequestException("Item must not be null");
+    public String version() {
+        return itemStore.version();
+    }
+
+    @Override
+    public ItemPage findPage(String prefix, String query, String sort, String cursor, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
         }
-        if (item.name() == null || item.name().isBlank()) {
-            throw new BadRequestException("Item name is required");
+        boolean descending = switch (sort == null || sort.isBlank() ? "name" : sort) {
+            case "name" -> false;
+            case "-name" -> true;
+            default -> throw new BadRequestException("sort must be name or -name");
+        };
+        // q is a substring scan; shorter text matches too widely to be worth scanning for
+        if (query != null && !query.isEmpty() && query.length() < MIN_QUERY_LENGTH) {
+            throw new BadRequestException("q must be at least " + MIN_QUERY_LENGTH + " characters");
         }
-        if (item.unitWeightGrams() <= 0) {
-            throw new BadRequestException("Item unit weight must be greater than 0");
+        // Fetch one extra entry to learn whether another page follows.
+        var result = itemStore.search(new CatalogQuery(prefix, query, descending, decodeCursor(cursor), limit + 1));
+        var items = result.entries();
+        if (items.size() <= limit) {
+            // A scan stopped short still has names left to search, from where it stopped
+            return new ItemPage(items, result.scannedTo() != null ? encodeCursor(result.scannedTo()) : null);
         }
-        var items = listAllItems();
-        if (items.stream().anyMatch(checkItem -> checkItem.name().equals(item.name()))) {
+        var page = items.subList(0, limit);
+        return new ItemPage(List.copyOf(page), encodeCursor(page.get(limit - 1).name()));
+    }
+
+    @Override
+    public Item create(Item item) {
+        validateNewItem(item);
+        try {
+            return itemStore.insert(
+                    new Item(generateItemId(), item.name(), item.description(), item.unitWeightGrams(), 1));
+        } catch (DuplicateNameException e) {
             throw new BadRequestException("Item with name " + item.name() + " already exists");
         }
-        var newItem = new Item(generateItemId(), item.name(), item.description(), item.unitWeightGrams());
-        items.add(newItem);
-        saveItems(items);
-        return newItem;
     }
 
     @Override
     public Item update(String id, Item item) {
+        return update(id, item, null);
+    }
+
+    @Override
+    public Item update(String id, Item item, Long expectedVersion) {
         if (id == null || id.isBlank()) {
             throw new BadRequestException("id must not be null or blank");
         }
@@ -81,99 +115,162 @@ public class ItemServiceImpl implements ItemService {
             throw new BadRequestException("item must not be null");
         }
 
-        var items = listAllItems();
-        if (item.name() != null && !item.name().isBlank()) {
-            var duplicateExists = items.stream()
-                    .anyMatch(checkItem -> checkItem.name().equals(item.name()) 
-                            && !checkItem.id().equals(id));
-            if (duplicateExists) {
-                throw new BadRequestException("Item with name " + item.name() + " already exists");
-            }
+        try {
+            // The version check runs inside the store's atomic update, against the latest stored item
+            return itemStore.update(id, existing -> {
+                        if (expectedVersion != null && existing.version() != expectedVersion) {
+                            throw new PreconditionFailedException("Item with id " + id + " is at version "
+                                    + existing.version() + ", not " + expectedVersion);
+                        }
+                        return new Item(
+                                existing.id(),
+                                item.name() != null && !item.name().isBlank() ? item.name() : existing.name(),
+                                item.description() != null ? item.description() : existing.description(),
+                                item.unitWeightGrams() > 0 ? item.unitWeightGrams() : existing.unitWeightGrams(),
+                                existing.version() + 1);
+                    })
+                    .orElseThrow(() -> new NotFoundException("Item with id " + id + " not found"));
+        } catch (DuplicateNameException e) {
+            throw new BadRequestException("Item with name " + item.name() + " already exists");
         }
+    }
 
-        var existingIndex = -1;
-        for (int i = 0; i < items.size(); i++) {
-            if (id.equals(items.get(i).id())) {
-                existingIndex = i;
-                break;
+    @Override
+    public void delete(String id) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("id must not be null or blank");
+        }
+        itemStore.delete(id);
+    }
+
+    @Override
+    public ItemPatchResult patch(List<ItemPatch> patches) {
+        if (patches == null || patches.isEmpty()) {
+            throw new BadRequestException("patches must not be empty");
+        }
+        if (patches.size() > MAX_PATCH_OPERATIONS) {
+            throw new BadRequestException("At most " + MAX_PATCH_OPERATIONS + " operations per request");
+        }
+        var names = new HashSet<String>();
+        var changes = new LinkedHashMap<String, UnaryOperator<Item>>();
+        for (int i = 0; i < patches.size(); i++) {
+            var patch = patches.get(i);
+            var operation = "Operation " + (i + 1) + ": ";
+            if (patch == null || patch.id() == null || patch.id().isBlank()) {
+                throw new BadRequestException(operation + "id is required");
+            }
+            if (changes.containsKey(patch.id())) {
+                throw new BadRequestException(operation + "duplicate id " + patch.id());
             }
+            switch (patch.op() == null ? "" : patch.op()) {
+                case ItemPatch.UPDATE -> {
+                    if (patch.name() != null && patch.name().isBlank()) {
+                        throw new BadRequestException(operation + "Item name must not be blank");
+                    }
+                    if (patch.unitWeightGrams() != null && patch.unitWeightGrams() <= 0) {
+                        throw new BadRequestException(operation + "Item unit weight must be greater than 0");
+                    }
+                    if (patch.name() != null && !names.add(patch.name())) {
+                        throw new BadRequestException(operation + "duplicate item name " + patch.name());
+                    }
+                }
+                case ItemPatch.DELETE -> {
+                }
+                default -> throw new BadRequestException(operation + "op must be update or delete");
+            }
+            changes.put(patch.id(), existing -> applyPatch(operation, patch, existing));
         }
 
-        if (existingIndex == -1) {
-            throw new NotFoundException("Item with id " + id + " not found");
+        Map<String, Item> stored;
+        try {
+            stored = itemStore.updateAll(changes);
+        } catch (DuplicateNameException e) {
+            throw new BadRequestException("Item with name " + e.getName() + " already exists");
+        }
+        var deleted = new ArrayList<String>();
+        for (var patch : patches) {
+            if (ItemPatch.DELETE.equals(patch.op())) {
+                deleted.add(patch.id());
+            }
         }
+        return new ItemPatchResult(List.copyOf(stored.values()), deleted);
+    }
 
-        var existing = items.get(existingIndex);
-        var updated = new Item(
+    /**
+     * The replacement for {@code existing} (null to delete), checked against the stored item
+     * inside the store's atomic write.
+     */
+    private static Item applyPatch(String operation, ItemPatch patch, Item existing) {
+        if (existing == null) {
+            throw new NotFoundException(operation + "Item with id " + patch.id() + " not found");
+        }
+        if (patch.version() != null && existing.version() != patch.version()) {
+            throw new PreconditionFailedException(operation + "Item with id " + patch.id() + " is at version "
+                    + existing.version() + ", not " + patch.version());
+        }
+        if (ItemPatch.DELETE.equals(patch.op())) {
+            return null;
+        }
+        return new Item(
                 existing.id(),
-                item.name() != null && !item.name().isBlank() ? item.name() : existing.name(),
-                item.description() != null ? item.description() : existing.description(),
-                item.unitWeightGrams() > 0 ? item.unitWeightGrams() : existing.unitWeightGrams()
-        );
-        items.set(existingIndex, updated);
-        saveItems(items);
-        return updated;
+                patch.name() != null ? patch.name() : existing.name(),
+                patch.description() != null ? patch.description() : existing.description(),
+                patch.unitWeightGrams() != null ? patch.unitWeightGrams() : existing.unitWeightGrams(),
+                existing.version() + 1);
     }
 
     @Override
-    public void delete(String id) {
-        if (id == null || id.isBlank()) {
-            throw new IllegalArgumentException("id must not be null or blank");
+    public ImportResult importAll(List<Item> items) {
+        if (items == null) {
+            throw new BadRequestException("items must not be null");
         }
-        var items = listAllItems();
-        if (items.isEmpty()) {
-            return;
+        var names = new HashSet<String>();
+        var toStore = new ArrayList<Item>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            var item = items.get(i);
+            try {
+                validateNewItem(item);
+            } catch (BadRequestException e) {
+                throw new BadRequestException("Record " + (i + 1) + ": " + e.getMessage());
+            }
+            if (!names.add(item.name())) {
+                throw new BadRequestException("Record " + (i + 1) + ": duplicate item name " + item.name());
+            }
+            toStore.add(new Item(generateItemId(), item.name(), item.description(), item.unitWeightGrams(), 1));
         }
-        var filteredItems = items.stream()
-                .filter(item -> !item.id().equals(id))
-                .toList();
-        saveItems(filteredItems);
+        return itemStore.upsertAllByName(toStore,
+                (existing, incoming) -> new Item(existing.id(), incoming.name(), incoming.description(),
+                        incoming.unitWeightGrams(), existing.version() + 1));
     }
 
-    private Path itemsPath() {
-        var baseDir = System.getProperty("POSTAGE_DATA_DIR");
-        if (baseDir == null || baseDir.isBlank()) {
-            baseDir = System.getenv("POSTAGE_DATA_DIR");
+    private void validateNewItem(Item item) {
+        if (item == null) {
+            throw new BadRequestException("Item must not be null");
         }
-        if (baseDir == null || baseDir.isBlank()) {
-            var userHome = System.getProperty("user.home");
-            baseDir = Path.of(userHome, DEFAULT_DIR_NAME).toString();
+        if (item.name() == null || item.name().isBlank()) {
+            throw new BadRequestException("Item name is required");
+        }
+        if (item.unitWeightGrams() <= 0) {
+            throw new BadRequestException("Item unit weight must be greater than 0");
         }
-        return Path.of(baseDir, ITEMS_FILE_NAME);
     }
 
-    private List<Item> listAllItems() {
-        var path = itemsPath();
-        if (!Files.exists(path)) {
-            return new ArrayList<>();
+    private static String encodeCursor(String name) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
         }
-        synchronized (lock) {
-            try {
-                var items = objectMapper.readValue(path.toFile(), new TypeReference<List<Item>>() {});
-                return items != null ? new ArrayList<>(items) : new ArrayList<>();
-            } catch (IOException e) {
-                log.error("Failed to read items from {}", path, e);
-                throw new IllegalStateException("Unable to read items", e);
-            }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
         }
     }
 
     private String generateItemId() {
         return UUID.randomUUID().toString();
     }
-
-    private void saveItems(List<Item> items) {
-        synchronized (lock) {
-            var path = itemsPath();
-            FileWriteUtils.safeWrite(path, temp -> {
-                try {
-                    objectMapper
-                            .writerWithDefaultPrettyPrinter()
-                            .writeValue(temp.toFile(), items);
-                } catch (IOException e) {
-                    throw new IllegalStateException("Unable to write items to " + path, e);
-                }
-            }, log);
-        }
-    }
 }
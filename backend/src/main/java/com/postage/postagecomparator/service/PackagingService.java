@@ -1,5 +1,6 @@
 package com.postage.postagecomparator.service;
 
+import com.postage.postagecomparator.model.ImportResult;
 import com.postage.postagecomparator.model.Packaging;
 
 import java.util.List;
@@ -11,9 +12,29 @@ public interface PackagingService {
 
     Optional<Packaging> findById(String id);
 
+    /**
+     * @return a token that changes whenever any packaging changes, used as the ETag of catalog reads
+     */
+    String version();
+
     Packaging create(Packaging packaging);
 
     Packaging update(String id, Packaging packaging);
 
+    /**
+     * Like {@link #update(String, Packaging)}, but only applies while the stored packaging still
+     * has {@code expectedVersion} (compare-and-set); null skips the check.
+     *
+     * @throws com.postage.postagecomparator.exception.PreconditionFailedException if the packaging
+     *                                                                             has changed since
+     */
+    Packaging update(String id, Packaging packaging, Long expectedVersion);
+
     void delete(String id);
+
+    /**
+     * Validates every packaging and upserts them by name in a single write. Packagings whose name
+     * already exists keep their id; all others get a new id. Nothing is stored if any is invalid.
+     */
+    ImportResult importAll(List<Packaging> packagings);
 }
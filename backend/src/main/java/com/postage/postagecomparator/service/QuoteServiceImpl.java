@@ -2,16 +2,24 @@ package com.postage.postagecomparator.service;
 
 import com.postage.postagecomparator.model.*;
 import com.postage.postagecomparator.config.ProviderConfig;
+import com.postage.postagecomparator.config.QuoteConfig;
 import com.postage.postagecomparator.provider.CarrierProvider;
 import com.postage.postagecomparator.provider.ProviderRegistry;
+import com.postage.postagecomparator.storage.TenantContext;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 import com.postage.postagecomparator.util.DeliveryEtaUtils;
 
 @Service
@@ -25,16 +33,28 @@ public class QuoteServiceImpl implements QuoteService {
     private final QuoteRequestHelper requestHelper;
     private final ProviderRegistry providerRegistry;
     private final ProviderConfig providerConfig;
+    private final QuoteConfig quoteConfig;
 
     public QuoteServiceImpl(
             SettingsService settingsService,
             QuoteRequestHelper requestHelper,
             ProviderRegistry providerRegistry,
             ProviderConfig providerConfig) {
+        this(settingsService, requestHelper, providerRegistry, providerConfig, new QuoteConfig());
+    }
+
+    @Autowired
+    public QuoteServiceImpl(
+            SettingsService settingsService,
+            QuoteRequestHelper requestHelper,
+            ProviderRegistry providerRegistry,
+            ProviderConfig providerConfig,
+            QuoteConfig quoteConfig) {
         this.settingsService = settingsService;
         this.requestHelper = requestHelper;
         this.providerRegistry = providerRegistry;
         this.providerConfig = providerConfig;
+        this.quoteConfig = quoteConfig;
     }
 
     @Override
@@ -42,8 +62,10 @@ public class QuoteServiceImpl implements QuoteService {
         // Validate request
         requestHelper.validateRequest(request);
 
-        // Get origin settings
-        OriginSettings origin = requestHelper.getOriginSettingsOrThrow();
+        // Get origin settings, unless quoting from the configured origins
+        boolean multiOrigin = quoteConfig.getOriginSelection() != QuoteConfig.OriginSelection.SETTINGS
+                && !quoteConfig.getOrigins().isEmpty();
+        OriginSettings origin = multiOrigin ? null : requestHelper.getOriginSettingsOrThrow();
 
         // Get packaging
         Packaging packaging = requestHelper.getPackaging(request.packagingId());
@@ -62,37 +84,27 @@ public class QuoteServiceImpl implements QuoteService {
 
         // When API clients are implemented, try live APIs first and fall back to rules.
         List<Item> resolvedItems = requestHelper.resolveItems(request.items());
-        boolean ausPostProvidedQuote = false;
 
-        for (CarrierProvider provider : providerRegistry.getEnabledProviders(providerConfig)) {
-            String providerName = provider.getName();
-            try {
-                var multiQuotes = provider.quotes(request, origin, packaging, resolvedItems);
-                if (multiQuotes != null && multiQuotes.isPresent() && !multiQuotes.get().isEmpty()) {
-                    carrierQuotes.addAll(multiQuotes.get());
-                    if ("auspost".equalsIgnoreCase(providerName)) {
-                        ausPostProvidedQuote = true;
-                    }
-                    continue;
-                }
+        if (multiOrigin) {
+            List<OriginCandidate> candidates = rankOrigins(destination, request.isExpress());
+            origin = candidates.get(0).settings();
+            carrierQuotes.addAll(quoteFromBestOrigins(request, candidates, destination, totalWeightGrams, packaging,
+                    resolvedItems));
+        } else {
+            boolean ausPostProvidedQuote = false;
 
-                var singleQuote = provider.quote(request, origin, packaging, resolvedItems);
-                if (singleQuote != null && singleQuote.isPresent()) {
-                    carrierQuotes.add(singleQuote.get());
-                    if ("auspost".equalsIgnoreCase(providerName)) {
-                        ausPostProvidedQuote = true;
-                    }
+            for (CarrierProvider provider : providerRegistry.getEnabledProviders(providerConfig)) {
+                List<CarrierQuote> quotes = liveQuotes(provider, request, origin, packaging, resolvedItems);
+                carrierQuotes.addAll(quotes);
+                if (!quotes.isEmpty() && "auspost".equalsIgnoreCase(provider.getName())) {
+                    ausPostProvidedQuote = true;
                 }
-            } catch (RuntimeException e) {
-                log.error("Provider '{}' failed during quote; continuing with other providers. Stack: {}",
-                        providerName,
-                        summarizeStackTrace(e));
             }
-        }
 
-        if (!ausPostProvidedQuote) {
-            carrierQuotes.add(calculateAusPostRulesBasedQuote(origin, destination, totalWeightGrams, packaging,
-                    request.isExpress()));
+            if (!ausPostProvidedQuote) {
+                carrierQuotes.add(calculateAusPostRulesBasedQuote(origin, destination, totalWeightGrams, packaging,
+                        request.isExpress()));
+            }
         }
         // Sendle integration disabled.
 
@@ -109,6 +121,136 @@ public class QuoteServiceImpl implements QuoteService {
                 Instant.now());
     }
 
+    /**
+     * Live quotes from one provider, or an empty list when it has none so rules can be used instead.
+     */
+    private List<CarrierQuote> liveQuotes(CarrierProvider provider,
+                                          ShipmentRequest request,
+                                          OriginSettings origin,
+                                          Packaging packaging,
+                                          List<Item> resolvedItems) {
+        try {
+            var multiQuotes = provider.quotes(request, origin, packaging, resolvedItems);
+            if (multiQuotes != null && multiQuotes.isPresent() && !multiQuotes.get().isEmpty()) {
+                return multiQuotes.get();
+            }
+
+            var singleQuote = provider.quote(request, origin, packaging, resolvedItems);
+            if (singleQuote != null && singleQuote.isPresent()) {
+                return List.of(singleQuote.get());
+            }
+        } catch (RuntimeException e) {
+            log.error("Provider '{}' failed during quote; continuing with other providers. Stack: {}",
+                    provider.getName(),
+                    summarizeStackTrace(e));
+        }
+        return List.of();
+    }
+
+    /**
+     * Ranks the configured origins by their delivery estimate to the destination, best first, ties
+     * in configured order. The AusPost rules price a parcel by weight and packaging only, the same
+     * from every origin, so the estimate (same state, metro or rural) stands in for the delivery
+     * zone carriers price on, under either selection; the live quotes then pick per carrier.
+     */
+    private List<OriginCandidate> rankOrigins(QuoteResult.Destination destination, boolean isExpress) {
+        return quoteConfig.getOrigins().stream()
+                .map(configured -> {
+                    var settings = configured.toSettings();
+                    return new OriginCandidate(configured.name(), settings,
+                            DeliveryEtaUtils.calculateEta(settings.postcode(), destination.postcode(),
+                                    settings.state(), destination.state(), isExpress));
+                })
+                .sorted(Comparator.comparingInt((OriginCandidate candidate) -> candidate.estimate().maxDays())
+                        .thenComparingInt(candidate -> candidate.estimate().minDays()))
+                .toList();
+    }
+
+    /**
+     * Asks every enabled provider for live quotes from the {@code quotes.live-origins} best ranked
+     * origins, all calls in parallel, and keeps each carrier's quotes from the origin whose best
+     * quote ranks first. Carrier traffic grows with that setting, not with the number of origins.
+     * Providers that don't {@linkplain CarrierProvider#usesOrigin() use the origin} are called once
+     * and their quotes carry no origin.
+     */
+    private List<CarrierQuote> quoteFromBestOrigins(ShipmentRequest request,
+                                                    List<OriginCandidate> candidates,
+                                                    QuoteResult.Destination destination,
+                                                    int totalWeightGrams,
+                                                    Packaging packaging,
+                                                    List<Item> resolvedItems) {
+        var live = candidates.subList(0, Math.min(quoteConfig.getLiveOrigins(), candidates.size()));
+        log.debug("Quoting live from {} of {} origins: {}", live.size(), candidates.size(),
+                live.stream().map(OriginCandidate::name).toList());
+
+        var tenant = TenantContext.current();
+        var calls = new LinkedHashMap<CarrierProvider, List<CompletableFuture<List<CarrierQuote>>>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (CarrierProvider provider : providerRegistry.getEnabledProviders(providerConfig)) {
+                var origins = provider.usesOrigin() ? live : live.subList(0, 1);
+                var perOrigin = new ArrayList<CompletableFuture<List<CarrierQuote>>>(origins.size());
+                for (OriginCandidate candidate : origins) {
+                    perOrigin.add(CompletableFuture.supplyAsync(() -> inTenant(tenant,
+                            () -> liveQuotes(provider, request, candidate.settings(), packaging, resolvedItems)),
+                            executor));
+                }
+                calls.put(provider, perOrigin);
+            }
+        }
+
+        var order = quoteOrder();
+        List<CarrierQuote> carrierQuotes = new ArrayList<>();
+        boolean ausPostProvidedQuote = false;
+        for (var call : calls.entrySet()) {
+            List<CarrierQuote> best = List.of();
+            String bestOrigin = null;
+            for (int i = 0; i < call.getValue().size(); i++) {
+                var quotes = call.getValue().get(i).join();
+                if (!quotes.isEmpty() && (best.isEmpty()
+                        || order.compare(quotes.stream().min(order).orElseThrow(),
+                                best.stream().min(order).orElseThrow()) < 0)) {
+                    best = quotes;
+                    bestOrigin = call.getKey().usesOrigin() ? live.get(i).name() : null;
+                }
+            }
+            for (CarrierQuote quote : best) {
+                carrierQuotes.add(quote.withOrigin(bestOrigin));
+            }
+            if (!best.isEmpty() && "auspost".equalsIgnoreCase(call.getKey().getName())) {
+                ausPostProvidedQuote = true;
+            }
+        }
+
+        if (!ausPostProvidedQuote) {
+            var best = candidates.get(0);
+            carrierQuotes.add(calculateAusPostRulesBasedQuote(best.settings(), destination, totalWeightGrams,
+                    packaging, request.isExpress()).withOrigin(best.name()));
+        }
+        return carrierQuotes;
+    }
+
+    /**
+     * Orders quotes best first for the configured {@link QuoteConfig.OriginSelection}.
+     */
+    private Comparator<CarrierQuote> quoteOrder() {
+        Comparator<CarrierQuote> byCost = Comparator.comparingDouble(CarrierQuote::totalCostAud);
+        Comparator<CarrierQuote> byEta = Comparator
+                .comparing(CarrierQuote::deliveryEtaDaysMax, Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+                .thenComparing(CarrierQuote::deliveryEtaDaysMin, Comparator.nullsLast(Comparator.<Integer>naturalOrder()));
+        return quoteConfig.getOriginSelection() == QuoteConfig.OriginSelection.FASTEST
+                ? byEta.thenComparing(byCost)
+                : byCost.thenComparing(byEta);
+    }
+
+    private static <V> V inTenant(String tenant, Supplier<V> task) {
+        if (tenant == null) {
+            return task.get();
+        }
+        try (var scope = TenantContext.enter(tenant)) {
+            return task.get();
+        }
+    }
+
     private CarrierQuote calculateAusPostRulesBasedQuote(
             OriginSettings origin,
             QuoteResult.Destination destination,
@@ -639,6 +781,9 @@ public class QuoteServiceImpl implements QuoteService {
         return builder.toString();
     }
 
+    private record OriginCandidate(String name, OriginSettings settings, DeliveryEtaUtils.EtaResult estimate) {
+    }
+
     private enum BracketState {
         ONLY_MATCHED1, ONLY_MATCHED2, BOTH_PRESENT
     }
@@ -4,11 +4,17 @@ import com.postage.postagecomparator.model.OriginSettings;
 import com.postage.postagecomparator.model.WeightBracket;
 
 import java.util.List;
+import java.util.Map;
 
 public interface SettingsService {
 
     OriginSettings getOriginSettings();
 
+    /**
+     * @return a token that changes whenever the origin settings change, used as their ETag
+     */
+    String getOriginSettingsVersion();
+
     OriginSettings updateOriginSettings(OriginSettings newSettings);
 
     OriginSettings updateThemePreference(String themePreference);
@@ -31,4 +37,11 @@ public interface SettingsService {
     String getShipStationApiKey();
 
     String getAfterShipApiKey();
+
+    /**
+     * Reads the carrier API keys and accounts again, so rotated keys apply without a restart.
+     *
+     * @return whether each carrier now has credentials, keyed by provider name
+     */
+    Map<String, Boolean> reloadCarrierCredentials();
 }
@@ -1,35 +1,38 @@
 package com.postage.postagecomparator.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
 import com.postage.postagecomparator.model.OriginSettings;
 import com.postage.postagecomparator.model.WeightBracket;
-import com.postage.postagecomparator.util.FileWriteUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.postage.postagecomparator.provider.CarrierCredentials;
+import com.postage.postagecomparator.storage.DataDirectory;
+import com.postage.postagecomparator.storage.JsonSettingsStore;
+import com.postage.postagecomparator.storage.SettingsStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class SettingsServiceImpl implements SettingsService {
 
-    private static final Logger log = LoggerFactory.getLogger(SettingsServiceImpl.class);
-
-    private static final String DEFAULT_DIR_NAME = ".postage-comparator";
-    private static final String SETTINGS_FILE_NAME = "settings.json";
-
-    private final ObjectMapper objectMapper;
-    private final Object lock = new Object();
+    private final SettingsStore settingsStore;
+    private final CarrierCredentials carrierCredentials;
 
     private List<WeightBracket> ausPostWeightBrackets;
 
     public SettingsServiceImpl(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this(new JsonSettingsStore(objectMapper, DataDirectory.fromEnvironment()::resolve,
+                new StorageConfig().getDurability().settings()), new CarrierCredentials());
+    }
+
+    @Autowired
+    public SettingsServiceImpl(SettingsStore settingsStore, CarrierCredentials carrierCredentials) {
+        this.settingsStore = settingsStore;
+        this.carrierCredentials = carrierCredentials;
         this.ausPostWeightBrackets = List.of(
                 new WeightBracket(0, 0.25, 9.70, 12.70),
                 new WeightBracket(0.25, 0.5, 11.15, 14.65),
@@ -40,18 +43,12 @@ public class SettingsServiceImpl implements SettingsService {
 
     @Override
     public OriginSettings getOriginSettings() {
-        Path path = settingsPath();
-        if (!Files.exists(path)) {
-            return null;
-        }
-        synchronized (lock) {
-            try {
-                return objectMapper.readValue(path.toFile(), OriginSettings.class);
-            } catch (IOException e) {
-                log.error("Failed to read origin settings from {}", path, e);
-                throw new IllegalStateException("Unable to read origin settings", e);
-            }
-        }
+        return settingsStore.load().orElse(null);
+    }
+
+    @Override
+    public String getOriginSettingsVersion() {
+        return settingsStore.version();
     }
 
     @Override
@@ -68,110 +65,53 @@ public class SettingsServiceImpl implements SettingsService {
             throw new IllegalArgumentException("Postcode must be 4 digits");
         }
 
-        var existing = getOriginSettings();
-        var themePreference = normalizeThemePreference(newSettings.themePreference());
-        if (themePreference == null && existing != null) {
-            themePreference = existing.themePreference();
-        }
-        OriginSettings withTimestamp = new OriginSettings(
+        var requestedTheme = normalizeThemePreference(newSettings.themePreference());
+        return settingsStore.update(existing -> new OriginSettings(
                 newSettings.postcode(),
                 newSettings.suburb(),
                 newSettings.state(),
                 newSettings.country(),
-                themePreference,
-                Instant.now());
-
-        synchronized (lock) {
-            Path path = settingsPath();
-            FileWriteUtils.safeWrite(path, temp -> {
-                try {
-                    objectMapper
-                            .writerWithDefaultPrettyPrinter()
-                            .writeValue(temp.toFile(), withTimestamp);
-                } catch (IOException e) {
-                    throw new IllegalStateException("Unable to write origin settings", e);
-                }
-            }, log);
-            return withTimestamp;
-        }
+                requestedTheme == null && existing != null ? existing.themePreference() : requestedTheme,
+                Instant.now()));
     }
 
     @Override
     public OriginSettings updateThemePreference(String themePreference) {
         var normalized = normalizeThemePreference(themePreference);
-        synchronized (lock) {
-            var current = getOriginSettings();
-            OriginSettings updated = current == null
-                    ? new OriginSettings(null, null, null, null, normalized, Instant.now())
-                    : new OriginSettings(
-                            current.postcode(),
-                            current.suburb(),
-                            current.state(),
-                            current.country(),
-                            normalized,
-                            Instant.now());
-
-            Path path = settingsPath();
-            FileWriteUtils.safeWrite(path, temp -> {
-                try {
-                    objectMapper
-                            .writerWithDefaultPrettyPrinter()
-                            .writeValue(temp.toFile(), updated);
-                } catch (IOException e) {
-                    throw new IllegalStateException("Unable to write origin settings", e);
-                }
-            }, log);
-            return updated;
-        }
-    }
-
-    private Path settingsPath() {
-        // Allow a system property override for tests or advanced configuration
-        var baseDir = System.getProperty("POSTAGE_DATA_DIR");
-        if (baseDir == null || baseDir.isBlank()) {
-            baseDir = System.getenv("POSTAGE_DATA_DIR");
-        }
-        if (baseDir == null || baseDir.isBlank()) {
-            var userHome = System.getProperty("user.home");
-            baseDir = Path.of(userHome, DEFAULT_DIR_NAME).toString();
-        }
-        return Path.of(baseDir, SETTINGS_FILE_NAME);
+        return settingsStore.update(current -> current == null
+                ? new OriginSettings(null, null, null, null, normalized, Instant.now())
+                : new OriginSettings(
+                        current.postcode(),
+                        current.suburb(),
+                        current.state(),
+                        current.country(),
+                        normalized,
+                        Instant.now()));
     }
 
     @Override
     public String getAusPostApiKey() {
-        var property = System.getProperty("AUSPOST_API_KEY");
-        if (property != null && !property.isBlank()) {
-            return property;
-        }
-        return System.getenv("AUSPOST_API_KEY");
+        return carrierCredentials.getAusPostApiKey();
     }
 
     @Override
     public String getShippitApiKey() {
-        var property = System.getProperty("SHIPPIT_API_KEY");
-        if (property != null && !property.isBlank()) {
-            return property;
-        }
-        return System.getenv("SHIPPIT_API_KEY");
+        return carrierCredentials.getShippitApiKey();
     }
 
     @Override
     public String getShipStationApiKey() {
-        var property = System.getProperty("SHIPSTATION_API_KEY");
-        if (property != null && !property.isBlank()) {
-            return property;
-        }
-        return System.getenv("SHIPSTATION_API_KEY");
+        return carrierCredentials.getShipStationApiKey();
     }
 
     @Override
     public String getAfterShipApiKey() {
-        var property = System.getProperty("AFTERSHIP_API_KEY");
-        if (property != null && !property.isBlank()) {
-            return property;
-        }
-        return System.getenv("AFTERSHIP_API_KEY");
+        return carrierCredentials.getAfterShipApiKey();
+    }
+
+    @Override
+    public Map<String, Boolean> reloadCarrierCredentials() {
+        return carrierCredentials.reload();
     }
 
     /*
@@ -0,0 +1,84 @@
+package com.postage.postagecomparator.storage;
+
+import com.postage.postagecomparator.model.CatalogEntry;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link CatalogStore#updateAll} for stores that hold the catalog as a list.
+ */
+final class CatalogChanges {
+
+    private CatalogChanges() {
+    }
+
+    /**
+     * Applies {@code changes} to {@code entries} in place. Every change runs and the resulting
+     * names are checked before the list is modified, so the list is untouched if anything throws.
+     */
+    static <T extends CatalogEntry> Map<String, T> apply(List<T> entries, Map<String, UnaryOperator<T>> changes) {
+        var indexById = new HashMap<String, Integer>(entries.size() * 2);
+        for (int i = 0; i < entries.size(); i++) {
+            indexById.put(entries.get(i).id(), i);
+        }
+
+        var replacements = new LinkedHashMap<String, T>();
+        for (var change : changes.entrySet()) {
+            var index = indexById.get(change.getKey());
+            var existing = index != null ? entries.get(index) : null;
+            var replacement = change.getValue().apply(existing);
+            checkReplacement(change.getKey(), existing, replacement);
+            if (existing != null) {
+                replacements.put(change.getKey(), replacement);
+            }
+        }
+
+        var owners = new HashMap<String, String>(entries.size() * 2);
+        for (var entry : entries) {
+            if (!replacements.containsKey(entry.id())) {
+                owners.put(entry.name(), entry.id());
+            }
+        }
+        for (var replacement : replacements.values()) {
+            if (replacement != null && owners.putIfAbsent(replacement.name(), replacement.id()) != null) {
+                throw new DuplicateNameException(replacement.name());
+            }
+        }
+
+        var deleted = new HashSet<String>();
+        var stored = new LinkedHashMap<String, T>();
+        replacements.forEach((id, replacement) -> {
+            if (replacement == null) {
+                deleted.add(id);
+            } else {
+                entries.set(indexById.get(id), replacement);
+                stored.put(id, replacement);
+            }
+        });
+        if (!deleted.isEmpty()) {
+            entries.removeIf(entry -> deleted.contains(entry.id()));
+        }
+        return Collections.unmodifiableMap(stored);
+    }
+
+    /**
+     * Rejects a change that would create an entry or move one to another id.
+     */
+    static <T extends CatalogEntry> void checkReplacement(String id, T existing, T replacement) {
+        if (replacement == null) {
+            return;
+        }
+        if (existing == null) {
+            throw new IllegalArgumentException("No entry with id " + id + " to replace");
+        }
+        if (!id.equals(replacement.id())) {
+            throw new IllegalArgumentException("Replacement for " + id + " has id " + replacement.id());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.postage.postagecomparator.storage;
+
+import java.util.List;
+
+/**
+ * A filtered, name-ordered range of a catalog. Names compare case-insensitively first and then
+ * exactly, so the order is total and a name identifies a position even across writes.
+ *
+ * {@code contains} has no index: stores scan the range name by name, examining at most
+ * {@link #MAX_SCANNED} names per query and reporting where they stopped.
+ *
+ * @param prefix     only names starting with this text, ignoring case (null for any)
+ * @param contains   only names containing this text, ignoring case (null for any)
+ * @param descending reverse name order
+ * @param after      only names strictly after this name in the chosen order (null to start)
+ * @param limit      maximum number of entries to return
+ */
+public record CatalogQuery(String prefix, String contains, boolean descending, String after, int limit) {
+
+    /**
+     * Most names a query with {@code contains} examines before it stops.
+     */
+    public static final int MAX_SCANNED = 10_000;
+
+    public CatalogQuery {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        prefix = prefix == null || prefix.isEmpty() ? null : prefix;
+        contains = contains == null || contains.isEmpty() ? null : contains;
+    }
+
+    /**
+     * @param entries   matching entries, in the query's order
+     * @param scannedTo the last name examined when the scan stopped at {@link #MAX_SCANNED} names
+     *                  before filling the limit; continue after it to search on. Null when the
+     *                  range was searched to its end or the limit was reached
+     */
+    public record Result<T>(List<T> entries, String scannedTo) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.postage.postagecomparator.storage;
+
+import com.postage.postagecomparator.model.CatalogEntry;
+import com.postage.postagecomparator.model.ImportResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * Persistence SPI for a catalog of named entries (items or packagings).
+ *
+ * Implementations must enforce name uniqueness and make each write atomic: a write either
+ * applies completely or not at all, and concurrent writes never lose each other's changes.
+ *
+ * @param <T> entry type
+ */
+public interface CatalogStore<T extends CatalogEntry> {
+
+    /**
+     * @return every entry, in insertion order
+     */
+    List<T> findAll();
+
+    Optional<T> findById(String id);
+
+    /**
+     * @return up to {@code query.limit()} entries matching the query, in name order, and where a
+     * {@code contains} scan stopped early
+     */
+    CatalogQuery.Result<T> search(CatalogQuery query);
+
+    /**
+     * @return up to {@code query.limit()} entries matching the query, in name order
+     */
+    default List<T> query(CatalogQuery query) {
+        return search(query).entries();
+    }
+
+    /**
+     * @return an opaque token that changes whenever the stored entries change; read it before the
+     * entries it is meant to describe
+     */
+    String version();
+
+    /**
+     * Adds a new entry whose id has already been assigned.
+     *
+     * @throws DuplicateNameException if another entry already uses the same name
+     */
+    T insert(T entry);
+
+    /**
+     * Atomically replaces the entry with the given id by {@code change.apply(existing)}.
+     *
+     * @return the stored entry, or empty if no entry has that id
+     * @throws DuplicateNameException if the new name belongs to a different entry
+     */
+    Optional<T> update(String id, UnaryOperator<T> change);
+
+    /**
+     * Changes several entries, keyed by id, as a single atomic write. Each change receives the
+     * stored entry (null if there is none with that id) and returns its replacement, which must
+     * keep the id, or null to delete it. Names must be unique once every change has applied, so
+     * entries in the same batch may take over each other's names. If a change throws or a name
+     * clashes, nothing is stored.
+     *
+     * @return the stored replacements, keyed by id and in the order of {@code changes}; deleted
+     * and missing entries are absent
+     * @throws DuplicateNameException if a resulting name belongs to another entry
+     */
+    Map<String, T> updateAll(Map<String, UnaryOperator<T>> changes);
+
+    /**
+     * Inserts or replaces many entries, matched by name, as a single atomic write. An entry whose
+     * name is already stored is replaced by {@code merge.apply(existing, incoming)}, which must keep
+     * the name; any other entry is inserted as given. Names within {@code entries} must be unique.
+     */
+    ImportResult upsertAllByName(List<T> entries, BinaryOperator<T> merge);
+
+    /**
+     * @return whether an entry was removed
+     */
+    boolean delete(String id);
+}
@@ -0,0 +1,50 @@
+package com.postage.postagecomparator.storage;
+
+import java.nio.file.Path;
+
+/**
+ * The directory holding the application's data files. The base directory is fixed when this is
+ * created, so resolving a tenant's directory does no property or environment lookups.
+ */
+public final class DataDirectory {
+
+    private static final String DEFAULT_DIR_NAME = ".postage-comparator";
+    private static final String TENANTS_DIR_NAME = "tenants";
+
+    private final Path base;
+
+    public DataDirectory(Path base) {
+        this.base = base;
+    }
+
+    /**
+     * {@code POSTAGE_DATA_DIR} as a system property, then as an environment variable, otherwise
+     * {@code ~/.postage-comparator}, read once.
+     */
+    public static DataDirectory fromEnvironment() {
+        // Allow a system property override for tests or advanced configuration
+        var baseDir = System.getProperty("POSTAGE_DATA_DIR");
+        if (baseDir == null || baseDir.isBlank()) {
+            baseDir = System.getenv("POSTAGE_DATA_DIR");
+        }
+        if (baseDir == null || baseDir.isBlank()) {
+            var userHome = System.getProperty("user.home");
+            return new DataDirectory(Path.of(userHome, DEFAULT_DIR_NAME));
+        }
+        return new DataDirectory(Path.of(baseDir));
+    }
+
+    /**
+     * The data directory of the {@linkplain TenantContext current tenant}: {@code tenants/<id>}
+     * under the {@linkplain #base() base directory}, or the base directory itself when no tenant
+     * is set.
+     */
+    public Path resolve() {
+        var tenant = TenantContext.current();
+        return tenant == null ? base() : base().resolve(TENANTS_DIR_NAME).resolve(tenant);
+    }
+
+    public Path base() {
+        return base;
+    }
+}
@@ -0,0 +1,18 @@
+package com.postage.postagecomparator.storage;
+
+/**
+ * Thrown by a {@link CatalogStore} when a write would give two entries the same name.
+ */
+public class DuplicateNameException extends RuntimeException {
+
+    private final String name;
+
+    public DuplicateNameException(String name) {
+        super("Entry with name " + name + " already exists");
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
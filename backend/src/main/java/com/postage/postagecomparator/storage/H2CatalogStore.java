@@ -0,0 +1,318 @@
+package com.postage.postagecomparator.storage;
+
+import com.postage.postagecomparator.model.CatalogEntry;
+import com.postage.postagecomparator.model.ImportResult;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.Packaging;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * {@link CatalogStore} backed by a table in the embedded {@link H2Database}.
+ *
+ * The primary key on {@code id} serves lookups and the unique index on {@code name} enforces
+ * uniqueness, so writes touch a single row instead of rewriting the whole catalog.
+ */
+public class H2CatalogStore<T extends CatalogEntry> implements CatalogStore<T> {
+
+    private static final int NAME_LOOKUP_CHUNK = 500;
+    private static final String PARKED_NAME_PREFIX = "\u0000";
+
+    private final H2Database database;
+    private final String label;
+    private final RowMapper<T> rowMapper;
+    private final Function<T, Object[]> columnValues;
+
+    private final String columnList;
+    private final String table;
+    private final String selectAll;
+    private final String selectById;
+    private final String selectByIdForUpdate;
+    private final String selectByNamesPrefix;
+    private final String countByName;
+    private final String insert;
+    private final String update;
+    private final String rename;
+    private final String delete;
+
+    /**
+     * @param table        table name
+     * @param columns      mapped columns, starting with {@code id}
+     * @param rowMapper    maps a row selected with {@code columns}
+     * @param columnValues values of {@code columns} for an entry, in the same order
+     */
+    H2CatalogStore(H2Database database,
+                   String table,
+                   List<String> columns,
+                   RowMapper<T> rowMapper,
+                   Function<T, Object[]> columnValues) {
+        this.database = database;
+        this.label = table;
+        this.rowMapper = rowMapper;
+        this.columnValues = columnValues;
+
+        var columnList = String.join(", ", columns);
+        this.columnList = columnList;
+        this.table = table;
+        var placeholders = columns.stream().map(column -> "?").collect(Collectors.joining(", "));
+        var assignments = columns.stream().skip(1).map(column -> column + " = ?").collect(Collectors.joining(", "));
+        this.selectAll = "SELECT " + columnList + " FROM " + table + " ORDER BY seq";
+        this.selectById = "SELECT " + columnList + " FROM " + table + " WHERE id = ?";
+        this.selectByIdForUpdate = selectById + " FOR UPDATE";
+        this.selectByNamesPrefix = "SELECT " + columnList + " FROM " + table + " WHERE name IN (";
+        this.countByName = "SELECT COUNT(*) FROM " + table + " WHERE name = ?";
+        this.insert = "INSERT INTO " + table + " (" + columnList + ") VALUES (" + placeholders + ")";
+        this.update = "UPDATE " + table + " SET " + assignments + " WHERE id = ?";
+        this.rename = "UPDATE " + table + " SET name = ? WHERE id = ?";
+        this.delete = "DELETE FROM " + table + " WHERE id = ?";
+    }
+
+    public static H2CatalogStore<Item> items(H2Database database) {
+        return new H2CatalogStore<>(database, "items",
+                List.of("id", "name", "description", "unit_weight_grams", "version"),
+                (rs, rowNum) -> new Item(
+                        rs.getString("id"),
+                        rs.getString("name"),
+                        rs.getString("description"),
+                        rs.getInt("unit_weight_grams"),
+                        rs.getLong("version")),
+                item -> new Object[]{item.id(), item.name(), item.description(), item.unitWeightGrams(),
+                        item.version()});
+    }
+
+    public static H2CatalogStore<Packaging> packagings(H2Database database) {
+        return new H2CatalogStore<>(database, "packagings",
+                List.of("id", "name", "description", "length_cm", "height_cm", "width_cm",
+                        "internal_volume_cubic_cm", "packaging_cost_aud", "version"),
+                (rs, rowNum) -> new Packaging(
+                        rs.getString("id"),
+                        rs.getString("name"),
+                        rs.getString("description"),
+                        rs.getInt("length_cm"),
+                        rs.getInt("height_cm"),
+                        rs.getInt("width_cm"),
+                        rs.getInt("internal_volume_cubic_cm"),
+                        rs.getDouble("packaging_cost_aud"),
+                        rs.getLong("version")),
+                packaging -> new Object[]{packaging.id(), packaging.name(), packaging.description(),
+                        packaging.lengthCm(), packaging.heightCm(), packaging.widthCm(),
+                        packaging.internalVolumeCubicCm(), packaging.packagingCostAud(), packaging.version()});
+    }
+
+    @Override
+    public List<T> findAll() {
+        try {
+            return database.handle().jdbc().query(selectAll, rowMapper);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Unable to read " + label, e);
+        }
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        try {
+            return database.handle().jdbc().query(selectById, rowMapper, id).stream().findFirst();
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Unable to read " + label, e);
+        }
+    }
+
+    @Override
+    public CatalogQuery.Result<T> search(CatalogQuery query) {
+        var sql = new StringBuilder("SELECT ").append(columnList).append(" FROM ").append(table).append(" WHERE 1 = 1");
+        var parameters = new ArrayList<Object>();
+        if (query.prefix() != null) {
+            sql.append(" AND name_key LIKE ? ESCAPE '\\'");
+            parameters.add(escapeLike(NameIndex.key(query.prefix())) + "%");
+        }
+        if (query.contains() != null) {
+            sql.append(" AND name_key LIKE ? ESCAPE '\\'");
+            parameters.add("%" + escapeLike(NameIndex.key(query.contains())) + "%");
+        }
+        if (query.after() != null) {
+            var comparison = query.descending() ? "<" : ">";
+            sql.append(" AND (name_key ").append(comparison).append(" ? OR (name_key = ? AND name ")
+                    .append(comparison).append(" ?))");
+            var afterKey = NameIndex.key(query.after());
+            parameters.add(afterKey);
+            parameters.add(afterKey);
+            parameters.add(query.after());
+        }
+        var direction = query.descending() ? " DESC" : " ASC";
+        sql.append(" ORDER BY name_key").append(direction).append(", name").append(direction).append(" LIMIT ?");
+        parameters.add(query.limit());
+        try {
+            // The database runs the scan itself, so it is not cut short
+            return new CatalogQuery.Result<>(
+                    database.handle().jdbc().query(sql.toString(), rowMapper, parameters.toArray()), null);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Unable to read " + label, e);
+        }
+    }
+
+    @Override
+    public String version() {
+        return database.version(table);
+    }
+
+    @Override
+    public T insert(T entry) {
+        var handle = database.handle();
+        try {
+            handle.jdbc().update(insert, columnValues.apply(entry));
+            return entry;
+        } catch (DuplicateKeyException e) {
+            if (nameExists(entry.name())) {
+                throw new DuplicateNameException(entry.name());
+            }
+            throw new IllegalStateException("Unable to write " + label, e);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Unable to write " + label, e);
+        } finally {
+            database.changed(table);
+        }
+    }
+
+    @Override
+    public Optional<T> update(String id, UnaryOperator<T> change) {
+        var handle = database.handle();
+        try {
+            return handle.transactions().execute(status -> {
+                var existing = handle.jdbc().query(selectByIdForUpdate, rowMapper, id).stream().findFirst();
+                if (existing.isEmpty()) {
+                    return Optional.<T>empty();
+                }
+                var updated = change.apply(existing.get());
+                try {
+                    handle.jdbc().update(update, updateParameters(id, updated));
+                } catch (DuplicateKeyException e) {
+                    throw new DuplicateNameException(updated.name());
+                }
+                return Optional.of(updated);
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Unable to write " + label, e);
+        } finally {
+            database.changed(table);
+        }
+    }
+
+    /**
+     * Names that change are first parked on a placeholder unique to the row, so entries in the
+     * batch can take over each other's names without tripping the unique index midway.
+     */
+    @Override
+    public Map<String, T> updateAll(Map<String, UnaryOperator<T>> changes) {
+        var handle = database.handle();
+        try {
+            return handle.transactions().execute(status -> {
+                var replacements = new LinkedHashMap<String, T>();
+                var deletes = new ArrayList<Object[]>();
+                for (var change : changes.entrySet()) {
+                    var id = change.getKey();
+                    var existing = handle.jdbc().query(selectByIdForUpdate, rowMapper, id).stream().findFirst();
+                    var replacement = change.getValue().apply(existing.orElse(null));
+                    CatalogChanges.checkReplacement(id, existing.orElse(null), replacement);
+                    if (replacement != null) {
+                        if (!replacement.name().equals(existing.get().name())) {
+                            handle.jdbc().update(rename, PARKED_NAME_PREFIX + id, id);
+                        }
+                        replacements.put(id, replacement);
+                    } else if (existing.isPresent()) {
+                        deletes.add(new Object[]{id});
+                    }
+                }
+                handle.jdbc().batchUpdate(delete, deletes);
+                for (var replacement : replacements.entrySet()) {
+                    try {
+                        handle.jdbc().update(update, updateParameters(replacement.getKey(), replacement.getValue()));
+                    } catch (DuplicateKeyException e) {
+                        throw new DuplicateNameException(replacement.getValue().name());
+                    }
+                }
+                return Collections.unmodifiableMap(replacements);
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Unable to write " + label, e);
+        } finally {
+            database.changed(table);
+        }
+    }
+
+    @Override
+    public ImportResult upsertAllByName(List<T> entries, BinaryOperator<T> merge) {
+        var handle = database.handle();
+        try {
+            return handle.transactions().execute(status -> {
+                var existingByName = new HashMap<String, T>();
+                for (int from = 0; from < entries.size(); from += NAME_LOOKUP_CHUNK) {
+                    var names = entries.subList(from, Math.min(from + NAME_LOOKUP_CHUNK, entries.size())).stream()
+                            .map(CatalogEntry::name)
+                            .toArray();
+                    var sql = selectByNamesPrefix + String.join(", ", Collections.nCopies(names.length, "?")) + ")";
+                    handle.jdbc().query(sql, rowMapper, names)
+                            .forEach(existing -> existingByName.put(existing.name(), existing));
+                }
+
+                var inserts = new ArrayList<Object[]>();
+                var updates = new ArrayList<Object[]>();
+                for (var entry : entries) {
+                    var existing = existingByName.get(entry.name());
+                    if (existing == null) {
+                        inserts.add(columnValues.apply(entry));
+                    } else {
+                        updates.add(updateParameters(existing.id(), merge.apply(existing, entry)));
+                    }
+                }
+                handle.jdbc().batchUpdate(insert, inserts);
+                handle.jdbc().batchUpdate(update, updates);
+                return new ImportResult(entries.size(), inserts.size(), updates.size());
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Unable to write " + label, e);
+        } finally {
+            database.changed(table);
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        try {
+            return database.handle().jdbc().update(delete, id) > 0;
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Unable to write " + label, e);
+        } finally {
+            database.changed(table);
+        }
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private Object[] updateParameters(String id, T entry) {
+        var values = columnValues.apply(entry);
+        var parameters = new Object[values.length];
+        System.arraycopy(values, 1, parameters, 0, values.length - 1);
+        parameters[values.length - 1] = id;
+        return parameters;
+    }
+
+    private boolean nameExists(String name) {
+        var count = database.handle().jdbc().queryForObject(countByName, Integer.class, name);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,169 @@
+package com.postage.postagecomparator.storage;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Embedded H2 database (file mode) stored as {@code postage.mv.db} in the data directory.
+ *
+ * A connection pool is opened lazily for each data directory (one per tenant) the first time it
+ * is used and the schema is created if missing, so the data directory can still change between
+ * calls. At most {@code maxOpenDatabases} stay open: opening another one retires the least
+ * recently used. A retired pool is only disposed after a grace period, so a caller that obtained
+ * its handle just before retirement can still finish its statement.
+ */
+public class H2Database implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(H2Database.class);
+
+    private static final String DATABASE_NAME = "postage";
+    private static final String SCHEMA = "storage/h2-schema.sql";
+
+    private static final long RETIRED_GRACE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long TOUCH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Supplier<Path> dataDir;
+    private final int maxConnections;
+    private final int maxOpenDatabases;
+    private final Map<Path, OpenDatabase> databases = new ConcurrentHashMap<>();
+    private final List<RetiredDatabase> retired = new ArrayList<>();
+    private final VersionCounter versions = new VersionCounter();
+
+    /**
+     * @param dataDir        resolves the data directory for the current call
+     * @param maxConnections connection pool size per data directory
+     */
+    public H2Database(Supplier<Path> dataDir, int maxConnections) {
+        this(dataDir, maxConnections, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxOpenDatabases databases kept open at once before the least recently used is retired
+     */
+    public H2Database(Supplier<Path> dataDir, int maxConnections, int maxOpenDatabases) {
+        this.dataDir = dataDir;
+        this.maxConnections = maxConnections;
+        this.maxOpenDatabases = maxOpenDatabases;
+    }
+
+    /**
+     * @return JDBC access to the database in the current data directory
+     */
+    public Handle handle() {
+        var directory = dataDir.get().toAbsolutePath();
+        var database = databases.get(directory);
+        if (database == null) {
+            database = openAndTrim(directory);
+        }
+        long now = System.nanoTime();
+        if (now - database.lastUsed > TOUCH_INTERVAL_NANOS) {
+            database.lastUsed = now;
+        }
+        return database.handle;
+    }
+
+    /**
+     * @return number of databases currently open (excluding retired ones)
+     */
+    int openDatabases() {
+        return databases.size();
+    }
+
+    /**
+     * @return the version token of {@code table} in the current data directory. Only writes made
+     * through this instance are seen, which holds because the database file is locked to it.
+     */
+    String version(String table) {
+        return handle().versions().computeIfAbsent(table, key -> versions.next());
+    }
+
+    /**
+     * Gives {@code table} a new version token; call after a write has committed (or failed) so a
+     * reader never pairs the new token with the old rows.
+     */
+    void changed(String table) {
+        handle().versions().put(table, versions.next());
+    }
+
+    private synchronized OpenDatabase openAndTrim(Path directory) {
+        var existing = databases.get(directory);
+        if (existing != null) {
+            return existing;
+        }
+        disposeRetired(false);
+        while (databases.size() >= maxOpenDatabases) {
+            var leastRecentlyUsed = databases.entrySet().stream()
+                    .min((left, right) -> Long.compare(left.getValue().lastUsed - right.getValue().lastUsed, 0))
+                    .orElseThrow();
+            databases.remove(leastRecentlyUsed.getKey());
+            retired.add(new RetiredDatabase(leastRecentlyUsed.getValue().handle, System.nanoTime()));
+            log.debug("Retired H2 storage at {}", leastRecentlyUsed.getKey());
+        }
+        var opened = new OpenDatabase(open(directory));
+        databases.put(directory, opened);
+        return opened;
+    }
+
+    private void disposeRetired(boolean all) {
+        long now = System.nanoTime();
+        retired.removeIf(database -> {
+            if (all || now - database.retiredAt() > RETIRED_GRACE_NANOS) {
+                database.handle().pool().dispose();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private Handle open(Path directory) {
+        var url = "jdbc:h2:file:" + directory.resolve(DATABASE_NAME) + ";DB_CLOSE_ON_EXIT=FALSE";
+        var pool = JdbcConnectionPool.create(url, "sa", "");
+        pool.setMaxConnections(maxConnections);
+        new ResourceDatabasePopulator(new ClassPathResource(SCHEMA)).execute(pool);
+        log.info("Opened H2 storage at {}", directory);
+        return new Handle(pool, new JdbcTemplate(pool),
+                new TransactionTemplate(new DataSourceTransactionManager(pool)), new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public synchronized void close() {
+        databases.values().forEach(database -> database.handle.pool().dispose());
+        databases.clear();
+        disposeRetired(true);
+    }
+
+    /**
+     * JDBC access to one database file, with the current version token of each table.
+     */
+    public record Handle(JdbcConnectionPool pool,
+                         JdbcTemplate jdbc,
+                         TransactionTemplate transactions,
+                         Map<String, String> versions) {
+    }
+
+    private static final class OpenDatabase {
+        private final Handle handle;
+        private volatile long lastUsed = System.nanoTime();
+
+        private OpenDatabase(Handle handle) {
+            this.handle = handle;
+        }
+    }
+
+    private record RetiredDatabase(Handle handle, long retiredAt) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.postage.postagecomparator.storage;
+
+import com.postage.postagecomparator.model.OriginSettings;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link SettingsStore} backed by the single-row {@code origin_settings} table of the embedded
+ * {@link H2Database}.
+ */
+public class H2SettingsStore implements SettingsStore {
+
+    private static final String TABLE = "origin_settings";
+    private static final String SELECT = "SELECT postcode, suburb, state, country, theme_preference, updated_at"
+            + " FROM origin_settings WHERE id = 1";
+    private static final String MERGE = "MERGE INTO origin_settings"
+            + " (id, postcode, suburb, state, country, theme_preference, updated_at)"
+            + " KEY (id) VALUES (1, ?, ?, ?, ?, ?, ?)";
+
+    private static final RowMapper<OriginSettings> ROW_MAPPER = (rs, rowNum) -> {
+        var updatedAt = rs.getObject("updated_at", OffsetDateTime.class);
+        return new OriginSettings(
+                rs.getString("postcode"),
+                rs.getString("suburb"),
+                rs.getString("state"),
+                rs.getString("country"),
+                rs.getString("theme_preference"),
+                updatedAt != null ? updatedAt.toInstant() : null);
+    };
+
+    private final H2Database database;
+
+    public H2SettingsStore(H2Database database) {
+        this.database = database;
+    }
+
+    @Override
+    public Optional<OriginSettings> load() {
+        try {
+            return database.handle().jdbc().query(SELECT, ROW_MAPPER).stream().findFirst();
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Unable to read origin settings", e);
+        }
+    }
+
+    @Override
+    public String version() {
+        return database.version(TABLE);
+    }
+
+    @Override
+    public OriginSettings update(UnaryOperator<OriginSettings> change) {
+        var handle = database.handle();
+        try {
+            return handle.transactions().execute(status -> {
+                var current = handle.jdbc().query(SELECT + " FOR UPDATE", ROW_MAPPER).stream().findFirst();
+                var updated = change.apply(current.orElse(null));
+                handle.jdbc().update(MERGE,
+                        updated.postcode(),
+                        updated.suburb(),
+                        updated.state(),
+                        updated.country(),
+                        updated.themePreference(),
+                        updated.updatedAt() != null ? updated.updatedAt().atOffset(ZoneOffset.UTC) : null);
+                return updated;
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Unable to write origin settings", e);
+        } finally {
+            database.changed(TABLE);
+        }
+    }
+}
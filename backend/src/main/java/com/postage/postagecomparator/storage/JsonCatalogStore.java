@@ -0,0 +1,329 @@
+package com.postage.postagecomparator.storage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.CatalogEntry;
+import com.postage.postagecomparator.model.ImportResult;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.Packaging;
+import com.postage.postagecomparator.util.FileWriteUtils;
+import com.postage.postagecomparator.util.GroupCommitWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link CatalogStore} backed by a JSON array file in the (tenant's) data directory, written in
+ * the configured {@link StorageConfig.Encoding}.
+ *
+ * Reads are served from an immutable snapshot of the file (see {@link SnapshotCache}) without
+ * taking any lock. Every write rewrites the whole file through a {@link GroupCommitWriter}, so
+ * concurrent writes are folded into a single rewrite, validated against the latest contents and
+ * published as the new snapshot before the writers return.
+ *
+ * When {@code <label>.json} is missing but a {@link ShardedCatalogStore} shard directory is not,
+ * sharding was turned off: the first access rebuilds the file from the most recent shard
+ * directory, then removes the shard directories so a later switch back shards the file afresh.
+ */
+public class JsonCatalogStore<T extends CatalogEntry> implements CatalogStore<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonCatalogStore.class);
+
+    private final JsonCodec codec;
+    private final JavaType listType;
+    private final String fileName;
+    private final String label;
+    private final Supplier<Path> dataDir;
+    private final SnapshotCache<Entries<T>> snapshots;
+    private final GroupCommitWriter<T> writer;
+    private final FileWriteUtils.Durability durability;
+    // Only the catalog's own file collects shards, not the files of a ShardedCatalogStore
+    private final boolean unshards;
+    private final Set<Path> unsharded = ConcurrentHashMap.newKeySet();
+
+    JsonCatalogStore(ObjectMapper objectMapper,
+                     TypeReference<List<T>> listType,
+                     String fileName,
+                     String label,
+                     Supplier<Path> dataDir,
+                     StorageConfig.GroupCommit groupCommit,
+                     FileWriteUtils.Durability durability,
+                     StorageConfig.Tenants tenants,
+                     StorageConfig.Encoding encoding) {
+        this.codec = new JsonCodec(objectMapper, encoding);
+        this.listType = objectMapper.getTypeFactory().constructType(listType);
+        this.fileName = fileName;
+        this.label = label;
+        this.dataDir = dataDir;
+        this.durability = durability;
+        this.unshards = fileName.equals(label + ".json");
+        this.snapshots = new SnapshotCache<>(path -> Entries.of(read(path)), Entries.empty(),
+                new SnapshotCache.Limits(tenants.maxCached(), tenants.maxCachedSize().toBytes()),
+                codec::decodedSize);
+        this.writer = new GroupCommitWriter<>(
+                path -> snapshots.get(path).list(),
+                this::write,
+                (path, entries) -> snapshots.publish(path, previous -> previous.next(entries)),
+                groupCommit.maxDelay(),
+                groupCommit.maxBatchSize(),
+                durability,
+                log);
+    }
+
+    public static JsonCatalogStore<Item> items(ObjectMapper objectMapper,
+                                               StorageConfig storageConfig,
+                                               Supplier<Path> dataDir) {
+        return new JsonCatalogStore<>(objectMapper, new TypeReference<>() {}, "items.json", "items",
+                dataDir, storageConfig.getGroupCommit(), storageConfig.getDurability().items(),
+                storageConfig.getTenants(), storageConfig.getEncoding());
+    }
+
+    public static JsonCatalogStore<Packaging> packagings(ObjectMapper objectMapper,
+                                                         StorageConfig storageConfig,
+                                                         Supplier<Path> dataDir) {
+        return new JsonCatalogStore<>(objectMapper, new TypeReference<>() {}, "packagings.json", "packagings",
+                dataDir, storageConfig.getGroupCommit(), storageConfig.getDurability().packagings(),
+                storageConfig.getTenants(), storageConfig.getEncoding());
+    }
+
+    @Override
+    public List<T> findAll() {
+        return snapshots.get(path()).list();
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(snapshots.get(path()).byId().get(id));
+    }
+
+    /**
+     * @return the entry with exactly this name
+     */
+    Optional<T> findByName(String name) {
+        return Optional.ofNullable(snapshots.get(path()).names().find(name));
+    }
+
+    @Override
+    public CatalogQuery.Result<T> search(CatalogQuery query) {
+        return snapshots.get(path()).names().query(query);
+    }
+
+    @Override
+    public String version() {
+        return snapshots.version(path());
+    }
+
+    @Override
+    public T insert(T entry) {
+        return writer.execute(path(), entries -> {
+            if (entries.stream().anyMatch(existing -> existing.name().equals(entry.name()))) {
+                throw new DuplicateNameException(entry.name());
+            }
+            entries.add(entry);
+            return entry;
+        });
+    }
+
+    @Override
+    public Optional<T> update(String id, UnaryOperator<T> change) {
+        return writer.execute(path(), entries -> {
+            var index = indexOf(entries, id);
+            if (index == -1) {
+                return Optional.empty();
+            }
+            var updated = change.apply(entries.get(index));
+            var duplicateExists = entries.stream()
+                    .anyMatch(existing -> existing.name().equals(updated.name()) && !existing.id().equals(id));
+            if (duplicateExists) {
+                throw new DuplicateNameException(updated.name());
+            }
+            entries.set(index, updated);
+            return Optional.of(updated);
+        });
+    }
+
+    /**
+     * Replaces {@code expected}, as returned by an earlier read, with {@code updated}.
+     *
+     * @return false, leaving the store unchanged, if the entry has been changed or removed since
+     */
+    boolean replace(T expected, T updated) {
+        return writer.execute(path(), entries -> {
+            var index = indexOf(entries, expected.id());
+            if (index == -1 || entries.get(index) != expected) {
+                return false;
+            }
+            var duplicateExists = entries.stream()
+                    .anyMatch(existing -> existing.name().equals(updated.name()) && !existing.id().equals(expected.id()));
+            if (duplicateExists) {
+                throw new DuplicateNameException(updated.name());
+            }
+            entries.set(index, updated);
+            return true;
+        });
+    }
+
+    @Override
+    public Map<String, T> updateAll(Map<String, UnaryOperator<T>> changes) {
+        return writer.execute(path(), entries -> CatalogChanges.apply(entries, changes));
+    }
+
+    @Override
+    public ImportResult upsertAllByName(List<T> entries, BinaryOperator<T> merge) {
+        return writer.execute(path(), stored -> {
+            var indexByName = new HashMap<String, Integer>(stored.size() * 2);
+            for (int i = 0; i < stored.size(); i++) {
+                indexByName.put(stored.get(i).name(), i);
+            }
+            int created = 0;
+            int updated = 0;
+            for (var entry : entries) {
+                var index = indexByName.get(entry.name());
+                if (index == null) {
+                    indexByName.put(entry.name(), stored.size());
+                    stored.add(entry);
+                    created++;
+                } else {
+                    stored.set(index, merge.apply(stored.get(index), entry));
+                    updated++;
+                }
+            }
+            return new ImportResult(entries.size(), created, updated);
+        });
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return writer.execute(path(), entries -> entries.removeIf(entry -> entry.id().equals(id)));
+    }
+
+    private Path path() {
+        var root = dataDir.get();
+        var path = root.resolve(fileName);
+        if (unshards && !unsharded.contains(root)) {
+            unshardIfNeeded(root, path);
+        }
+        return path;
+    }
+
+    /**
+     * Writes the file before removing the shards, so a crash leaves the shards or both, and both
+     * hold the same entries.
+     */
+    private synchronized void unshardIfNeeded(Path root, Path path) {
+        if (unsharded.contains(root)) {
+            return;
+        }
+        var shardDirectories = Files.exists(path)
+                ? List.<Path>of()
+                : ShardedCatalogStore.shardDirectories(root, label);
+        if (!shardDirectories.isEmpty()) {
+            var source = shardDirectories.get(0);
+            var entries = new ArrayList<T>();
+            try (var files = Files.newDirectoryStream(source, "*.json")) {
+                for (var file : files) {
+                    entries.addAll(read(file));
+                }
+                FileWriteUtils.safeWrite(path, temp -> write(temp, entries), durability, log);
+                for (var directory : shardDirectories) {
+                    ShardedCatalogStore.deleteDirectory(directory);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to migrate " + label + " from " + source, e);
+            }
+            log.info("Migrated {} {} from {} back into {}", entries.size(), label, source, path);
+        }
+        unsharded.add(root);
+    }
+
+    private int indexOf(List<T> entries, String id) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (id.equals(entries.get(i).id())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<T> read(Path path) {
+        try {
+            List<T> entries = codec.read(path, listType);
+            return entries != null ? entries : List.of();
+        } catch (IOException e) {
+            log.error("Failed to read {} from {}", label, path, e);
+            throw new IllegalStateException("Unable to read " + label, e);
+        }
+    }
+
+    private void write(Path temp, List<T> entries) {
+        try {
+            codec.write(temp, entries);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write " + label + " to " + path(), e);
+        }
+    }
+
+    /**
+     * Immutable view of one version of the file, indexed by id and by name.
+     */
+    private record Entries<T extends CatalogEntry>(List<T> list, Map<String, T> byId, NameIndex<T> names) {
+
+        static <T extends CatalogEntry> Entries<T> of(List<T> entries) {
+            var list = List.copyOf(entries);
+            return new Entries<>(list, indexById(list), NameIndex.build(list));
+        }
+
+        static <T extends CatalogEntry> Entries<T> empty() {
+            return new Entries<>(List.of(), Map.of(), NameIndex.build(List.of()));
+        }
+
+        /**
+         * The version following this one after a write. Entries a write left untouched are the
+         * same instances as in this version, so the name index only merges in what changed.
+         */
+        Entries<T> next(List<T> entries) {
+            var list = List.copyOf(entries);
+            var nextById = indexById(list);
+            var added = new ArrayList<T>();
+            for (var entry : list) {
+                if (byId.get(entry.id()) != entry) {
+                    added.add(entry);
+                }
+            }
+            var removed = new ArrayList<T>();
+            for (var entry : this.list) {
+                if (nextById.get(entry.id()) != entry) {
+                    removed.add(entry);
+                }
+            }
+            if (added.size() + removed.size() > list.size() / 4 + 16) {
+                return new Entries<>(list, nextById, NameIndex.build(list));
+            }
+            return new Entries<>(list, nextById, names.apply(removed, added));
+        }
+
+        private static <T extends CatalogEntry> Map<String, T> indexById(List<T> list) {
+            var byId = new HashMap<String, T>(list.size() * 2);
+            for (var entry : list) {
+                byId.put(entry.id(), entry);
+            }
+            return Collections.unmodifiableMap(byId);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.postage.postagecomparator.storage;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.postage.postagecomparator.config.StorageConfig;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes the JSON data files in the configured {@link StorageConfig.Encoding}.
+ *
+ * Reads detect the encoding from the file itself (gzip by its magic bytes, pretty and compact
+ * JSON alike otherwise), so changing the encoding never strands existing files: each file is
+ * converted the next time it is written.
+ */
+final class JsonCodec {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final boolean compressed;
+
+    JsonCodec(ObjectMapper objectMapper, StorageConfig.Encoding encoding) {
+        this.objectMapper = objectMapper;
+        this.writer = encoding == StorageConfig.Encoding.PRETTY
+                ? objectMapper.writerWithDefaultPrettyPrinter()
+                : objectMapper.writer();
+        this.compressed = encoding == StorageConfig.Encoding.GZIP;
+    }
+
+    <V> V read(Path path, JavaType type) throws IOException {
+        try (var in = open(path)) {
+            return objectMapper.readValue(in, type);
+        }
+    }
+
+    <V> V read(Path path, Class<V> type) throws IOException {
+        return read(path, objectMapper.constructType(type));
+    }
+
+    /**
+     * The size of the JSON in the file at {@code path}: the uncompressed length recorded in the
+     * trailer of a gzip file (modulo 4 GiB), otherwise the file size; 0 when it cannot be read.
+     */
+    long decodedSize(Path path) {
+        try (var file = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = file.size();
+            if (size < 18) {
+                return size;
+            }
+            var magic = ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN);
+            file.read(magic, 0);
+            if ((magic.getShort(0) & 0xffff) != GZIP_MAGIC) {
+                return size;
+            }
+            var trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            file.read(trailer, size - 4);
+            return Integer.toUnsignedLong(trailer.getInt(0));
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    void write(Path path, Object value) throws IOException {
+        try (var out = compressed
+                ? new GZIPOutputStream(Files.newOutputStream(path), BUFFER_SIZE)
+                : new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE)) {
+            writer.writeValue(out, value);
+        }
+    }
+
+    private static InputStream open(Path path) throws IOException {
+        var in = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+        in.mark(2);
+        int magic = in.read() | (in.read() << 8);
+        in.reset();
+        return magic == GZIP_MAGIC ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+}
@@ -0,0 +1,95 @@
+package com.postage.postagecomparator.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.OriginSettings;
+import com.postage.postagecomparator.util.FileWriteUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link SettingsStore} backed by {@code settings.json} in the data directory.
+ *
+ * Reads use a lock-free {@link SnapshotCache}; writes are serialized and publish what they wrote.
+ */
+public class JsonSettingsStore implements SettingsStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonSettingsStore.class);
+
+    private static final String SETTINGS_FILE_NAME = "settings.json";
+
+    private final JsonCodec codec;
+    private final Supplier<Path> dataDir;
+    private final FileWriteUtils.Durability durability;
+    private final Object lock = new Object();
+    private final SnapshotCache<Optional<OriginSettings>> snapshots;
+
+    public JsonSettingsStore(ObjectMapper objectMapper,
+                             Supplier<Path> dataDir,
+                             FileWriteUtils.Durability durability) {
+        this(objectMapper, dataDir, durability, StorageConfig.Tenants.DEFAULT, StorageConfig.Encoding.PRETTY);
+    }
+
+    /**
+     * @param tenants  bounds the number of tenants whose settings stay cached
+     * @param encoding format {@code settings.json} is written in
+     */
+    public JsonSettingsStore(ObjectMapper objectMapper,
+                             Supplier<Path> dataDir,
+                             FileWriteUtils.Durability durability,
+                             StorageConfig.Tenants tenants,
+                             StorageConfig.Encoding encoding) {
+        this.codec = new JsonCodec(objectMapper, encoding);
+        this.dataDir = dataDir;
+        this.durability = durability;
+        this.snapshots = new SnapshotCache<>(this::read, Optional.empty(),
+                new SnapshotCache.Limits(tenants.maxCached(), tenants.maxCachedSize().toBytes()),
+                codec::decodedSize);
+    }
+
+    @Override
+    public Optional<OriginSettings> load() {
+        return snapshots.get(path());
+    }
+
+    @Override
+    public String version() {
+        return snapshots.version(path());
+    }
+
+    @Override
+    public OriginSettings update(UnaryOperator<OriginSettings> change) {
+        synchronized (lock) {
+            var path = path();
+            var updated = change.apply(snapshots.get(path).orElse(null));
+            FileWriteUtils.safeWrite(path, temp -> {
+                try {
+                    codec.write(temp, updated);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Unable to write origin settings", e);
+                }
+            }, durability, log);
+            snapshots.publish(path, Optional.ofNullable(updated));
+            return updated;
+        }
+    }
+
+    private Optional<OriginSettings> read(Path path) {
+        try {
+            return Optional.ofNullable(codec.read(path, OriginSettings.class));
+        } catch (IOException e) {
+            log.error("Failed to read origin settings from {}", path, e);
+            throw new IllegalStateException("Unable to read origin settings", e);
+        }
+    }
+
+    private Path path() {
+        return dataDir.get().resolve(SETTINGS_FILE_NAME);
+    }
+}
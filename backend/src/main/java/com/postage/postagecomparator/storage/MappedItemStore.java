@@ -0,0 +1,189 @@
+package com.postage.postagecomparator.storage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.ImportResult;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.util.FileWriteUtils;
+import com.postage.postagecomparator.util.GroupCommitWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Item {@link CatalogStore} backed by a memory-mapped binary file ({@code items.bin}, see
+ * {@link MappedItems}) in the (tenant's) data directory.
+ *
+ * Opening the catalog maps the file instead of parsing it, and reads decode only the items they
+ * return, so startup time and heap use no longer grow with the catalog. Writes still rewrite the
+ * whole file through a {@link GroupCommitWriter}, which makes this store a fit for large,
+ * read-mostly catalogs.
+ *
+ * When {@code items.bin} does not exist yet but {@code items.json} does, the JSON catalog is
+ * converted on first access. The JSON file is left in place; bulk import and export remain the
+ * way to move items in and out as text.
+ */
+public class MappedItemStore implements CatalogStore<Item> {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedItemStore.class);
+
+    static final String FILE_NAME = "items.bin";
+    static final String LEGACY_FILE_NAME = "items.json";
+
+    private final JsonCodec codec;
+    private final JavaType legacyType;
+    private final Supplier<Path> dataDir;
+    private final SnapshotCache<MappedItems> snapshots;
+    private final GroupCommitWriter<Item> writer;
+
+    public MappedItemStore(ObjectMapper objectMapper, StorageConfig storageConfig, Supplier<Path> dataDir) {
+        this.codec = new JsonCodec(objectMapper, storageConfig.getEncoding());
+        this.legacyType = objectMapper.getTypeFactory().constructType(new TypeReference<List<Item>>() {});
+        this.dataDir = dataDir;
+        var tenants = storageConfig.getTenants();
+        this.snapshots = new SnapshotCache<>(MappedItems::open, MappedItems.EMPTY,
+                new SnapshotCache.Limits(tenants.maxCached(), tenants.maxCachedSize().toBytes()));
+        this.writer = new GroupCommitWriter<>(
+                this::readForWrite,
+                MappedItems::write,
+                (path, items) -> snapshots.publish(path, MappedItems.open(path)),
+                storageConfig.getGroupCommit().maxDelay(),
+                storageConfig.getGroupCommit().maxBatchSize(),
+                storageConfig.getDurability().items(),
+                log);
+    }
+
+    @Override
+    public List<Item> findAll() {
+        return snapshot(path()).list();
+    }
+
+    @Override
+    public Optional<Item> findById(String id) {
+        return snapshot(path()).findById(id);
+    }
+
+    @Override
+    public CatalogQuery.Result<Item> search(CatalogQuery query) {
+        return snapshot(path()).query(query);
+    }
+
+    @Override
+    public String version() {
+        var path = path();
+        snapshot(path);
+        return snapshots.version(path);
+    }
+
+    @Override
+    public Item insert(Item item) {
+        return writer.execute(path(), items -> {
+            if (items.stream().anyMatch(existing -> existing.name().equals(item.name()))) {
+                throw new DuplicateNameException(item.name());
+            }
+            items.add(item);
+            return item;
+        });
+    }
+
+    @Override
+    public Optional<Item> update(String id, UnaryOperator<Item> change) {
+        return writer.execute(path(), items -> {
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).id().equals(id)) {
+                    var updated = change.apply(items.get(i));
+                    var duplicateExists = items.stream()
+                            .anyMatch(existing -> existing.name().equals(updated.name()) && !existing.id().equals(id));
+                    if (duplicateExists) {
+                        throw new DuplicateNameException(updated.name());
+                    }
+                    items.set(i, updated);
+                    return Optional.of(updated);
+                }
+            }
+            return Optional.empty();
+        });
+    }
+
+    @Override
+    public Map<String, Item> updateAll(Map<String, UnaryOperator<Item>> changes) {
+        return writer.execute(path(), items -> CatalogChanges.apply(items, changes));
+    }
+
+    @Override
+    public ImportResult upsertAllByName(List<Item> entries, BinaryOperator<Item> merge) {
+        return writer.execute(path(), stored -> {
+            var indexByName = new HashMap<String, Integer>(stored.size() * 2);
+            for (int i = 0; i < stored.size(); i++) {
+                indexByName.put(stored.get(i).name(), i);
+            }
+            int created = 0;
+            int updated = 0;
+            for (var entry : entries) {
+                var index = indexByName.get(entry.name());
+                if (index == null) {
+                    indexByName.put(entry.name(), stored.size());
+                    stored.add(entry);
+                    created++;
+                } else {
+                    stored.set(index, merge.apply(stored.get(index), entry));
+                    updated++;
+                }
+            }
+            return new ImportResult(entries.size(), created, updated);
+        });
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return writer.execute(path(), items -> items.removeIf(item -> item.id().equals(id)));
+    }
+
+    private Path path() {
+        return dataDir.get().resolve(FILE_NAME);
+    }
+
+    /**
+     * The mapped catalog at {@code path}, converting {@code items.json} first if only that exists.
+     */
+    private MappedItems snapshot(Path path) {
+        var items = snapshots.get(path);
+        if (items != MappedItems.EMPTY || !Files.exists(path.resolveSibling(LEGACY_FILE_NAME))) {
+            return items;
+        }
+        // An empty batch still rewrites the file from readForWrite, i.e. from items.json
+        writer.execute(path, unchanged -> null);
+        log.info("Converted {} to {}", path.resolveSibling(LEGACY_FILE_NAME), path);
+        return snapshots.get(path);
+    }
+
+    private List<Item> readForWrite(Path path) {
+        var items = snapshots.get(path);
+        if (items != MappedItems.EMPTY) {
+            return items.list();
+        }
+        var legacy = path.resolveSibling(LEGACY_FILE_NAME);
+        if (!Files.exists(legacy)) {
+            return List.of();
+        }
+        try {
+            List<Item> converted = codec.read(legacy, legacyType);
+            return converted != null ? converted : List.of();
+        } catch (IOException e) {
+            log.error("Failed to read items from {}", legacy, e);
+            throw new IllegalStateException("Unable to read items", e);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.postage.postagecomparator.storage;
+
+import com.postage.postagecomparator.model.Item;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only view of a memory-mapped binary item catalog ({@code items.bin}), queried in place.
+ *
+ * Layout (little-endian):
+ * <pre>
+ * header   magic "PCI1", format version, item count, reserved, offset of the string region (long)
+ * records  one fixed-width record per item, in insertion order:
+ *          version (long), unit weight, then offset and byte length of id, name and description
+ *          (description length -1 when null)
+ * by id    record numbers ordered by id
+ * by name  record numbers in {@link CatalogQuery} name order
+ * strings  UTF-8 text referenced by the records, relative to the string region
+ * </pre>
+ *
+ * Nothing is decoded up front: lookups binary-search the two order arrays and decode only the
+ * strings they compare, so opening a file costs one {@code mmap} regardless of its size and the
+ * catalog stays off the heap. The mapping remains valid after the file is atomically replaced,
+ * so a view can be read for as long as it is referenced.
+ */
+final class MappedItems {
+
+    static final MappedItems EMPTY = new MappedItems(ByteBuffer.allocate(HeaderLayout.SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(HeaderLayout.MAGIC_OFFSET, HeaderLayout.MAGIC)
+            .putInt(HeaderLayout.FORMAT_OFFSET, HeaderLayout.FORMAT)
+            .putLong(HeaderLayout.STRINGS_OFFSET, HeaderLayout.SIZE));
+
+    private static final int RECORD_SIZE = 40;
+    private static final int NULL_LENGTH = -1;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int idOrderOffset;
+    private final int nameOrderOffset;
+    private final int stringsOffset;
+
+    private MappedItems(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HeaderLayout.SIZE
+                || buffer.getInt(HeaderLayout.MAGIC_OFFSET) != HeaderLayout.MAGIC
+                || buffer.getInt(HeaderLayout.FORMAT_OFFSET) != HeaderLayout.FORMAT) {
+            throw new IllegalStateException("Not a binary item catalog (format " + HeaderLayout.FORMAT + ")");
+        }
+        this.count = buffer.getInt(HeaderLayout.COUNT_OFFSET);
+        this.idOrderOffset = HeaderLayout.SIZE + count * RECORD_SIZE;
+        this.nameOrderOffset = idOrderOffset + count * Integer.BYTES;
+        this.stringsOffset = Math.toIntExact(buffer.getLong(HeaderLayout.STRINGS_OFFSET));
+    }
+
+    /**
+     * Maps the file at {@code path}.
+     */
+    static MappedItems open(Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedItems(buffer.order(ByteOrder.LITTLE_ENDIAN));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map " + path, e);
+        }
+    }
+
+    /**
+     * Encodes {@code items} into {@code target}.
+     */
+    static void write(Path target, List<Item> items) {
+        var encoded = new byte[items.size()][][];
+        long stringBytes = 0;
+        for (int i = 0; i < items.size(); i++) {
+            var item = items.get(i);
+            encoded[i] = new byte[][]{utf8(item.id()), utf8(item.name()), utf8(item.description())};
+            for (var text : encoded[i]) {
+                stringBytes += text != null ? text.length : 0;
+            }
+        }
+        long stringsOffset = HeaderLayout.SIZE + (long) items.size() * (RECORD_SIZE + 2 * Integer.BYTES);
+        if (stringsOffset + stringBytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Item catalog too large for the binary format: "
+                    + (stringsOffset + stringBytes) + " bytes");
+        }
+
+        var buffer = ByteBuffer.allocate((int) (stringsOffset + stringBytes)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(HeaderLayout.MAGIC)
+                .putInt(HeaderLayout.FORMAT)
+                .putInt(items.size())
+                .putInt(0)
+                .putLong(stringsOffset);
+        int stringPosition = 0;
+        for (int i = 0; i < items.size(); i++) {
+            var item = items.get(i);
+            buffer.putLong(item.version()).putInt(item.unitWeightGrams()).putInt(0);
+            for (var text : encoded[i]) {
+                buffer.putInt(stringPosition).putInt(text != null ? text.length : NULL_LENGTH);
+                stringPosition += text != null ? text.length : 0;
+            }
+        }
+        for (var record : order(items, Comparator.comparing(Item::id))) {
+            buffer.putInt(record);
+        }
+        for (var record : order(items, Comparator.<Item, String>comparing(item -> NameIndex.key(item.name()))
+                .thenComparing(Item::name))) {
+            buffer.putInt(record);
+        }
+        for (var texts : encoded) {
+            for (var text : texts) {
+                if (text != null) {
+                    buffer.put(text);
+                }
+            }
+        }
+
+        try (var channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write " + target, e);
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return every item, decoded, in insertion order
+     */
+    List<Item> list() {
+        var items = new ArrayList<Item>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(item(i));
+        }
+        return items;
+    }
+
+    Optional<Item> findById(String id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = buffer.getInt(idOrderOffset + mid * Integer.BYTES);
+            int comparison = string(record, Field.ID).compareTo(id);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return Optional.of(item(record));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Answers {@code query} like {@link NameIndex#query}, decoding only the names it visits.
+     */
+    CatalogQuery.Result<Item> query(CatalogQuery query) {
+        int from = 0;
+        int to = count;
+        if (query.prefix() != null) {
+            var prefix = NameIndex.key(query.prefix());
+            from = search(0, count, position -> nameKey(position).compareTo(prefix) < 0);
+            to = search(from, count, position -> nameKey(position).startsWith(prefix));
+        }
+        var contains = query.contains() != null ? NameIndex.key(query.contains()) : null;
+        var result = new ArrayList<Item>(Math.min(query.limit(), to - from));
+        if (!query.descending()) {
+            int start = query.after() != null ? Math.max(from, boundary(query.after(), true)) : from;
+            for (int i = start; i < to && result.size() < query.limit(); i++) {
+                if (contains != null && i - start == CatalogQuery.MAX_SCANNED) {
+                    return new CatalogQuery.Result<>(result, string(nameRecord(i - 1), Field.NAME));
+                }
+                if (contains == null || nameKey(i).contains(contains)) {
+                    result.add(item(nameRecord(i)));
+                }
+            }
+        } else {
+            int start = query.after() != null ? Math.min(to, boundary(query.after(), false)) : to;
+            for (int i = start - 1; i >= from && result.size() < query.limit(); i--) {
+                if (contains != null && start - 1 - i == CatalogQuery.MAX_SCANNED) {
+                    return new CatalogQuery.Result<>(result, string(nameRecord(i + 1), Field.NAME));
+                }
+                if (contains == null || nameKey(i).contains(contains)) {
+                    result.add(item(nameRecord(i)));
+                }
+            }
+        }
+        return new CatalogQuery.Result<>(result, null);
+    }
+
+    private Item item(int record) {
+        int offset = HeaderLayout.SIZE + record * RECORD_SIZE;
+        return new Item(string(record, Field.ID), string(record, Field.NAME), string(record, Field.DESCRIPTION),
+                buffer.getInt(offset + 8), buffer.getLong(offset));
+    }
+
+    private String string(int record, Field field) {
+        int offset = HeaderLayout.SIZE + record * RECORD_SIZE + 16 + field.ordinal() * 8;
+        int length = buffer.getInt(offset + 4);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        var bytes = new byte[length];
+        buffer.get(stringsOffset + buffer.getInt(offset), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int nameRecord(int position) {
+        return buffer.getInt(nameOrderOffset + position * Integer.BYTES);
+    }
+
+    private String nameKey(int position) {
+        return NameIndex.key(string(nameRecord(position), Field.NAME));
+    }
+
+    /**
+     * First position ordered after the item named {@code name} (which need not exist), or at or
+     * after it when {@code strictlyAfter} is false.
+     */
+    private int boundary(String name, boolean strictlyAfter) {
+        var key = NameIndex.key(name);
+        return search(0, count, position -> {
+            var candidate = string(nameRecord(position), Field.NAME);
+            int byKey = NameIndex.key(candidate).compareTo(key);
+            int comparison = byKey != 0 ? byKey : candidate.compareTo(name);
+            return comparison < 0 || (strictlyAfter && comparison == 0);
+        });
+    }
+
+    /**
+     * First position in {@code [low, high)} for which {@code before} is false, given that it is
+     * true for a prefix of the range and false for the rest.
+     */
+    private static int search(int low, int high, PositionPredicate before) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (before.test(mid)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int[] order(List<Item> items, Comparator<Item> comparator) {
+        var records = new Integer[items.size()];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = i;
+        }
+        Arrays.sort(records, (left, right) -> comparator.compare(items.get(left), items.get(right)));
+        return Arrays.stream(records).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static byte[] utf8(String text) {
+        return text != null ? text.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private enum Field {
+        ID, NAME, DESCRIPTION
+    }
+
+    @FunctionalInterface
+    private interface PositionPredicate {
+        boolean test(int position);
+    }
+
+    private static final class HeaderLayout {
+        static final int MAGIC = 0x31494350; // "PCI1"
+        static final int FORMAT = 1;
+        static final int MAGIC_OFFSET = 0;
+        static final int FORMAT_OFFSET = 4;
+        static final int COUNT_OFFSET = 8;
+        static final int STRINGS_OFFSET = 16;
+        static final int SIZE = 24;
+    }
+}
@@ -0,0 +1,178 @@
+package com.postage.postagecomparator.storage;
+
+import com.postage.postagecomparator.model.CatalogEntry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable sorted-array index of catalog entries by name, answering {@link CatalogQuery}s with
+ * binary search. A new version is derived from the previous one by merging in the changed
+ * entries, so writes cost a linear copy rather than a full sort.
+ */
+final class NameIndex<T extends CatalogEntry> {
+
+    private final String[] keys;
+    private final String[] names;
+    private final List<T> entries;
+
+    private NameIndex(String[] keys, String[] names, List<T> entries) {
+        this.keys = keys;
+        this.names = names;
+        this.entries = entries;
+    }
+
+    static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    static <T extends CatalogEntry> NameIndex<T> build(Collection<T> entries) {
+        var sorted = new ArrayList<T>(entries);
+        sorted.sort(Comparator.<T, String>comparing(entry -> key(entry.name())).thenComparing(CatalogEntry::name));
+        return of(sorted);
+    }
+
+    private static <T extends CatalogEntry> NameIndex<T> of(List<T> sorted) {
+        var keys = new String[sorted.size()];
+        var names = new String[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            names[i] = sorted.get(i).name();
+            keys[i] = key(names[i]);
+        }
+        return new NameIndex<>(keys, names, List.copyOf(sorted));
+    }
+
+    /**
+     * @param removed entries of this index that are no longer present (including old versions of
+     *                updated entries)
+     * @param added   entries to add (including new versions of updated entries)
+     */
+    NameIndex<T> apply(Collection<T> removed, Collection<T> added) {
+        var skip = new boolean[keys.length];
+        for (var entry : removed) {
+            int position = boundary(entry.name(), false);
+            if (position < keys.length && names[position].equals(entry.name())) {
+                skip[position] = true;
+            }
+        }
+        var incoming = build(added);
+        var merged = new ArrayList<T>(keys.length - removed.size() + added.size());
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < incoming.keys.length) {
+            if (i < keys.length && skip[i]) {
+                i++;
+            } else if (j >= incoming.keys.length
+                    || (i < keys.length && compare(keys[i], names[i], incoming.keys[j], incoming.names[j]) <= 0)) {
+                merged.add(entries.get(i++));
+            } else {
+                merged.add(incoming.entries.get(j++));
+            }
+        }
+        return of(merged);
+    }
+
+    /**
+     * @return the entry with exactly this name, or null
+     */
+    T find(String name) {
+        int position = boundary(name, false);
+        return position < names.length && names[position].equals(name) ? entries.get(position) : null;
+    }
+
+    CatalogQuery.Result<T> query(CatalogQuery query) {
+        int from = 0;
+        int to = keys.length;
+        if (query.prefix() != null) {
+            var prefix = key(query.prefix());
+            from = firstAtOrAfter(prefix);
+            to = firstPastPrefix(prefix, from);
+        }
+        var contains = query.contains() != null ? key(query.contains()) : null;
+        var result = new ArrayList<T>(Math.min(query.limit(), to - from));
+        if (!query.descending()) {
+            int start = query.after() != null ? Math.max(from, boundary(query.after(), true)) : from;
+            for (int i = start; i < to && result.size() < query.limit(); i++) {
+                if (contains != null && i - start == CatalogQuery.MAX_SCANNED) {
+                    return new CatalogQuery.Result<>(result, names[i - 1]);
+                }
+                if (contains == null || keys[i].contains(contains)) {
+                    result.add(entries.get(i));
+                }
+            }
+        } else {
+            int start = query.after() != null ? Math.min(to, boundary(query.after(), false)) : to;
+            for (int i = start - 1; i >= from && result.size() < query.limit(); i--) {
+                if (contains != null && start - 1 - i == CatalogQuery.MAX_SCANNED) {
+                    return new CatalogQuery.Result<>(result, names[i + 1]);
+                }
+                if (contains == null || keys[i].contains(contains)) {
+                    result.add(entries.get(i));
+                }
+            }
+        }
+        return new CatalogQuery.Result<>(result, null);
+    }
+
+    /**
+     * First position whose key is at least {@code key}.
+     */
+    private int firstAtOrAfter(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First position, at or after {@code from}, whose key no longer starts with {@code prefix}.
+     */
+    private int firstPastPrefix(String prefix, int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First position ordered after the entry named {@code name} (which need not exist), or at or
+     * after it when {@code strictlyAfter} is false.
+     */
+    private int boundary(String name, boolean strictlyAfter) {
+        var key = key(name);
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(keys[mid], names[mid], key, name);
+            if (comparison < 0 || (strictlyAfter && comparison == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(String leftKey, String leftName, String rightKey, String rightName) {
+        int byKey = leftKey.compareTo(rightKey);
+        return byKey != 0 ? byKey : leftName.compareTo(rightName);
+    }
+}
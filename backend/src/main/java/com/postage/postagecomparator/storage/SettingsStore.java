@@ -0,0 +1,28 @@
+package com.postage.postagecomparator.storage;
+
+import com.postage.postagecomparator.model.OriginSettings;
+
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * Persistence SPI for the single {@link OriginSettings} record.
+ */
+public interface SettingsStore {
+
+    Optional<OriginSettings> load();
+
+    /**
+     * @return an opaque token that changes whenever the stored settings change; read it before the
+     * settings it is meant to describe
+     */
+    String version();
+
+    /**
+     * Atomically replaces the stored settings by {@code change.apply(current)}, where
+     * {@code current} is null when nothing has been saved yet.
+     *
+     * @return the stored settings
+     */
+    OriginSettings update(UnaryOperator<OriginSettings> change);
+}
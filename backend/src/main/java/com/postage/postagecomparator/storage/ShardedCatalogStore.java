@@ -0,0 +1,489 @@
+package com.postage.postagecomparator.storage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.CatalogEntry;
+import com.postage.postagecomparator.model.ImportResult;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.Packaging;
+import com.postage.postagecomparator.util.FileWriteUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link CatalogStore} that spreads a catalog over {@code n} JSON files, chosen by a hash of the
+ * entry id, in a {@code <label>-shards-<n>} directory of the (tenant's) data directory.
+ *
+ * Each shard is a {@link JsonCatalogStore} with its own group-commit writer, so a write rewrites
+ * only its shard and writes to different shards proceed in parallel. Each shard caches at most
+ * its share of {@code storage.tenants.max-cached-size}. Name uniqueness spans all shards: writes
+ * that introduce a name hold a lock striped by that name while they check every shard and commit.
+ *
+ * {@link #updateAll} and {@link #upsertAllByName} hold off every other write to the data
+ * directory while they run. {@link #updateAll} runs every change against a copy of the catalog
+ * first, so invalid changes and name clashes store nothing, and with no write in between, its
+ * commits to each shard then succeed too; changes may therefore run more than once.
+ *
+ * Differences from a single file: {@link #findAll} returns entries shard by shard (insertion
+ * order within each shard), and readers may see a batch's shards commit one after another.
+ *
+ * The first access to a data directory without the shard directory builds it from the single
+ * {@code <label>.json} file (renamed to {@code <label>.json.migrated} once copied, so it is not
+ * mistaken for the current catalog), or from a shard directory with a different count (removed
+ * once copied), and moves it into place in one rename. {@link JsonCatalogStore} migrates back
+ * from the shard directory when sharding is turned off again.
+ */
+public class ShardedCatalogStore<T extends CatalogEntry> implements CatalogStore<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedCatalogStore.class);
+
+    private static final int NAME_LOCK_STRIPES = 64;
+
+    private final JsonCodec codec;
+    private final JavaType listType;
+    private final String label;
+    private final String directoryName;
+    private final Supplier<Path> dataDir;
+    private final FileWriteUtils.Durability durability;
+    private final List<JsonCatalogStore<T>> shards;
+    private final Object[] nameLocks = new Object[NAME_LOCK_STRIPES];
+    private final Map<Path, ReadWriteLock> writeLocks = new ConcurrentHashMap<>();
+    private final Set<Path> migrated = ConcurrentHashMap.newKeySet();
+    private final Object migrationLock = new Object();
+
+    ShardedCatalogStore(ObjectMapper objectMapper,
+                        TypeReference<List<T>> listType,
+                        String label,
+                        int shardCount,
+                        Supplier<Path> dataDir,
+                        StorageConfig.GroupCommit groupCommit,
+                        FileWriteUtils.Durability durability,
+                        StorageConfig.Tenants tenants,
+                        StorageConfig.Encoding encoding) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be greater than 0");
+        }
+        this.codec = new JsonCodec(objectMapper, encoding);
+        this.listType = objectMapper.getTypeFactory().constructType(listType);
+        this.label = label;
+        this.directoryName = label + "-shards-" + shardCount;
+        this.dataDir = dataDir;
+        this.durability = durability;
+        // Each shard caches its own files; split the size bound so the catalog keeps to it overall
+        var shardTenants = new StorageConfig.Tenants(tenants.header(), tenants.maxCached(),
+                DataSize.ofBytes(Math.max(tenants.maxCachedSize().toBytes() / shardCount, 1)));
+        var shards = new ArrayList<JsonCatalogStore<T>>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new JsonCatalogStore<>(objectMapper, listType, directoryName + "/" + shardFileName(i),
+                    label, dataDir, groupCommit, durability, shardTenants, encoding));
+        }
+        this.shards = List.copyOf(shards);
+        for (int i = 0; i < nameLocks.length; i++) {
+            nameLocks[i] = new Object();
+        }
+    }
+
+    public static ShardedCatalogStore<Item> items(ObjectMapper objectMapper,
+                                                  StorageConfig storageConfig,
+                                                  Supplier<Path> dataDir) {
+        return new ShardedCatalogStore<>(objectMapper, new TypeReference<>() {}, "items",
+                storageConfig.getShards().items(), dataDir, storageConfig.getGroupCommit(),
+                storageConfig.getDurability().items(), storageConfig.getTenants(), storageConfig.getEncoding());
+    }
+
+    public static ShardedCatalogStore<Packaging> packagings(ObjectMapper objectMapper,
+                                                            StorageConfig storageConfig,
+                                                            Supplier<Path> dataDir) {
+        return new ShardedCatalogStore<>(objectMapper, new TypeReference<>() {}, "packagings",
+                storageConfig.getShards().packagings(), dataDir, storageConfig.getGroupCommit(),
+                storageConfig.getDurability().packagings(), storageConfig.getTenants(),
+                storageConfig.getEncoding());
+    }
+
+    @Override
+    public List<T> findAll() {
+        migrateIfNeeded();
+        var entries = new ArrayList<T>();
+        for (var shard : shards) {
+            entries.addAll(shard.findAll());
+        }
+        return entries;
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        migrateIfNeeded();
+        return shardOf(id).findById(id);
+    }
+
+    @Override
+    public CatalogQuery.Result<T> search(CatalogQuery query) {
+        migrateIfNeeded();
+        var nameOrder = Comparator.<String, String>comparing(NameIndex::key).thenComparing(Comparator.naturalOrder());
+        var order = query.descending() ? nameOrder.reversed() : nameOrder;
+        var merged = new ArrayList<T>();
+        String scannedTo = null;
+        for (var shard : shards) {
+            var result = shard.search(query);
+            merged.addAll(result.entries());
+            if (result.scannedTo() != null && (scannedTo == null || order.compare(result.scannedTo(), scannedTo) < 0)) {
+                scannedTo = result.scannedTo();
+            }
+        }
+        merged.sort(Comparator.comparing(CatalogEntry::name, order));
+        // Every shard has searched up to the earliest stop; past it, a shard may hold unseen matches
+        if (scannedTo != null) {
+            var stop = scannedTo;
+            merged.removeIf(entry -> order.compare(entry.name(), stop) > 0);
+        }
+        if (merged.size() >= query.limit()) {
+            return new CatalogQuery.Result<>(List.copyOf(merged.subList(0, query.limit())), null);
+        }
+        return new CatalogQuery.Result<>(merged, scannedTo);
+    }
+
+    @Override
+    public String version() {
+        migrateIfNeeded();
+        var version = new StringBuilder();
+        for (var shard : shards) {
+            version.append(version.isEmpty() ? "" : ".").append(shard.version());
+        }
+        return version.toString();
+    }
+
+    @Override
+    public T insert(T entry) {
+        migrateIfNeeded();
+        return sharedWrite(() -> {
+            synchronized (nameLock(entry.name())) {
+                if (findByName(entry.name()).isPresent()) {
+                    throw new DuplicateNameException(entry.name());
+                }
+                return shardOf(entry.id()).insert(entry);
+            }
+        });
+    }
+
+    /**
+     * Applies {@code change} to the entry last read, then commits it only if the entry is still
+     * unchanged; a concurrent write to the same entry makes it start over.
+     */
+    @Override
+    public Optional<T> update(String id, UnaryOperator<T> change) {
+        migrateIfNeeded();
+        var shard = shardOf(id);
+        return sharedWrite(() -> {
+            while (true) {
+                var current = shard.findById(id);
+                if (current.isEmpty()) {
+                    return Optional.empty();
+                }
+                var updated = change.apply(current.get());
+                if (updated.name().equals(current.get().name())) {
+                    if (shard.replace(current.get(), updated)) {
+                        return Optional.of(updated);
+                    }
+                    continue;
+                }
+                synchronized (nameLock(updated.name())) {
+                    if (findByName(updated.name()).filter(existing -> !existing.id().equals(id)).isPresent()) {
+                        throw new DuplicateNameException(updated.name());
+                    }
+                    if (shard.replace(current.get(), updated)) {
+                        return Optional.of(updated);
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public Map<String, T> updateAll(Map<String, UnaryOperator<T>> changes) {
+        migrateIfNeeded();
+        return exclusiveWrite(() -> {
+            var byShard = new ArrayList<Map<String, UnaryOperator<T>>>(shards.size());
+            for (int i = 0; i < shards.size(); i++) {
+                byShard.add(new LinkedHashMap<>());
+            }
+            changes.forEach((id, change) -> byShard.get(shardIndex(id)).put(id, change));
+
+            // Dry run over copies: fails before anything is written
+            var names = new HashMap<String, String>();
+            for (int i = 0; i < shards.size(); i++) {
+                var entries = new ArrayList<>(shards.get(i).findAll());
+                if (!byShard.get(i).isEmpty()) {
+                    CatalogChanges.apply(entries, byShard.get(i));
+                }
+                for (var entry : entries) {
+                    if (names.putIfAbsent(entry.name(), entry.id()) != null) {
+                        throw new DuplicateNameException(entry.name());
+                    }
+                }
+            }
+
+            var stored = new HashMap<String, T>();
+            for (int i = 0; i < shards.size(); i++) {
+                if (!byShard.get(i).isEmpty()) {
+                    stored.putAll(shards.get(i).updateAll(byShard.get(i)));
+                }
+            }
+            var ordered = new LinkedHashMap<String, T>();
+            changes.keySet().forEach(id -> {
+                if (stored.containsKey(id)) {
+                    ordered.put(id, stored.get(id));
+                }
+            });
+            return Collections.unmodifiableMap(ordered);
+        });
+    }
+
+    /**
+     * Routes each entry to the shard that already stores its name, or else to the shard of its
+     * id, and upserts shard by shard.
+     */
+    @Override
+    public ImportResult upsertAllByName(List<T> entries, BinaryOperator<T> merge) {
+        migrateIfNeeded();
+        return exclusiveWrite(() -> upsert(entries, merge));
+    }
+
+    @Override
+    public boolean delete(String id) {
+        migrateIfNeeded();
+        return sharedWrite(() -> shardOf(id).delete(id));
+    }
+
+    /**
+     * Runs a single-entry write, alongside other single-entry writes but not during a batch.
+     */
+    private <R> R sharedWrite(Supplier<R> write) {
+        var lock = writeLock().readLock();
+        lock.lock();
+        try {
+            return write.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs a batch with no other write to the data directory, so nothing lands in a shard between
+     * its checks and its commits. Name locks are not needed while it is held.
+     */
+    private <R> R exclusiveWrite(Supplier<R> write) {
+        var lock = writeLock().writeLock();
+        lock.lock();
+        try {
+            return write.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReadWriteLock writeLock() {
+        return writeLocks.computeIfAbsent(dataDir.get(), root -> new ReentrantReadWriteLock());
+    }
+
+    private ImportResult upsert(List<T> entries, BinaryOperator<T> merge) {
+        var byShard = new ArrayList<List<T>>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (var entry : entries) {
+            int target = shardIndex(entry.id());
+            for (int i = 0; i < shards.size(); i++) {
+                if (shards.get(i).findByName(entry.name()).isPresent()) {
+                    target = i;
+                    break;
+                }
+            }
+            byShard.get(target).add(entry);
+        }
+        int created = 0;
+        int updated = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            if (!byShard.get(i).isEmpty()) {
+                var result = shards.get(i).upsertAllByName(byShard.get(i), merge);
+                created += result.created();
+                updated += result.updated();
+            }
+        }
+        return new ImportResult(entries.size(), created, updated);
+    }
+
+    private Optional<T> findByName(String name) {
+        for (var shard : shards) {
+            var entry = shard.findByName(name);
+            if (entry.isPresent()) {
+                return entry;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private JsonCatalogStore<T> shardOf(String id) {
+        return shards.get(shardIndex(id));
+    }
+
+    private int shardIndex(String id) {
+        return Math.floorMod(id.hashCode(), shards.size());
+    }
+
+    private Object nameLock(String name) {
+        return nameLocks[Math.floorMod(name.hashCode(), nameLocks.length)];
+    }
+
+    private static String shardFileName(int shard) {
+        return String.format("%03d.json", shard);
+    }
+
+    private void migrateIfNeeded() {
+        var root = dataDir.get();
+        if (migrated.contains(root)) {
+            return;
+        }
+        synchronized (migrationLock) {
+            if (migrated.contains(root)) {
+                return;
+            }
+            var directory = root.resolve(directoryName);
+            if (!Files.isDirectory(directory)) {
+                migrate(root, directory);
+            }
+            migrated.add(root);
+        }
+    }
+
+    /**
+     * Builds {@code directory} from the previous layout in a temporary directory and renames it
+     * into place, so a crash leaves either the old layout or the complete new one.
+     */
+    private void migrate(Path root, Path directory) {
+        var previousShards = shardDirectories(root, label);
+        var source = !previousShards.isEmpty() ? previousShards.get(0) : root.resolve(label + ".json");
+        var entries = new ArrayList<T>();
+        if (Files.isDirectory(source)) {
+            try (var files = Files.newDirectoryStream(source, "*.json")) {
+                for (var file : files) {
+                    entries.addAll(read(file));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read " + label + " from " + source, e);
+            }
+        } else if (Files.exists(source)) {
+            entries.addAll(read(source));
+        } else {
+            return;
+        }
+
+        var byShard = new ArrayList<List<T>>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            byShard.add(new ArrayList<>());
+        }
+        entries.forEach(entry -> byShard.get(shardIndex(entry.id())).add(entry));
+
+        var temp = root.resolve(directoryName + ".tmp");
+        try {
+            deleteDirectory(temp);
+            Files.createDirectories(temp);
+            for (int i = 0; i < shards.size(); i++) {
+                var shardEntries = byShard.get(i);
+                FileWriteUtils.safeWrite(temp.resolve(shardFileName(i)), file -> write(file, shardEntries),
+                        durability, log);
+            }
+            Files.move(temp, directory, StandardCopyOption.ATOMIC_MOVE);
+            if (previousShards.isEmpty()) {
+                Files.move(source, source.resolveSibling(source.getFileName() + ".migrated"),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            for (var previous : previousShards) {
+                deleteDirectory(previous);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to migrate " + label + " to " + directory, e);
+        }
+        log.info("Migrated {} {} from {} into {} shards", entries.size(), label, source, shards.size());
+    }
+
+    /**
+     * The {@code <label>-shards-<n>} directories under {@code root}, most recently modified first.
+     */
+    static List<Path> shardDirectories(Path root, String label) {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        var directories = new ArrayList<Path>();
+        DirectoryStream.Filter<Path> filter = path -> Files.isDirectory(path)
+                && path.getFileName().toString().matches(label + "-shards-\\d+");
+        try (var candidates = Files.newDirectoryStream(root, filter)) {
+            candidates.forEach(directories::add);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to list " + root, e);
+        }
+        directories.sort(Comparator.comparingLong((Path directory) -> lastModified(directory)).reversed());
+        return directories;
+    }
+
+    private List<T> read(Path path) {
+        try {
+            List<T> entries = codec.read(path, listType);
+            return entries != null ? entries : List.of();
+        } catch (IOException e) {
+            log.error("Failed to read {} from {}", label, path, e);
+            throw new IllegalStateException("Unable to read " + label, e);
+        }
+    }
+
+    private void write(Path file, List<T> entries) {
+        try {
+            codec.write(file, entries);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write " + label + " to " + file, e);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (var files = Files.list(directory)) {
+            for (var file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
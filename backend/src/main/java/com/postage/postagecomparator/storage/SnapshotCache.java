@@ -0,0 +1,219 @@
+package com.postage.postagecomparator.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable, parsed snapshots of data files, published through an {@link AtomicReference} per
+ * file so reads never block.
+ *
+ * A snapshot is reused while the file's identity, size and modification time are unchanged, so
+ * the only per-read cost is one {@code stat}. A reader that finds the file changed parses it and
+ * installs the result with a compare-and-set; a writer publishes the contents it just wrote.
+ * Cached values must be immutable because they are shared by every reader.
+ *
+ * Every installed snapshot gets a fresh version token, so {@link #version} changes whenever the
+ * cached contents do, whether they were written by this process or edited on disk.
+ *
+ * With one file per tenant the cache is bounded by {@link Limits}: after each install, the least
+ * recently read files are unloaded until both the number of files and their total weight fit.
+ * A file weighs its on-disk size unless the cache is given a weigher, such as the decoded size of
+ * a compressed file. An unloaded file is simply parsed again on its next read.
+ *
+ * @param <V> parsed file contents
+ */
+final class SnapshotCache<V> {
+
+    /**
+     * Reads refresh a file's last-used time at most this often, so a hot file does not turn every
+     * read into a shared write.
+     */
+    private static final long TOUCH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Map<Path, Slot<V>> snapshots = new ConcurrentHashMap<>();
+    private final VersionCounter versions = new VersionCounter();
+    private final Function<Path, V> loader;
+    private final V missing;
+    private final Limits limits;
+    private final ToLongFunction<Path> weigher;
+    private final Object trimLock = new Object();
+
+    /**
+     * @param loader  parses the file at the given path
+     * @param missing value returned while the file does not exist
+     */
+    SnapshotCache(Function<Path, V> loader, V missing) {
+        this(loader, missing, Limits.UNBOUNDED);
+    }
+
+    /**
+     * @param limits bounds on the files kept in memory
+     */
+    SnapshotCache(Function<Path, V> loader, V missing, Limits limits) {
+        this(loader, missing, limits, null);
+    }
+
+    /**
+     * @param weigher weight of the file at the given path, taken once per installed snapshot;
+     *                null to weigh files by their on-disk size
+     */
+    SnapshotCache(Function<Path, V> loader, V missing, Limits limits, ToLongFunction<Path> weigher) {
+        this.loader = loader;
+        this.missing = missing;
+        this.limits = limits;
+        this.weigher = weigher;
+    }
+
+    V get(Path path) {
+        return current(path).value();
+    }
+
+    /**
+     * @return the version token of the current contents of {@code path}; read it before the
+     * contents it describes so a concurrent write can only make the token older than the value
+     */
+    String version(Path path) {
+        return current(path).version();
+    }
+
+    /**
+     * Records {@code value} as the contents just written to {@code path}.
+     */
+    void publish(Path path, V value) {
+        var stamp = FileStamp.of(path);
+        slot(path).reference.set(new Snapshot<>(stamp, value, versions.next(), weigh(path, stamp)));
+        trim(path);
+    }
+
+    /**
+     * Records the contents just written to {@code path}, derived from the previously cached value
+     * (or the missing-file value when nothing is cached).
+     */
+    void publish(Path path, UnaryOperator<V> next) {
+        var reference = slot(path).reference;
+        var current = reference.get();
+        var value = next.apply(current != null ? current.value() : missing);
+        var stamp = FileStamp.of(path);
+        reference.set(new Snapshot<>(stamp, value, versions.next(), weigh(path, stamp)));
+        trim(path);
+    }
+
+    /**
+     * @return number of files currently cached
+     */
+    int size() {
+        return snapshots.size();
+    }
+
+    private Snapshot<V> current(Path path) {
+        var slot = slot(path);
+        var current = slot.reference.get();
+        var stamp = FileStamp.of(path);
+        if (current != null && Objects.equals(current.stamp(), stamp)) {
+            return current;
+        }
+        var loaded = new Snapshot<>(stamp, stamp == null ? missing : loader.apply(path), versions.next(),
+                weigh(path, stamp));
+        if (!slot.reference.compareAndSet(current, loaded)) {
+            return slot.reference.get();
+        }
+        trim(path);
+        return loaded;
+    }
+
+    private long weigh(Path path, FileStamp stamp) {
+        if (stamp == null || limits.equals(Limits.UNBOUNDED)) {
+            return 0;
+        }
+        return Math.max(weigher == null ? stamp.size() : weigher.applyAsLong(path), 0);
+    }
+
+    private Slot<V> slot(Path path) {
+        var slot = snapshots.computeIfAbsent(path, key -> new Slot<>());
+        long now = System.nanoTime();
+        if (now - slot.lastUsed > TOUCH_INTERVAL_NANOS) {
+            slot.lastUsed = now;
+        }
+        return slot;
+    }
+
+    /**
+     * Unloads the least recently used files, never {@code keep}, until the cache fits its limits.
+     * Runs only after an install, so cache hits stay lock-free.
+     */
+    private void trim(Path keep) {
+        if (limits.equals(Limits.UNBOUNDED)) {
+            return;
+        }
+        synchronized (trimLock) {
+            while (true) {
+                long bytes = 0;
+                Map.Entry<Path, Slot<V>> leastRecentlyUsed = null;
+                for (var entry : snapshots.entrySet()) {
+                    bytes += entry.getValue().weight();
+                    if (!entry.getKey().equals(keep) && (leastRecentlyUsed == null
+                            || entry.getValue().lastUsed - leastRecentlyUsed.getValue().lastUsed < 0)) {
+                        leastRecentlyUsed = entry;
+                    }
+                }
+                if (leastRecentlyUsed == null
+                        || (snapshots.size() <= limits.maxFiles() && bytes <= limits.maxBytes())) {
+                    return;
+                }
+                snapshots.remove(leastRecentlyUsed.getKey(), leastRecentlyUsed.getValue());
+            }
+        }
+    }
+
+    /**
+     * @param maxFiles files kept in memory at most
+     * @param maxBytes total weight of the files kept in memory at most
+     */
+    record Limits(int maxFiles, long maxBytes) {
+
+        static final Limits UNBOUNDED = new Limits(Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    private static final class Slot<V> {
+        private final AtomicReference<Snapshot<V>> reference = new AtomicReference<>();
+        private volatile long lastUsed = System.nanoTime();
+
+        private long weight() {
+            var snapshot = reference.get();
+            return snapshot == null ? 0 : snapshot.weight();
+        }
+    }
+
+    private record Snapshot<V>(FileStamp stamp, V value, String version, long weight) {
+    }
+
+    /**
+     * Identity of one version of a file; atomic replacement changes the file key.
+     */
+    private record FileStamp(Object fileKey, long size, FileTime lastModified) {
+
+        static FileStamp of(Path path) {
+            try {
+                var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new FileStamp(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime());
+            } catch (NoSuchFileException e) {
+                return null;
+            } catch (IOException e) {
+                // Unknown state: force the next read to go back to the file
+                return new FileStamp(new Object(), -1, null);
+            }
+        }
+    }
+}
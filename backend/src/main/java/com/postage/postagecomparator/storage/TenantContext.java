@@ -0,0 +1,62 @@
+package com.postage.postagecomparator.storage;
+
+import java.util.regex.Pattern;
+
+/**
+ * The tenant (brand) the current thread is working for. Each tenant has its own data directory
+ * under {@code <data dir>/tenants/<id>}; with no tenant set, the data directory itself is used.
+ *
+ * Stores resolve their paths on the calling thread, so a tenant entered for the duration of a
+ * request applies to every read and write made while handling it.
+ */
+public final class TenantContext {
+
+    private static final Pattern VALID_ID = Pattern.compile("[a-z0-9][a-z0-9_-]{0,62}");
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * @return the current tenant id, or null for the default data directory
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Tenant ids are lower-case letters, digits, {@code -} and {@code _} (at most 63 characters)
+     * so they can be used as directory names as they are.
+     */
+    public static boolean isValid(String tenantId) {
+        return tenantId != null && VALID_ID.matcher(tenantId).matches();
+    }
+
+    /**
+     * Makes {@code tenantId} current until the returned scope is closed, restoring the previous
+     * tenant afterwards.
+     *
+     * @throws IllegalArgumentException if the id is not {@linkplain #isValid valid}
+     */
+    public static Scope enter(String tenantId) {
+        if (!isValid(tenantId)) {
+            throw new IllegalArgumentException("Invalid tenant id: " + tenantId);
+        }
+        var previous = CURRENT.get();
+        CURRENT.set(tenantId);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
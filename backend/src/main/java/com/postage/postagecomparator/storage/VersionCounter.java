@@ -0,0 +1,22 @@
+package com.postage.postagecomparator.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues content version tokens. Tokens start with a per-process epoch, so a counter that
+ * restarts with the application never repeats a token handed out before the restart.
+ */
+final class VersionCounter {
+
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36)
+            + Long.toString(ProcessHandle.current().pid(), 36);
+
+    private final AtomicLong counter = new AtomicLong();
+
+    /**
+     * @return a token that has not been returned before
+     */
+    String next() {
+        return EPOCH + "-" + counter.incrementAndGet();
+    }
+}
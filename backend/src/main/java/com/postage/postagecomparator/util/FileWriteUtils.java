@@ -3,9 +3,11 @@ package com.postage.postagecomparator.util;
 import org.slf4j.Logger;
 
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.function.Consumer;
 
 /**
@@ -16,6 +18,24 @@ public final class FileWriteUtils {
     private FileWriteUtils() {
     }
 
+    /**
+     * How far {@link #safeWrite} goes to make a write survive a crash or power loss.
+     */
+    public enum Durability {
+        /**
+         * Atomic move only; the new content may still be in the OS page cache after returning.
+         */
+        NONE,
+        /**
+         * Force the temp file's data to disk before moving it into place.
+         */
+        FSYNC_FILE,
+        /**
+         * Force the temp file, then force the parent directory so the rename itself is durable.
+         */
+        FSYNC_FILE_AND_DIRECTORY
+    }
+
     /**
      * Safely writes content to the given target path by writing to a temp file first,
      * then atomically moving it into place.
@@ -25,6 +45,19 @@ public final class FileWriteUtils {
      * @param log    optional logger for debug messages about cleanup failures (may be null)
      */
     public static void safeWrite(Path target, Consumer<Path> writer, Logger log) {
+        safeWrite(target, writer, Durability.NONE, log);
+    }
+
+    /**
+     * Same as {@link #safeWrite(Path, Consumer, Logger)}, additionally forcing data to disk
+     * according to the given durability policy.
+     *
+     * @param target     the final file path
+     * @param writer     a function that writes the desired content to the provided temp file path
+     * @param durability how much to fsync before returning
+     * @param log        optional logger for debug messages (may be null)
+     */
+    public static void safeWrite(Path target, Consumer<Path> writer, Durability durability, Logger log) {
         var dir = target.getParent();
         try {
             if (dir != null && !Files.exists(dir)) {
@@ -42,12 +75,22 @@ public final class FileWriteUtils {
             // Let caller write the content
             writer.accept(tempFile);
 
+            if (durability != Durability.NONE) {
+                try (var channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+
             Files.move(
                     tempFile,
                     target,
                     StandardCopyOption.REPLACE_EXISTING,
                     StandardCopyOption.ATOMIC_MOVE
             );
+
+            if (durability == Durability.FSYNC_FILE_AND_DIRECTORY && dir != null) {
+                forceDirectory(dir, log);
+            }
         } catch (IOException e) {
             throw new IllegalStateException("Unable to write file " + target, e);
         } finally {
@@ -62,4 +105,15 @@ public final class FileWriteUtils {
             }
         }
     }
+
+    private static void forceDirectory(Path dir, Logger log) {
+        try (var channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms (e.g. Windows) cannot open a directory as a channel
+            if (log != null) {
+                log.debug("Unable to fsync directory {}", dir, e);
+            }
+        }
+    }
 }
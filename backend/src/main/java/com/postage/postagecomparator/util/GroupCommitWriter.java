@@ -0,0 +1,288 @@
+package com.postage.postagecomparator.util;
+
+import org.slf4j.Logger;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Group-commit writer for JSON list files.
+ *
+ * Callers submit read-modify-write mutations instead of writing the file themselves. The first
+ * caller to find no commit in progress becomes the leader: it waits up to {@code maxDelay} (or
+ * until {@code maxBatchSize} mutations are queued), reads the current file once, applies every
+ * queued mutation in arrival order, persists the result with a single
+ * {@link FileWriteUtils#safeWrite} and then completes all waiters' futures at once.
+ *
+ * A leader commits one batch and then hands over: submitters whose mutations are still queued
+ * wait for the leader to finish and one of them leads the next batch, so no caller keeps writing
+ * on behalf of others for as long as writes arrive. {@link #submit} returns once its own mutation
+ * has been committed or has failed.
+ *
+ * Mutations run on the leader's thread and must validate before modifying the list: a mutation
+ * that throws fails only its own future, so it must leave the list untouched when it does.
+ *
+ * @param <T> element type stored in the file
+ */
+public final class GroupCommitWriter<T> {
+
+    /**
+     * Longest a waiting submitter sleeps before checking again whether it should lead; a leader
+     * wakes waiters as soon as it hands over, so this only bounds a missed wake-up.
+     */
+    private static final long HANDOFF_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Function<Path, List<T>> reader;
+    private final BiConsumer<Path, List<T>> writer;
+    private final BiConsumer<Path, List<T>> committed;
+    private final long maxDelayNanos;
+    private final int maxBatchSize;
+    private final FileWriteUtils.Durability durability;
+    private final Logger log;
+
+    private final ConcurrentLinkedQueue<PendingMutation<T, ?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean committing = new AtomicBoolean(false);
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private final Condition batchFull = batchLock.newCondition();
+    private final Condition leaderDone = batchLock.newCondition();
+
+    /**
+     * @param reader       loads the current list from the given file (an empty list when missing)
+     * @param writer       writes the list to the provided temp file path
+     * @param maxDelay     how long a leader waits for more mutations before committing
+     * @param maxBatchSize maximum number of mutations folded into one write
+     * @param durability   fsync policy applied to each batch write
+     * @param log          logger used for temp-file cleanup diagnostics (may be null)
+     */
+    public GroupCommitWriter(Function<Path, List<T>> reader,
+                             BiConsumer<Path, List<T>> writer,
+                             Duration maxDelay,
+                             int maxBatchSize,
+                             FileWriteUtils.Durability durability,
+                             Logger log) {
+        this(reader, writer, (target, state) -> {
+        }, maxDelay, maxBatchSize, durability, log);
+    }
+
+    /**
+     * @param committed called on the leader's thread with the target and its new contents after
+     *                  each batch has been moved into place, before any waiter is released
+     */
+    public GroupCommitWriter(Function<Path, List<T>> reader,
+                             BiConsumer<Path, List<T>> writer,
+                             BiConsumer<Path, List<T>> committed,
+                             Duration maxDelay,
+                             int maxBatchSize,
+                             FileWriteUtils.Durability durability,
+                             Logger log) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        }
+        this.reader = reader;
+        this.writer = writer;
+        this.committed = committed;
+        this.maxDelayNanos = maxDelay == null || maxDelay.isNegative() ? 0 : maxDelay.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.durability = durability == null ? FileWriteUtils.Durability.NONE : durability;
+        this.log = log;
+    }
+
+    /**
+     * Queues a mutation against the list stored at {@code target}.
+     *
+     * @return a future, already completed, with the mutation's result once the batch containing it
+     * has been moved into place, or exceptionally if the mutation or the write failed
+     */
+    public <R> CompletableFuture<R> submit(Path target, Function<List<T>, R> mutation) {
+        var pending = new PendingMutation<T, R>(target, mutation);
+        queue.add(pending);
+        if (queued.incrementAndGet() >= maxBatchSize) {
+            signalBatchFull();
+        }
+        boolean interrupted = false;
+        while (!pending.future.isDone()) {
+            if (committing.compareAndSet(false, true)) {
+                leadOneBatch();
+            } else {
+                interrupted |= awaitLeader();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return pending.future;
+    }
+
+    /**
+     * Submits a mutation and blocks until it has been committed, rethrowing the mutation's own
+     * runtime exception (e.g. a validation failure) unchanged.
+     */
+    public <R> R execute(Path target, Function<List<T>, R> mutation) {
+        try {
+            return submit(target, mutation).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private void leadOneBatch() {
+        try {
+            awaitBatch();
+            var batch = new ArrayList<PendingMutation<T, ?>>(Math.min(maxBatchSize, queued.get()));
+            PendingMutation<T, ?> next;
+            while (batch.size() < maxBatchSize && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            queued.addAndGet(-batch.size());
+            commit(batch);
+        } finally {
+            handOver();
+        }
+    }
+
+    private void handOver() {
+        batchLock.lock();
+        try {
+            committing.set(false);
+            leaderDone.signalAll();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    /**
+     * @return whether the wait was interrupted; the mutation is queued, so the caller keeps waiting
+     * and restores the interrupt once it is done
+     */
+    private boolean awaitLeader() {
+        batchLock.lock();
+        try {
+            if (committing.get()) {
+                leaderDone.awaitNanos(HANDOFF_WAIT_NANOS);
+            }
+            return false;
+        } catch (InterruptedException e) {
+            return true;
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void awaitBatch() {
+        if (maxDelayNanos == 0) {
+            return;
+        }
+        batchLock.lock();
+        try {
+            long remaining = maxDelayNanos;
+            while (remaining > 0 && queued.get() < maxBatchSize) {
+                remaining = batchFull.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void signalBatchFull() {
+        if (maxDelayNanos == 0) {
+            return;
+        }
+        batchLock.lock();
+        try {
+            batchFull.signalAll();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void commit(List<PendingMutation<T, ?>> batch) {
+        var byTarget = new LinkedHashMap<Path, List<PendingMutation<T, ?>>>();
+        for (var pending : batch) {
+            byTarget.computeIfAbsent(pending.target, key -> new ArrayList<>()).add(pending);
+        }
+        try {
+            byTarget.forEach(this::commitTarget);
+        } catch (Throwable e) {
+            // An Error skips the per-mutation handling; fail the rest of the batch so no waiter hangs
+            batch.forEach(pending -> pending.future.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private void commitTarget(Path target, List<PendingMutation<T, ?>> mutations) {
+        List<T> state;
+        try {
+            state = new ArrayList<>(reader.apply(target));
+        } catch (RuntimeException e) {
+            mutations.forEach(pending -> pending.future.completeExceptionally(e));
+            return;
+        }
+
+        var applied = new ArrayList<PendingMutation<T, ?>>(mutations.size());
+        for (var pending : mutations) {
+            try {
+                pending.apply(state);
+                applied.add(pending);
+            } catch (RuntimeException e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+        if (applied.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileWriteUtils.safeWrite(target, temp -> writer.accept(temp, state), durability, log);
+            committed.accept(target, state);
+        } catch (RuntimeException e) {
+            applied.forEach(pending -> pending.future.completeExceptionally(e));
+            return;
+        }
+        if (log != null && applied.size() > 1) {
+            log.debug("Group-committed {} mutations to {}", applied.size(), target);
+        }
+        applied.forEach(PendingMutation::complete);
+    }
+
+    private static final class PendingMutation<T, R> {
+        private final Path target;
+        private final Function<List<T>, R> mutation;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private R result;
+
+        private PendingMutation(Path target, Function<List<T>, R> mutation) {
+            this.target = target;
+            this.mutation = mutation;
+        }
+
+        private void apply(List<T> state) {
+            result = mutation.apply(state);
+        }
+
+        private void complete() {
+            future.complete(result);
+        }
+    }
+}
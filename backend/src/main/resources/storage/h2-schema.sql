@@ -0,0 +1,44 @@
+-- Schema for the embedded H2 storage backend (storage.backend=h2).
+-- seq preserves insertion order, matching the order of the JSON files.
+-- name_key (lower-cased name) backs case-insensitive prefix search and name-ordered paging.
+-- version is the per-entry revision checked by conditional updates.
+
+CREATE TABLE IF NOT EXISTS items (
+    seq BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id VARCHAR(64) NOT NULL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR,
+    unit_weight_grams INT NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS items_name_idx ON items (name);
+CREATE UNIQUE INDEX IF NOT EXISTS items_seq_idx ON items (seq);
+ALTER TABLE items ADD COLUMN IF NOT EXISTS name_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(name));
+CREATE UNIQUE INDEX IF NOT EXISTS items_name_key_idx ON items (name_key, name);
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS packagings (
+    seq BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id VARCHAR(64) NOT NULL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR,
+    length_cm INT NOT NULL,
+    height_cm INT NOT NULL,
+    width_cm INT NOT NULL,
+    internal_volume_cubic_cm INT NOT NULL,
+    packaging_cost_aud DOUBLE PRECISION NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS packagings_name_idx ON packagings (name);
+CREATE UNIQUE INDEX IF NOT EXISTS packagings_seq_idx ON packagings (seq);
+ALTER TABLE packagings ADD COLUMN IF NOT EXISTS name_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(name));
+CREATE UNIQUE INDEX IF NOT EXISTS packagings_name_key_idx ON packagings (name_key, name);
+ALTER TABLE packagings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS origin_settings (
+    id INT NOT NULL PRIMARY KEY CHECK (id = 1),
+    postcode VARCHAR(16),
+    suburb VARCHAR(255),
+    state VARCHAR(64),
+    country VARCHAR(64),
+    theme_preference VARCHAR(16),
+    updated_at TIMESTAMP WITH TIME ZONE
+);
@@ -3,7 +3,11 @@ package com.postage.postagecomparator.api;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.postage.postagecomparator.exception.BadRequestException;
 import com.postage.postagecomparator.exception.NotFoundException;
+import com.postage.postagecomparator.exception.PreconditionFailedException;
 import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.ItemPage;
+import com.postage.postagecomparator.model.ItemPatch;
+import com.postage.postagecomparator.model.ItemPatchResult;
 import com.postage.postagecomparator.service.ItemService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,13 +22,18 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -53,6 +62,78 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].name").value("Box"));
     }
 
+    @Test
+    void list_returnsCatalogVersionAsETag() throws Exception {
+        given(itemService.version()).willReturn("v7");
+        given(itemService.findAll()).willReturn(List.of());
+
+        mockMvc.perform(get("/api/items"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v7\""))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    @Test
+    void list_whenIfNoneMatchIsCurrent_returns304WithoutLoadingItems() throws Exception {
+        given(itemService.version()).willReturn("v7");
+
+        mockMvc.perform(get("/api/items").header("If-None-Match", "\"v7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v7\""))
+                .andExpect(content().string(""));
+        verify(itemService, never()).findAll();
+    }
+
+    @Test
+    void list_whenIfNoneMatchIsStale_returns200() throws Exception {
+        given(itemService.version()).willReturn("v8");
+        given(itemService.findAll()).willReturn(List.of(new Item("id-1", "Box", "Desc", 100)));
+
+        mockMvc.perform(get("/api/items").header("If-None-Match", "\"v7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v8\""))
+                .andExpect(jsonPath("$[0].id").value("id-1"));
+    }
+
+    @Test
+    void update_whenIfMatchIsStale_returns412() throws Exception {
+        given(itemService.update(eq("id-1"), any(Item.class), eq(2L)))
+                .willThrow(new PreconditionFailedException("Item with id id-1 is at version 3, not 2"));
+
+        mockMvc.perform(put("/api/items/{id}", "id-1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Item(null, "Box", "Desc", 100))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error.code").value("PRECONDITION_FAILED"));
+    }
+
+    @Test
+    void update_whenIfMatchIsWeakOrMalformed_returns412WithoutUpdating() throws Exception {
+        mockMvc.perform(put("/api/items/{id}", "id-1")
+                        .header("If-Match", "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Item(null, "Box", "Desc", 100))))
+                .andExpect(status().isPreconditionFailed());
+        verify(itemService, never()).update(any(), any(), any());
+    }
+
+    @Test
+    void list_withLimit_returnsPageFromService() throws Exception {
+        var item = new Item("id-1", "Box", "Desc", 100);
+        given(itemService.findPage("b", null, "-name", "QQ", 1))
+                .willReturn(new ItemPage(List.of(item), "Qm94"));
+
+        mockMvc.perform(get("/api/items")
+                        .param("limit", "1")
+                        .param("cursor", "QQ")
+                        .param("sort", "-name")
+                        .param("prefix", "b"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("id-1"))
+                .andExpect(jsonPath("$.nextCursor").value("Qm94"));
+    }
+
     @Test
     void get_whenItemExists_returns200() throws Exception {
         var item = new Item("id-1", "Box", "Desc", 100);
@@ -105,7 +186,7 @@ class ItemControllerTest {
     void update_whenValid_returns200AndBody() throws Exception {
         var request = new Item(null, "New Box", "New desc", 200);
         var updated = new Item("id-1", "New Box", "New desc", 200);
-        given(itemService.update(eq("id-1"), any(Item.class))).willReturn(updated);
+        given(itemService.update(eq("id-1"), any(Item.class), isNull())).willReturn(updated);
 
         mockMvc.perform(put("/api/items/{id}", "id-1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -119,7 +200,7 @@ class ItemControllerTest {
     @Test
     void update_whenSpuriousId_returns404() throws Exception {
         var request = new Item(null, "New Box", "New desc", 200);
-        given(itemService.update(eq("non-existent-id"), any(Item.class)))
+        given(itemService.update(eq("non-existent-id"), any(Item.class), isNull()))
                 .willThrow(new NotFoundException("Item with id non-existent-id not found"));
 
         mockMvc.perform(put("/api/items/{id}", "non-existent-id")
@@ -134,7 +215,7 @@ class ItemControllerTest {
     @Test
     void update_whenBlankId_returns400() throws Exception {
         var request = new Item(null, "New Box", "New desc", 200);
-        given(itemService.update(eq(" "), any(Item.class)))
+        given(itemService.update(eq(" "), any(Item.class), isNull()))
                 .willThrow(new BadRequestException("id must not be null or blank"));
 
         mockMvc.perform(put("/api/items/{id}", " ")
@@ -177,5 +258,31 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.error.code").value("BAD_REQUEST"))
                 .andExpect(jsonPath("$.error.message").value("id must not be null or blank"));
     }
-}
 
+    @Test
+    void patch_returnsUpdatedAndDeletedItems() throws Exception {
+        var patches = List.of(
+                new ItemPatch("update", "1", null, null, 120, 1L),
+                new ItemPatch("delete", "2", null, null, null, null));
+        given(itemService.patch(patches))
+                .willReturn(new ItemPatchResult(List.of(new Item("1", "Box", null, 120, 2)), List.of("2")));
+
+        mockMvc.perform(patch("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patches)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated[0].unitWeightGrams").value(120))
+                .andExpect(jsonPath("$.deleted[0]").value("2"));
+    }
+
+    @Test
+    void patch_whenServiceRejectsBatch_returns400() throws Exception {
+        given(itemService.patch(any())).willThrow(new BadRequestException("Operation 1: duplicate id 1"));
+
+        mockMvc.perform(patch("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"op\":\"delete\",\"id\":\"1\"},{\"op\":\"delete\",\"id\":\"1\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.message").value("Operation 1: duplicate id 1"));
+    }
+}
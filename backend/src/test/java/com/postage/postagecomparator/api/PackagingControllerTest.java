@@ -18,13 +18,17 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -53,6 +57,40 @@ class PackagingControllerTest {
                 .andExpect(jsonPath("$[0].name").value("Box"));
     }
 
+    @Test
+    void list_whenIfNoneMatchIsCurrent_returns304WithoutLoadingPackaging() throws Exception {
+        given(packagingService.version()).willReturn("v3");
+
+        mockMvc.perform(get("/api/packaging").header("If-None-Match", "\"v3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v3\""));
+        verify(packagingService, never()).findAll();
+    }
+
+    @Test
+    void get_whenIfNoneMatchIsEntryVersion_returns304() throws Exception {
+        var packaging = new Packaging("id-1", "Box", "Desc", 10, 20, 30, 6000, 1.5, 3);
+        given(packagingService.findById("id-1")).willReturn(Optional.of(packaging));
+
+        mockMvc.perform(get("/api/packaging/{id}", "id-1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void update_whenIfMatchGiven_passesExpectedVersionAndReturnsNewETag() throws Exception {
+        var updated = new Packaging("id-1", "Box", "Desc", 10, 20, 30, 6000, 1.5, 4);
+        given(packagingService.update(eq("id-1"), any(Packaging.class), eq(3L))).willReturn(updated);
+
+        mockMvc.perform(put("/api/packaging/{id}", "id-1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updated)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
     @Test
     void get_whenPackagingExists_returns200() throws Exception {
         var packaging = new Packaging("id-1", "Box", "Desc", 10, 10, 10, 1000, 1.0);
@@ -104,7 +142,7 @@ class PackagingControllerTest {
     @Test
     void update_whenSpuriousId_returns404() throws Exception {
         var request = new Packaging(null, "Box", "Desc", 10, 10, 10, 1000, 1.0);
-        given(packagingService.update(eq("missing-id"), any(Packaging.class)))
+        given(packagingService.update(eq("missing-id"), any(Packaging.class), isNull()))
                 .willThrow(new NotFoundException("Packaging with id missing-id not found"));
 
         mockMvc.perform(put("/api/packaging/{id}", "missing-id")
@@ -119,7 +157,7 @@ class PackagingControllerTest {
     @Test
     void update_whenBlankId_returns400() throws Exception {
         var request = new Packaging(null, "Box", "Desc", 10, 10, 10, 1000, 1.0);
-        given(packagingService.update(eq(" "), any(Packaging.class)))
+        given(packagingService.update(eq(" "), any(Packaging.class), isNull()))
                 .willThrow(new BadRequestException("id must not be null or blank"));
 
         mockMvc.perform(put("/api/packaging/{id}", " ")
@@ -13,11 +13,16 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.Instant;
+import java.util.Map;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -54,6 +59,26 @@ class SettingsControllerTest {
                 .andExpect(jsonPath("$.suburb").value("Sydney"));
     }
 
+    @Test
+    void getOrigin_whenIfNoneMatchIsCurrent_returns304WithoutLoadingSettings() throws Exception {
+        given(settingsService.getOriginSettingsVersion()).willReturn("v1");
+
+        mockMvc.perform(get("/api/settings/origin").header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotModified());
+        verify(settingsService, never()).getOriginSettings();
+    }
+
+    @Test
+    void getOrigin_whenExists_returnsETag() throws Exception {
+        given(settingsService.getOriginSettingsVersion()).willReturn("v2");
+        given(settingsService.getOriginSettings())
+                .willReturn(new OriginSettings("2000", "Sydney", "NSW", "AU", null, Instant.now()));
+
+        mockMvc.perform(get("/api/settings/origin").header("If-None-Match", "\"v1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v2\""));
+    }
+
     @Test
     void updateOrigin_whenValid_returns200() throws Exception {
         var request = new OriginSettings("3000", "Melbourne", "VIC", "AU", null, null);
@@ -95,6 +120,16 @@ class SettingsControllerTest {
                 .andExpect(jsonPath("$.error.message").value("must not be blank"));
     }
 
+    @Test
+    void reloadCredentials_returnsConfiguredCarriers() throws Exception {
+        given(settingsService.reloadCarrierCredentials()).willReturn(Map.of("auspost", true, "aramex", false));
+
+        mockMvc.perform(post("/api/settings/credentials/reload"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.auspost").value(true))
+                .andExpect(jsonPath("$.aramex").value(false));
+    }
+
     @Test
     void updateTheme_whenValid_returns200() throws Exception {
         var request = new ThemePreferenceRequest("sepia");
@@ -0,0 +1,122 @@
+package com.postage.postagecomparator.benchmark;
+
+import com.postage.postagecomparator.provider.response.AramexRateResponse;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and allocation of reading recorded Aramex rate responses with a fresh DOM and XPath
+ * per response, as {@code AramexProvider} used to, against the single streaming pass of
+ * {@link AramexRateResponse#parse(String)}.
+ *
+ * Not part of the regular test run; execute explicitly:
+ * mvn -s .m2/settings.xml test -Dtest=AramexResponseParsingBenchmark
+ */
+class AramexResponseParsingBenchmark {
+
+    private static final int ITERATIONS = 20_000;
+
+    @Test
+    void compareDomAndStreamingParsing() throws Exception {
+        var samples = List.of(
+                new Sample("rate", read("aramex-rate.xml")),
+                new Sample("error", read("aramex-rate-error.xml")));
+
+        for (var sample : samples) {
+            var dom = domParse(sample.xml());
+            var streamed = AramexRateResponse.parse(sample.xml());
+            assertThat(streamed.hasErrors()).isEqualTo(dom.hasErrors());
+            assertThat(streamed.totalAmount()).isEqualTo(dom.totalAmount());
+        }
+
+        // The first pass only warms up the JIT
+        for (int pass = 0; pass < 2; pass++) {
+            if (pass == 1) {
+                System.out.printf("%-8s %12s %12s %12s %12s%n", "response",
+                        "dom ops/ms", "stax ops/ms", "dom B/op", "stax B/op");
+            }
+            for (var sample : samples) {
+                var dom = measure(() -> domParse(sample.xml()));
+                var streamed = measure(() -> AramexRateResponse.parse(sample.xml()));
+                if (pass == 1) {
+                    System.out.printf("%-8s %12.1f %12.1f %12d %12d%n", sample.name(),
+                            dom.opsPerMilli(), streamed.opsPerMilli(), dom.bytesPerOp(), streamed.bytesPerOp());
+                }
+            }
+        }
+    }
+
+    private Result measure(Parser parser) throws Exception {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        // Counts results rather than asserting on each, so the check stays out of the measurement
+        int parsed = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (parser.parse() != null) {
+                parsed++;
+            }
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertThat(parsed).isEqualTo(ITERATIONS);
+        return new Result(ITERATIONS / millis, allocated / ITERATIONS);
+    }
+
+    /**
+     * The DOM and XPath parsing {@code AramexProvider} did before.
+     */
+    private static AramexRateResponse domParse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        var doc = factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        String hasErrors = (String) xpath.evaluate("//*[local-name()='HasErrors']/text()", doc, XPathConstants.STRING);
+        if ("true".equalsIgnoreCase(hasErrors)) {
+            String message = (String) xpath.evaluate(
+                    "//*[local-name()='Notifications']//*[local-name()='Message']/text()", doc, XPathConstants.STRING);
+            return new AramexRateResponse(true, message, null, null);
+        }
+        String currency = (String) xpath.evaluate(
+                "//*[local-name()='TotalAmount']/*[local-name()='CurrencyCode']/text()", doc, XPathConstants.STRING);
+        String value = (String) xpath.evaluate(
+                "//*[local-name()='TotalAmount']/*[local-name()='Value']/text()", doc, XPathConstants.STRING);
+        return new AramexRateResponse(false, null, currency, value);
+    }
+
+    private static String read(String name) {
+        try (InputStream in = AramexResponseParsingBenchmark.class.getResourceAsStream("/carrier-responses/" + name)) {
+            assertThat(in).as(name).isNotNull();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Parser {
+        AramexRateResponse parse() throws Exception;
+    }
+
+    private record Sample(String name, String xml) {
+    }
+
+    private record Result(double opsPerMilli, long bytesPerOp) {
+    }
+}
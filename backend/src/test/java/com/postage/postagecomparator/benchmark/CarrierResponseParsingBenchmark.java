@@ -0,0 +1,99 @@
+package com.postage.postagecomparator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.postage.postagecomparator.provider.response.AfterShipResponse;
+import com.postage.postagecomparator.provider.response.AusPostResponse;
+import com.postage.postagecomparator.provider.response.ShipStationRate;
+import com.postage.postagecomparator.provider.response.ShippitResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and allocation of reading recorded carrier responses into {@code Map.class}, as the
+ * providers used to, against reading them into the typed records of {@code provider.response}.
+ *
+ * Not part of the regular test run; execute explicitly:
+ * mvn -s .m2/settings.xml test -Dtest=CarrierResponseParsingBenchmark
+ */
+class CarrierResponseParsingBenchmark {
+
+    private static final int ITERATIONS = 20_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compareMapAndTypedParsing() {
+        var samples = List.of(
+                new Sample("auspost", read("auspost-calculate.json"),
+                        objectMapper.readerFor(Map.class), objectMapper.readerFor(AusPostResponse.class)),
+                new Sample("shippit", read("shippit-quotes.json"),
+                        objectMapper.readerFor(Map.class), objectMapper.readerFor(ShippitResponse.class)),
+                new Sample("shipstation", read("shipstation-rates.json"),
+                        objectMapper.readerFor(List.class), objectMapper.readerForListOf(ShipStationRate.class)),
+                new Sample("aftership", read("aftership-rates.json"),
+                        objectMapper.readerFor(Map.class), objectMapper.readerFor(AfterShipResponse.class)));
+
+        // The first pass only warms up the JIT
+        for (int pass = 0; pass < 2; pass++) {
+            if (pass == 1) {
+                System.out.printf("%-12s %8s %12s %12s %14s %14s%n", "carrier", "KB",
+                        "map ops/ms", "typed ops/ms", "map B/op", "typed B/op");
+            }
+            for (var sample : samples) {
+                var map = measure(sample.body(), sample.untyped());
+                var typed = measure(sample.body(), sample.typed());
+                if (pass == 1) {
+                    System.out.printf("%-12s %8.1f %12.1f %12.1f %14d %14d%n", sample.carrier(),
+                            sample.body().length / 1024.0, map.opsPerMilli(), typed.opsPerMilli(),
+                            map.bytesPerOp(), typed.bytesPerOp());
+                }
+            }
+        }
+    }
+
+    private Result measure(byte[] body, ObjectReader reader) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        // Counts results rather than asserting on each, so the check stays out of the measurement
+        int parsed = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            try {
+                if (reader.readValue(body) != null) {
+                    parsed++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertThat(parsed).isEqualTo(ITERATIONS);
+        return new Result(ITERATIONS / millis, allocated / ITERATIONS);
+    }
+
+    private static byte[] read(String name) {
+        try (InputStream in = CarrierResponseParsingBenchmark.class.getResourceAsStream("/carrier-responses/" + name)) {
+            assertThat(in).as(name).isNotNull();
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Sample(String carrier, byte[] body, ObjectReader untyped, ObjectReader typed) {
+    }
+
+    private record Result(double opsPerMilli, long bytesPerOp) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.postage.postagecomparator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.storage.JsonCatalogStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Reader throughput of the JSON catalog store as reader threads are added, with one background
+ * writer updating the catalog. With snapshot reads, throughput should grow roughly with the
+ * number of cores instead of flattening on a shared lock.
+ *
+ * Not part of the regular test run; execute explicitly:
+ * mvn -s .m2/settings.xml test -Dtest=CatalogReadScalingBenchmark
+ */
+class CatalogReadScalingBenchmark {
+
+    private static final int CATALOG_SIZE = 5_000;
+    private static final long MEASURE_MILLIS = 2_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readerThroughputByThreadCount() throws Exception {
+        var store = JsonCatalogStore.items(new ObjectMapper(), new StorageConfig(), () -> tempDir);
+        store.upsertAllByName(IntStream.range(0, CATALOG_SIZE)
+                        .mapToObj(i -> new Item("item-" + i, "Item " + i, null, 100))
+                        .toList(),
+                (existing, incoming) -> incoming);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-8s %16s%n", "readers", "lookups/s");
+        for (int readers = 1; readers <= cores; readers *= 2) {
+            System.out.printf("%-8d %,16.0f%n", readers, measure(store, readers));
+        }
+    }
+
+    private double measure(JsonCatalogStore<Item> store, int readers) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(readers + 1);
+        var running = new AtomicBoolean(true);
+        var lookups = new LongAdder();
+        try {
+            var futures = new ArrayList<CompletableFuture<Void>>();
+            futures.add(CompletableFuture.runAsync(() -> {
+                int version = 0;
+                while (running.get()) {
+                    int next = ++version;
+                    store.update("item-0", existing -> new Item(existing.id(), existing.name(), null, 100 + next));
+                }
+            }, pool));
+            for (int r = 0; r < readers; r++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    var random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        store.findById("item-" + random.nextInt(CATALOG_SIZE));
+                        lookups.increment();
+                    }
+                }, pool));
+            }
+            Thread.sleep(MEASURE_MILLIS);
+            running.set(false);
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdownNow();
+        }
+        return lookups.sum() * 1000.0 / MEASURE_MILLIS;
+    }
+}
@@ -0,0 +1,80 @@
+package com.postage.postagecomparator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.OriginSettings;
+import com.postage.postagecomparator.model.Packaging;
+import com.postage.postagecomparator.util.FileWriteUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write throughput of {@link FileWriteUtils#safeWrite} for each durability mode, using payloads
+ * shaped like items.json, packagings.json and settings.json.
+ *
+ * Not part of the regular test run; execute explicitly:
+ * mvn -s .m2/settings.xml test -Dtest=FileWriteDurabilityBenchmark
+ */
+class FileWriteDurabilityBenchmark {
+
+    private static final int WARMUP_WRITES = 20;
+    private static final int MEASURED_WRITES = 200;
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void compareDurabilityModes() {
+        var items = IntStream.range(0, 1_000)
+                .mapToObj(i -> new Item("item-" + i, "Item " + i, "Description " + i, 100 + i))
+                .toList();
+        var packagings = IntStream.range(0, 50)
+                .mapToObj(i -> new Packaging("pkg-" + i, "Box " + i, "Desc", 10, 20, 30, 6000, 1.5))
+                .toList();
+        var settings = new OriginSettings("2000", "Sydney", "NSW", "AU", "dark", Instant.now());
+
+        System.out.printf("%-12s %-26s %12s %12s%n", "file", "durability", "writes/s", "avg ms");
+        for (var durability : FileWriteUtils.Durability.values()) {
+            run("items", items, durability);
+            run("packagings", packagings, durability);
+            run("settings", settings, durability);
+        }
+    }
+
+    private void run(String name, Object payload, FileWriteUtils.Durability durability) {
+        Path target = tempDir.resolve(durability.name()).resolve(name + ".json");
+        for (int i = 0; i < WARMUP_WRITES; i++) {
+            write(target, payload, durability);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_WRITES; i++) {
+            write(target, payload, durability);
+        }
+        long elapsed = System.nanoTime() - start;
+        double avgMillis = elapsed / 1_000_000.0 / MEASURED_WRITES;
+        System.out.printf("%-12s %-26s %12.0f %12.3f%n", name, durability, 1000.0 / avgMillis, avgMillis);
+        assertThat(Files.exists(target)).isTrue();
+    }
+
+    private void write(Path target, Object payload, FileWriteUtils.Durability durability) {
+        FileWriteUtils.safeWrite(target, temp -> {
+            try {
+                objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, durability, null);
+    }
+}
@@ -0,0 +1,107 @@
+package com.postage.postagecomparator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.storage.CatalogQuery;
+import com.postage.postagecomparator.storage.CatalogStore;
+import com.postage.postagecomparator.storage.JsonCatalogStore;
+import com.postage.postagecomparator.storage.MappedItemStore;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startup cost and retained heap of a large item catalog stored as JSON versus the memory-mapped
+ * binary snapshot: time from opening a fresh store to its first lookup, the heap still held
+ * once that store is loaded, and steady-state lookup latency.
+ *
+ * Not part of the regular test run; execute explicitly:
+ * mvn -s .m2/settings.xml test -Dtest=ItemSnapshotBenchmark
+ */
+class ItemSnapshotBenchmark {
+
+    private static final int LOOKUPS = 100_000;
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @ValueSource(ints = {100_000, 500_000})
+    void compareJsonAndBinarySnapshots(int size) {
+        var items = IntStream.range(0, size)
+                .mapToObj(i -> new Item("item-" + i, "Item " + i, "Description of item " + i, 100 + i % 5000, 1))
+                .toList();
+        var jsonDir = tempDir.resolve("json-" + size);
+        var binaryDir = tempDir.resolve("binary-" + size);
+        writeJson(jsonDir.resolve("items.json"), items);
+        writeJson(binaryDir.resolve("items.json"), items);
+        new MappedItemStore(objectMapper, new StorageConfig(), () -> binaryDir).findAll();
+
+        System.out.printf("%n%,d items%n", size);
+        System.out.printf("%-8s %12s %14s %16s %14s%n", "format", "file MB", "first read ms", "retained heap MB",
+                "lookup us");
+        run("json", jsonDir.resolve("items.json"), size,
+                () -> JsonCatalogStore.items(objectMapper, new StorageConfig(), () -> jsonDir));
+        run("binary", binaryDir.resolve("items.bin"), size,
+                () -> new MappedItemStore(objectMapper, new StorageConfig(), () -> binaryDir));
+    }
+
+    private void run(String format, Path file, int size, Supplier<CatalogStore<Item>> open) {
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        var store = open.get();
+        assertThat(store.findById("item-0")).isPresent();
+        double firstReadMillis = (System.nanoTime() - start) / 1_000_000.0;
+        long retained = usedHeap() - heapBefore;
+
+        var random = new Random(42);
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertThat(store.findById("item-" + random.nextInt(size))).isPresent();
+        }
+        double lookupMicros = (System.nanoTime() - start) / 1_000.0 / LOOKUPS;
+        assertThat(store.query(new CatalogQuery("item 1", null, false, null, 10))).hasSize(10);
+
+        System.out.printf("%-8s %12.1f %14.1f %16.1f %14.2f%n", format, fileSize(file) / 1_048_576.0,
+                firstReadMillis, retained / 1_048_576.0, lookupMicros);
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeJson(Path target, List<Item> items) {
+        try {
+            Files.createDirectories(target.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(target.toFile(), items);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
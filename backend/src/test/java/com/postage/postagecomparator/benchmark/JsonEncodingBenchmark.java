@@ -0,0 +1,89 @@
+package com.postage.postagecomparator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.storage.JsonCatalogStore;
+import com.postage.postagecomparator.util.FileWriteUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * File size, rewrite time and cold load time of a 100k item catalog in each
+ * {@link StorageConfig.Encoding}.
+ *
+ * Not part of the regular test run; execute explicitly:
+ * mvn -s .m2/settings.xml test -Dtest=JsonEncodingBenchmark
+ */
+class JsonEncodingBenchmark {
+
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compareEncodings() {
+        var items = IntStream.range(0, CATALOG_SIZE)
+                .mapToObj(i -> new Item("item-" + i, "Item " + i, "Description of item " + i, 100 + i % 5000, 1))
+                .toList();
+
+        // The first pass only warms up the JIT
+        for (int pass = 0; pass < 2; pass++) {
+            if (pass == 1) {
+                System.out.printf("%-8s %10s %12s %14s%n", "encoding", "file MB", "rewrite ms", "cold load ms");
+            }
+            for (var encoding : StorageConfig.Encoding.values()) {
+                run(items, encoding, tempDir.resolve(pass + "-" + encoding.name()), pass == 1);
+            }
+        }
+    }
+
+    private void run(List<Item> items, StorageConfig.Encoding encoding, Path dataDir, boolean print) {
+        var storageConfig = new StorageConfig();
+        storageConfig.setEncoding(encoding);
+        storageConfig.setDurability(new StorageConfig.Durability(FileWriteUtils.Durability.NONE, null, null));
+        var store = JsonCatalogStore.items(objectMapper, storageConfig, () -> dataDir);
+        store.upsertAllByName(items, (existing, incoming) -> incoming);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            int round = i;
+            store.update("item-" + round, existing -> new Item(existing.id(), existing.name(),
+                    existing.description(), existing.unitWeightGrams() + 1, existing.version() + 1));
+        }
+        double rewriteMillis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            assertThat(JsonCatalogStore.items(objectMapper, storageConfig, () -> dataDir).findAll())
+                    .hasSize(CATALOG_SIZE);
+        }
+        double loadMillis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+
+        if (print) {
+            System.out.printf("%-8s %10.1f %12.1f %14.1f%n", encoding,
+                    size(dataDir.resolve("items.json")) / 1_048_576.0, rewriteMillis, loadMillis);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.postage.postagecomparator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.storage.CatalogStore;
+import com.postage.postagecomparator.storage.JsonCatalogStore;
+import com.postage.postagecomparator.storage.ShardedCatalogStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Update throughput of a 50k item catalog as it is spread over more shard files, with several
+ * writers updating random items. One shard is the single {@code items.json} file.
+ *
+ * Not part of the regular test run; execute explicitly:
+ * mvn -s .m2/settings.xml test -Dtest=ShardedWriteBenchmark
+ */
+class ShardedWriteBenchmark {
+
+    private static final int CATALOG_SIZE = 50_000;
+    private static final int WRITERS = 8;
+    private static final long MEASURE_MILLIS = 3_000;
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void updateThroughputByShardCount() throws Exception {
+        var items = IntStream.range(0, CATALOG_SIZE)
+                .mapToObj(i -> new Item("item-" + i, "Item " + i, "Description " + i, 100))
+                .toList();
+
+        System.out.printf("%-8s %14s%n", "shards", "updates/s");
+        for (int shards : new int[]{1, 4, 16, 64}) {
+            var dataDir = tempDir.resolve("shards-" + shards);
+            var storageConfig = new StorageConfig();
+            storageConfig.setShards(new StorageConfig.Shards(shards, 1));
+            CatalogStore<Item> store = shards == 1
+                    ? JsonCatalogStore.items(objectMapper, storageConfig, () -> dataDir)
+                    : ShardedCatalogStore.items(objectMapper, storageConfig, () -> dataDir);
+            store.upsertAllByName(items, (existing, incoming) -> incoming);
+            System.out.printf("%-8d %,14.0f%n", shards, measure(store));
+        }
+    }
+
+    private double measure(CatalogStore<Item> store) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        var running = new AtomicBoolean(true);
+        var updates = new LongAdder();
+        try {
+            var futures = new ArrayList<CompletableFuture<Void>>();
+            for (int w = 0; w < WRITERS; w++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    var random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        int weight = 100 + random.nextInt(1000);
+                        store.update("item-" + random.nextInt(CATALOG_SIZE),
+                                existing -> new Item(existing.id(), existing.name(), existing.description(), weight));
+                        updates.increment();
+                    }
+                }, pool));
+            }
+            Thread.sleep(MEASURE_MILLIS);
+            running.set(false);
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdownNow();
+        }
+        return updates.sum() * 1000.0 / MEASURE_MILLIS;
+    }
+}
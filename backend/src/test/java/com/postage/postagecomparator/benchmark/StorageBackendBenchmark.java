@@ -0,0 +1,93 @@
+package com.postage.postagecomparator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.storage.CatalogStore;
+import com.postage.postagecomparator.storage.H2CatalogStore;
+import com.postage.postagecomparator.storage.H2Database;
+import com.postage.postagecomparator.storage.JsonCatalogStore;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the JSON and H2 storage backends on an item catalog of 10k and 100k entries.
+ *
+ * Not part of the regular test run; execute explicitly:
+ * mvn -s .m2/settings.xml test -Dtest=StorageBackendBenchmark
+ */
+class StorageBackendBenchmark {
+
+    private static final int FIND_ALL_OPS = 5;
+    private static final int FIND_BY_ID_OPS = 500;
+    private static final int WRITE_OPS = 20;
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000})
+    void compareBackends(int size) {
+        var items = IntStream.range(0, size)
+                .mapToObj(i -> new Item("item-" + i, "Item " + i, "Description " + i, 100 + i % 5000))
+                .toList();
+
+        System.out.printf("%n%,d items%n", size);
+        System.out.printf("%-6s %-12s %12s%n", "store", "operation", "avg ms");
+
+        var jsonDir = tempDir.resolve("json");
+        var jsonStore = JsonCatalogStore.items(objectMapper, new StorageConfig(), () -> jsonDir);
+        measure("json", "seed", 1, i -> writeJson(jsonDir.resolve("items.json"), items));
+        run("json", jsonStore, size);
+
+        var h2Dir = tempDir.resolve("h2");
+        try (var database = new H2Database(() -> h2Dir, 4)) {
+            var h2Store = H2CatalogStore.items(database);
+            measure("h2", "seed", 1, i -> items.forEach(h2Store::insert));
+            run("h2", h2Store, size);
+        }
+    }
+
+    private void run(String name, CatalogStore<Item> store, int size) {
+        var random = new Random(42);
+        measure(name, "findAll", FIND_ALL_OPS, i -> assertThat(store.findAll()).hasSize(size));
+        measure(name, "findById", FIND_BY_ID_OPS,
+                i -> assertThat(store.findById("item-" + random.nextInt(size))).isPresent());
+        measure(name, "insert", WRITE_OPS, i -> store.insert(new Item("new-" + i, "New " + i, null, 100)));
+        measure(name, "update", WRITE_OPS, i -> store.update("item-" + random.nextInt(size),
+                existing -> new Item(existing.id(), existing.name(), "Updated " + i, existing.unitWeightGrams())));
+        measure(name, "delete", WRITE_OPS, i -> store.delete("new-" + i));
+    }
+
+    private void measure(String store, String operation, int operations, IntConsumer body) {
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            body.accept(i);
+        }
+        double avgMillis = (System.nanoTime() - start) / 1_000_000.0 / operations;
+        System.out.printf("%-6s %-12s %12.3f%n", store, operation, avgMillis);
+    }
+
+    private void writeJson(Path target, List<Item> items) {
+        try {
+            Files.createDirectories(target.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(target.toFile(), items);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.postage.postagecomparator.config;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.postage.postagecomparator.provider.CarrierMetrics;
+import com.postage.postagecomparator.provider.CarrierRateLimitedException;
+import com.postage.postagecomparator.provider.CarrierTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CarrierHttpConnectorsTest {
+
+    private WireMockServer server;
+    private CarrierMetrics metrics;
+    private CarrierHttpConnectors connectors;
+
+    @BeforeEach
+    void setUp() {
+        server = new WireMockServer(0);
+        server.start();
+        server.stubFor(get(urlPathEqualTo("/ping")).willReturn(aResponse().withStatus(200).withBody("pong")));
+        metrics = new CarrierMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (connectors != null) {
+            connectors.destroy();
+        }
+        server.stop();
+    }
+
+    @Test
+    void bind_readsPoolSettingsPerProvider() {
+        var config = bind(Map.of(
+                "providers.providers.auspost.enabled", "true",
+                "providers.providers.auspost.pool.max-connections", "3",
+                "providers.providers.auspost.pool.max-idle-time", "10s",
+                "providers.providers.auspost.timeouts.connect", "1s"));
+
+        var pool = config.getPool("auspost");
+        assertThat(pool.maxConnections()).isEqualTo(3);
+        assertThat(pool.pendingAcquireMaxCount()).isEqualTo(6);
+        assertThat(pool.maxIdleTime()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(config.getTimeouts("auspost").connect()).isEqualTo(Duration.ofSeconds(1));
+        assertThat(config.getTimeouts("auspost").total()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(config.getProvider("auspost")).hasValueSatisfying(settings ->
+                assertThat(settings.enabled()).isTrue());
+        assertThat(config.getPool("shippit")).isEqualTo(ProviderConfig.Pool.DEFAULT);
+    }
+
+    @Test
+    void connector_poolsConnectionsPerProviderAndPublishesGauges() {
+        connectors = new CarrierHttpConnectors(
+                bind(Map.of("providers.providers.auspost.pool.max-connections", "3")), metrics);
+        var client = WebClient.builder()
+                .baseUrl(server.baseUrl())
+                .clientConnector(connectors.connector("auspost"))
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.get().uri("/ping").retrieve().bodyToMono(String.class).block()).isEqualTo("pong");
+        }
+
+        assertThat(metrics.snapshot()).containsOnlyKeys("auspost");
+        var pool = metrics.snapshot().get("auspost").pool();
+        // Connections are kept alive for reuse, within the provider's own limit
+        assertThat(pool.active() + pool.idle()).isBetween(1, 3);
+        assertThat(pool.pending()).isZero();
+        assertThat(pool.maxConnections()).isEqualTo(3);
+    }
+
+    @Test
+    void customizer_countsEachCallsOutcome() {
+        server.stubFor(get(urlPathEqualTo("/missing")).willReturn(aResponse().withStatus(404)));
+        var client = client(Map.of());
+
+        client.get().uri("/ping").retrieve().bodyToMono(String.class).block();
+        assertThatThrownBy(() -> client.get().uri("/missing").retrieve().bodyToMono(String.class).block())
+                .isInstanceOf(WebClientResponseException.NotFound.class);
+
+        var calls = metrics.snapshot().get("auspost").calls();
+        assertThat(calls.succeeded()).isEqualTo(1);
+        assertThat(calls.failed()).isEqualTo(1);
+        assertThat(calls.timeouts()).isEmpty();
+    }
+
+    @Test
+    void customizer_whenResponseIsLate_failsWithResponseTimeout() {
+        server.stubFor(get(urlPathEqualTo("/slow")).willReturn(aResponse().withStatus(200).withFixedDelay(2000)));
+        var client = client(Map.of("providers.providers.auspost.timeouts.response", "200ms"));
+
+        assertThatThrownBy(() -> client.get().uri("/slow").retrieve().bodyToMono(String.class).block())
+                .isInstanceOfSatisfying(CarrierTimeoutException.class, timeout ->
+                        assertThat(timeout.getPhase()).isEqualTo(CarrierTimeoutException.Phase.RESPONSE));
+        assertThat(metrics.snapshot().get("auspost").calls().timeouts())
+                .containsExactly(Map.entry(CarrierTimeoutException.Phase.RESPONSE, 1L));
+    }
+
+    @Test
+    void customizer_whenBodyOutlastsTotal_failsWithTotalTimeout() {
+        // Each chunk arrives well within the response timeout, but the body takes 2s in all
+        server.stubFor(get(urlPathEqualTo("/dribble")).willReturn(aResponse().withStatus(200)
+                .withBody("x".repeat(100))
+                .withChunkedDribbleDelay(10, 2000)));
+        var client = client(Map.of("providers.providers.auspost.timeouts.total", "500ms"));
+
+        assertThatThrownBy(() -> client.get().uri("/dribble").retrieve().bodyToMono(String.class).block())
+                .isInstanceOfSatisfying(CarrierTimeoutException.class, timeout ->
+                        assertThat(timeout.getPhase()).isEqualTo(CarrierTimeoutException.Phase.TOTAL));
+        assertThat(metrics.snapshot().get("auspost").calls().timeouts())
+                .containsExactly(Map.entry(CarrierTimeoutException.Phase.TOTAL, 1L));
+    }
+
+    @Test
+    void customizer_whenCarrierUnavailable_retriesWithinOneCall() {
+        server.stubFor(get(urlPathEqualTo("/flaky")).inScenario("flaky").whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503)).willSetStateTo("up"));
+        server.stubFor(get(urlPathEqualTo("/flaky")).inScenario("flaky").whenScenarioStateIs("up")
+                .willReturn(aResponse().withStatus(200).withBody("pong")));
+        var client = client(Map.of("providers.providers.auspost.retry.initial-backoff", "10ms"));
+
+        assertThat(client.get().uri("/flaky").retrieve().bodyToMono(String.class).block()).isEqualTo("pong");
+
+        server.verify(2, getRequestedFor(urlPathEqualTo("/flaky")));
+        var calls = metrics.snapshot().get("auspost").calls();
+        assertThat(calls.succeeded()).isEqualTo(1);
+        assertThat(calls.failed()).isZero();
+        assertThat(calls.retries()).isEqualTo(1);
+    }
+
+    @Test
+    void customizer_retriesPostOnlyWhenMarkedIdempotent() {
+        server.stubFor(post(urlPathEqualTo("/rates")).willReturn(aResponse().withStatus(503)));
+        var client = client(Map.of(
+                "providers.providers.auspost.retry.max-attempts", "2",
+                "providers.providers.auspost.retry.initial-backoff", "10ms"));
+
+        assertThatThrownBy(() -> client.post().uri("/rates").retrieve().bodyToMono(String.class).block())
+                .isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+        server.verify(1, postRequestedFor(urlPathEqualTo("/rates")));
+
+        assertThatThrownBy(() -> client.post().uri("/rates")
+                .attribute(CarrierRetryFilter.IDEMPOTENT, true)
+                .retrieve().bodyToMono(String.class).block())
+                .isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+        server.verify(3, postRequestedFor(urlPathEqualTo("/rates")));
+        assertThat(metrics.snapshot().get("auspost").calls().retries()).isEqualTo(1);
+    }
+
+    @Test
+    void customizer_whenRetryBudgetSpent_stopsRetrying() {
+        server.stubFor(get(urlPathEqualTo("/down")).willReturn(aResponse().withStatus(503)));
+        var client = client(Map.of(
+                "providers.providers.auspost.retry.initial-backoff", "10ms",
+                "providers.providers.auspost.retry.budget-ratio", "0.01",
+                "providers.providers.auspost.retry.budget-capacity", "1"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> client.get().uri("/down").retrieve().bodyToMono(String.class).block())
+                    .isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+        }
+
+        // Only the first call had a retry left in the budget
+        server.verify(4, getRequestedFor(urlPathEqualTo("/down")));
+        var calls = metrics.snapshot().get("auspost").calls();
+        assertThat(calls.failed()).isEqualTo(3);
+        assertThat(calls.retries()).isEqualTo(1);
+        assertThat(calls.retriesDenied()).isEqualTo(3);
+    }
+
+    @Test
+    void customizer_whenThrottled_waitsForRetryAfterWithinBudget() {
+        server.stubFor(get(urlPathEqualTo("/busy")).inScenario("busy").whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "1")).willSetStateTo("free"));
+        server.stubFor(get(urlPathEqualTo("/busy")).inScenario("busy").whenScenarioStateIs("free")
+                .willReturn(aResponse().withStatus(200).withBody("pong")));
+        var client = client(Map.of(
+                "providers.providers.auspost.retry.initial-backoff", "10ms",
+                "providers.providers.auspost.rate-limit.max-wait", "2s"));
+
+        long start = System.nanoTime();
+        assertThat(client.get().uri("/busy").retrieve().bodyToMono(String.class).block()).isEqualTo("pong");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(900));
+        var calls = metrics.snapshot().get("auspost").calls();
+        assertThat(calls.retries()).isEqualTo(1);
+        assertThat(calls.rateLimitWaits()).isEqualTo(1);
+    }
+
+    @Test
+    void customizer_whenRetryAfterExceedsBudget_failsWithoutCalling() {
+        server.stubFor(get(urlPathEqualTo("/busy")).willReturn(aResponse().withStatus(429).withHeader("Retry-After", "30")));
+        var client = client(Map.of("providers.providers.auspost.retry.initial-backoff", "10ms"));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> client.get().uri("/busy").retrieve().bodyToMono(String.class).block())
+                    .isInstanceOf(CarrierRateLimitedException.class);
+        }
+
+        server.verify(1, getRequestedFor(urlPathEqualTo("/busy")));
+        assertThat(metrics.snapshot().get("auspost").calls().rateLimited()).isEqualTo(2);
+    }
+
+    @Test
+    void customizer_holdsCallsToRequestRate() {
+        var client = client(Map.of(
+                "providers.providers.auspost.rate-limit.requests-per-second", "5",
+                "providers.providers.auspost.rate-limit.burst", "1",
+                "providers.providers.auspost.rate-limit.max-wait", "100ms"));
+
+        client.get().uri("/ping").retrieve().bodyToMono(String.class).block();
+        // The next token is 200ms away, more than the call may wait
+        assertThatThrownBy(() -> client.get().uri("/ping").retrieve().bodyToMono(String.class).block())
+                .isInstanceOf(CarrierRateLimitedException.class);
+        server.verify(1, getRequestedFor(urlPathEqualTo("/ping")));
+        connectors.destroy();
+
+        var patient = client(Map.of(
+                "providers.providers.auspost.rate-limit.requests-per-second", "5",
+                "providers.providers.auspost.rate-limit.burst", "1",
+                "providers.providers.auspost.rate-limit.max-wait", "1s"));
+        for (int i = 0; i < 2; i++) {
+            assertThat(patient.get().uri("/ping").retrieve().bodyToMono(String.class).block()).isEqualTo("pong");
+        }
+        assertThat(metrics.snapshot().get("auspost").calls().rateLimitWaits()).isEqualTo(1);
+    }
+
+    @Test
+    void retryAfter_readsSecondsOrHttpDate() {
+        var now = Instant.parse("2026-10-21T07:28:00Z");
+
+        assertThat(CarrierRateLimitFilter.retryAfter("120", now)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(CarrierRateLimitFilter.retryAfter("Wed, 21 Oct 2026 07:28:30 GMT", now))
+                .isEqualTo(Duration.ofSeconds(30));
+        assertThat(CarrierRateLimitFilter.retryAfter("Wed, 21 Oct 2026 07:00:00 GMT", now)).isZero();
+        assertThat(CarrierRateLimitFilter.retryAfter(null, now)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(CarrierRateLimitFilter.retryAfter("soon", now)).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    private WebClient client(Map<String, String> properties) {
+        connectors = new CarrierHttpConnectors(bind(properties), metrics);
+        return WebClient.builder()
+                .baseUrl(server.baseUrl())
+                .apply(connectors.customizer("auspost"))
+                .build();
+    }
+
+    private static ProviderConfig bind(Map<String, String> properties) {
+        return new Binder(new MapConfigurationPropertySource(properties))
+                .bind("providers", ProviderConfig.class)
+                .orElseGet(ProviderConfig::new);
+    }
+}
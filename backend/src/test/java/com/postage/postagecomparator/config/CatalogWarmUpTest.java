@@ -0,0 +1,73 @@
+package com.postage.postagecomparator.config;
+
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.Packaging;
+import com.postage.postagecomparator.storage.CatalogQuery;
+import com.postage.postagecomparator.storage.CatalogStore;
+import com.postage.postagecomparator.storage.DataDirectory;
+import com.postage.postagecomparator.storage.SettingsStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogWarmUpTest {
+
+    @Mock
+    private CatalogStore<Item> itemStore;
+
+    @Mock
+    private CatalogStore<Packaging> packagingStore;
+
+    @Mock
+    private SettingsStore settingsStore;
+
+    private StorageConfig storageConfig;
+    private CatalogWarmUp warmUp;
+
+    @BeforeEach
+    void setUp() {
+        storageConfig = new StorageConfig();
+        warmUp = new CatalogWarmUp(itemStore, packagingStore, settingsStore, storageConfig,
+                new DataDirectory(Path.of("data")));
+    }
+
+    @Test
+    void warmUp_loadsEveryCollectionAndIndex() {
+        var timings = warmUp.warmUp();
+
+        assertThat(timings).containsOnlyKeys("items", "packagings", "settings");
+        verify(itemStore).query(any(CatalogQuery.class));
+        verify(packagingStore).query(any(CatalogQuery.class));
+        verify(settingsStore).load();
+    }
+
+    @Test
+    void warmUp_whenOneCollectionFails_stillLoadsTheOthers() {
+        when(itemStore.version()).thenThrow(new IllegalStateException("Unable to read items"));
+
+        var timings = warmUp.warmUp();
+
+        assertThat(timings).containsOnlyKeys("packagings", "settings");
+    }
+
+    @Test
+    void run_whenDisabled_loadsNothing() {
+        storageConfig.setWarmUp(false);
+
+        warmUp.run(new DefaultApplicationArguments());
+
+        verifyNoInteractions(itemStore, packagingStore, settingsStore);
+    }
+}
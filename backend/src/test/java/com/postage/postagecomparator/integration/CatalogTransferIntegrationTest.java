@@ -0,0 +1,137 @@
+package com.postage.postagecomparator.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CatalogTransferIntegrationTest extends IntegrationTestBase {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    @Test
+    void importNdjson_thenListItems_returnsImportedItems() throws Exception {
+        var body = """
+                {"name":"Box","description":"Small box","unitWeightGrams":100}
+                {"name":"Crate","unitWeightGrams":2500}
+                """;
+
+        mockMvc.perform(post("/api/items:import").contentType(NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.updated").value(0));
+
+        mockMvc.perform(get("/api/items"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Box"))
+                .andExpect(jsonPath("$[1].name").value("Crate"))
+                .andExpect(jsonPath("$[1].unitWeightGrams").value(2500));
+    }
+
+    @Test
+    void importCsv_whenNameExists_updatesInsteadOfDuplicating() throws Exception {
+        mockMvc.perform(post("/api/items:import").contentType(CSV).content("""
+                        name,description,unitWeightGrams
+                        Box,Small box,100
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1));
+
+        mockMvc.perform(post("/api/items:import").contentType(CSV).content("""
+                        name,description,unitWeightGrams
+                        Box,Bigger box,150
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.updated").value(1));
+
+        mockMvc.perform(get("/api/items"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].unitWeightGrams").value(150));
+    }
+
+    @Test
+    void importNdjson_whenLineMalformed_returns400AndStoresNothing() throws Exception {
+        var body = """
+                {"name":"Box","unitWeightGrams":100}
+                {"name":"Crate","unitWeightGrams":
+                """;
+
+        mockMvc.perform(post("/api/items:import").contentType(NDJSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.message").value(containsString("Malformed NDJSON")));
+
+        mockMvc.perform(get("/api/items"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void importNdjson_whenRecordInvalid_returns400WithRecordNumber() throws Exception {
+        var body = """
+                {"name":"Box","unitWeightGrams":100}
+                {"name":"","unitWeightGrams":100}
+                """;
+
+        mockMvc.perform(post("/api/items:import").contentType(NDJSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.message").value("Record 2: Item name is required"));
+    }
+
+    @Test
+    void exportCsv_streamsHeaderAndRows() throws Exception {
+        mockMvc.perform(post("/api/packaging:import").contentType(NDJSON).content("""
+                        {"name":"Satchel","lengthCm":10,"heightCm":20,"widthCm":30,"packagingCostAud":1.5}
+                        """))
+                .andExpect(status().isOk());
+
+        var result = mockMvc.perform(get("/api/packaging:export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CSV))
+                .andExpect(header().string("Content-Disposition", containsString("packagings.csv")))
+                .andExpect(content().string(containsString(
+                        "id,name,description,lengthCm,heightCm,widthCm,internalVolumeCubicCm,packagingCostAud")))
+                .andExpect(content().string(containsString(",Satchel,,10,20,30,6000,1.5")));
+    }
+
+    @Test
+    void exportNdjson_roundTripsThroughImport() throws Exception {
+        mockMvc.perform(post("/api/items:import").contentType(NDJSON).content("""
+                        {"name":"Box","unitWeightGrams":100}
+                        """))
+                .andExpect(status().isOk());
+
+        var result = mockMvc.perform(get("/api/items:export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        var exported = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        mockMvc.perform(post("/api/items:import").contentType(NDJSON).content(exported))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+    }
+
+    @Test
+    void export_whenFormatUnknown_returns400() throws Exception {
+        mockMvc.perform(get("/api/items:export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,16 +1,19 @@
 package com.postage.postagecomparator.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.AfterEach;
+import com.postage.postagecomparator.storage.DataDirectory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.nio.file.Path;
 
+import static org.mockito.Mockito.doReturn;
+
 /**
  * Base class for integration tests.
  * Loads full Spring context and configures an isolated data directory.
@@ -28,13 +31,12 @@ public abstract class IntegrationTestBase {
     @Autowired
     protected ObjectMapper objectMapper;
 
+    // The base directory is resolved once at startup, so each test points it at its own
+    @SpyBean
+    private DataDirectory dataDirectory;
+
     @BeforeEach
     void setUpDataDir() {
-        System.setProperty("POSTAGE_DATA_DIR", tempDir.resolve(".postage-comparator").toString());
-    }
-
-    @AfterEach
-    void clearDataDir() {
-        System.clearProperty("POSTAGE_DATA_DIR");
+        doReturn(tempDir.resolve(".postage-comparator")).when(dataDirectory).base();
     }
 }
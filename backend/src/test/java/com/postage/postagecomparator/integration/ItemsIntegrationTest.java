@@ -1,14 +1,19 @@
 package com.postage.postagecomparator.integration;
 
 import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.ItemPatch;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
 
+import java.util.List;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -174,4 +179,118 @@ class ItemsIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(2));
     }
+
+    @Test
+    void postThreeItems_thenPageThroughList_returnsEachOnce() throws Exception {
+        for (var name : List.of("Envelope", "Box", "Satchel")) {
+            mockMvc.perform(post("/api/items")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new Item(null, name, null, 100))))
+                    .andExpect(status().isCreated());
+        }
+
+        var firstPage = mockMvc.perform(get("/api/items").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Box"))
+                .andExpect(jsonPath("$.items[1].name").value("Envelope"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn();
+        var cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/items").param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Satchel"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/items").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void conditionalGet_returns304UntilCatalogChanges() throws Exception {
+        var etag = mockMvc.perform(get("/api/items"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/items").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Item(null, "Box", null, 100))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/items").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void putWithIfMatch_succeedsOnceThenRejectsTheStaleVersion() throws Exception {
+        var created = mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Item(null, "Box", null, 100))))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andReturn();
+        var id = objectMapper.readValue(created.getResponse().getContentAsString(), Item.class).id();
+
+        mockMvc.perform(put("/api/items/{id}", id)
+                        .header("If-Match", "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Item(null, "Box", "first edit", 100))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(jsonPath("$.version").value(2));
+
+        mockMvc.perform(put("/api/items/{id}", id)
+                        .header("If-Match", "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Item(null, "Box", "second edit", 100))))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/items/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(jsonPath("$.description").value("first edit"));
+    }
+
+    @Test
+    void patchBatch_appliesAllOrNothing() throws Exception {
+        var box = create(new Item(null, "Box", null, 100));
+        var bag = create(new Item(null, "Bag", null, 50));
+
+        mockMvc.perform(patch("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new ItemPatch("update", box.id(), null, null, 150, null),
+                                new ItemPatch("update", bag.id(), "Box", null, null, null)))))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new ItemPatch("update", box.id(), "Large box", null, 150, 1L),
+                                new ItemPatch("delete", bag.id(), null, null, null, 1L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated[0].name").value("Large box"))
+                .andExpect(jsonPath("$.updated[0].version").value(2))
+                .andExpect(jsonPath("$.deleted[0]").value(bag.id()));
+
+        mockMvc.perform(get("/api/items"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].unitWeightGrams").value(150));
+    }
+
+    private Item create(Item item) throws Exception {
+        var response = mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(response.getResponse().getContentAsString(), Item.class);
+    }
 }
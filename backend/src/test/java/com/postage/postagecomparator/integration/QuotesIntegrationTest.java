@@ -35,8 +35,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class QuotesIntegrationTest extends IntegrationTestBase {
 
     @AfterEach
-    void clearAusPostKey() {
+    void clearAusPostKey() throws Exception {
         System.clearProperty("AUSPOST_API_KEY");
+        mockMvc.perform(post("/api/settings/credentials/reload")).andExpect(status().isOk());
     }
 
     @Test
@@ -203,6 +204,9 @@ class QuotesIntegrationTest extends IntegrationTestBase {
     @Test
     void quote_whenValidAndApiKey_usesAusPostApi() throws Exception {
         System.setProperty("AUSPOST_API_KEY", "test-key");
+        mockMvc.perform(post("/api/settings/credentials/reload"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.auspost").value(true));
         var ids = seedOriginItemAndPackaging();
 
         var request = new ShipmentRequest(
@@ -0,0 +1,19 @@
+package com.postage.postagecomparator.integration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReadinessIntegrationTest extends IntegrationTestBase {
+
+    @Test
+    void ready_afterStartup_returns200() throws Exception {
+        mockMvc.perform(get("/api/ready"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath("$.status").value("ACCEPTING_TRAFFIC"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.postage.postagecomparator.integration;
+
+import com.postage.postagecomparator.model.Item;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TenantIntegrationTest extends IntegrationTestBase {
+
+    @Test
+    void tenantsSelectedByHeaderOrPathPrefix_haveSeparateCatalogs() throws Exception {
+        mockMvc.perform(post("/api/items")
+                        .header("X-Tenant-Id", "acme")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Item(null, "Anvil", null, 5000))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/t/globex/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Item(null, "Globe", null, 300))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/t/acme/api/items"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Anvil"));
+        mockMvc.perform(get("/api/items").header("X-Tenant-Id", "globex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Globe"));
+        mockMvc.perform(get("/api/items"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        assertThat(Files.exists(tempDir.resolve(".postage-comparator/tenants/acme/items.json"))).isTrue();
+        assertThat(Files.exists(tempDir.resolve(".postage-comparator/tenants/globex/items.json"))).isTrue();
+    }
+
+    @Test
+    void invalidTenantId_returns400() throws Exception {
+        mockMvc.perform(get("/api/items").header("X-Tenant-Id", "../etc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("BAD_REQUEST"));
+        mockMvc.perform(get("/t/Acme/api/items"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void pathAndHeaderNamingDifferentTenants_returns400() throws Exception {
+        mockMvc.perform(get("/t/acme/api/items").header("X-Tenant-Id", "globex"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.message").value(org.hamcrest.Matchers.containsString("differ")));
+    }
+}
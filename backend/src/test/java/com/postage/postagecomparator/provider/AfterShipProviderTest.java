@@ -6,6 +6,7 @@ import com.postage.postagecomparator.model.OriginSettings;
 import com.postage.postagecomparator.model.Packaging;
 import com.postage.postagecomparator.model.QuoteResult;
 import com.postage.postagecomparator.model.ShipmentRequest;
+import com.postage.postagecomparator.provider.response.AfterShipResponse;
 import com.postage.postagecomparator.service.QuoteRequestHelper;
 import com.postage.postagecomparator.service.SettingsService;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doReturn;
@@ -49,11 +51,13 @@ class AfterShipProviderTest {
         when(uriSpec.uri(any(String.class))).thenReturn(uriSpec);
         when(uriSpec.contentType(any())).thenReturn(uriSpec);
         when(uriSpec.accept(any())).thenReturn(uriSpec);
+        when(uriSpec.attribute(any(), any())).thenReturn(uriSpec);
         when(uriSpec.header(any(), any())).thenReturn(uriSpec);
         doReturn(headersSpec).when(uriSpec).bodyValue(any());
         when(headersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(response));
+        when(responseSpec.bodyToMono(AfterShipResponse.class))
+                .thenReturn(Mono.just(new ObjectMapper().convertValue(response, AfterShipResponse.class)));
 
         return new AfterShipProvider(webClient, settingsService, requestHelper, new ObjectMapper());
     }
@@ -69,11 +73,12 @@ class AfterShipProviderTest {
         when(uriSpec.uri(any(String.class))).thenReturn(uriSpec);
         when(uriSpec.contentType(any())).thenReturn(uriSpec);
         when(uriSpec.accept(any())).thenReturn(uriSpec);
+        when(uriSpec.attribute(any(), any())).thenReturn(uriSpec);
         when(uriSpec.header(any(), any())).thenReturn(uriSpec);
         doReturn(headersSpec).when(uriSpec).bodyValue(any());
         when(headersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.error(error));
+        when(responseSpec.bodyToMono(AfterShipResponse.class)).thenReturn(Mono.error(error));
 
         return new AfterShipProvider(webClient, settingsService, requestHelper, new ObjectMapper());
     }
@@ -129,6 +134,37 @@ class AfterShipProviderTest {
         assertThat(quote.get().pricingSource()).isEqualTo("AFTERSHIP_API");
     }
 
+    @Test
+    void quotes_whenChargesUseOtherShapes_readsEachAmount() {
+        Map<String, Object> response = Map.of(
+                "rates", List.of(
+                        Map.of("service_name", "Bare", "shipping_amount", 9.5),
+                        Map.of("service_level", "Text", "total_amount", Map.of("amount", "11.25", "currency_code", "AUD")),
+                        Map.of("courier_name", "Foreign", "amount", Map.of("amount", 5, "currency", "USD")),
+                        Map.of("service_type", "Unpriced", "total_charge", Map.of("amount", "n/a"))
+                )
+        );
+
+        given(settingsService.getAfterShipApiKey()).willReturn("key");
+        var provider = buildProviderWithResponse(response);
+        var origin = new OriginSettings("3004", "Melbourne", "VIC", "AU", null, Instant.now());
+        var packaging = new Packaging("pack-1", "Box", null, 40, 20, 20, 1000, 2.0);
+        var request = new ShipmentRequest("2008", "Darlington", "NSW", "AU", List.of(), "pack-1", false);
+
+        given(requestHelper.buildDestination(request))
+                .willReturn(new QuoteResult.Destination("2008", "Darlington", "NSW", "AU"));
+        given(requestHelper.calculateTotalWeight(request.items())).willReturn(600);
+
+        Optional<List<CarrierQuote>> quotes = provider.quotes(request, origin, packaging, List.of());
+
+        assertThat(quotes).isPresent();
+        assertThat(quotes.get())
+                .extracting(CarrierQuote::serviceName, CarrierQuote::totalCostAud)
+                .containsExactly(
+                        tuple("Bare", 9.5),
+                        tuple("Text", 11.25));
+    }
+
     @Test
     void quote_whenWebClientException_returnsEmpty() {
         given(settingsService.getAfterShipApiKey()).willReturn("key");
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.reactive.function.BodyInserter;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
@@ -43,8 +44,9 @@ class AramexProviderTest {
         when(webClient.post()).thenReturn(uriSpec);
         when(uriSpec.contentType(any())).thenReturn(uriSpec);
         when(uriSpec.accept(any())).thenReturn(uriSpec);
+        when(uriSpec.attribute(any(), any())).thenReturn(uriSpec);
         when(uriSpec.header(any(), any())).thenReturn(uriSpec);
-        doReturn(headersSpec).when(uriSpec).bodyValue(any());
+        doReturn(headersSpec).when(uriSpec).body(any(BodyInserter.class));
         when(headersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.bodyToMono(String.class))
                 .thenReturn(responseXml == null ? Mono.empty() : Mono.just(responseXml));
@@ -62,8 +64,9 @@ class AramexProviderTest {
         when(webClient.post()).thenReturn(uriSpec);
         when(uriSpec.contentType(any())).thenReturn(uriSpec);
         when(uriSpec.accept(any())).thenReturn(uriSpec);
+        when(uriSpec.attribute(any(), any())).thenReturn(uriSpec);
         when(uriSpec.header(any(), any())).thenReturn(uriSpec);
-        doReturn(headersSpec).when(uriSpec).bodyValue(any());
+        doReturn(headersSpec).when(uriSpec).body(any(BodyInserter.class));
         when(headersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.error(error));
 
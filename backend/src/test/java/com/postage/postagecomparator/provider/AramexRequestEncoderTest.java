@@ -0,0 +1,78 @@
+package com.postage.postagecomparator.provider;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AramexRequestEncoderTest {
+
+    private static final AramexRequestEncoder.Account ACCOUNT = new AramexRequestEncoder.Account(
+            "user", "p&ss<word>", "v1.0", "123", "456", "AMM", "JO", "EXP", "PPX", "P");
+
+    private final AramexRequestEncoder encoder = new AramexRequestEncoder(DefaultDataBufferFactory.sharedInstance);
+
+    @Test
+    void encode_rendersFullEnvelope() {
+        var xml = encode(ACCOUNT, new AramexRequestEncoder.Shipment("Melbourne", "AU", "Darlington", "AU", 0.6, 2));
+
+        assertThat(xml).startsWith("<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\"");
+        assertThat(xml).contains(
+                "<typ:AccountCountryCode>JO</typ:AccountCountryCode>",
+                "<typ:UserName>user</typ:UserName>",
+                "<typ:Password>p&amp;ss&lt;word&gt;</typ:Password>",
+                "<typ:City>Melbourne</typ:City>",
+                "<typ:City>Darlington</typ:City>",
+                "<typ:ProductType>PPX</typ:ProductType>",
+                "<typ:NumberOfPieces>2</typ:NumberOfPieces>");
+        assertThat(xml.split("<typ:Value>0.600</typ:Value>", -1)).hasSize(3);
+        assertThat(xml).doesNotContain("{").endsWith("</soapenv:Envelope>\n");
+    }
+
+    @Test
+    void encode_escapesShipmentFieldsAndKeepsNonAsciiText() {
+        var xml = encode(ACCOUNT, new AramexRequestEncoder.Shipment("O'Connor & \"Sons\"", "AU", "Zürich 🚚", "CH", 12.3456, 1));
+
+        assertThat(xml).contains(
+                "<typ:City>O&apos;Connor &amp; &quot;Sons&quot;</typ:City>",
+                "<typ:City>Zürich 🚚</typ:City>",
+                "<typ:Value>12.346</typ:Value>");
+    }
+
+    @Test
+    void encode_formatsWeightWhateverTheDefaultLocale() {
+        var defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            var xml = encode(ACCOUNT, new AramexRequestEncoder.Shipment("A", "AU", "B", "AU", 1.5, 1));
+
+            assertThat(xml).contains("<typ:Value>1.500</typ:Value>");
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void encode_whenAccountChanges_rendersNewAccount() {
+        var shipment = new AramexRequestEncoder.Shipment("A", "AU", "B", "AU", 1, 1);
+        encode(ACCOUNT, shipment);
+
+        var changed = new AramexRequestEncoder.Account(
+                "other", "secret", "v1.0", "789", "456", "AMM", "JO", "DOM", "ONP", "P");
+        var xml = encode(changed, shipment);
+
+        assertThat(xml).contains(
+                "<typ:UserName>other</typ:UserName>",
+                "<typ:AccountNumber>789</typ:AccountNumber>",
+                "<typ:ProductGroup>DOM</typ:ProductGroup>");
+    }
+
+    private String encode(AramexRequestEncoder.Account account, AramexRequestEncoder.Shipment shipment) {
+        DataBuffer buffer = encoder.encode(account, shipment);
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -1,16 +1,20 @@
 package com.postage.postagecomparator.provider;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.ProviderConfig;
 import com.postage.postagecomparator.model.CarrierQuote;
 import com.postage.postagecomparator.model.OriginSettings;
 import com.postage.postagecomparator.model.Packaging;
 import com.postage.postagecomparator.model.QuoteResult;
 import com.postage.postagecomparator.model.ShipmentRequest;
+import com.postage.postagecomparator.provider.response.AusPostResponse;
 import com.postage.postagecomparator.service.QuoteRequestHelper;
 import com.postage.postagecomparator.service.SettingsService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
@@ -19,6 +23,7 @@ import reactor.core.publisher.Mono;
 
 import java.lang.reflect.Method;
 import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -30,11 +35,15 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class AusPostProviderTest {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     @Mock
     private SettingsService settingsService;
 
@@ -55,8 +64,9 @@ class AusPostProviderTest {
                 .thenReturn(headersSpec);
         when(headersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class))
-                .thenReturn(response == null ? Mono.empty() : Mono.just(response));
+        when(responseSpec.bodyToMono(AusPostResponse.class))
+                .thenReturn(response == null ? Mono.empty()
+                        : Mono.just(OBJECT_MAPPER.convertValue(response, AusPostResponse.class)));
 
         return new AusPostProvider(webClient, settingsService, requestHelper);
     }
@@ -79,7 +89,7 @@ class AusPostProviderTest {
                 .thenReturn(headersSpec);
         when(headersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.error(error));
+        when(responseSpec.bodyToMono(AusPostResponse.class)).thenReturn(Mono.error(error));
 
         return new AusPostProvider(webClient, settingsService, requestHelper);
     }
@@ -130,6 +140,33 @@ class AusPostProviderTest {
         assertThat(quote.get().packagingCostAud()).isEqualTo(2.0);
     }
 
+    @Test
+    void quote_whenCartInSameWeightBracket_reusesCachedRate() {
+        var origin = new OriginSettings("2000", "Sydney", "NSW", "AU", null, Instant.now());
+        var packaging = new Packaging("pack-1", "Box", null, 10, 20, 30, 1000, 2.0);
+        var rotated = new Packaging("pack-2", "Box", null, 30, 10, 20, 1000, 3.0);
+        var request = new ShipmentRequest("3000", "Melbourne", "VIC", "AU", List.of(), "pack-1", false);
+
+        var provider = buildProviderWithResponse(Map.of(
+                "postage_result", Map.of("total_cost", "12.50", "service", "Parcel Post")));
+        given(settingsService.getAusPostApiKey()).willReturn("key");
+        given(requestHelper.buildDestination(request))
+                .willReturn(new QuoteResult.Destination("3000", "Melbourne", "VIC", "AU"));
+        given(requestHelper.calculateTotalWeight(request.items())).willReturn(420, 480);
+        var config = new ProviderConfig();
+        config.setProviders(Map.of("auspost", new ProviderConfig.ProviderSettings(
+                "key", null, true, null, null, new ProviderConfig.Cache(null, 0, 250, null), null, null)));
+        ReflectionTestUtils.setField(provider, "rateCache", new RateCache(config, new CarrierMetrics()));
+
+        Optional<CarrierQuote> first = provider.quote(request, origin, packaging, List.of());
+        Optional<CarrierQuote> second = provider.quote(request, origin, rotated, List.of());
+
+        assertThat(first).map(CarrierQuote::deliveryCostAud).contains(10.50);
+        // Same rate, but the packaging cost is still the second box's own
+        assertThat(second).map(CarrierQuote::deliveryCostAud).contains(9.50);
+        verify((WebClient) ReflectionTestUtils.getField(provider, "ausPostWebClient"), times(1)).get();
+    }
+
     @Test
     void quote_whenResponseMissingPostageResult_returnsEmpty() {
         var origin = new OriginSettings("2000", "Sydney", "NSW", "AU", null, Instant.now());
@@ -205,6 +242,24 @@ class AusPostProviderTest {
         assertThat(quote).isEmpty();
     }
 
+    @Test
+    void quote_whenCarrierTimeout_returnsEmpty() {
+        var origin = new OriginSettings("2000", "Sydney", "NSW", "AU", null, Instant.now());
+        var packaging = new Packaging("pack-1", "Box", null, 10, 10, 10, 1000, 2.0);
+        var request = new ShipmentRequest("3000", "Melbourne", "VIC", "AU", List.of(), "pack-1", false);
+
+        var provider = buildProviderWithError(new CarrierTimeoutException("auspost",
+                CarrierTimeoutException.Phase.RESPONSE, Duration.ofSeconds(5), null));
+        given(settingsService.getAusPostApiKey()).willReturn("key");
+        given(requestHelper.buildDestination(request))
+                .willReturn(new QuoteResult.Destination("3000", "Melbourne", "VIC", "AU"));
+        given(requestHelper.calculateTotalWeight(request.items())).willReturn(500);
+
+        Optional<CarrierQuote> quote = provider.quote(request, origin, packaging, List.of());
+
+        assertThat(quote).isEmpty();
+    }
+
     @Test
     void quote_whenRuntimeException_returnsEmpty() {
         var origin = new OriginSettings("2000", "Sydney", "NSW", "AU", null, Instant.now());
@@ -0,0 +1,54 @@
+package com.postage.postagecomparator.provider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CarrierCredentialsTest {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    @Test
+    void resolvesOnceUntilReloaded() {
+        values.put("SHIPPIT_API_KEY", "old");
+        var credentials = new CarrierCredentials(values::get);
+
+        values.put("SHIPPIT_API_KEY", "new");
+        assertThat(credentials.getShippitApiKey()).isEqualTo("old");
+
+        assertThat(credentials.reload()).containsEntry("shippit", true).containsEntry("auspost", false);
+        assertThat(credentials.getShippitApiKey()).isEqualTo("new");
+    }
+
+    @Test
+    void treatsBlankValuesAsUnset() {
+        values.put("AUSPOST_API_KEY", "  ");
+
+        assertThat(new CarrierCredentials(values::get).getAusPostApiKey()).isNull();
+    }
+
+    @Test
+    void buildsAramexAccountWithDefaults() {
+        values.put("ARAMEX_USERNAME", "user");
+        values.put("ARAMEX_PASSWORD", "pass");
+        values.put("ARAMEX_ACCOUNT_NUMBER", "123");
+
+        var account = new CarrierCredentials(values::get).getAramexAccount();
+
+        assertThat(account).isEqualTo(new AramexRequestEncoder.Account(
+                "user", "pass", "v1.0", "123", null, null, "AU", "EXP", "PPX", "P"));
+    }
+
+    @Test
+    void whenAramexPasswordMissing_hasNoAccount() {
+        values.put("ARAMEX_USERNAME", "user");
+
+        var credentials = new CarrierCredentials(values::get);
+
+        assertThat(credentials.getAramexAccount()).isNull();
+        assertThat(credentials.configured()).containsEntry("aramex", false);
+    }
+}
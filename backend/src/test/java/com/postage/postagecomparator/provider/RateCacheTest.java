@@ -0,0 +1,155 @@
+package com.postage.postagecomparator.provider;
+
+import com.postage.postagecomparator.config.ProviderConfig;
+import com.postage.postagecomparator.model.Packaging;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateCacheTest {
+
+    private static final Packaging BOX = new Packaging("pack-1", "Box", null, 20, 35, 10, 1000, 2.0);
+
+    private final CarrierMetrics metrics = new CarrierMetrics();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void parcel_sortsDimensionsAndRoundsWeightUpToIncrement() {
+        var cache = cacheWith(new ProviderConfig.Cache(null, 0, 500, null));
+
+        assertThat(cache.parcel("auspost", BOX, 1_201)).isEqualTo(new CarrierParcel(35, 20, 10, 1_500));
+        assertThat(cache.parcel("auspost", BOX, 1_500)).isEqualTo(new CarrierParcel(35, 20, 10, 1_500));
+        assertThat(cache.parcel("auspost", BOX, 0)).isEqualTo(new CarrierParcel(35, 20, 10, 500));
+    }
+
+    @Test
+    void parcel_byDefaultSendsRealWeight() {
+        var cache = cacheWith(ProviderConfig.Cache.DEFAULT);
+
+        assertThat(cache.parcel("auspost", BOX, 210)).isEqualTo(new CarrierParcel(35, 20, 10, 210));
+    }
+
+    @Test
+    void parcel_whenCacheOff_doesNotRoundWeight() {
+        var cache = cacheWith(new ProviderConfig.Cache(Duration.ZERO, 0, 250, null));
+
+        assertThat(cache.parcel("auspost", BOX, 210)).isEqualTo(new CarrierParcel(35, 20, 10, 210));
+    }
+
+    @Test
+    void get_whenSameKey_loadsOnceAndCountsHit() {
+        var cache = cacheWith(ProviderConfig.Cache.DEFAULT);
+
+        assertThat(cache.get("auspost", "key", () -> load("rate"))).contains("rate");
+        assertThat(cache.get("auspost", "key", () -> load("other"))).contains("rate");
+
+        assertThat(loads).hasValue(1);
+        assertThat(metrics.snapshot().get("auspost").calls().cacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void get_whenCallFailsTransiently_doesNotCache() {
+        var cache = cacheWith(ProviderConfig.Cache.DEFAULT);
+
+        assertThat(cache.get("auspost", "key", () -> fail(HttpStatus.TOO_MANY_REQUESTS))).isEmpty();
+        assertThat(cache.get("auspost", "key", () -> fail(HttpStatus.SERVICE_UNAVAILABLE))).isEmpty();
+        assertThat(cache.get("auspost", "key", () -> load("rate"))).contains("rate");
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void get_whenCarrierRejectsRequest_skipsCallUntilRejectionExpires() {
+        var cache = cacheWith(ProviderConfig.Cache.DEFAULT);
+
+        assertThat(cache.get("auspost", "key", () -> fail(HttpStatus.BAD_REQUEST))).isEmpty();
+        assertThat(cache.get("auspost", "key", () -> load("rate"))).isEmpty();
+        assertThat(cache.get("auspost", "lane", () -> unserviceable())).isEmpty();
+        assertThat(cache.get("auspost", "lane", () -> load("rate"))).isEmpty();
+
+        assertThat(loads).hasValue(2);
+        assertThat(metrics.snapshot().get("auspost").calls().cachedRejections()).isEqualTo(2);
+    }
+
+    @Test
+    void get_whenRejectionTtlZero_sendsRejectedRequestAgain() {
+        var cache = cacheWith(new ProviderConfig.Cache(null, 0, 0, Duration.ZERO));
+
+        cache.get("auspost", "key", () -> unserviceable());
+
+        assertThat(cache.get("auspost", "key", () -> load("rate"))).contains("rate");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_whenOnlyRejectionsRemembered_doesNotCacheRates() {
+        var cache = cacheWith(new ProviderConfig.Cache(Duration.ZERO, 0, 0, null));
+
+        cache.get("auspost", "key", () -> load("rate"));
+        cache.get("auspost", "key", () -> load("rate"));
+        cache.get("auspost", "lane", () -> unserviceable());
+        cache.get("auspost", "lane", () -> load("rate"));
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void get_whenTtlZero_alwaysLoads() {
+        var cache = cacheWith(new ProviderConfig.Cache(Duration.ZERO, 0, 0, Duration.ZERO));
+
+        cache.get("auspost", "key", () -> load("rate"));
+        cache.get("auspost", "key", () -> load("rate"));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_whenFull_dropsLeastRecentlyUsed() {
+        var cache = cacheWith(new ProviderConfig.Cache(null, 2, 0, null));
+
+        cache.get("auspost", "a", () -> load("a"));
+        cache.get("auspost", "b", () -> load("b"));
+        cache.get("auspost", "a", () -> load("a"));
+        cache.get("auspost", "c", () -> load("c"));
+        cache.get("auspost", "a", () -> load("a"));
+        cache.get("auspost", "b", () -> load("b"));
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void get_keepsProvidersApart() {
+        var cache = cacheWith(ProviderConfig.Cache.DEFAULT);
+
+        cache.get("auspost", "key", () -> load("auspost"));
+
+        assertThat(cache.get("shippit", "key", () -> load("shippit"))).contains("shippit");
+    }
+
+    private RateCache cacheWith(ProviderConfig.Cache settings) {
+        var config = new ProviderConfig();
+        config.setProviders(Map.of(
+                "auspost", new ProviderConfig.ProviderSettings("key", null, true, null, null, settings, null, null)));
+        return new RateCache(config, metrics);
+    }
+
+    private RateCache.Fetched<String> load(String value) {
+        loads.incrementAndGet();
+        return RateCache.Fetched.of(value);
+    }
+
+    private RateCache.Fetched<String> unserviceable() {
+        loads.incrementAndGet();
+        return RateCache.Fetched.unserviceable();
+    }
+
+    private RateCache.Fetched<String> fail(HttpStatus status) {
+        loads.incrementAndGet();
+        return RateCache.Fetched.failed(new CarrierClientErrorException("auspost", status));
+    }
+}
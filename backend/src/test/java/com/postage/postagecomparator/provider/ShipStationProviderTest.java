@@ -1,19 +1,23 @@
 package com.postage.postagecomparator.provider;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.postage.postagecomparator.model.CarrierQuote;
 import com.postage.postagecomparator.model.OriginSettings;
 import com.postage.postagecomparator.model.Packaging;
 import com.postage.postagecomparator.model.QuoteResult;
 import com.postage.postagecomparator.model.ShipmentRequest;
+import com.postage.postagecomparator.provider.response.ShipStationRate;
 import com.postage.postagecomparator.service.QuoteRequestHelper;
 import com.postage.postagecomparator.service.SettingsService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
@@ -26,11 +30,15 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ShipStationProviderTest {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     @Mock
     private SettingsService settingsService;
 
@@ -47,12 +55,14 @@ class ShipStationProviderTest {
 
         when(webClient.post()).thenReturn(uriSpec);
         when(uriSpec.uri(anyString())).thenReturn(bodySpec);
+        when(bodySpec.attribute(anyString(), any())).thenReturn(bodySpec);
         when(bodySpec.header(anyString(), anyString()))
                 .thenReturn(bodySpec);
         when(bodySpec.bodyValue(any())).thenReturn(headersSpec);
         when(headersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(List.class))
-                .thenReturn(response == null ? Mono.empty() : Mono.just(response));
+        when(responseSpec.bodyToFlux(ShipStationRate.class))
+                .thenReturn(response == null ? Flux.empty() : Flux.fromIterable(response)
+                        .map(rate -> OBJECT_MAPPER.convertValue(rate, ShipStationRate.class)));
 
         return new ShipStationProvider(webClient, settingsService, requestHelper);
     }
@@ -67,11 +77,12 @@ class ShipStationProviderTest {
 
         when(webClient.post()).thenReturn(uriSpec);
         when(uriSpec.uri(anyString())).thenReturn(bodySpec);
+        when(bodySpec.attribute(anyString(), any())).thenReturn(bodySpec);
         when(bodySpec.header(anyString(), anyString()))
                 .thenReturn(bodySpec);
         when(bodySpec.bodyValue(any())).thenReturn(headersSpec);
         when(headersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(List.class)).thenReturn(Mono.error(error));
+        when(responseSpec.bodyToFlux(ShipStationRate.class)).thenReturn(Flux.error(error));
 
         return new ShipStationProvider(webClient, settingsService, requestHelper);
     }
@@ -181,6 +192,25 @@ class ShipStationProviderTest {
         assertThat(quotes).isEmpty();
     }
 
+    @Test
+    void quotes_whenLaneRejectedWith4xx_doesNotCallAgain() {
+        var origin = new OriginSettings("2000", "Sydney", "NSW", "AU", null, Instant.now());
+        var packaging = new Packaging("pack-1", "Box", null, 10, 10, 10, 1000, 2.0);
+        var request = new ShipmentRequest("0872", "Ernabella", "SA", "AU", List.of(), "pack-1", false);
+
+        var exception = WebClientResponseException.create(400, "Bad Request", null, null, null);
+        var provider = buildProviderWithError(exception);
+        given(settingsService.getShipStationApiKey()).willReturn("key");
+        given(requestHelper.buildDestination(request))
+                .willReturn(new QuoteResult.Destination("0872", "Ernabella", "SA", "AU"));
+        given(requestHelper.calculateTotalWeight(request.items())).willReturn(500);
+
+        assertThat(provider.quotes(request, origin, packaging, List.of())).isEmpty();
+        assertThat(provider.quotes(request, origin, packaging, List.of())).isEmpty();
+
+        verify((WebClient) ReflectionTestUtils.getField(provider, "shipStationWebClient"), times(1)).post();
+    }
+
     @Test
     void quotes_whenWebClientException_returnsEmpty() {
         var origin = new OriginSettings("2000", "Sydney", "NSW", "AU", null, Instant.now());
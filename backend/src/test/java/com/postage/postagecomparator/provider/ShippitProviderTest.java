@@ -1,10 +1,12 @@
 package com.postage.postagecomparator.provider;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.postage.postagecomparator.model.CarrierQuote;
 import com.postage.postagecomparator.model.OriginSettings;
 import com.postage.postagecomparator.model.Packaging;
 import com.postage.postagecomparator.model.QuoteResult;
 import com.postage.postagecomparator.model.ShipmentRequest;
+import com.postage.postagecomparator.provider.response.ShippitResponse;
 import com.postage.postagecomparator.service.QuoteRequestHelper;
 import com.postage.postagecomparator.service.SettingsService;
 import org.junit.jupiter.api.Test;
@@ -34,6 +36,8 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class ShippitProviderTest {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     @Mock
     private SettingsService settingsService;
 
@@ -51,6 +55,7 @@ class ShippitProviderTest {
         when(webClient.post()).thenReturn(uriSpec);
         when(uriSpec.uri(org.mockito.ArgumentMatchers.<Function<UriBuilder, URI>>any()))
                 .thenReturn(bodySpec);
+        when(bodySpec.attribute(anyString(), any())).thenReturn(bodySpec);
         when(bodySpec.header(anyString(), anyString()))
                 .thenReturn(bodySpec);
         when(bodySpec.contentType(any())).thenReturn(bodySpec);
@@ -58,8 +63,9 @@ class ShippitProviderTest {
         when(bodySpec.bodyValue(any())).thenReturn(headersSpec);
         when(headersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class))
-                .thenReturn(response == null ? Mono.empty() : Mono.just(response));
+        when(responseSpec.bodyToMono(ShippitResponse.class))
+                .thenReturn(response == null ? Mono.empty()
+                        : Mono.just(OBJECT_MAPPER.convertValue(response, ShippitResponse.class)));
 
         return new ShippitProvider(webClient, settingsService, requestHelper);
     }
@@ -75,6 +81,7 @@ class ShippitProviderTest {
         when(webClient.post()).thenReturn(uriSpec);
         when(uriSpec.uri(org.mockito.ArgumentMatchers.<Function<UriBuilder, URI>>any()))
                 .thenReturn(bodySpec);
+        when(bodySpec.attribute(anyString(), any())).thenReturn(bodySpec);
         when(bodySpec.header(anyString(), anyString()))
                 .thenReturn(bodySpec);
         when(bodySpec.contentType(any())).thenReturn(bodySpec);
@@ -82,7 +89,7 @@ class ShippitProviderTest {
         when(bodySpec.bodyValue(any())).thenReturn(headersSpec);
         when(headersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.error(error));
+        when(responseSpec.bodyToMono(ShippitResponse.class)).thenReturn(Mono.error(error));
 
         return new ShippitProvider(webClient, settingsService, requestHelper);
     }
@@ -0,0 +1,75 @@
+package com.postage.postagecomparator.provider.response;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AramexRateResponseTest {
+
+    @Test
+    void parse_whenSoapEnvelope_readsTotalAmountOnly() throws Exception {
+        var response = AramexRateResponse.parse("""
+                <s:Envelope xmlns:s="http://schemas.xmlsoap.org/soap/envelope/">
+                  <s:Body>
+                    <a:RateCalculatorResponse xmlns:a="http://ws.aramex.net/ShippingAPI/v1/">
+                      <a:Notifications/>
+                      <a:HasErrors>false</a:HasErrors>
+                      <a:TotalAmount>
+                        <a:CurrencyCode>AUD</a:CurrencyCode>
+                        <a:Value>15.25</a:Value>
+                      </a:TotalAmount>
+                      <a:RateDetails>
+                        <a:Value>99.99</a:Value>
+                      </a:RateDetails>
+                    </a:RateCalculatorResponse>
+                  </s:Body>
+                </s:Envelope>
+                """);
+
+        assertThat(response).isEqualTo(new AramexRateResponse(false, null, "AUD", "15.25"));
+    }
+
+    @Test
+    void parse_whenNotificationsPrecedeHasErrors_keepsFirstMessage() throws Exception {
+        var response = AramexRateResponse.parse("""
+                <RateCalculatorResponse xmlns="http://ws.aramex.net/ShippingAPI/v1/">
+                  <Notifications>
+                    <Notification><Code>ERR04</Code><Message>Invalid Destination City</Message></Notification>
+                    <Notification><Code>ERR07</Code><Message>Invalid Chargeable Weight</Message></Notification>
+                  </Notifications>
+                  <HasErrors>true</HasErrors>
+                  <TotalAmount/>
+                </RateCalculatorResponse>
+                """);
+
+        assertThat(response.hasErrors()).isTrue();
+        assertThat(response.message()).isEqualTo("Invalid Destination City");
+        assertThat(response.totalAmount()).isNull();
+    }
+
+    @Test
+    void parse_whenValueIsNotUnderTotalAmount_ignoresIt() throws Exception {
+        var response = AramexRateResponse.parse("""
+                <RateCalculatorResponse>
+                  <Message>not a notification</Message>
+                  <Value>1.00</Value>
+                  <HasErrors>false</HasErrors>
+                </RateCalculatorResponse>
+                """);
+
+        assertThat(response).isEqualTo(new AramexRateResponse(false, null, null, null));
+    }
+
+    @Test
+    void parse_whenDocumentDeclaresDtd_rejectsIt() {
+        assertThatThrownBy(() -> AramexRateResponse.parse("""
+                <?xml version="1.0"?>
+                <!DOCTYPE r [<!ENTITY x SYSTEM "file:///etc/passwd">]>
+                <RateCalculatorResponse><HasErrors>&x;</HasErrors></RateCalculatorResponse>
+                """))
+                .isInstanceOf(XMLStreamException.class);
+    }
+}
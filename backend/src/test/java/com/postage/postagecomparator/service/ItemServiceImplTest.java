@@ -3,7 +3,11 @@ package com.postage.postagecomparator.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.postage.postagecomparator.exception.BadRequestException;
 import com.postage.postagecomparator.exception.NotFoundException;
+import com.postage.postagecomparator.exception.PreconditionFailedException;
 import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.ItemPatch;
+import com.postage.postagecomparator.storage.CatalogQuery;
+import com.postage.postagecomparator.storage.CatalogStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -11,9 +15,17 @@ import org.junit.jupiter.api.io.TempDir;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 class ItemServiceImplTest {
 
@@ -293,4 +305,235 @@ class ItemServiceImplTest {
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("Unable to read items");
     }
+
+    @Test
+    void importAll_createsNewItemsAndUpdatesExistingByName() {
+        var existing = itemService.create(new Item(null, "Box", "Old", 100));
+
+        var result = itemService.importAll(List.of(
+                new Item(null, "Box", "New", 150),
+                new Item("ignored", "Crate", null, 200)));
+
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.updated()).isEqualTo(1);
+        var all = itemService.findAll();
+        assertThat(all).hasSize(2);
+        assertThat(all.getFirst()).isEqualTo(new Item(existing.id(), "Box", "New", 150, 2));
+        assertThat(all.get(1).id()).isNotEqualTo("ignored");
+    }
+
+    @Test
+    void importAll_whenAnyRecordInvalid_storesNothing() {
+        assertThatThrownBy(() -> itemService.importAll(List.of(
+                new Item(null, "Box", null, 100),
+                new Item(null, "Crate", null, 0))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Record 2")
+                .hasMessageContaining("must be greater than 0");
+
+        assertThat(itemService.findAll()).isEmpty();
+    }
+
+    @Test
+    void importAll_whenNamesRepeatWithinImport_throwsBadRequestException() {
+        assertThatThrownBy(() -> itemService.importAll(List.of(
+                new Item(null, "Box", null, 100),
+                new Item(null, "Box", null, 200))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("duplicate item name Box");
+    }
+
+    @Test
+    void findPage_walksAllItemsUsingNextCursor() {
+        itemService.create(new Item(null, "Crate", null, 300));
+        itemService.create(new Item(null, "box", null, 100));
+        itemService.create(new Item(null, "Bag", null, 50));
+
+        var first = itemService.findPage(null, null, "name", null, 2);
+        assertThat(first.items()).extracting(Item::name).containsExactly("Bag", "box");
+        assertThat(first.nextCursor()).isNotNull();
+
+        var second = itemService.findPage(null, null, "name", first.nextCursor(), 2);
+        assertThat(second.items()).extracting(Item::name).containsExactly("Crate");
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void findPage_whenDescendingWithPrefix_returnsMatchingItemsInReverseOrder() {
+        itemService.create(new Item(null, "Box small", null, 100));
+        itemService.create(new Item(null, "Box large", null, 100));
+        itemService.create(new Item(null, "Crate", null, 100));
+
+        var page = itemService.findPage("box", null, "-name", null, 10);
+
+        assertThat(page.items()).extracting(Item::name).containsExactly("Box small", "Box large");
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void findPage_whenArgumentsInvalid_throwsBadRequestException() {
+        assertThatThrownBy(() -> itemService.findPage(null, null, "name", null, 0))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("limit must be between 1 and 500");
+        assertThatThrownBy(() -> itemService.findPage(null, null, "weight", null, 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("sort must be name or -name");
+        assertThatThrownBy(() -> itemService.findPage(null, null, "name", "not a cursor!", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Invalid cursor");
+        assertThatThrownBy(() -> itemService.findPage(null, "bo", "name", null, 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("q must be at least 3 characters");
+    }
+
+    @Test
+    void findPage_whenSubstringScanStopsEarly_continuesFromWhereItStopped() {
+        @SuppressWarnings("unchecked")
+        CatalogStore<Item> store = mock(CatalogStore.class);
+        given(store.search(any())).willReturn(new CatalogQuery.Result<>(List.of(), "Item 09999"));
+        var service = new ItemServiceImpl(store);
+
+        var page = service.findPage(null, "needle", "name", null, 10);
+        service.findPage(null, "needle", "name", page.nextCursor(), 10);
+
+        assertThat(page.items()).isEmpty();
+        assertThat(page.nextCursor()).isNotNull();
+        verify(store).search(new CatalogQuery(null, "needle", false, "Item 09999", 11));
+    }
+
+    @Test
+    void update_whenExpectedVersionIsCurrent_appliesAndIncrementsVersion() {
+        var created = itemService.create(new Item(null, "Box", "Small box", 100));
+        assertThat(created.version()).isEqualTo(1);
+
+        var updated = itemService.update(created.id(), new Item(null, null, "Large box", 0), 1L);
+
+        assertThat(updated.version()).isEqualTo(2);
+        assertThat(updated.description()).isEqualTo("Large box");
+    }
+
+    @Test
+    void update_whenExpectedVersionIsStale_throwsPreconditionFailedAndKeepsItem() {
+        var created = itemService.create(new Item(null, "Box", "Small box", 100));
+        itemService.update(created.id(), new Item(null, null, "Medium box", 0));
+
+        assertThatThrownBy(() -> itemService.update(created.id(), new Item(null, null, "Large box", 0), 1L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("version 2, not 1");
+        assertThat(itemService.findById(created.id())).map(Item::description).contains("Medium box");
+    }
+
+    @Test
+    void update_whenWritersRaceOnSameVersion_exactlyOneWins() throws Exception {
+        var created = itemService.create(new Item(null, "Box", null, 100));
+        int writers = 8;
+        var winners = new AtomicInteger();
+        var conflicts = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(writers);
+        try {
+            var futures = new CompletableFuture<?>[writers];
+            for (int i = 0; i < writers; i++) {
+                var weight = 200 + i;
+                futures[i] = CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                        itemService.update(created.id(), new Item(null, null, null, weight), 1L);
+                        winners.incrementAndGet();
+                    } catch (PreconditionFailedException e) {
+                        conflicts.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, pool);
+            }
+            start.countDown();
+            CompletableFuture.allOf(futures).join();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(winners.get()).isEqualTo(1);
+        assertThat(conflicts.get()).isEqualTo(writers - 1);
+        assertThat(itemService.findById(created.id())).map(Item::version).contains(2L);
+    }
+
+    @Test
+    void patch_appliesUpdatesAndDeletesAndBumpsVersions() {
+        var box = itemService.create(new Item(null, "Box", "Small box", 100));
+        var crate = itemService.create(new Item(null, "Crate", null, 500));
+        var bag = itemService.create(new Item(null, "Bag", null, 50));
+
+        var result = itemService.patch(List.of(
+                new ItemPatch("update", box.id(), null, null, 120, 1L),
+                new ItemPatch("delete", bag.id(), null, null, null, null),
+                new ItemPatch("update", crate.id(), "Large crate", null, null, null)));
+
+        assertThat(result.updated()).containsExactly(
+                new Item(box.id(), "Box", "Small box", 120, 2),
+                new Item(crate.id(), "Large crate", null, 500, 2));
+        assertThat(result.deleted()).containsExactly(bag.id());
+        assertThat(itemService.findAll()).extracting(Item::name).containsExactlyInAnyOrder("Box", "Large crate");
+    }
+
+    @Test
+    void patch_whenAnyItemIsMissing_throwsNotFoundAndChangesNothing() {
+        var box = itemService.create(new Item(null, "Box", null, 100));
+
+        assertThatThrownBy(() -> itemService.patch(List.of(
+                new ItemPatch("update", box.id(), null, null, 120, null),
+                new ItemPatch("delete", "missing", null, null, null, null))))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("Operation 2");
+        assertThat(itemService.findById(box.id())).map(Item::unitWeightGrams).contains(100);
+    }
+
+    @Test
+    void patch_whenVersionIsStale_throwsPreconditionFailedAndChangesNothing() {
+        var box = itemService.create(new Item(null, "Box", null, 100));
+        var bag = itemService.create(new Item(null, "Bag", null, 50));
+
+        assertThatThrownBy(() -> itemService.patch(List.of(
+                new ItemPatch("delete", bag.id(), null, null, null, 1L),
+                new ItemPatch("update", box.id(), null, null, 120, 7L))))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(itemService.findAll()).hasSize(2);
+    }
+
+    @Test
+    void patch_whenBatchIsInvalid_throwsBadRequestBeforeTouchingStore() {
+        var box = itemService.create(new Item(null, "Box", null, 100));
+        var bag = itemService.create(new Item(null, "Bag", null, 50));
+
+        assertThatThrownBy(() -> itemService.patch(List.of()))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> itemService.patch(List.of(new ItemPatch("rename", box.id(), "X", null, null, null))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("op must be update or delete");
+        assertThatThrownBy(() -> itemService.patch(List.of(
+                new ItemPatch("update", box.id(), null, null, 0, null))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("unit weight");
+        assertThatThrownBy(() -> itemService.patch(List.of(
+                new ItemPatch("update", box.id(), null, null, 120, null),
+                new ItemPatch("delete", box.id(), null, null, null, null))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("duplicate id");
+        assertThatThrownBy(() -> itemService.patch(List.of(
+                new ItemPatch("update", box.id(), "Tube", null, null, null),
+                new ItemPatch("update", bag.id(), "Tube", null, null, null))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("duplicate item name Tube");
+        assertThat(itemService.findAll()).extracting(Item::version).containsOnly(1L);
+    }
+
+    @Test
+    void patch_whenNewNameBelongsToAnotherItem_throwsBadRequest() {
+        var box = itemService.create(new Item(null, "Box", null, 100));
+        itemService.create(new Item(null, "Bag", null, 50));
+
+        assertThatThrownBy(() -> itemService.patch(List.of(new ItemPatch("update", box.id(), "Bag", null, null, null))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Item with name Bag already exists");
+    }
 }
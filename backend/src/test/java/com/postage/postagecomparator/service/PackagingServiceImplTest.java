@@ -336,5 +336,20 @@ class PackagingServiceImplTest {
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("Unable to read packagings");
     }
-}
 
+    @Test
+    void importAll_computesVolumeAndUpsertsByName() {
+        var existing = packagingService.create(new Packaging(null, "Box", "Old", 10, 10, 10, 0, 1.0));
+
+        var result = packagingService.importAll(List.of(
+                new Packaging(null, "Box", "New", 10, 20, 30, 0, 2.5),
+                new Packaging(null, "Satchel", null, 5, 5, 5, 100, 0.5)));
+
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.updated()).isEqualTo(1);
+        var all = packagingService.findAll();
+        assertThat(all.getFirst().id()).isEqualTo(existing.id());
+        assertThat(all.getFirst().internalVolumeCubicCm()).isEqualTo(6000);
+        assertThat(all.get(1).internalVolumeCubicCm()).isEqualTo(100);
+    }
+}
@@ -2,11 +2,13 @@ package com.postage.postagecomparator.service;
 
 import com.postage.postagecomparator.model.*;
 import com.postage.postagecomparator.config.ProviderConfig;
+import com.postage.postagecomparator.config.QuoteConfig;
 import com.postage.postagecomparator.provider.CarrierProvider;
 import com.postage.postagecomparator.provider.ProviderRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import java.lang.reflect.Method;
@@ -19,6 +21,9 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
@@ -57,6 +62,7 @@ class QuoteServiceImplTest {
         lenient().when(providerRegistry.getEnabledProviders(providerConfig))
                 .thenReturn(List.of(ausPostProvider));
         lenient().when(ausPostProvider.getName()).thenReturn("auspost");
+        lenient().when(ausPostProvider.usesOrigin()).thenReturn(true);
         lenient().when(ausPostProvider.quote(any(), any(), any(), any()))
                 .thenReturn(Optional.empty());
         lenient().when(ausPostProvider.quotes(any(), any(), any(), any()))
@@ -264,6 +270,94 @@ class QuoteServiceImplTest {
         // Sendle integration disabled, so only AusPost is returned.
     }
 
+    // --- Multiple origins ---
+
+    @Test
+    void calculateQuote_whenCheapestOrigin_callsLiveApisOnlyForBestRankedOrigins() {
+        var quoteConfig = multiOriginConfig(QuoteConfig.OriginSelection.CHEAPEST, 1);
+        quoteService = new QuoteServiceImpl(settingsService,
+                new QuoteRequestHelper(settingsService, itemService, packagingService),
+                providerRegistry, providerConfig, quoteConfig);
+        givenParcelForMelbourne();
+        given(ausPostProvider.quotes(any(), any(), any(), any()))
+                .willReturn(Optional.of(List.of(liveQuote(15.0))));
+
+        QuoteResult result = quoteService.calculateQuote(melbourneRequest());
+
+        // Same-state delivery ranks Melbourne first by delivery estimate, so only it is quoted live
+        var origins = ArgumentCaptor.forClass(OriginSettings.class);
+        verify(ausPostProvider).quotes(any(), origins.capture(), any(), any());
+        assertThat(origins.getValue().postcode()).isEqualTo("3000");
+        assertThat(result.origin().suburb()).isEqualTo("Melbourne");
+        assertThat(result.carrierQuotes()).singleElement()
+                .satisfies(quote -> {
+                    assertThat(quote.pricingSource()).isEqualTo("AUSPOST_API");
+                    assertThat(quote.origin()).isEqualTo("melbourne");
+                });
+        verify(settingsService, never()).getOriginSettings();
+    }
+
+    @Test
+    void calculateQuote_whenCheapestOrigin_keepsEachCarriersCheapestLiveOrigin() {
+        var quoteConfig = multiOriginConfig(QuoteConfig.OriginSelection.CHEAPEST, 2);
+        quoteService = new QuoteServiceImpl(settingsService,
+                new QuoteRequestHelper(settingsService, itemService, packagingService),
+                providerRegistry, providerConfig, quoteConfig);
+        givenParcelForMelbourne();
+        given(ausPostProvider.quotes(any(), any(), any(), any())).willAnswer(invocation -> {
+            OriginSettings origin = invocation.getArgument(1);
+            return Optional.of(List.of(liveQuote("2000".equals(origin.postcode()) ? 12.0 : 15.0)));
+        });
+
+        QuoteResult result = quoteService.calculateQuote(melbourneRequest());
+
+        verify(ausPostProvider, times(2)).quotes(any(), any(), any(), any());
+        assertThat(result.carrierQuotes()).singleElement()
+                .satisfies(quote -> {
+                    assertThat(quote.totalCostAud()).isEqualTo(12.0);
+                    assertThat(quote.origin()).isEqualTo("sydney");
+                });
+    }
+
+    @Test
+    void calculateQuote_whenProviderIgnoresOrigin_callsItOnceWithoutOrigin() {
+        var quoteConfig = multiOriginConfig(QuoteConfig.OriginSelection.CHEAPEST, 2);
+        quoteService = new QuoteServiceImpl(settingsService,
+                new QuoteRequestHelper(settingsService, itemService, packagingService),
+                providerRegistry, providerConfig, quoteConfig);
+        givenParcelForMelbourne();
+        given(ausPostProvider.usesOrigin()).willReturn(false);
+        given(ausPostProvider.quotes(any(), any(), any(), any()))
+                .willReturn(Optional.of(List.of(liveQuote(15.0))));
+
+        QuoteResult result = quoteService.calculateQuote(melbourneRequest());
+
+        verify(ausPostProvider, times(1)).quotes(any(), any(), any(), any());
+        assertThat(result.carrierQuotes()).singleElement()
+                .satisfies(quote -> assertThat(quote.origin()).isNull());
+    }
+
+    @Test
+    void calculateQuote_whenLiveQuotesFail_fallsBackToRulesFromBestRankedOrigin() {
+        var quoteConfig = multiOriginConfig(QuoteConfig.OriginSelection.FASTEST, 2);
+        quoteService = new QuoteServiceImpl(settingsService,
+                new QuoteRequestHelper(settingsService, itemService, packagingService),
+                providerRegistry, providerConfig, quoteConfig);
+        givenParcelForMelbourne();
+        given(ausPostProvider.quotes(any(), any(), any(), any())).willThrow(new IllegalStateException("down"));
+        given(settingsService.getAusPostWeightBrackets())
+                .willReturn(List.of(new WeightBracket(0.0, 1.0, 10.0, 15.0)));
+
+        QuoteResult result = quoteService.calculateQuote(melbourneRequest());
+
+        assertThat(result.carrierQuotes()).singleElement()
+                .satisfies(quote -> {
+                    assertThat(quote.pricingSource()).isEqualTo("RULES");
+                    assertThat(quote.origin()).isEqualTo("melbourne");
+                    assertThat(quote.deliveryEtaDaysMax()).isEqualTo(4);
+                });
+    }
+
     // --- Direct tests of AusPost rules-based pricing for edge cases ---
 
     @Test
@@ -320,6 +414,35 @@ class QuoteServiceImplTest {
                 .hasRootCauseMessage("No bracket found");
     }
 
+    // --- Helpers for the multiple-origin tests ---
+
+    private static QuoteConfig multiOriginConfig(QuoteConfig.OriginSelection selection, int liveOrigins) {
+        var quoteConfig = new QuoteConfig();
+        quoteConfig.setOriginSelection(selection);
+        quoteConfig.setLiveOrigins(liveOrigins);
+        quoteConfig.setOrigins(List.of(
+                new QuoteConfig.Origin("sydney", "2000", "Sydney", "NSW", "AU"),
+                new QuoteConfig.Origin("brisbane", "4000", "Brisbane", "QLD", "AU"),
+                new QuoteConfig.Origin("melbourne", "3000", "Melbourne", "VIC", "AU")));
+        return quoteConfig;
+    }
+
+    private void givenParcelForMelbourne() {
+        given(packagingService.findById("pack-1"))
+                .willReturn(Optional.of(new Packaging("pack-1", "Small box", null, 10, 10, 10, 1000, 2.0)));
+        given(itemService.findById("item-1")).willReturn(Optional.of(new Item("item-1", "Widget", null, 250)));
+    }
+
+    private static ShipmentRequest melbourneRequest() {
+        return new ShipmentRequest("3000", "Melbourne", "VIC", "AU",
+                List.of(new ShipmentItemSelection("item-1", 2)), "pack-1", false);
+    }
+
+    private static CarrierQuote liveQuote(double totalCostAud) {
+        return new CarrierQuote("AUSPOST", "Parcel Post", 2, 4, 2.0, totalCostAud - 2.0, 0.0, totalCostAud,
+                "AUSPOST_API", false, null);
+    }
+
     // --- Helper to invoke private rules-based method via reflection ---
 
     private CarrierQuote invokeAusPostRulesBased(OriginSettings origin,
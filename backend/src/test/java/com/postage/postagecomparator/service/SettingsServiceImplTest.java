@@ -3,6 +3,7 @@ package com.postage.postagecomparator.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.postage.postagecomparator.model.OriginSettings;
 import com.postage.postagecomparator.model.WeightBracket;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -32,6 +33,12 @@ class SettingsServiceImplTest {
         settingsService = new SettingsServiceImpl(new ObjectMapper());
     }
 
+    @AfterEach
+    void tearDown() {
+        // Don't leak the override into tests that isolate via user.home instead
+        System.clearProperty("POSTAGE_DATA_DIR");
+    }
+
     // --- Origin settings tests ---
 
     @Test
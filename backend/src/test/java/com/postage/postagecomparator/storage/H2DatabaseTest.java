@@ -0,0 +1,39 @@
+package com.postage.postagecomparator.storage;
+
+import com.postage.postagecomparator.model.Item;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class H2DatabaseTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void handle_whenMoreDirectoriesThanOpenLimit_retiresLeastRecentlyUsedAndReopensOnDemand() throws Exception {
+        var current = new AtomicReference<>(tempDir.resolve("a"));
+        try (var database = new H2Database(current::get, 2, 2)) {
+            var items = H2CatalogStore.items(database);
+            items.insert(new Item("1", "Box", null, 100));
+            Thread.sleep(20);
+
+            current.set(tempDir.resolve("b"));
+            items.insert(new Item("2", "Crate", null, 200));
+            Thread.sleep(20);
+
+            current.set(tempDir.resolve("c"));
+            items.insert(new Item("3", "Bag", null, 50));
+
+            assertThat(database.openDatabases()).isEqualTo(2);
+
+            current.set(tempDir.resolve("a"));
+            assertThat(items.findAll()).extracting(Item::id).containsExactly("1");
+            assertThat(database.openDatabases()).isEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.postage.postagecomparator.storage;
+
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.Packaging;
+
+import java.nio.file.Path;
+
+class H2StorageTest extends StorageConformanceTest {
+
+    private H2Database database;
+
+    private H2Database database(Path dataDir) {
+        if (database == null) {
+            database = new H2Database(() -> dataDir, 4);
+        }
+        return database;
+    }
+
+    @Override
+    protected CatalogStore<Item> itemStore(Path dataDir) {
+        return H2CatalogStore.items(database(dataDir));
+    }
+
+    @Override
+    protected CatalogStore<Packaging> packagingStore(Path dataDir) {
+        return H2CatalogStore.packagings(database(dataDir));
+    }
+
+    @Override
+    protected SettingsStore settingsStore(Path dataDir) {
+        return new H2SettingsStore(database(dataDir));
+    }
+
+    @Override
+    protected void closeStores() {
+        if (database != null) {
+            database.close();
+            database = null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.postage.postagecomparator.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.Item;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Stress test for the snapshot-based JSON store: readers run continuously while writers race,
+ * and every observation must be consistent with some serial order of the writes.
+ */
+class JsonCatalogStoreConcurrencyTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonCatalogStore<Item> newStore() {
+        return JsonCatalogStore.items(objectMapper, new StorageConfig(), () -> tempDir);
+    }
+
+    @Test
+    void readersDuringConcurrentWrites_neverSeeLostUpdatesOrDuplicateNames() throws Exception {
+        var store = newStore();
+        int writers = 8;
+        int insertsPerWriter = 40;
+        int readers = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(writers + readers);
+        var start = new CountDownLatch(1);
+        var writing = new AtomicBoolean(true);
+        var acknowledged = ConcurrentHashMap.<String>newKeySet();
+        var violations = ConcurrentHashMap.<String>newKeySet();
+
+        try {
+            var readerFutures = new ArrayList<CompletableFuture<Void>>();
+            for (int r = 0; r < readers; r++) {
+                readerFutures.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    int lastSize = 0;
+                    while (writing.get()) {
+                        var snapshot = store.findAll();
+                        var names = new HashSet<String>();
+                        for (var item : snapshot) {
+                            if (!names.add(item.name())) {
+                                violations.add("duplicate name " + item.name());
+                            }
+                        }
+                        if (snapshot.size() < lastSize) {
+                            violations.add("snapshot went backwards from " + lastSize + " to " + snapshot.size());
+                        }
+                        lastSize = snapshot.size();
+                    }
+                }, pool));
+            }
+
+            var writerFutures = new ArrayList<CompletableFuture<Void>>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                writerFutures.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    for (int i = 0; i < insertsPerWriter; i++) {
+                        // Every writer also races for a shared name; only one may win it
+                        var name = i % 10 == 0 ? "shared-" + i : "w" + writer + "-" + i;
+                        try {
+                            store.insert(new Item(writer + "-" + i, name, null, 100));
+                            acknowledged.add(name);
+                            var visible = store.findAll().stream().map(Item::name).toList();
+                            if (!visible.contains(name)) {
+                                violations.add("acknowledged insert not visible: " + name);
+                            }
+                        } catch (DuplicateNameException e) {
+                            // lost the race for a shared name
+                        }
+                    }
+                }, pool));
+            }
+
+            start.countDown();
+            CompletableFuture.allOf(writerFutures.toArray(CompletableFuture[]::new)).join();
+            writing.set(false);
+            CompletableFuture.allOf(readerFutures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(violations).isEmpty();
+        var finalNames = names(newStore().findAll());
+        assertThat(finalNames).isEqualTo(acknowledged);
+        assertThat(finalNames).hasSize(writers * insertsPerWriter - (writers - 1) * (insertsPerWriter / 10));
+    }
+
+    @Test
+    void findAll_whenFileReplacedExternally_seesNewContents() throws IOException {
+        var store = newStore();
+        store.insert(new Item("a", "Box", null, 100));
+        assertThat(store.findAll()).hasSize(1);
+
+        Files.writeString(tempDir.resolve("items.json"),
+                "[{\"id\":\"b\",\"name\":\"Crate\",\"unitWeightGrams\":200},"
+                        + "{\"id\":\"c\",\"name\":\"Tube\",\"unitWeightGrams\":50}]");
+
+        assertThat(store.findAll()).extracting(Item::id).containsExactly("b", "c");
+        assertThat(store.findById("a")).isEmpty();
+    }
+
+    @Test
+    void findAll_returnsImmutableSnapshot() {
+        var store = newStore();
+        store.insert(new Item("a", "Box", null, 100));
+
+        List<Item> snapshot = store.findAll();
+
+        assertThatThrownBy(() -> snapshot.add(new Item("b", "Crate", null, 200)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static Set<String> names(List<Item> items) {
+        var names = new HashSet<String>();
+        items.forEach(item -> names.add(item.name()));
+        return names;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
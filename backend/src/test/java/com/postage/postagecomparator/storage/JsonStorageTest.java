@@ -0,0 +1,120 @@
+package com.postage.postagecomparator.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.OriginSettings;
+import com.postage.postagecomparator.model.Packaging;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonStorageTest extends StorageConformanceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final StorageConfig storageConfig = new StorageConfig();
+
+    @Override
+    protected CatalogStore<Item> itemStore(Path dataDir) {
+        return JsonCatalogStore.items(objectMapper, storageConfig, () -> dataDir);
+    }
+
+    @Override
+    protected CatalogStore<Packaging> packagingStore(Path dataDir) {
+        return JsonCatalogStore.packagings(objectMapper, storageConfig, () -> dataDir);
+    }
+
+    @Override
+    protected SettingsStore settingsStore(Path dataDir) {
+        return new JsonSettingsStore(objectMapper, () -> dataDir, storageConfig.getDurability().settings());
+    }
+
+    @Test
+    void version_changesWhenFileIsReplacedOnDisk(@TempDir Path dataDir) throws Exception {
+        var store = itemStore(dataDir);
+        store.insert(new Item("a", "Box", null, 100));
+        var before = store.version();
+
+        var replacement = dataDir.resolve("replacement.json");
+        Files.writeString(replacement, "[{\"id\":\"b\",\"name\":\"Crate\",\"unitWeightGrams\":200}]");
+        Files.move(replacement, dataDir.resolve("items.json"), StandardCopyOption.REPLACE_EXISTING);
+
+        assertThat(store.version()).isNotEqualTo(before);
+        assertThat(store.findAll()).extracting(Item::id).containsExactly("b");
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageConfig.Encoding.class)
+    void encoding_writesInConfiguredFormatAndAnyFormatIsReadBack(StorageConfig.Encoding encoding,
+                                                                 @TempDir Path dataDir) throws Exception {
+        var writing = new StorageConfig();
+        writing.setEncoding(encoding);
+        JsonCatalogStore.items(objectMapper, writing, () -> dataDir).insert(new Item("a", "Box", "small", 100, 1));
+
+        var bytes = Files.readAllBytes(dataDir.resolve("items.json"));
+        switch (encoding) {
+            case PRETTY -> assertThat(new String(bytes)).contains("\n");
+            case COMPACT -> assertThat(new String(bytes)).doesNotContain("\n").startsWith("[{");
+            case GZIP -> assertThat(bytes).startsWith((byte) 0x1f, (byte) 0x8b);
+        }
+        for (var reading : StorageConfig.Encoding.values()) {
+            var config = new StorageConfig();
+            config.setEncoding(reading);
+            assertThat(JsonCatalogStore.items(objectMapper, config, () -> dataDir).findAll())
+                    .containsExactly(new Item("a", "Box", "small", 100, 1));
+        }
+    }
+
+    @Test
+    void search_whenSubstringScanReachesLimit_stopsAndReportsLastNameScanned() {
+        var store = itemStore(tempDir);
+        store.upsertAllByName(IntStream.range(0, CatalogQuery.MAX_SCANNED + 10)
+                .mapToObj(i -> new Item("id-" + i, String.format("Item %05d", i), null, 100))
+                .toList(), (existing, incoming) -> incoming);
+
+        var ascending = store.search(new CatalogQuery(null, "missing", false, null, 10));
+        var descending = store.search(new CatalogQuery(null, "missing", true, null, 10));
+
+        assertThat(ascending.entries()).isEmpty();
+        assertThat(ascending.scannedTo()).isEqualTo(String.format("Item %05d", CatalogQuery.MAX_SCANNED - 1));
+        assertThat(descending.scannedTo()).isEqualTo("Item 00010");
+        assertThat(store.search(new CatalogQuery(null, "missing", false, ascending.scannedTo(), 10)).scannedTo())
+                .isNull();
+    }
+
+    @Test
+    void decodedSize_whenGzip_isUncompressedJsonLength(@TempDir Path dataDir) throws Exception {
+        var items = IntStream.range(0, 200)
+                .mapToObj(i -> new Item("item-" + i, "Box " + i, "small", 100, 1))
+                .toList();
+        var compact = dataDir.resolve("compact.json");
+        var gzip = dataDir.resolve("gzip.json");
+        new JsonCodec(objectMapper, StorageConfig.Encoding.COMPACT).write(compact, items);
+        var codec = new JsonCodec(objectMapper, StorageConfig.Encoding.GZIP);
+        codec.write(gzip, items);
+
+        assertThat(Files.size(gzip)).isLessThan(Files.size(compact));
+        assertThat(codec.decodedSize(gzip)).isEqualTo(Files.size(compact));
+        assertThat(codec.decodedSize(compact)).isEqualTo(Files.size(compact));
+    }
+
+    @Test
+    void encoding_appliesToSettings(@TempDir Path dataDir) throws Exception {
+        var store = new JsonSettingsStore(objectMapper, () -> dataDir, storageConfig.getDurability().settings(),
+                storageConfig.getTenants(), StorageConfig.Encoding.GZIP);
+        store.update(current -> new OriginSettings(
+                "2000", "Sydney", "NSW", "AU", "dark", null));
+
+        assertThat(Files.readAllBytes(dataDir.resolve("settings.json"))).startsWith((byte) 0x1f, (byte) 0x8b);
+        assertThat(settingsStore(dataDir).load()).map(OriginSettings::postcode).contains("2000");
+    }
+}
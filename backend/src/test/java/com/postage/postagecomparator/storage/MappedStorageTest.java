@@ -0,0 +1,82 @@
+package com.postage.postagecomparator.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.Packaging;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedStorageTest extends StorageConformanceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final StorageConfig storageConfig = new StorageConfig();
+
+    @Override
+    protected CatalogStore<Item> itemStore(Path dataDir) {
+        return new MappedItemStore(objectMapper, storageConfig, () -> dataDir);
+    }
+
+    @Override
+    protected CatalogStore<Packaging> packagingStore(Path dataDir) {
+        return JsonCatalogStore.packagings(objectMapper, storageConfig, () -> dataDir);
+    }
+
+    @Override
+    protected SettingsStore settingsStore(Path dataDir) {
+        return new JsonSettingsStore(objectMapper, () -> dataDir, storageConfig.getDurability().settings());
+    }
+
+    @Test
+    void firstAccess_whenOnlyJsonCatalogExists_convertsItAndKeepsJson(@TempDir Path dataDir) throws Exception {
+        Files.writeString(dataDir.resolve("items.json"), """
+                [{"id":"b","name":"Crate","description":"wooden","unitWeightGrams":200,"version":3},
+                 {"id":"a","name":"Box","unitWeightGrams":100,"version":1}]
+                """);
+
+        var store = itemStore(dataDir);
+
+        assertThat(store.findAll()).containsExactly(
+                new Item("b", "Crate", "wooden", 200, 3),
+                new Item("a", "Box", null, 100, 1));
+        assertThat(dataDir.resolve("items.bin")).exists();
+        assertThat(dataDir.resolve("items.json")).exists();
+
+        store.insert(new Item("c", "Bag", null, 50, 1));
+        assertThat(itemStore(dataDir).findById("c")).isPresent();
+        assertThat(objectMapper.readTree(dataDir.resolve("items.json").toFile())).hasSize(2);
+    }
+
+    @Test
+    void query_matchesNonAsciiNamesLikeTheJsonStore(@TempDir Path dataDir) {
+        var store = itemStore(dataDir);
+        store.insert(new Item("1", "Ölkanne", null, 100));
+        store.insert(new Item("2", "öko box", null, 100));
+        store.insert(new Item("3", "Oak crate", null, 100));
+
+        var json = JsonCatalogStore.items(objectMapper, storageConfig, () -> dataDir);
+        json.upsertAllByName(store.findAll(), (existing, incoming) -> incoming);
+
+        for (var query : new CatalogQuery[]{
+                new CatalogQuery(null, null, false, null, 10),
+                new CatalogQuery("ö", null, false, null, 10),
+                new CatalogQuery(null, "k", true, "Ölkanne", 10)}) {
+            assertThat(store.query(query)).isEqualTo(json.query(query));
+        }
+    }
+
+    @Test
+    void open_whenFileIsNotABinaryCatalog_failsWithoutTouchingIt(@TempDir Path dataDir) throws Exception {
+        Files.writeString(dataDir.resolve("items.bin"), "not a catalog");
+
+        assertThatThrownBy(() -> itemStore(dataDir).findAll()).isInstanceOf(IllegalStateException.class);
+        assertThat(Files.readString(dataDir.resolve("items.bin"))).isEqualTo("not a catalog");
+    }
+}
@@ -0,0 +1,253 @@
+package com.postage.postagecomparator.storage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.postage.postagecomparator.config.StorageConfig;
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.Packaging;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedStorageTest extends StorageConformanceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final StorageConfig storageConfig = storageConfig(4);
+
+    private static StorageConfig storageConfig(int shards) {
+        var storageConfig = new StorageConfig();
+        storageConfig.setShards(new StorageConfig.Shards(shards, shards));
+        return storageConfig;
+    }
+
+    @Override
+    protected CatalogStore<Item> itemStore(Path dataDir) {
+        return ShardedCatalogStore.items(objectMapper, storageConfig, () -> dataDir);
+    }
+
+    @Override
+    protected CatalogStore<Packaging> packagingStore(Path dataDir) {
+        return ShardedCatalogStore.packagings(objectMapper, storageConfig, () -> dataDir);
+    }
+
+    @Override
+    protected SettingsStore settingsStore(Path dataDir) {
+        return new JsonSettingsStore(objectMapper, () -> dataDir, storageConfig.getDurability().settings());
+    }
+
+    /**
+     * Insertion order only holds within a shard.
+     */
+    @Override
+    @Test
+    void insert_thenFindAll_returnsEntriesInInsertionOrder() {
+        var store = itemStore(tempDir);
+        store.insert(new Item("c", "Charlie", "third letter", 300));
+        store.insert(new Item("a", "Alpha", null, 100));
+        store.insert(new Item("b", "Bravo", "", 200));
+
+        assertThat(store.findAll()).extracting(Item::id).containsExactlyInAnyOrder("c", "a", "b");
+        assertThat(store.findById("a")).contains(new Item("a", "Alpha", null, 100));
+    }
+
+    @Test
+    void search_whenShardsStopScanningAtDifferentNames_resumesWithoutSkippingMatches(@TempDir Path dataDir) {
+        var store = ShardedCatalogStore.items(objectMapper, storageConfig(2), () -> dataDir);
+        var expected = new ArrayList<String>();
+        var items = new ArrayList<Item>();
+        // Matches are rare except around where the shards stop scanning, near the 2 * MAX_SCANNED-th name
+        for (int i = 0; i < 2 * CatalogQuery.MAX_SCANNED + 500; i++) {
+            boolean match = i % 997 == 0 || Math.abs(i - 2 * CatalogQuery.MAX_SCANNED) < 150;
+            var name = String.format("Item %05d%s", i, match ? " needle" : "");
+            items.add(new Item("id-" + i, name, null, 100));
+            if (name.endsWith("needle")) {
+                expected.add(name);
+            }
+        }
+        store.upsertAllByName(items, (existing, incoming) -> incoming);
+
+        var seen = new ArrayList<String>();
+        String after = null;
+        CatalogQuery.Result<Item> result;
+        do {
+            result = store.search(new CatalogQuery(null, "needle", false, after, 500));
+            result.entries().forEach(item -> seen.add(item.name()));
+            after = result.scannedTo() != null ? result.scannedTo()
+                    : result.entries().size() == 500 ? seen.get(seen.size() - 1) : null;
+        } while (after != null);
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void cache_splitsMaxCachedSizeAcrossShards(@TempDir Path root) throws Exception {
+        var dataDir = new AtomicReference<>(root.resolve("a"));
+        var store = new ShardedCatalogStore<Item>(objectMapper, new TypeReference<>() {}, "items", 4, dataDir::get,
+                storageConfig.getGroupCommit(), storageConfig.getDurability().items(),
+                new StorageConfig.Tenants(null, 0, DataSize.ofKilobytes(4)), storageConfig.getEncoding());
+        for (var tenant : List.of("a", "b")) {
+            dataDir.set(root.resolve(tenant));
+            IntStream.range(0, 40).forEach(i -> store.insert(new Item("item-" + i, "Item " + i, null, 100)));
+        }
+
+        // Each shard holds about 1.3KB per tenant: within 4KB both tenants would stay cached
+        @SuppressWarnings("unchecked")
+        var shards = (List<JsonCatalogStore<Item>>) ReflectionTestUtils.getField(store, "shards");
+        for (var shard : shards) {
+            var snapshots = (SnapshotCache<?>) ReflectionTestUtils.getField(shard, "snapshots");
+            assertThat(snapshots.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void update_rewritesOnlyTheShardHoldingTheEntry(@TempDir Path dataDir) throws Exception {
+        var store = itemStore(dataDir);
+        IntStream.range(0, 40).forEach(i -> store.insert(new Item("item-" + i, "Item " + i, null, 100)));
+        var shardDir = dataDir.resolve("items-shards-4");
+        var before = new HashMap<Path, Object>();
+        try (var files = Files.list(shardDir)) {
+            for (var file : files.toList()) {
+                before.put(file, inode(file));
+            }
+        }
+
+        store.update("item-7", item -> new Item(item.id(), item.name(), "changed", item.unitWeightGrams()));
+
+        assertThat(before).hasSize(4);
+        var rewritten = before.entrySet().stream()
+                .filter(entry -> !entry.getValue().equals(inode(entry.getKey())))
+                .map(entry -> entry.getKey().getFileName().toString())
+                .toList();
+        assertThat(rewritten).hasSize(1);
+    }
+
+    @Test
+    void firstAccess_whenOnlySingleFileExists_splitsItIntoShardsAndSetsItAside(@TempDir Path dataDir)
+            throws Exception {
+        var single = JsonCatalogStore.items(objectMapper, new StorageConfig(), () -> dataDir);
+        IntStream.range(0, 20).forEach(i -> single.insert(new Item("item-" + i, "Item " + i, null, 100 + i)));
+        var stored = single.findAll();
+
+        var store = itemStore(dataDir);
+
+        assertThat(store.findAll()).containsExactlyInAnyOrderElementsOf(stored);
+        assertThat(store.findById("item-3")).contains(new Item("item-3", "Item 3", null, 103));
+        assertThat(dataDir.resolve("items.json")).doesNotExist();
+        assertThat(dataDir.resolve("items.json.migrated")).exists();
+        try (var files = Files.list(dataDir.resolve("items-shards-4"))) {
+            assertThat(files.toList()).hasSize(4);
+        }
+    }
+
+    @Test
+    void firstAccess_whenShardCountChanged_reshardsAndRemovesOldShards(@TempDir Path dataDir) {
+        var four = itemStore(dataDir);
+        IntStream.range(0, 20).forEach(i -> four.insert(new Item("item-" + i, "Item " + i, null, 100)));
+        var stored = four.findAll();
+
+        var eight = ShardedCatalogStore.items(objectMapper, storageConfig(8), () -> dataDir);
+
+        assertThat(eight.findAll()).containsExactlyInAnyOrderElementsOf(stored);
+        assertThat(eight.query(new CatalogQuery("item 1", null, false, null, 3)))
+                .extracting(Item::name)
+                .containsExactly("Item 1", "Item 10", "Item 11");
+        assertThat(dataDir.resolve("items-shards-8")).isDirectory();
+        assertThat(dataDir.resolve("items-shards-4")).doesNotExist();
+    }
+
+    @Test
+    void shardingTurnedOffAndOnAgain_keepsWritesMadeInEitherLayout(@TempDir Path dataDir) {
+        var single = JsonCatalogStore.items(objectMapper, new StorageConfig(), () -> dataDir);
+        IntStream.range(0, 10).forEach(i -> single.insert(new Item("item-" + i, "Item " + i, null, 100)));
+
+        var sharded = itemStore(dataDir);
+        sharded.insert(new Item("sharded", "Sharded", null, 200));
+        sharded.delete("item-0");
+        var storedSharded = sharded.findAll();
+
+        var unsharded = JsonCatalogStore.items(objectMapper, new StorageConfig(), () -> dataDir);
+        assertThat(unsharded.findAll()).containsExactlyInAnyOrderElementsOf(storedSharded);
+        assertThat(dataDir.resolve("items-shards-4")).doesNotExist();
+        unsharded.insert(new Item("single", "Single", null, 300));
+        var storedSingle = unsharded.findAll();
+
+        var resharded = itemStore(dataDir);
+        assertThat(resharded.findAll()).containsExactlyInAnyOrderElementsOf(storedSingle);
+        assertThat(resharded.findById("sharded")).isPresent();
+        assertThat(resharded.findById("single")).isPresent();
+        assertThat(resharded.findById("item-0")).isEmpty();
+    }
+
+    @Test
+    void updateAll_holdsOffOtherWritesUntilCommitted(@TempDir Path dataDir) throws Exception {
+        var store = itemStore(dataDir);
+        IntStream.range(0, 8).forEach(i -> store.insert(new Item("item-" + i, "Item " + i, null, 100)));
+        var blocked = new AtomicReference<String>();
+        var dryRun = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        UnaryOperator<Item> change = item -> {
+            if (blocked.compareAndSet(null, item.id())) {
+                dryRun.countDown();
+                awaitUninterruptibly(release);
+            }
+            return new Item(item.id(), item.name(), "changed", item.unitWeightGrams());
+        };
+        var changes = new LinkedHashMap<String, UnaryOperator<Item>>();
+        IntStream.range(0, 8).forEach(i -> changes.put("item-" + i, change));
+
+        try (var executor = Executors.newFixedThreadPool(3)) {
+            var batch = executor.submit(() -> store.updateAll(changes));
+            dryRun.await();
+            var other = blocked.get().equals("item-7") ? "item-0" : "item-7";
+            var delete = executor.submit(() -> store.delete(other));
+            var rename = executor.submit(() -> store.update(other, item -> item));
+
+            try {
+                Thread.sleep(100);
+                assertThat(delete.isDone()).isFalse();
+                assertThat(rename.isDone()).isFalse();
+            } finally {
+                release.countDown();
+            }
+
+            assertThat(batch.get(5, TimeUnit.SECONDS)).hasSize(8);
+            assertThat(delete.get(5, TimeUnit.SECONDS)).isTrue();
+            rename.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(store.findAll()).hasSize(7).allSatisfy(item -> assertThat(item.description()).isEqualTo("changed"));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object inode(Path file) {
+        try {
+            return Files.readAttributes(file, "unix:ino").get("ino");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.postage.postagecomparator.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private String load(Path path) {
+        loads.incrementAndGet();
+        try {
+            return Files.readString(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path file(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content);
+    }
+
+    @Test
+    void get_whenFileUnchanged_loadsOnceAndKeepsVersion() throws Exception {
+        var cache = new SnapshotCache<>(this::load, "");
+        var path = file("a.json", "a");
+
+        var version = cache.version(path);
+        assertThat(cache.get(path)).isEqualTo("a");
+        assertThat(cache.get(path)).isEqualTo("a");
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.version(path)).isEqualTo(version);
+    }
+
+    @Test
+    void get_whenMoreFilesThanLimit_unloadsLeastRecentlyUsed() throws Exception {
+        var cache = new SnapshotCache<>(this::load, "", new SnapshotCache.Limits(2, Long.MAX_VALUE));
+        var a = file("a.json", "a");
+        var b = file("b.json", "b");
+        var c = file("c.json", "c");
+
+        cache.get(a);
+        Thread.sleep(20);
+        cache.get(b);
+        Thread.sleep(20);
+        cache.get(a);
+        Thread.sleep(20);
+        cache.get(c);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(loads.get()).isEqualTo(3);
+        cache.get(a);
+        assertThat(loads.get()).isEqualTo(3);
+        cache.get(b);
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void get_whenCachedFilesExceedByteBudget_unloadsUntilWithinBudget() throws Exception {
+        var cache = new SnapshotCache<>(this::load, "", new SnapshotCache.Limits(100, 10));
+        var a = file("a.json", "aaaaaa");
+        var b = file("b.json", "bbbbbb");
+
+        cache.get(a);
+        Thread.sleep(20);
+        cache.get(b);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(b)).isEqualTo("bbbbbb");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_whenWeigherGiven_boundsByItsWeightNotFileSize() throws Exception {
+        var cache = new SnapshotCache<>(this::load, "", new SnapshotCache.Limits(100, 10), path -> 6);
+        var a = file("a.json", "a");
+        var b = file("b.json", "b");
+
+        cache.get(a);
+        Thread.sleep(20);
+        cache.get(b);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(b)).isEqualTo("b");
+    }
+
+    @Test
+    void get_whenSingleFileExceedsByteBudget_stillCachesIt() throws Exception {
+        var cache = new SnapshotCache<>(this::load, "", new SnapshotCache.Limits(100, 1));
+        var a = file("a.json", "too large");
+
+        cache.get(a);
+        cache.get(a);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+}
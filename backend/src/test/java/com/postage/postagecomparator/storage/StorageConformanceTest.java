@@ -0,0 +1,456 @@
+package com.postage.postagecomparator.storage;
+
+import com.postage.postagecomparator.model.Item;
+import com.postage.postagecomparator.model.OriginSettings;
+import com.postage.postagecomparator.model.Packaging;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Behaviour every storage backend must share. Each backend runs this suite through a subclass
+ * that supplies its stores for a temporary data directory.
+ */
+abstract class StorageConformanceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CatalogStore<Item> itemStore;
+    private CatalogStore<Packaging> packagingStore;
+    private SettingsStore settingsStore;
+
+    protected abstract CatalogStore<Item> itemStore(Path dataDir);
+
+    protected abstract CatalogStore<Packaging> packagingStore(Path dataDir);
+
+    protected abstract SettingsStore settingsStore(Path dataDir);
+
+    /**
+     * Releases anything the backend opened for the previous stores, so the same data directory
+     * can be reopened.
+     */
+    protected void closeStores() {
+    }
+
+    @BeforeEach
+    void openStores() {
+        itemStore = itemStore(tempDir);
+        packagingStore = packagingStore(tempDir);
+        settingsStore = settingsStore(tempDir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        closeStores();
+    }
+
+    @Test
+    void findAll_whenEmpty_returnsEmptyList() {
+        assertThat(itemStore.findAll()).isEmpty();
+        assertThat(packagingStore.findAll()).isEmpty();
+        assertThat(itemStore.findById("missing")).isEmpty();
+    }
+
+    @Test
+    void insert_thenFindAll_returnsEntriesInInsertionOrder() {
+        itemStore.insert(new Item("c", "Charlie", "third letter", 300));
+        itemStore.insert(new Item("a", "Alpha", null, 100));
+        itemStore.insert(new Item("b", "Bravo", "", 200));
+
+        assertThat(itemStore.findAll()).extracting(Item::id).containsExactly("c", "a", "b");
+        assertThat(itemStore.findById("a")).contains(new Item("a", "Alpha", null, 100));
+    }
+
+    @Test
+    void insert_whenNameExists_throwsDuplicateNameAndKeepsStoreUnchanged() {
+        itemStore.insert(new Item("a", "Box", "first", 100));
+
+        assertThatThrownBy(() -> itemStore.insert(new Item("b", "Box", "second", 200)))
+                .isInstanceOf(DuplicateNameException.class);
+        assertThat(itemStore.findAll()).containsExactly(new Item("a", "Box", "first", 100));
+    }
+
+    @Test
+    void update_appliesChangeToExistingEntry() {
+        itemStore.insert(new Item("a", "Box", "Desc", 100));
+
+        var updated = itemStore.update("a", existing -> new Item(existing.id(), "Crate", existing.description(), 250));
+
+        assertThat(updated).contains(new Item("a", "Crate", "Desc", 250));
+        assertThat(itemStore.findById("a")).contains(new Item("a", "Crate", "Desc", 250));
+    }
+
+    @Test
+    void update_whenIdMissing_returnsEmpty() {
+        assertThat(itemStore.update("missing", existing -> existing)).isEmpty();
+    }
+
+    @Test
+    void update_whenRenamedToOtherEntrysName_throwsDuplicateNameAndKeepsOriginal() {
+        itemStore.insert(new Item("a", "Box", null, 100));
+        itemStore.insert(new Item("b", "Crate", null, 200));
+
+        assertThatThrownBy(() -> itemStore.update("b", existing -> new Item("b", "Box", null, 200)))
+                .isInstanceOf(DuplicateNameException.class);
+        assertThat(itemStore.findById("b")).contains(new Item("b", "Crate", null, 200));
+    }
+
+    @Test
+    void update_keepingOwnName_isAllowed() {
+        itemStore.insert(new Item("a", "Box", null, 100));
+
+        assertThat(itemStore.update("a", existing -> new Item("a", "Box", "now described", 100)))
+                .contains(new Item("a", "Box", "now described", 100));
+    }
+
+    @Test
+    void delete_removesOnlyMatchingEntry() {
+        itemStore.insert(new Item("a", "Box", null, 100));
+        itemStore.insert(new Item("b", "Crate", null, 200));
+
+        assertThat(itemStore.delete("a")).isTrue();
+        assertThat(itemStore.delete("a")).isFalse();
+        assertThat(itemStore.findAll()).extracting(Item::id).containsExactly("b");
+    }
+
+    @Test
+    void upsertAllByName_insertsNewAndMergesExistingEntries() {
+        itemStore.insert(new Item("a", "Box", "old", 100));
+
+        var result = itemStore.upsertAllByName(
+                List.of(new Item("x", "Box", "new", 150), new Item("b", "Crate", null, 200)),
+                (existing, incoming) -> new Item(existing.id(), incoming.name(), incoming.description(),
+                        incoming.unitWeightGrams()));
+
+        assertThat(result.received()).isEqualTo(2);
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(itemStore.findAll()).containsExactly(
+                new Item("a", "Box", "new", 150),
+                new Item("b", "Crate", null, 200));
+    }
+
+    @Test
+    void upsertAllByName_whenManyEntries_storesAll() {
+        var items = new ArrayList<Item>();
+        for (int i = 0; i < 2_000; i++) {
+            items.add(new Item("id-" + i, "Item " + i, null, 100));
+        }
+
+        itemStore.upsertAllByName(items, (existing, incoming) -> existing);
+        var result = itemStore.upsertAllByName(items, (existing, incoming) -> existing);
+
+        assertThat(result.updated()).isEqualTo(2_000);
+        assertThat(itemStore.findAll()).hasSize(2_000);
+    }
+
+    @Test
+    void query_ordersByNameCaseInsensitivelyInBothDirections() {
+        itemStore.insert(new Item("1", "bravo", null, 100));
+        itemStore.insert(new Item("2", "Alpha", null, 100));
+        itemStore.insert(new Item("3", "Charlie", null, 100));
+        itemStore.insert(new Item("4", "alpha", null, 100));
+
+        assertThat(itemStore.query(new CatalogQuery(null, null, false, null, 10)))
+                .extracting(Item::name).containsExactly("Alpha", "alpha", "bravo", "Charlie");
+        assertThat(itemStore.query(new CatalogQuery(null, null, true, null, 10)))
+                .extracting(Item::name).containsExactly("Charlie", "bravo", "alpha", "Alpha");
+    }
+
+    @Test
+    void query_filtersByPrefixAndSubstring() {
+        itemStore.insert(new Item("1", "Box Small", null, 100));
+        itemStore.insert(new Item("2", "box large", null, 100));
+        itemStore.insert(new Item("3", "Crate large", null, 100));
+        itemStore.insert(new Item("4", "100% wool", null, 100));
+
+        assertThat(itemStore.query(new CatalogQuery("BOX", null, false, null, 10)))
+                .extracting(Item::id).containsExactly("2", "1");
+        assertThat(itemStore.query(new CatalogQuery(null, "LARGE", false, null, 10)))
+                .extracting(Item::id).containsExactly("2", "3");
+        assertThat(itemStore.query(new CatalogQuery("box", "small", false, null, 10)))
+                .extracting(Item::id).containsExactly("1");
+        assertThat(itemStore.query(new CatalogQuery("100%", null, false, null, 10)))
+                .extracting(Item::id).containsExactly("4");
+        assertThat(itemStore.query(new CatalogQuery("b_x", null, false, null, 10))).isEmpty();
+    }
+
+    @Test
+    void query_pagesThroughEveryEntryWithCursor() {
+        for (int i = 0; i < 57; i++) {
+            itemStore.insert(new Item("id-" + i, "Item " + i, null, 100));
+        }
+        var expected = itemStore.findAll().stream().map(Item::name)
+                .sorted(String.CASE_INSENSITIVE_ORDER.reversed()).toList();
+
+        var seen = new ArrayList<String>();
+        String after = null;
+        List<Item> page;
+        do {
+            page = itemStore.query(new CatalogQuery(null, null, true, after, 10));
+            page.forEach(item -> seen.add(item.name()));
+            after = page.isEmpty() ? null : page.get(page.size() - 1).name();
+        } while (page.size() == 10);
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void search_whenSubstringMatchesPastScanLimit_findsEveryMatchByResuming() {
+        var items = new ArrayList<Item>();
+        for (int i = 0; i < CatalogQuery.MAX_SCANNED + 100; i++) {
+            var suffix = i == 3 || i == CatalogQuery.MAX_SCANNED + 50 ? " needle" : "";
+            items.add(new Item("id-" + i, String.format("Item %05d%s", i, suffix), null, 100));
+        }
+        itemStore.upsertAllByName(items, (existing, incoming) -> incoming);
+
+        var seen = new ArrayList<String>();
+        String after = null;
+        CatalogQuery.Result<Item> result;
+        do {
+            result = itemStore.search(new CatalogQuery(null, "NEEDLE", false, after, 10));
+            result.entries().forEach(item -> seen.add(item.name()));
+            after = result.scannedTo();
+        } while (after != null);
+
+        assertThat(seen).containsExactly("Item 00003 needle", "Item 10050 needle");
+    }
+
+    @Test
+    void query_reflectsUpdatesAndDeletes() {
+        itemStore.insert(new Item("a", "Apple", null, 100));
+        itemStore.insert(new Item("b", "Banana", null, 100));
+        itemStore.insert(new Item("c", "Cherry", null, 100));
+        itemStore.query(new CatalogQuery(null, null, false, null, 10));
+
+        itemStore.update("a", existing -> new Item("a", "Zucchini", null, 100));
+        itemStore.delete("b");
+        itemStore.upsertAllByName(List.of(new Item("d", "Avocado", null, 100)), (existing, incoming) -> existing);
+
+        assertThat(itemStore.query(new CatalogQuery(null, null, false, null, 10)))
+                .extracting(Item::id).containsExactly("d", "c", "a");
+        assertThat(itemStore.query(new CatalogQuery(null, null, false, "Avocado", 1)))
+                .extracting(Item::id).containsExactly("c");
+    }
+
+    @Test
+    void insert_roundTripsEveryField() {
+        var packaging = new Packaging("p", "Satchel", "Small satchel", 10, 20, 30, 6000, 1.25, 7);
+        var item = new Item("i", "Widget", "Blue widget", 250, 3);
+
+        packagingStore.insert(packaging);
+        itemStore.insert(item);
+
+        assertThat(packagingStore.findAll()).containsExactly(packaging);
+        assertThat(itemStore.findAll()).containsExactly(item);
+    }
+
+    @Test
+    void insert_whenManyConcurrentWriters_persistsEveryEntry() {
+        int writers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            var futures = new ArrayList<CompletableFuture<Item>>();
+            for (int i = 0; i < writers; i++) {
+                var item = new Item("id-" + i, "Item " + i, null, 100 + i);
+                futures.add(CompletableFuture.supplyAsync(() -> itemStore.insert(item), pool));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(itemStore.findAll()).hasSize(writers);
+    }
+
+    @Test
+    void update_whenManyConcurrentIncrements_losesNone() {
+        itemStore.insert(new Item("a", "Counter", null, 1));
+        int threads = 8;
+        int incrementsPerThread = 25;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            var futures = new ArrayList<CompletableFuture<Void>>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < incrementsPerThread; i++) {
+                        itemStore.update("a", existing -> new Item(existing.id(), existing.name(),
+                                existing.description(), existing.unitWeightGrams() + 1));
+                    }
+                }, pool));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(itemStore.findById("a")).map(Item::unitWeightGrams).contains(1 + threads * incrementsPerThread);
+    }
+
+    @Test
+    void insert_whenConcurrentWritersRaceForOneName_exactlyOneWins() {
+        int writers = 12;
+        var winners = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            var futures = new ArrayList<CompletableFuture<Void>>();
+            for (int i = 0; i < writers; i++) {
+                var item = new Item("id-" + i, "Contended", null, 100);
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        itemStore.insert(item);
+                        winners.incrementAndGet();
+                    } catch (DuplicateNameException e) {
+                        // expected for every writer but one
+                    }
+                }, pool));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(winners.get()).isEqualTo(1);
+        assertThat(itemStore.findAll()).hasSize(1);
+    }
+
+    @Test
+    void updateAll_appliesUpdatesAndDeletesTogether() {
+        itemStore.insert(new Item("a", "Alpha", null, 100));
+        itemStore.insert(new Item("b", "Bravo", null, 200));
+        itemStore.insert(new Item("c", "Charlie", null, 300));
+
+        var changes = new LinkedHashMap<String, UnaryOperator<Item>>();
+        changes.put("c", existing -> new Item("c", "Charlie", "heavier", 350));
+        changes.put("a", existing -> null);
+        changes.put("missing", existing -> null);
+        var stored = itemStore.updateAll(changes);
+
+        assertThat(stored).containsExactly(Map.entry("c", new Item("c", "Charlie", "heavier", 350)));
+        assertThat(itemStore.findAll()).containsExactlyInAnyOrder(
+                new Item("b", "Bravo", null, 200),
+                new Item("c", "Charlie", "heavier", 350));
+    }
+
+    @Test
+    void updateAll_letsEntriesInTheBatchSwapNames() {
+        itemStore.insert(new Item("a", "Alpha", null, 100));
+        itemStore.insert(new Item("b", "Bravo", null, 200));
+
+        var changes = new LinkedHashMap<String, UnaryOperator<Item>>();
+        changes.put("a", existing -> new Item("a", "Bravo", null, 100));
+        changes.put("b", existing -> new Item("b", "Alpha", null, 200));
+        itemStore.updateAll(changes);
+
+        assertThat(itemStore.findById("a")).map(Item::name).contains("Bravo");
+        assertThat(itemStore.findById("b")).map(Item::name).contains("Alpha");
+        assertThat(itemStore.query(new CatalogQuery("alpha", null, false, null, 10)))
+                .extracting(Item::id).containsExactly("b");
+    }
+
+    @Test
+    void updateAll_whenNameClashesWithUntouchedEntry_storesNothing() {
+        itemStore.insert(new Item("a", "Alpha", null, 100));
+        itemStore.insert(new Item("b", "Bravo", null, 200));
+        itemStore.insert(new Item("c", "Charlie", null, 300));
+
+        var changes = new LinkedHashMap<String, UnaryOperator<Item>>();
+        changes.put("a", existing -> null);
+        changes.put("b", existing -> new Item("b", "Charlie", null, 200));
+
+        assertThatThrownBy(() -> itemStore.updateAll(changes)).isInstanceOf(DuplicateNameException.class);
+        assertThat(itemStore.findAll()).extracting(Item::id).containsExactlyInAnyOrder("a", "b", "c");
+        assertThat(itemStore.findById("b")).map(Item::name).contains("Bravo");
+    }
+
+    @Test
+    void updateAll_whenAnyChangeThrows_storesNothing() {
+        itemStore.insert(new Item("a", "Alpha", null, 100));
+        itemStore.insert(new Item("b", "Bravo", null, 200));
+
+        var changes = new LinkedHashMap<String, UnaryOperator<Item>>();
+        changes.put("a", existing -> new Item("a", "Alpha", "changed", 100));
+        changes.put("b", existing -> {
+            throw new IllegalStateException("rejected");
+        });
+
+        assertThatThrownBy(() -> itemStore.updateAll(changes)).hasMessage("rejected");
+        assertThat(itemStore.findById("a")).contains(new Item("a", "Alpha", null, 100));
+    }
+
+    @Test
+    void version_changesOnEachWriteAndStaysStableBetweenWrites() {
+        var empty = itemStore.version();
+        assertThat(itemStore.version()).isEqualTo(empty);
+
+        itemStore.insert(new Item("a", "Box", null, 100));
+        var inserted = itemStore.version();
+        itemStore.update("a", existing -> new Item("a", "Box", "described", 100));
+        var updated = itemStore.version();
+        itemStore.delete("a");
+        var deleted = itemStore.version();
+
+        assertThat(List.of(empty, inserted, updated, deleted)).doesNotHaveDuplicates();
+        assertThat(itemStore.version()).isEqualTo(deleted);
+        assertThat(packagingStore.version()).isEqualTo(packagingStore.version());
+    }
+
+    @Test
+    void settings_versionChangesOnUpdate() {
+        var before = settingsStore.version();
+
+        settingsStore.update(current -> new OriginSettings("2000", "Sydney", "NSW", "AU", null, null));
+
+        assertThat(settingsStore.version()).isNotEqualTo(before);
+        assertThat(settingsStore.version()).isEqualTo(settingsStore.version());
+    }
+
+    @Test
+    void settings_loadWhenNothingSaved_returnsEmpty() {
+        assertThat(settingsStore.load()).isEmpty();
+    }
+
+    @Test
+    void settings_updatePassesCurrentValueAndPersistsResult() {
+        var updatedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        var first = new OriginSettings("3000", "Melbourne", "VIC", "AU", null, updatedAt);
+
+        settingsStore.update(current -> {
+            assertThat(current).isNull();
+            return first;
+        });
+        var second = settingsStore.update(current -> new OriginSettings(
+                current.postcode(), current.suburb(), current.state(), current.country(), "dark", updatedAt));
+
+        assertThat(second.postcode()).isEqualTo("3000");
+        assertThat(settingsStore.load()).contains(second);
+    }
+
+    @Test
+    void reopen_seesPreviouslyWrittenData() {
+        itemStore.insert(new Item("a", "Box", null, 100));
+        settingsStore.update(current -> new OriginSettings("2000", null, null, null, "light", null));
+        closeStores();
+
+        assertThat(itemStore(tempDir).findAll()).containsExactly(new Item("a", "Box", null, 100));
+        assertThat(settingsStore(tempDir).load()).map(OriginSettings::themePreference).contains("light");
+    }
+}
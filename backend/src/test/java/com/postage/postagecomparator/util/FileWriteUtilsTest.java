@@ -2,6 +2,8 @@ package com.postage.postagecomparator.util;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.slf4j.Logger;
 
 import java.io.IOException;
@@ -83,5 +85,23 @@ class FileWriteUtilsTest {
         verifyNoMoreInteractions(log);
         assertThat(Files.exists(target)).isTrue();
     }
-}
 
+    @ParameterizedTest
+    @EnumSource(FileWriteUtils.Durability.class)
+    void safeWrite_withEachDurabilityMode_writesContent(FileWriteUtils.Durability durability) throws IOException {
+        Path target = tempDir.resolve("durable/items.json");
+
+        FileWriteUtils.safeWrite(target, path -> {
+            try {
+                Files.writeString(path, durability.name());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, durability, null);
+
+        assertThat(Files.readString(target)).isEqualTo(durability.name());
+        try (var leftovers = Files.list(target.getParent())) {
+            assertThat(leftovers).containsExactly(target);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.postage.postagecomparator.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GroupCommitWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    private List<String> read(Path path) {
+        try {
+            if (!Files.exists(path)) {
+                return new ArrayList<>();
+            }
+            var content = Files.readString(path);
+            return content.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(content.split("\n")));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(Path temp, List<String> values) {
+        writes.incrementAndGet();
+        try {
+            Files.writeString(temp, String.join("\n", values));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private GroupCommitWriter<String> newWriter(Duration maxDelay, int maxBatchSize) {
+        return new GroupCommitWriter<>(this::read, this::write, maxDelay, maxBatchSize,
+                FileWriteUtils.Durability.NONE, null);
+    }
+
+    @Test
+    void execute_appliesMutationAndReturnsResult() {
+        var target = tempDir.resolve("values.txt");
+        var writer = newWriter(Duration.ZERO, 16);
+
+        var size = writer.execute(target, values -> {
+            values.add("a");
+            return values.size();
+        });
+
+        assertThat(size).isEqualTo(1);
+        assertThat(read(target)).containsExactly("a");
+    }
+
+    @Test
+    void submit_whenManyConcurrentWriters_batchesIntoFewerWritesWithoutLosingUpdates() throws Exception {
+        var target = tempDir.resolve("values.txt");
+        var writer = newWriter(Duration.ofMillis(20), 64);
+        int writers = 32;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        var start = new CountDownLatch(1);
+        try {
+            var futures = new ArrayList<CompletableFuture<Boolean>>();
+            for (int i = 0; i < writers; i++) {
+                var value = "v" + i;
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return writer.execute(target, values -> values.add(value));
+                }, pool));
+            }
+            start.countDown();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(read(target)).hasSize(writers);
+        assertThat(writes.get()).isLessThan(writers);
+    }
+
+    @Test
+    void submit_whenOneMutationFails_onlyThatWaiterFails() {
+        var target = tempDir.resolve("values.txt");
+        var writer = newWriter(Duration.ZERO, 16);
+        writer.execute(target, values -> values.add("a"));
+
+        assertThatThrownBy(() -> writer.execute(target, values -> {
+            throw new IllegalArgumentException("duplicate");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("duplicate");
+
+        writer.execute(target, values -> values.add("b"));
+        assertThat(read(target)).containsExactly("a", "b");
+    }
+
+    @Test
+    void submit_whenWriteFails_failsEveryWaiterInTheBatch() {
+        var target = tempDir.resolve("values.txt");
+        var writer = new GroupCommitWriter<String>(this::read, (temp, values) -> {
+            throw new IllegalStateException("disk full");
+        }, Duration.ZERO, 16, FileWriteUtils.Durability.NONE, null);
+
+        assertThatThrownBy(() -> writer.execute(target, values -> values.add("a")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("disk full");
+        assertThat(Files.exists(target)).isFalse();
+    }
+
+    @Test
+    void submit_whenMutationThrowsError_failsEveryWaiterInTheBatch() throws Exception {
+        var target = tempDir.resolve("values.txt");
+        var writer = newWriter(Duration.ofSeconds(5), 2);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            var failing = CompletableFuture.supplyAsync(() -> writer.execute(target, values -> {
+                throw new Error("boom");
+            }), pool);
+            var healthy = CompletableFuture.supplyAsync(() -> writer.execute(target, values -> values.add("a")), pool);
+
+            for (var future : List.of(failing, healthy)) {
+                assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasRootCauseMessage("boom");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(Files.exists(target)).isFalse();
+    }
+
+    @Test
+    void submit_whenMoreMutationsQueueBehindLeader_leaderCommitsOnlyOneBatch() throws Exception {
+        var target = tempDir.resolve("values.txt");
+        var writer = newWriter(Duration.ZERO, 1);
+        var leaderBusy = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var committers = new ConcurrentHashMap<String, String>();
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            var leader = CompletableFuture.runAsync(() -> writer.execute(target, values -> {
+                committers.put("leader", Thread.currentThread().getName());
+                leaderBusy.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return values.add("leader");
+            }), pool);
+            leaderBusy.await();
+            var followers = new ArrayList<CompletableFuture<Void>>();
+            for (var value : List.of("b", "c")) {
+                followers.add(CompletableFuture.runAsync(() -> writer.execute(target, values -> {
+                    committers.put(value, Thread.currentThread().getName());
+                    return values.add(value);
+                }), pool));
+            }
+            var queued = (AtomicInteger) ReflectionTestUtils.getField(writer, "queued");
+            while (queued.get() < 2) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            CompletableFuture.allOf(leader, followers.get(0), followers.get(1)).get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(read(target)).containsExactlyInAnyOrder("leader", "b", "c");
+        assertThat(committers.get("b")).isNotEqualTo(committers.get("leader"));
+        assertThat(committers.get("c")).isNotEqualTo(committers.get("leader"));
+    }
+
+    @Test
+    void constructor_whenBatchSizeNotPositive_throwsIllegalArgumentException() {
+        assertThatThrownBy(() -> newWriter(Duration.ZERO, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maxBatchSize");
+    }
+}